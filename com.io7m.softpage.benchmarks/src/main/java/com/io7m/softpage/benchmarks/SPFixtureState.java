@@ -0,0 +1,209 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.benchmarks;
+
+import com.io7m.softpage.tests.SPFixtureGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * A project fixture shared by every invocation of a benchmark. Fixtures are
+ * produced by the test suite's fixture generator.
+ */
+
+@State(Scope.Benchmark)
+public class SPFixtureState
+{
+  /**
+   * The fixture size.
+   */
+
+  @Param({"SMALL", "MEDIUM", "LARGE"})
+  public Size size;
+
+  private Path root;
+  private Path project;
+
+  /**
+   * A project fixture shared by every invocation of a benchmark.
+   */
+
+  public SPFixtureState()
+  {
+
+  }
+
+  /**
+   * The fixture sizes.
+   */
+
+  public enum Size
+  {
+    /**
+     * A small project, similar to a typical single-purpose library.
+     */
+
+    SMALL(4, 10, 4, 5_000, 8, 4096),
+
+    /**
+     * A medium project, similar to the larger io7m projects.
+     */
+
+    MEDIUM(40, 200, 10, 50_000, 64, 16384),
+
+    /**
+     * A large project, with 10,000 changes.
+     */
+
+    LARGE(400, 2000, 5, 500_000, 512, 65536);
+
+    private final int modules;
+    private final int releases;
+    private final int changesPerRelease;
+    private final int readmeSize;
+    private final int resources;
+    private final int resourceSize;
+
+    Size(
+      final int inModules,
+      final int inReleases,
+      final int inChangesPerRelease,
+      final int inReadmeSize,
+      final int inResources,
+      final int inResourceSize)
+    {
+      this.modules = inModules;
+      this.releases = inReleases;
+      this.changesPerRelease = inChangesPerRelease;
+      this.readmeSize = inReadmeSize;
+      this.resources = inResources;
+      this.resourceSize = inResourceSize;
+    }
+
+    /**
+     * @return A fixture generator configured for this size
+     */
+
+    public SPFixtureGenerator generator()
+    {
+      return SPFixtureGenerator.create()
+        .setModules(this.modules)
+        .setReleases(this.releases)
+        .setChangesPerRelease(this.changesPerRelease)
+        .setReadmeSize(this.readmeSize)
+        .setResources(this.resources, this.resourceSize);
+    }
+  }
+
+  /**
+   * Generate the fixture.
+   *
+   * @throws IOException On errors
+   */
+
+  @Setup(Level.Trial)
+  public void setup()
+    throws IOException
+  {
+    this.root = Files.createTempDirectory("softpage-benchmark-");
+    this.project =
+      this.size.generator()
+        .generate(this.root.resolve("project"));
+  }
+
+  /**
+   * Delete the fixture.
+   *
+   * @throws IOException On errors
+   */
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+    throws IOException
+  {
+    delete(this.root);
+  }
+
+  /**
+   * @return The project directory
+   */
+
+  public Path project()
+  {
+    return this.project;
+  }
+
+  /**
+   * @return A scratch directory alongside the project
+   */
+
+  public Path scratch()
+  {
+    return this.root;
+  }
+
+  /**
+   * Delete a directory tree.
+   *
+   * @param directory The directory
+   *
+   * @throws IOException On errors
+   */
+
+  public static void delete(
+    final Path directory)
+    throws IOException
+  {
+    if (!Files.exists(directory)) {
+      return;
+    }
+
+    Files.walkFileTree(directory, new SimpleFileVisitor<>()
+    {
+      @Override
+      public FileVisitResult visitFile(
+        final Path file,
+        final BasicFileAttributes attrs)
+        throws IOException
+      {
+        Files.delete(file);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult postVisitDirectory(
+        final Path dir,
+        final IOException exc)
+        throws IOException
+      {
+        Files.delete(dir);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.benchmarks;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.internal.SPChangelog;
+import com.io7m.softpage.core.internal.SPChangelogReader;
+import com.io7m.softpage.core.internal.SPSiteConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the input loading phases of an export: the site
+ * configuration and the changelog.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPInputBenchmark
+{
+  /**
+   * Benchmarks for the input loading phases of an export.
+   */
+
+  public SPInputBenchmark()
+  {
+
+  }
+
+  /**
+   * Load the site configuration.
+   *
+   * @param state The fixture
+   *
+   * @return The configuration
+   *
+   * @throws SPException On errors
+   */
+
+  @Benchmark
+  public SPSiteConfiguration configuration(
+    final SPFixtureState state)
+    throws SPException
+  {
+    return SPSiteConfiguration.load(
+      state.project()
+        .resolve("src")
+        .resolve("site")
+        .resolve("resources")
+        .resolve("softpage.properties"),
+      SPSiteConfiguration.defaults()
+    );
+  }
+
+  /**
+   * Parse the changelog.
+   *
+   * @param state The fixture
+   *
+   * @return The changelog
+   *
+   * @throws SPException On errors
+   */
+
+  @Benchmark
+  public SPChangelog changelog(
+    final SPFixtureState state)
+    throws SPException
+  {
+    return SPChangelogReader.read(
+      state.project().resolve("README-CHANGES.xml"),
+      Integer.MAX_VALUE
+    );
+  }
+
+  /**
+   * Parse the changelog, retaining only the newest page of releases.
+   *
+   * @param state The fixture
+   *
+   * @return The changelog
+   *
+   * @throws SPException On errors
+   */
+
+  @Benchmark
+  public SPChangelog changelogLimited(
+    final SPFixtureState state)
+    throws SPException
+  {
+    return SPChangelogReader.read(
+      state.project().resolve("README-CHANGES.xml"),
+      20
+    );
+  }
+}
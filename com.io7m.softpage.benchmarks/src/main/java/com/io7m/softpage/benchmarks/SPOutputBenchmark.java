@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.benchmarks;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
+import com.io7m.softpage.core.internal.SPFingerprintRecorder;
+import com.io7m.softpage.core.internal.SPResourceSync;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the output phases of an export: copying site resources,
+ * and complete exports. Each invocation writes into an empty output
+ * directory.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPOutputBenchmark
+{
+  private static final int PARALLELISM =
+    Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  /**
+   * Benchmarks for the output phases of an export.
+   */
+
+  public SPOutputBenchmark()
+  {
+
+  }
+
+  /**
+   * An empty output directory, created for each invocation.
+   */
+
+  @State(Scope.Thread)
+  public static class Output
+  {
+    private Path directory;
+
+    /**
+     * An empty output directory.
+     */
+
+    public Output()
+    {
+
+    }
+
+    /**
+     * Create the directory.
+     *
+     * @param fixture The fixture
+     *
+     * @throws IOException On errors
+     */
+
+    @Setup(Level.Invocation)
+    public void setup(
+      final SPFixtureState fixture)
+      throws IOException
+    {
+      this.directory =
+        Files.createTempDirectory(fixture.scratch(), "output-");
+    }
+
+    /**
+     * Delete the directory.
+     *
+     * @throws IOException On errors
+     */
+
+    @TearDown(Level.Invocation)
+    public void tearDown()
+      throws IOException
+    {
+      SPFixtureState.delete(this.directory);
+    }
+  }
+
+  /**
+   * Copy the site resources into an empty directory.
+   *
+   * @param state  The fixture
+   * @param output The output directory
+   *
+   * @return The copy statistics
+   *
+   * @throws SPException On errors
+   */
+
+  @Benchmark
+  public SPResourceSync.Result resources(
+    final SPFixtureState state,
+    final Output output)
+    throws SPException
+  {
+    final var project = state.project();
+    return new SPResourceSync(
+      project.resolve("src").resolve("site").resolve("resources"),
+      output.directory,
+      PARALLELISM,
+      false,
+      Optional.empty(),
+      new SPFingerprintRecorder(false, project)
+    ).execute();
+  }
+
+  /**
+   * Export the complete site into an empty directory.
+   *
+   * @param state  The fixture
+   * @param output The output directory
+   *
+   * @throws SPException On errors
+   */
+
+  @Benchmark
+  public void export(
+    final SPFixtureState state,
+    final Output output)
+    throws SPException
+  {
+    SPSites.builder(state.project(), output.directory)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build()
+      .export();
+  }
+}
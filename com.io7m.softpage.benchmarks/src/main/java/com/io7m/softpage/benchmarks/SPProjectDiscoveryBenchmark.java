@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.benchmarks;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.internal.SPFingerprintRecorder;
+import com.io7m.softpage.core.internal.SPGradleSettings;
+import com.io7m.softpage.core.internal.SPPOMExtractor;
+import com.io7m.softpage.core.internal.SPPOMParents;
+import com.io7m.softpage.core.internal.SPPOMSummary;
+import io.fabric8.maven.Maven;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for project discovery: reading the root POM and every module
+ * POM, resolving inherited fields, and scanning Gradle settings scripts.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPProjectDiscoveryBenchmark
+{
+  /**
+   * Benchmarks for project discovery.
+   */
+
+  public SPProjectDiscoveryBenchmark()
+  {
+
+  }
+
+  /**
+   * The inputs to project discovery.
+   */
+
+  @State(Scope.Benchmark)
+  public static class Inputs
+  {
+    private String gradleSettings;
+
+    /**
+     * The inputs to project discovery.
+     */
+
+    public Inputs()
+    {
+
+    }
+
+    /**
+     * Produce the inputs.
+     *
+     * @param fixture The fixture
+     */
+
+    @Setup(Level.Trial)
+    public void setup(
+      final SPFixtureState fixture)
+    {
+      this.gradleSettings = fixture.size.generator().gradleSettings();
+    }
+  }
+
+  /**
+   * Read the root POM and every module POM.
+   *
+   * @param state The fixture
+   * @param sink  The sink
+   *
+   * @throws SPException On errors
+   */
+
+  @Benchmark
+  public void pom(
+    final SPFixtureState state,
+    final Blackhole sink)
+    throws SPException
+  {
+    final var project = state.project();
+    final var file = project.resolve("pom.xml");
+    final var recorder = new SPFingerprintRecorder(false, project);
+    final var root = SPPOMExtractor.extractProject(file);
+
+    final var resolved =
+      SPPOMParents.create()
+        .resolve(project, file, root, List.of(), recorder);
+    sink.consume(resolved);
+
+    for (final var module : root.modules()) {
+      sink.consume(
+        SPPOMExtractor.extractArtifactId(
+          project.resolve(module).resolve("pom.xml"))
+      );
+    }
+  }
+
+  /**
+   * Read the root POM and every module POM with the full Maven model reader,
+   * as a baseline for {@link #pom(SPFixtureState, Blackhole)}.
+   *
+   * @param state The fixture
+   * @param sink  The sink
+   */
+
+  @Benchmark
+  public void pomModel(
+    final SPFixtureState state,
+    final Blackhole sink)
+  {
+    final var project = state.project();
+    final var root =
+      SPPOMExtractor.ofModel(Maven.readModel(project.resolve("pom.xml")));
+    sink.consume(root);
+
+    for (final var module : root.modules()) {
+      sink.consume(
+        Maven.readModel(project.resolve(module).resolve("pom.xml"))
+          .getArtifactId()
+      );
+    }
+  }
+
+  /**
+   * Read and resolve a single module POM against its parent.
+   *
+   * @param state The fixture
+   *
+   * @return The resolved POM
+   *
+   * @throws SPException On errors
+   */
+
+  @Benchmark
+  public SPPOMSummary pomParentResolution(
+    final SPFixtureState state)
+    throws SPException
+  {
+    final var project = state.project();
+    final var file =
+      project.resolve("com.io7m.example.m0000").resolve("pom.xml");
+    final var recorder =
+      new SPFingerprintRecorder(false, project);
+
+    return SPPOMParents.create()
+      .resolve(
+        project,
+        file,
+        SPPOMExtractor.extractProject(file),
+        List.of(),
+        recorder
+      );
+  }
+
+  /**
+   * Scan a Gradle settings script and locate each included project.
+   *
+   * @param state  The fixture
+   * @param inputs The inputs
+   * @param sink   The sink
+   */
+
+  @Benchmark
+  public void gradleSettings(
+    final SPFixtureState state,
+    final Inputs inputs,
+    final Blackhole sink)
+  {
+    final var root = Path.of("project");
+    for (final var included :
+      SPGradleSettings.includedProjects(inputs.gradleSettings)) {
+      sink.consume(SPGradleSettings.projectDirectory(root, included));
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.benchmarks;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.internal.SPChangelog;
+import com.io7m.softpage.core.internal.SPChangelogReader;
+import com.io7m.softpage.core.internal.SPDataList;
+import com.io7m.softpage.core.internal.SPDataMap;
+import com.io7m.softpage.core.internal.SPMarkdown;
+import com.io7m.softpage.core.internal.SPReleaseModels;
+import com.io7m.softpage.core.internal.SPTemplates;
+import freemarker.template.SimpleScalar;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the rendering phases of an export: README Markdown and the
+ * page templates.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPRenderBenchmark
+{
+  /**
+   * Benchmarks for the rendering phases of an export.
+   */
+
+  public SPRenderBenchmark()
+  {
+
+  }
+
+  /**
+   * The inputs to rendering, loaded once per trial.
+   */
+
+  @State(Scope.Benchmark)
+  public static class Inputs
+  {
+    private SPMarkdown markdown;
+    private String readme;
+    private Template template;
+    private PageData pageData;
+
+    /**
+     * The inputs to rendering.
+     */
+
+    public Inputs()
+    {
+
+    }
+
+    /**
+     * Load the inputs.
+     *
+     * @param fixture The fixture
+     *
+     * @throws IOException On errors
+     * @throws SPException On errors
+     */
+
+    @Setup(Level.Trial)
+    public void setup(
+      final SPFixtureState fixture)
+      throws IOException, SPException
+    {
+      final var project = fixture.project();
+      this.markdown = SPMarkdown.create();
+      this.readme = Files.readString(project.resolve("README.in"));
+      this.template = SPTemplates.create().template("main.ftlx");
+      this.pageData = new PageData(
+        SPChangelogReader.read(
+          project.resolve("README-CHANGES.xml"),
+          Integer.MAX_VALUE
+        ),
+        this.markdown.render(this.readme).html()
+      );
+    }
+  }
+
+  /**
+   * Render the README.
+   *
+   * @param inputs The inputs
+   *
+   * @return The HTML
+   */
+
+  @Benchmark
+  public String markdown(
+    final Inputs inputs)
+  {
+    return inputs.markdown.render(inputs.readme).html();
+  }
+
+  /**
+   * Build the page data and render the index page.
+   *
+   * @param inputs The inputs
+   *
+   * @return The size of the page
+   *
+   * @throws IOException       On errors
+   * @throws TemplateException On errors
+   */
+
+  @Benchmark
+  public int template(
+    final Inputs inputs)
+    throws IOException, TemplateException
+  {
+    final var writer = new StringWriter(65536);
+    inputs.template.process(inputs.pageData.build(), writer);
+    return writer.getBuffer().length();
+  }
+
+  /**
+   * The page data for a changelog, built in the same shape as the data that
+   * a site export passes to the index template.
+   *
+   * @param changelog The changelog
+   * @param readme    The rendered README
+   */
+
+  private record PageData(
+    SPChangelog changelog,
+    String readme)
+  {
+    SPDataMap build()
+    {
+      final var project = new SPDataMap();
+      project.put("Name", new SimpleScalar("com.io7m.example"));
+      project.put("Description", new SimpleScalar("An example project."));
+      project.put("ArtifactID", new SimpleScalar("com.io7m.example"));
+      project.put("Version", new SimpleScalar("1.0.0"));
+      project.put("GroupID", new SimpleScalar("com.io7m.example"));
+      project.put(
+        "GitHubRepos",
+        new SimpleScalar("https://www.github.com/io7m-com/example"));
+      project.put("ShortName", new SimpleScalar("example"));
+      project.put("GitHubPath", new SimpleScalar("io7m-com/example"));
+      project.put(
+        "IssueURL",
+        new SimpleScalar("https://www.github.com/io7m-com/example/issues"));
+      project.put("LicenseText", new SimpleScalar("ISC License"));
+      project.put("ReadmeMarkdownHTML", new SimpleScalar(this.readme));
+      project.put("Modules", new SPDataList());
+
+      final var shields = new SPDataList();
+      shields.add(new SimpleScalar("SHIELD_BUILD_STATUS"));
+
+      final var data = new SPDataMap();
+      data.put("ArchivePages", new SPDataList());
+      data.put("LastUpdated", new SimpleScalar("2025-01-01T00:00:00Z"));
+      data.put("Project", project);
+      data.put("ReleaseSource", new SimpleScalar("MAVEN_CENTRAL"));
+      data.put(
+        "Releases",
+        SPDataList.of(SPReleaseModels.releases(this.changelog)));
+      data.put("Shields", shields);
+      return data;
+    }
+  }
+}
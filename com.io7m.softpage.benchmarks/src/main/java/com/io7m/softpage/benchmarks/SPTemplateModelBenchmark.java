@@ -0,0 +1,316 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.benchmarks;
+
+import com.io7m.softpage.core.internal.SPChange;
+import com.io7m.softpage.core.internal.SPChangelog;
+import com.io7m.softpage.core.internal.SPDataList;
+import com.io7m.softpage.core.internal.SPDataMap;
+import com.io7m.softpage.core.internal.SPRelease;
+import com.io7m.softpage.core.internal.SPReleaseModels;
+import com.io7m.verona.core.Version;
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateSequenceModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.format.DateTimeFormatter.ISO_DATE;
+
+/**
+ * Allocation and lookup benchmarks comparing the array-backed release
+ * records with the equivalent tree-backed {@link SPDataMap} and
+ * {@link SPDataList} models, on a changelog with 10,000 changes. Run with
+ * {@code -prof gc} to see allocation rates.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SPTemplateModelBenchmark
+{
+  private static final int RELEASES = 2000;
+  private static final int CHANGES_PER_RELEASE = 5;
+
+  /**
+   * Allocation and lookup benchmarks for template models.
+   */
+
+  public SPTemplateModelBenchmark()
+  {
+
+  }
+
+  /**
+   * A changelog, and both forms of model built from it.
+   */
+
+  @State(Scope.Benchmark)
+  public static class Models
+  {
+    private SPChangelog changelog;
+    private List<TemplateModel> records;
+    private List<TemplateModel> maps;
+
+    /**
+     * A changelog, and both forms of model built from it.
+     */
+
+    public Models()
+    {
+
+    }
+
+    /**
+     * Build the changelog and models.
+     */
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+      final var epoch =
+        OffsetDateTime.of(2010, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+      final var releases = new ArrayList<SPRelease>(RELEASES);
+
+      for (int release = RELEASES - 1; release >= 0; --release) {
+        final var date = epoch.plusDays(release);
+        final var changes = new ArrayList<SPChange>(CHANGES_PER_RELEASE);
+        for (int change = 0; change < CHANGES_PER_RELEASE; ++change) {
+          changes.add(new SPChange(
+            date,
+            "Change %d.%d".formatted(
+              Integer.valueOf(release), Integer.valueOf(change)),
+            change % 2 == 0 ? List.of(Integer.toString(release)) : List.of(),
+            change != 0
+          ));
+        }
+        releases.add(new SPRelease(
+          Version.of(release / 100, release % 100, 0),
+          date,
+          false,
+          changes
+        ));
+      }
+
+      this.changelog = new SPChangelog(
+        releases,
+        RELEASES,
+        Optional.of(releases.getFirst().version()),
+        Optional.of(releases.getFirst().date())
+      );
+      this.records = SPReleaseModels.releases(this.changelog);
+      this.maps = buildMaps(this.changelog);
+    }
+  }
+
+  /**
+   * Build the release models as records.
+   *
+   * @param models The models
+   *
+   * @return The release models
+   */
+
+  @Benchmark
+  public List<TemplateModel> buildRecords(
+    final Models models)
+  {
+    return SPReleaseModels.releases(models.changelog);
+  }
+
+  /**
+   * Build the release models as tree-backed maps.
+   *
+   * @param models The models
+   *
+   * @return The release models
+   */
+
+  @Benchmark
+  public List<TemplateModel> buildMaps(
+    final Models models)
+  {
+    return buildMaps(models.changelog);
+  }
+
+  /**
+   * Visit every value of the release records, as the index template does.
+   *
+   * @param models The models
+   * @param sink   The sink
+   *
+   * @throws TemplateModelException On errors
+   */
+
+  @Benchmark
+  public void lookupRecords(
+    final Models models,
+    final Blackhole sink)
+    throws TemplateModelException
+  {
+    visit(models.records, sink);
+  }
+
+  /**
+   * Visit every value of the release maps, as the index template does.
+   *
+   * @param models The models
+   * @param sink   The sink
+   *
+   * @throws TemplateModelException On errors
+   */
+
+  @Benchmark
+  public void lookupMaps(
+    final Models models,
+    final Blackhole sink)
+    throws TemplateModelException
+  {
+    visit(models.maps, sink);
+  }
+
+  /**
+   * Build the release records and visit every value once, which is the
+   * cost that a single page render actually pays.
+   *
+   * @param models The models
+   * @param sink   The sink
+   *
+   * @throws TemplateModelException On errors
+   */
+
+  @Benchmark
+  public void buildAndLookupRecords(
+    final Models models,
+    final Blackhole sink)
+    throws TemplateModelException
+  {
+    visit(SPReleaseModels.releases(models.changelog), sink);
+  }
+
+  /**
+   * Build the release maps and visit every value once.
+   *
+   * @param models The models
+   * @param sink   The sink
+   *
+   * @throws TemplateModelException On errors
+   */
+
+  @Benchmark
+  public void buildAndLookupMaps(
+    final Models models,
+    final Blackhole sink)
+    throws TemplateModelException
+  {
+    visit(buildMaps(models.changelog), sink);
+  }
+
+  private static void visit(
+    final List<TemplateModel> releases,
+    final Blackhole sink)
+    throws TemplateModelException
+  {
+    for (final var release : releases) {
+      final var releaseHash = (TemplateHashModel) release;
+      sink.consume(releaseHash.get("Version"));
+      sink.consume(releaseHash.get("Date"));
+
+      final var changes =
+        (TemplateSequenceModel) releaseHash.get("Changes");
+      final var size = changes.size();
+      for (int index = 0; index < size; ++index) {
+        final var change = (TemplateHashModel) changes.get(index);
+        sink.consume(change.get("Date"));
+        sink.consume(change.get("Summary"));
+      }
+    }
+  }
+
+  /**
+   * Build release models in the eager, tree-backed form that preceded the
+   * record layouts.
+   */
+
+  private static List<TemplateModel> buildMaps(
+    final SPChangelog changelog)
+  {
+    final var releases =
+      new ArrayList<TemplateModel>(changelog.releases().size());
+
+    for (final var releaseData : changelog.releases()) {
+      final var changesModel = new SPDataList();
+      final var releaseModel = new SPDataMap();
+      releaseModel.put(
+        "Version",
+        new SimpleScalar(releaseData.version().toString())
+      );
+      releaseModel.put(
+        "Date",
+        new SimpleScalar(ISO_DATE.format(releaseData.date()))
+      );
+
+      for (final var changeData : releaseData.changes()) {
+        final var text = new StringBuilder();
+        text.append(changeData.summary());
+
+        final var tickets = changeData.tickets();
+        if (!tickets.isEmpty()) {
+          text.append("(Tickets ");
+          text.append(String.join(", ", tickets));
+          text.append(")");
+        }
+
+        if (!changeData.compatible()) {
+          text.append(" (Backwards incompatible)");
+        }
+
+        final var changeModel = new SPDataMap();
+        changeModel.put("Summary", new SimpleScalar(text.toString()));
+        changeModel.put(
+          "Date",
+          new SimpleScalar(ISO_DATE.format(changeData.date()))
+        );
+        changesModel.add(changeModel);
+      }
+      releaseModel.put("Changes", changesModel);
+      releases.add(releaseModel);
+    }
+    return releases;
+  }
+}
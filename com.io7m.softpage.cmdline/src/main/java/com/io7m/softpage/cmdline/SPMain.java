@@ -20,8 +20,12 @@ package com.io7m.softpage.cmdline;
 import com.io7m.quarrel.core.QApplication;
 import com.io7m.quarrel.core.QApplicationMetadata;
 import com.io7m.quarrel.core.QApplicationType;
+import com.io7m.quarrel.core.QValueConverterDirectory;
+import com.io7m.quarrel.core.converters.QVCEnum;
 import com.io7m.softpage.cmdline.internal.SPCmdGenerate;
 import com.io7m.softpage.cmdline.internal.SPCmdPublish;
+import com.io7m.softpage.cmdline.internal.SPCmdServe;
+import com.io7m.softpage.core.SPTimestampSource;
 import com.io7m.softpage.core.SPVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -68,8 +72,15 @@ public final class SPMain implements Runnable
 
     final var builder = QApplication.builder(metadata);
     builder.allowAtSyntax(true);
+    builder.setValueConverters(
+      QValueConverterDirectory.core()
+        .with(
+          SPTimestampSource.class,
+          new QVCEnum<>(SPTimestampSource.class))
+    );
     builder.addCommand(new SPCmdGenerate());
     builder.addCommand(new SPCmdPublish());
+    builder.addCommand(new SPCmdServe());
 
     this.application = builder.build();
     this.exitCode = 0;
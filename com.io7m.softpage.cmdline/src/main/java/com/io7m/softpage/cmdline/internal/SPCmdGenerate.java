@@ -20,16 +20,30 @@ package com.io7m.softpage.cmdline.internal;
 import com.io7m.quarrel.core.QCommandContextType;
 import com.io7m.quarrel.core.QCommandMetadata;
 import com.io7m.quarrel.core.QCommandStatus;
+import com.io7m.quarrel.core.QParameterNamed01;
+import com.io7m.quarrel.core.QParameterNamed0N;
 import com.io7m.quarrel.core.QParameterNamed1;
 import com.io7m.quarrel.core.QParameterNamedType;
 import com.io7m.quarrel.core.QStringType;
 import com.io7m.quarrel.ext.logback.QLogback;
+import com.io7m.softpage.core.SPArchiveFormat;
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPOutputs;
+import com.io7m.softpage.core.SPSiteBuilderType;
 import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
 
+import java.io.BufferedOutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
 /**
  * Generate a site.
  */
@@ -45,8 +59,8 @@ public final class SPCmdGenerate extends SPCmd
       Path.class
     );
 
-  private static final QParameterNamed1<Path> OUTPUT_DIRECTORY =
-    new QParameterNamed1<>(
+  private static final QParameterNamed01<Path> OUTPUT_DIRECTORY =
+    new QParameterNamed01<>(
       "--output-directory",
       List.of(),
       new QStringType.QConstant("The output directory."),
@@ -54,6 +68,108 @@ public final class SPCmdGenerate extends SPCmd
       Path.class
     );
 
+  private static final QParameterNamed01<Path> ARCHIVE =
+    new QParameterNamed01<>(
+      "--archive",
+      List.of(),
+      new QStringType.QConstant(
+        "Write the site to a .tar, .tar.gz, .tgz, or .zip archive instead of "
+        + "an output directory."),
+      Optional.empty(),
+      Path.class
+    );
+
+  private static final QParameterNamed1<Boolean> INCREMENTAL =
+    new QParameterNamed1<>(
+      "--incremental",
+      List.of(),
+      new QStringType.QConstant(
+        "Skip rendering if the inputs are unchanged since the last export."),
+      Optional.of(Boolean.FALSE),
+      Boolean.class
+    );
+
+  private static final QParameterNamed0N<Path> MAVEN_REPOSITORY =
+    new QParameterNamed0N<>(
+      "--maven-repository",
+      List.of(),
+      new QStringType.QConstant(
+        "A local Maven repository to search for parent POMs."),
+      List.of(),
+      Path.class
+    );
+
+  private static final QParameterNamed1<SPTimestampSource> TIMESTAMP_SOURCE =
+    new QParameterNamed1<>(
+      "--timestamp-source",
+      List.of(),
+      new QStringType.QConstant(
+        "The source of the site timestamp (CURRENT_TIME is not reproducible)."),
+      Optional.of(SPTimestampSource.CURRENT_TIME),
+      SPTimestampSource.class
+    );
+
+  private static final QParameterNamed1<Boolean> LINK_RESOURCES =
+    new QParameterNamed1<>(
+      "--link-resources",
+      List.of(),
+      new QStringType.QConstant(
+        "Hard link site resources into the output instead of copying them."),
+      Optional.of(Boolean.FALSE),
+      Boolean.class
+    );
+
+  private static final QParameterNamed01<Integer> RELEASE_LIMIT =
+    new QParameterNamed01<>(
+      "--release-limit",
+      List.of(),
+      new QStringType.QConstant(
+        "The maximum number of releases to show (defaults to all releases)."),
+      Optional.empty(),
+      Integer.class
+    );
+
+  private static final QParameterNamed01<Integer> RELEASES_PER_PAGE =
+    new QParameterNamed01<>(
+      "--releases-per-page",
+      List.of(),
+      new QStringType.QConstant(
+        "The number of releases on the index page and on each archive page "
+        + "(defaults to 20)."),
+      Optional.empty(),
+      Integer.class
+    );
+
+  private static final QParameterNamed01<Path> CACHE_DIRECTORY =
+    new QParameterNamed01<>(
+      "--cache-directory",
+      List.of(),
+      new QStringType.QConstant(
+        "A directory in which to cache derived artifacts between runs."),
+      Optional.empty(),
+      Path.class
+    );
+
+  private static final QParameterNamed1<Boolean> WATCH =
+    new QParameterNamed1<>(
+      "--watch",
+      List.of(),
+      new QStringType.QConstant(
+        "Keep running, and regenerate the site whenever the inputs change."),
+      Optional.of(Boolean.FALSE),
+      Boolean.class
+    );
+
+  private static final QParameterNamed1<Duration> WATCH_DEBOUNCE =
+    new QParameterNamed1<>(
+      "--watch-debounce",
+      List.of(),
+      new QStringType.QConstant(
+        "The time to wait for changes to settle before regenerating."),
+      Optional.of(Duration.ofMillis(100L)),
+      Duration.class
+    );
+
   /**
    * Generate a site.
    */
@@ -74,22 +190,144 @@ public final class SPCmdGenerate extends SPCmd
   {
     QLogback.configure(context);
 
+    final var outputDirectory =
+      context.parameterValue(OUTPUT_DIRECTORY);
+    final var archive =
+      context.parameterValue(ARCHIVE);
+
+    if (outputDirectory.isPresent() == archive.isPresent()) {
+      throw errorOutput();
+    }
+
+    if (archive.isPresent()) {
+      if (context.parameterValue(INCREMENTAL)
+          || context.parameterValue(WATCH)) {
+        throw errorArchiveOptions();
+      }
+      exportArchive(context, archive.get());
+      return QCommandStatus.SUCCESS;
+    }
+
     final var site =
-      SPSites.builder(
-        context.parameterValue(INPUT_DIRECTORY),
-        context.parameterValue(OUTPUT_DIRECTORY)
+      configure(
+        context,
+        SPSites.builder(
+          context.parameterValue(INPUT_DIRECTORY),
+          outputDirectory.get()
+        )
       ).build();
 
-    site.export();
+    if (context.parameterValue(WATCH)) {
+      site.watch(context.parameterValue(WATCH_DEBOUNCE));
+    } else {
+      site.export();
+    }
     return QCommandStatus.SUCCESS;
   }
 
+  private static SPSiteBuilderType configure(
+    final QCommandContextType context,
+    final SPSiteBuilderType builder)
+  {
+    builder.setIncremental(context.parameterValue(INCREMENTAL));
+    builder.setTimestampSource(context.parameterValue(TIMESTAMP_SOURCE));
+    builder.setLinkResources(context.parameterValue(LINK_RESOURCES));
+    context.parameterValue(RELEASE_LIMIT)
+      .ifPresent(limit -> builder.setReleaseLimit(limit.intValue()));
+    context.parameterValue(RELEASES_PER_PAGE)
+      .ifPresent(count -> builder.setReleasesPerPage(count.intValue()));
+    context.parameterValue(CACHE_DIRECTORY)
+      .ifPresent(builder::setCacheDirectory);
+
+    final var repositories = context.parameterValues(MAVEN_REPOSITORY);
+    if (!repositories.isEmpty()) {
+      builder.setMavenRepositories(repositories);
+    }
+    return builder;
+  }
+
+  /**
+   * Stream the site into an archive. The archive is written to a temporary
+   * file that replaces the target only once the export has succeeded.
+   */
+
+  private static void exportArchive(
+    final QCommandContextType context,
+    final Path file)
+    throws Exception
+  {
+    final var format =
+      SPArchiveFormat.ofFileName(file.toString())
+        .orElseThrow(() -> errorArchiveFormat(file));
+    final var target =
+      file.toAbsolutePath();
+    final var temporary =
+      target.resolveSibling(target.getFileName() + ".tmp");
+
+    try {
+      try (var stream =
+             new BufferedOutputStream(Files.newOutputStream(temporary))) {
+        configure(
+          context,
+          SPSites.builder(
+            context.parameterValue(INPUT_DIRECTORY),
+            SPOutputs.archive(format, stream)
+          )
+        ).build().export();
+      }
+      Files.move(temporary, target, REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private static SPException errorOutput()
+  {
+    return new SPException(
+      "Exactly one of --output-directory or --archive must be specified.",
+      "error-output-unspecified",
+      Map.of(),
+      Optional.empty()
+    );
+  }
+
+  private static SPException errorArchiveOptions()
+  {
+    return new SPException(
+      "Archives cannot be exported incrementally or watched.",
+      "error-archive-options",
+      Map.of(),
+      Optional.of("Use --output-directory instead.")
+    );
+  }
+
+  private static SPException errorArchiveFormat(
+    final Path file)
+  {
+    return new SPException(
+      "Unrecognized archive format.",
+      "error-archive-format",
+      Map.of("File", file.toString()),
+      Optional.of("Use a name ending in .tar, .tar.gz, .tgz, or .zip.")
+    );
+  }
+
   @Override
   protected List<QParameterNamedType<?>> onListNamedParametersActual()
   {
     return List.of(
       INPUT_DIRECTORY,
-      OUTPUT_DIRECTORY
+      OUTPUT_DIRECTORY,
+      ARCHIVE,
+      INCREMENTAL,
+      MAVEN_REPOSITORY,
+      TIMESTAMP_SOURCE,
+      LINK_RESOURCES,
+      RELEASE_LIMIT,
+      RELEASES_PER_PAGE,
+      CACHE_DIRECTORY,
+      WATCH,
+      WATCH_DEBOUNCE
     );
   }
 }
@@ -20,6 +20,7 @@ package com.io7m.softpage.cmdline.internal;
 import com.io7m.quarrel.core.QCommandContextType;
 import com.io7m.quarrel.core.QCommandMetadata;
 import com.io7m.quarrel.core.QCommandStatus;
+import com.io7m.quarrel.core.QParameterNamed01;
 import com.io7m.quarrel.core.QParameterNamed1;
 import com.io7m.quarrel.core.QParameterNamedType;
 import com.io7m.quarrel.core.QStringType;
@@ -27,10 +28,12 @@ import com.io7m.quarrel.ext.logback.QLogback;
 import com.io7m.softpage.core.SPPublicationResultType;
 import com.io7m.softpage.core.SPPublicationSet;
 import com.io7m.softpage.core.internal.SPPublicationExecutor;
+import com.io7m.softpage.core.internal.SPPublicationReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.file.Path;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,6 +55,27 @@ public final class SPCmdPublish extends SPCmd
       Path.class
     );
 
+  private static final QParameterNamed01<Path> REPORT_JSON =
+    new QParameterNamed01<>(
+      "--report-json",
+      List.of(),
+      new QStringType.QConstant(
+        "A file to which a JSON report of per-project timings is written."),
+      Optional.empty(),
+      Path.class
+    );
+
+  private static final QParameterNamed01<Path> REPORT_OPENMETRICS =
+    new QParameterNamed01<>(
+      "--report-openmetrics",
+      List.of(),
+      new QStringType.QConstant(
+        "A file to which per-project timings are written in OpenMetrics "
+        + "format (for example, for the node_exporter textfile collector)."),
+      Optional.empty(),
+      Path.class
+    );
+
   /**
    * Clone a repository, generate a site, and then publish the site.
    */
@@ -90,11 +114,27 @@ public final class SPCmdPublish extends SPCmd
             LOG.error("[{}] Failed: ", name, failed.exception());
             oneFailed = true;
           }
-          case final SPPublicationResultType.Succeeded ignored -> {
-            LOG.info("[{}] Succeeded", name);
+          case final SPPublicationResultType.Succeeded succeeded -> {
+            LOG.info(
+              "[{}] Succeeded in {}",
+              name,
+              succeeded.metrics().total()
+            );
           }
         }
       }
+
+      final var report =
+        SPPublicationReport.of(OffsetDateTime.now(), results);
+
+      final var jsonFile = context.parameterValue(REPORT_JSON);
+      if (jsonFile.isPresent()) {
+        report.writeJSON(jsonFile.get());
+      }
+      final var metricsFile = context.parameterValue(REPORT_OPENMETRICS);
+      if (metricsFile.isPresent()) {
+        report.writeOpenMetrics(metricsFile.get());
+      }
     }
 
     if (oneFailed) {
@@ -107,6 +147,10 @@ public final class SPCmdPublish extends SPCmd
   @Override
   protected List<QParameterNamedType<?>> onListNamedParametersActual()
   {
-    return List.of(CONFIGURATION);
+    return List.of(
+      CONFIGURATION,
+      REPORT_JSON,
+      REPORT_OPENMETRICS
+    );
   }
 }
@@ -0,0 +1,203 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.cmdline.internal;
+
+import com.io7m.quarrel.core.QCommandContextType;
+import com.io7m.quarrel.core.QCommandMetadata;
+import com.io7m.quarrel.core.QCommandStatus;
+import com.io7m.quarrel.core.QParameterNamed01;
+import com.io7m.quarrel.core.QParameterNamed0N;
+import com.io7m.quarrel.core.QParameterNamed1;
+import com.io7m.quarrel.core.QParameterNamedType;
+import com.io7m.quarrel.core.QStringType;
+import com.io7m.quarrel.ext.logback.QLogback;
+import com.io7m.softpage.core.SPOutputs;
+import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Render a site into memory and serve it over HTTP.
+ */
+
+public final class SPCmdServe extends SPCmd
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPCmdServe.class);
+
+  private static final QParameterNamed1<Path> INPUT_DIRECTORY =
+    new QParameterNamed1<>(
+      "--input-directory",
+      List.of(),
+      new QStringType.QConstant("The input directory."),
+      Optional.empty(),
+      Path.class
+    );
+
+  private static final QParameterNamed1<InetAddress> ADDRESS =
+    new QParameterNamed1<>(
+      "--address",
+      List.of(),
+      new QStringType.QConstant("The address on which to listen."),
+      Optional.of(InetAddress.getLoopbackAddress()),
+      InetAddress.class
+    );
+
+  private static final QParameterNamed1<Integer> PORT =
+    new QParameterNamed1<>(
+      "--port",
+      List.of(),
+      new QStringType.QConstant("The port on which to listen."),
+      Optional.of(Integer.valueOf(8000)),
+      Integer.class
+    );
+
+  private static final QParameterNamed0N<Path> MAVEN_REPOSITORY =
+    new QParameterNamed0N<>(
+      "--maven-repository",
+      List.of(),
+      new QStringType.QConstant(
+        "A local Maven repository to search for parent POMs."),
+      List.of(),
+      Path.class
+    );
+
+  private static final QParameterNamed1<SPTimestampSource> TIMESTAMP_SOURCE =
+    new QParameterNamed1<>(
+      "--timestamp-source",
+      List.of(),
+      new QStringType.QConstant(
+        "The source of the site timestamp (CURRENT_TIME is not reproducible)."),
+      Optional.of(SPTimestampSource.CURRENT_TIME),
+      SPTimestampSource.class
+    );
+
+  private static final QParameterNamed01<Integer> RELEASE_LIMIT =
+    new QParameterNamed01<>(
+      "--release-limit",
+      List.of(),
+      new QStringType.QConstant(
+        "The maximum number of releases to show (defaults to all releases)."),
+      Optional.empty(),
+      Integer.class
+    );
+
+  private static final QParameterNamed01<Integer> RELEASES_PER_PAGE =
+    new QParameterNamed01<>(
+      "--releases-per-page",
+      List.of(),
+      new QStringType.QConstant(
+        "The number of releases on the index page and on each archive page "
+        + "(defaults to 20)."),
+      Optional.empty(),
+      Integer.class
+    );
+
+  private static final QParameterNamed1<Duration> RECHECK_INTERVAL =
+    new QParameterNamed1<>(
+      "--recheck-interval",
+      List.of(),
+      new QStringType.QConstant(
+        "The minimum time between checks of the inputs for changes."),
+      Optional.of(Duration.ofMillis(250L)),
+      Duration.class
+    );
+
+  /**
+   * Render a site into memory and serve it over HTTP.
+   */
+
+  public SPCmdServe()
+  {
+    super(new QCommandMetadata(
+      "serve",
+      new QStringType.QConstant(
+        "Render a site into memory and serve it over HTTP."),
+      Optional.empty()
+    ));
+  }
+
+  @Override
+  protected QCommandStatus onExecuteActual(
+    final QCommandContextType context)
+    throws Exception
+  {
+    QLogback.configure(context);
+
+    final var output =
+      SPOutputs.memory();
+    final var builder =
+      SPSites.builder(context.parameterValue(INPUT_DIRECTORY), output);
+
+    builder.setTimestampSource(context.parameterValue(TIMESTAMP_SOURCE));
+    context.parameterValue(RELEASE_LIMIT)
+      .ifPresent(limit -> builder.setReleaseLimit(limit.intValue()));
+    context.parameterValue(RELEASES_PER_PAGE)
+      .ifPresent(count -> builder.setReleasesPerPage(count.intValue()));
+
+    final var repositories = context.parameterValues(MAVEN_REPOSITORY);
+    if (!repositories.isEmpty()) {
+      builder.setMavenRepositories(repositories);
+    }
+
+    final var address =
+      new InetSocketAddress(
+        context.parameterValue(ADDRESS),
+        context.parameterValue(PORT).intValue()
+      );
+
+    try (var server = SPPreviewServer.start(
+      builder.build(),
+      output,
+      address,
+      context.parameterValue(RECHECK_INTERVAL))) {
+      final var bound = server.address();
+      LOG.info(
+        "Serving on http://{}:{}/",
+        bound.getAddress().getHostAddress(),
+        Integer.valueOf(bound.getPort())
+      );
+      server.awaitClose();
+    }
+    return QCommandStatus.SUCCESS;
+  }
+
+  @Override
+  protected List<QParameterNamedType<?>> onListNamedParametersActual()
+  {
+    return List.of(
+      INPUT_DIRECTORY,
+      ADDRESS,
+      PORT,
+      MAVEN_REPOSITORY,
+      TIMESTAMP_SOURCE,
+      RELEASE_LIMIT,
+      RELEASES_PER_PAGE,
+      RECHECK_INTERVAL
+    );
+  }
+}
@@ -0,0 +1,497 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.cmdline.internal;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPMemoryOutputType;
+import com.io7m.softpage.core.SPSiteType;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A server that renders a site into memory and serves it over HTTP for
+ * previewing. Requests for pages check whether the inputs have changed,
+ * at most once per recheck interval, and the site is exported again if
+ * they have; other requests are served from memory. Each response is
+ * prepared once per version of a file, so that the entity tag and any
+ * compressed form are not recomputed on every request. The compressed and
+ * uncompressed forms of a file have distinct entity tags.
+ */
+
+public final class SPPreviewServer implements AutoCloseable
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPPreviewServer.class);
+
+  private static final String INDEX_PAGE = "index.html";
+
+  private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+    Map.entry("atom", "application/atom+xml; charset=utf-8"),
+    Map.entry("css", "text/css; charset=utf-8"),
+    Map.entry("gif", "image/gif"),
+    Map.entry("html", "text/html; charset=utf-8"),
+    Map.entry("ico", "image/x-icon"),
+    Map.entry("jpeg", "image/jpeg"),
+    Map.entry("jpg", "image/jpeg"),
+    Map.entry("js", "text/javascript; charset=utf-8"),
+    Map.entry("json", "application/json"),
+    Map.entry("pdf", "application/pdf"),
+    Map.entry("png", "image/png"),
+    Map.entry("svg", "image/svg+xml"),
+    Map.entry("txt", "text/plain; charset=utf-8"),
+    Map.entry("webp", "image/webp"),
+    Map.entry("woff", "font/woff"),
+    Map.entry("woff2", "font/woff2"),
+    Map.entry("xhtml", "application/xhtml+xml; charset=utf-8"),
+    Map.entry("xml", "application/xml; charset=utf-8")
+  );
+
+  private static final String CONTENT_TYPE_DEFAULT =
+    "application/octet-stream";
+
+  /**
+   * Responses smaller than this are not worth compressing.
+   */
+
+  private static final int COMPRESSION_THRESHOLD = 256;
+
+  private final SPSiteType site;
+  private final SPMemoryOutputType output;
+  private final long recheckNanos;
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final ReentrantLock exportLock;
+  private final ConcurrentHashMap<String, Prepared> prepared;
+  private final CountDownLatch closed;
+  private volatile long lastExport;
+  private volatile Optional<SPException> exportError;
+
+  private record Prepared(
+    SPMemoryOutputType.File file,
+    String contentType,
+    String entityTag,
+    String lastModified,
+    Optional<byte[]> compressed)
+  {
+    String compressedEntityTag()
+    {
+      return this.entityTag.replaceFirst("\"$", "-gzip\"");
+    }
+  }
+
+  private SPPreviewServer(
+    final SPSiteType inSite,
+    final SPMemoryOutputType inOutput,
+    final Duration recheck,
+    final HttpServer inServer,
+    final ExecutorService inExecutor)
+  {
+    this.site =
+      Objects.requireNonNull(inSite, "site");
+    this.output =
+      Objects.requireNonNull(inOutput, "output");
+    this.recheckNanos =
+      recheck.toNanos();
+    this.server =
+      Objects.requireNonNull(inServer, "server");
+    this.executor =
+      Objects.requireNonNull(inExecutor, "executor");
+    this.exportLock =
+      new ReentrantLock();
+    this.prepared =
+      new ConcurrentHashMap<>();
+    this.closed =
+      new CountDownLatch(1);
+    this.lastExport =
+      System.nanoTime();
+    this.exportError =
+      Optional.empty();
+  }
+
+  /**
+   * Export the site, and then start serving it.
+   *
+   * @param site    The site, which must export into the given output
+   * @param output  The output
+   * @param address The address on which to listen
+   * @param recheck The minimum time between checks of the inputs
+   *
+   * @return A running server
+   *
+   * @throws SPException On export errors
+   * @throws IOException On I/O errors
+   */
+
+  public static SPPreviewServer start(
+    final SPSiteType site,
+    final SPMemoryOutputType output,
+    final InetSocketAddress address,
+    final Duration recheck)
+    throws SPException, IOException
+  {
+    site.export();
+
+    final var httpServer =
+      HttpServer.create(address, 0);
+    final var executor =
+      Executors.newVirtualThreadPerTaskExecutor();
+    final var server =
+      new SPPreviewServer(site, output, recheck, httpServer, executor);
+
+    httpServer.setExecutor(executor);
+    httpServer.createContext("/", server::handle);
+    httpServer.start();
+    return server;
+  }
+
+  /**
+   * @return The address on which the server is listening
+   */
+
+  public InetSocketAddress address()
+  {
+    return this.server.getAddress();
+  }
+
+  /**
+   * Wait until the server is closed.
+   *
+   * @throws InterruptedException If interrupted whilst waiting
+   */
+
+  public void awaitClose()
+    throws InterruptedException
+  {
+    this.closed.await();
+  }
+
+  @Override
+  public void close()
+  {
+    this.server.stop(0);
+    this.executor.close();
+    this.closed.countDown();
+  }
+
+  private void export()
+  {
+    this.exportLock.lock();
+    try {
+      this.site.export();
+      this.exportError = Optional.empty();
+    } catch (final SPException e) {
+      LOG.error("Export failed: ", e);
+      this.exportError = Optional.of(e);
+    } finally {
+      this.lastExport = System.nanoTime();
+      this.exportLock.unlock();
+    }
+  }
+
+  /**
+   * Export the site again if the inputs might have changed since the last
+   * check. Concurrent requests share a single export.
+   */
+
+  private void exportIfStale()
+  {
+    if (System.nanoTime() - this.lastExport < this.recheckNanos) {
+      return;
+    }
+
+    this.exportLock.lock();
+    try {
+      if (System.nanoTime() - this.lastExport >= this.recheckNanos) {
+        this.export();
+      }
+    } finally {
+      this.exportLock.unlock();
+    }
+  }
+
+  private void handle(
+    final HttpExchange exchange)
+    throws IOException
+  {
+    try (exchange) {
+      final var method = exchange.getRequestMethod();
+      final var head = "HEAD".equals(method);
+      if (!head && !"GET".equals(method)) {
+        exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+        exchange.sendResponseHeaders(405, -1L);
+        return;
+      }
+
+      final var name = nameOf(exchange.getRequestURI().getPath());
+      if (name.endsWith(".html")) {
+        this.exportIfStale();
+        final var error = this.exportError;
+        if (error.isPresent()) {
+          sendError(exchange, head, error.get());
+          return;
+        }
+      }
+
+      final var file = this.output.get(name);
+      if (file.isEmpty()) {
+        sendText(exchange, head, 404, "Not found: %s\n".formatted(name));
+        return;
+      }
+
+      this.send(exchange, head, this.prepare(name, file.get()));
+    }
+  }
+
+  private static String nameOf(
+    final String path)
+  {
+    var name = path.startsWith("/") ? path.substring(1) : path;
+    if (name.isEmpty() || name.endsWith("/")) {
+      name = name + INDEX_PAGE;
+    }
+    return name;
+  }
+
+  private Prepared prepare(
+    final String name,
+    final SPMemoryOutputType.File file)
+    throws IOException
+  {
+    final var existing = this.prepared.get(name);
+    if (existing != null && existing.file() == file) {
+      return existing;
+    }
+
+    final var contentType =
+      contentTypeOf(name);
+    final var compressed =
+      isCompressible(contentType) && file.data().length >= COMPRESSION_THRESHOLD
+        ? Optional.of(gzip(file.data()))
+          .filter(data -> data.length < file.data().length)
+        : Optional.<byte[]>empty();
+
+    final var result = new Prepared(
+      file,
+      contentType,
+      entityTagOf(file.data()),
+      DateTimeFormatter.RFC_1123_DATE_TIME.format(
+        file.modified().atOffset(ZoneOffset.UTC)),
+      compressed
+    );
+    this.prepared.put(name, result);
+    return result;
+  }
+
+  private void send(
+    final HttpExchange exchange,
+    final boolean head,
+    final Prepared response)
+    throws IOException
+  {
+    final var acceptEncoding =
+      exchange.getRequestHeaders().getFirst("Accept-Encoding");
+    final var compress =
+      response.compressed().isPresent() && acceptsGzip(acceptEncoding);
+    final var entityTag =
+      compress ? response.compressedEntityTag() : response.entityTag();
+
+    final var headers = exchange.getResponseHeaders();
+    headers.set("Cache-Control", "no-cache");
+    headers.set("Content-Type", response.contentType());
+    headers.set("ETag", entityTag);
+    headers.set("Last-Modified", response.lastModified());
+    if (response.compressed().isPresent()) {
+      headers.set("Vary", "Accept-Encoding");
+    }
+
+    final var ifNoneMatch =
+      exchange.getRequestHeaders().getFirst("If-None-Match");
+    if (matches(ifNoneMatch, entityTag)) {
+      exchange.sendResponseHeaders(304, -1L);
+      return;
+    }
+
+    if (compress) {
+      headers.set("Content-Encoding", "gzip");
+      sendBody(exchange, head, 200, response.compressed().get());
+    } else {
+      sendBody(exchange, head, 200, response.file().data());
+    }
+  }
+
+  private static void sendError(
+    final HttpExchange exchange,
+    final boolean head,
+    final SPException error)
+    throws IOException
+  {
+    sendText(
+      exchange,
+      head,
+      500,
+      "Export failed: %s: %s\n".formatted(error.errorCode(), error.getMessage())
+    );
+  }
+
+  private static void sendText(
+    final HttpExchange exchange,
+    final boolean head,
+    final int status,
+    final String text)
+    throws IOException
+  {
+    exchange.getResponseHeaders()
+      .set("Content-Type", "text/plain; charset=utf-8");
+    sendBody(exchange, head, status, text.getBytes(UTF_8));
+  }
+
+  private static void sendBody(
+    final HttpExchange exchange,
+    final boolean head,
+    final int status,
+    final byte[] body)
+    throws IOException
+  {
+    if (head) {
+      exchange.getResponseHeaders()
+        .set("Content-Length", Integer.toString(body.length));
+      exchange.sendResponseHeaders(status, -1L);
+      return;
+    }
+    if (body.length == 0) {
+      exchange.sendResponseHeaders(status, -1L);
+      return;
+    }
+    exchange.sendResponseHeaders(status, body.length);
+    exchange.getResponseBody().write(body);
+  }
+
+  private static boolean matches(
+    final String ifNoneMatch,
+    final String entityTag)
+  {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (final var tag : ifNoneMatch.split(",")) {
+      final var trimmed = tag.trim();
+      if ("*".equals(trimmed)
+          || entityTag.equals(trimmed)
+          || entityTag.equals(trimmed.replaceFirst("^W/", ""))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean acceptsGzip(
+    final String acceptEncoding)
+  {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (final var coding : acceptEncoding.split(",")) {
+      final var parts = coding.split(";");
+      if (!"gzip".equalsIgnoreCase(parts[0].trim())) {
+        continue;
+      }
+      for (int index = 1; index < parts.length; ++index) {
+        final var parameter = parts[index].trim();
+        if (parameter.startsWith("q=")) {
+          try {
+            return Double.parseDouble(parameter.substring(2)) > 0.0;
+          } catch (final NumberFormatException e) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  private static String contentTypeOf(
+    final String name)
+  {
+    final var dot = name.lastIndexOf('.');
+    if (dot < 0 || name.indexOf('/', dot) >= 0) {
+      return CONTENT_TYPE_DEFAULT;
+    }
+    final var extension = name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    return CONTENT_TYPES.getOrDefault(extension, CONTENT_TYPE_DEFAULT);
+  }
+
+  private static boolean isCompressible(
+    final String contentType)
+  {
+    return contentType.startsWith("text/")
+           || contentType.startsWith("application/json")
+           || contentType.contains("xml");
+  }
+
+  private static String entityTagOf(
+    final byte[] data)
+  {
+    try {
+      final var digest =
+        MessageDigest.getInstance("SHA-256").digest(data);
+      return "\"%s\"".formatted(
+        HexFormat.of().formatHex(Arrays.copyOf(digest, 16))
+      );
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] gzip(
+    final byte[] data)
+    throws IOException
+  {
+    final var bytes = new ByteArrayOutputStream(data.length / 2);
+    try (var stream = new GZIPOutputStream(bytes)) {
+      stream.write(data);
+    }
+    return bytes.toByteArray();
+  }
+}
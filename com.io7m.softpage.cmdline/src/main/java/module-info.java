@@ -28,5 +28,8 @@ module com.io7m.softpage.cmdline
   requires com.io7m.quarrel.core;
   requires com.io7m.quarrel.ext.logback;
 
+  requires jdk.httpserver;
+
   exports com.io7m.softpage.cmdline;
+  exports com.io7m.softpage.cmdline.internal;
 }
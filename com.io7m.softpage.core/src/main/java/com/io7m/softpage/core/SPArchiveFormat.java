@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.core;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The formats of archive outputs.
+ *
+ * @see SPOutputs#archive(SPArchiveFormat, java.io.OutputStream)
+ */
+
+public enum SPArchiveFormat
+{
+  /**
+   * An uncompressed tar archive.
+   */
+
+  TAR(".tar"),
+
+  /**
+   * A gzip-compressed tar archive.
+   */
+
+  TAR_GZIP(".tar.gz", ".tgz"),
+
+  /**
+   * A zip archive.
+   */
+
+  ZIP(".zip");
+
+  private final String[] suffixes;
+
+  SPArchiveFormat(
+    final String... inSuffixes)
+  {
+    this.suffixes = inSuffixes;
+  }
+
+  /**
+   * Determine an archive format from the suffix of a file name, such as
+   * {@code site.tar.gz}.
+   *
+   * @param name The file name
+   *
+   * @return The format, if the suffix is recognized
+   */
+
+  public static Optional<SPArchiveFormat> ofFileName(
+    final String name)
+  {
+    Objects.requireNonNull(name, "name");
+
+    final var lower = name.toLowerCase(Locale.ROOT);
+    for (final var format : values()) {
+      for (final var suffix : format.suffixes) {
+        if (lower.endsWith(suffix)) {
+          return Optional.of(format);
+        }
+      }
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.core;
+
+/**
+ * The way in which repositories are checked out for publication.
+ */
+
+public enum SPCheckoutMode
+{
+  /**
+   * A shallow clone of the complete tree, including every submodule.
+   */
+
+  FULL,
+
+  /**
+   * A shallow, partial clone that fetches and checks out only the files
+   * from which sites are generated. Submodules are only checked out if
+   * site inputs may live within them. Requires a server that supports
+   * partial clones; other servers send every file, but only the site
+   * inputs are checked out.
+   */
+
+  SPARSE
+}
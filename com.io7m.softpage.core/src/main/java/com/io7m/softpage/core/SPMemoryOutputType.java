@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+
+/**
+ * An output held entirely in memory.
+ *
+ * @see SPOutputs#memory()
+ */
+
+public interface SPMemoryOutputType extends SPOutputType
+{
+  /**
+   * @param name The file name
+   *
+   * @return The named file, if it exists
+   */
+
+  Optional<File> get(String name);
+
+  /**
+   * @return The names of all files in the output
+   */
+
+  SortedSet<String> names();
+
+  /**
+   * A file held in memory. A file is never modified; writing to a name
+   * replaces the file, and so a file can be used as a cache key for values
+   * derived from its content.
+   *
+   * @param data     The file content, which must not be modified
+   * @param modified The modification time
+   */
+
+  record File(
+    byte[] data,
+    Instant modified)
+  {
+    /**
+     * A file held in memory.
+     *
+     * @param data     The file content, which must not be modified
+     * @param modified The modification time
+     */
+
+    public File
+    {
+      Objects.requireNonNull(data, "data");
+      Objects.requireNonNull(modified, "modified");
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * The output of a site export. Files are identified by names relative to the
+ * root of the output, using {@code /} as the separator, such as
+ * {@code index.html} or {@code images/icon.png}. Files may be written
+ * concurrently from multiple threads.
+ *
+ * @see SPOutputs
+ */
+
+public interface SPOutputType
+{
+  /**
+   * Write a file, replacing any existing file of the same name. The output
+   * may retain the given array, which must not be modified afterwards.
+   *
+   * @param name     The file name
+   * @param data     The file content
+   * @param modified The modification time of the file, if the export is
+   *                 reproducible
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void write(
+    String name,
+    byte[] data,
+    Optional<Instant> modified)
+    throws IOException;
+
+  /**
+   * Copy an existing file into the output, replacing any existing file of the
+   * same name.
+   *
+   * @param name     The file name
+   * @param file     The file to copy
+   * @param modified The modification time of the file, if the export is
+   *                 reproducible
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void copy(
+    String name,
+    Path file,
+    Optional<Instant> modified)
+    throws IOException;
+
+  /**
+   * @param name The file name
+   *
+   * @return {@code true} if the output contains the named file
+   *
+   * @throws IOException On I/O errors
+   */
+
+  boolean exists(String name)
+    throws IOException;
+
+  /**
+   * Delete a file, if it exists.
+   *
+   * @param name The file name
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void delete(String name)
+    throws IOException;
+
+  /**
+   * Indicate that an export has written every file. Outputs that must be
+   * assembled once all files are known do so here.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  void finish()
+    throws IOException;
+}
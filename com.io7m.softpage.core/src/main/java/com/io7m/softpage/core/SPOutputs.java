@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core;
+
+import com.io7m.softpage.core.internal.SPOutputDirectory;
+import com.io7m.softpage.core.internal.SPOutputMemory;
+import com.io7m.softpage.core.internal.SPOutputTar;
+import com.io7m.softpage.core.internal.SPOutputZip;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * The available site outputs.
+ */
+
+public final class SPOutputs
+{
+  private SPOutputs()
+  {
+
+  }
+
+  /**
+   * An output that writes files into a directory. Only directory outputs
+   * support incremental exports and hard linked resources.
+   *
+   * @param directory The directory
+   *
+   * @return The output
+   */
+
+  public static SPOutputType directory(
+    final Path directory)
+  {
+    return new SPOutputDirectory(directory);
+  }
+
+  /**
+   * An output that holds files in memory.
+   *
+   * @return The output
+   */
+
+  public static SPMemoryOutputType memory()
+  {
+    return new SPOutputMemory();
+  }
+
+  /**
+   * An output that writes a tar archive to a stream. The archive is written,
+   * with entries in name order, when the export finishes. The stream is not
+   * closed.
+   *
+   * @param stream The stream
+   *
+   * @return The output
+   */
+
+  public static SPOutputType tar(
+    final OutputStream stream)
+  {
+    return archive(SPArchiveFormat.TAR, stream);
+  }
+
+  /**
+   * An output that writes a zip archive to a stream. The archive is written,
+   * with entries in name order, when the export finishes. The stream is not
+   * closed.
+   *
+   * @param stream The stream
+   *
+   * @return The output
+   */
+
+  public static SPOutputType zip(
+    final OutputStream stream)
+  {
+    return archive(SPArchiveFormat.ZIP, stream);
+  }
+
+  /**
+   * An output that writes an archive of the given format to a stream. The
+   * archive is written, with entries in name order, when the export
+   * finishes. The stream is not closed. Entries are given the site
+   * timestamp if the timestamp source is reproducible, and otherwise the
+   * fixed time 1980-01-01T00:00:00Z, so that the archive depends only on
+   * the content of the site.
+   *
+   * @param format The archive format
+   * @param stream The stream
+   *
+   * @return The output
+   */
+
+  public static SPOutputType archive(
+    final SPArchiveFormat format,
+    final OutputStream stream)
+  {
+    return switch (format) {
+      case TAR -> new SPOutputTar(stream, false);
+      case TAR_GZIP -> new SPOutputTar(stream, true);
+      case ZIP -> new SPOutputZip(stream);
+    };
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Timing and throughput measurements for the publication of a single
+ * project. Phases that did not run (because an earlier phase failed) have
+ * a duration of zero.
+ *
+ * @param queueWaitTime    The time spent waiting for a publication slot
+ * @param cloneTime        The time spent cloning the repository
+ * @param renderTime       The time spent rendering the site
+ * @param publishTime      The time spent transferring the site
+ * @param cleanupTime      The time spent deleting temporary directories
+ * @param bytesCloned      The size of the objects received when cloning
+ * @param filesRendered    The number of files rendered
+ * @param bytesRendered    The size of the rendered site
+ * @param bytesTransferred The number of bytes sent to the target host
+ */
+
+public record SPPublicationMetrics(
+  Duration queueWaitTime,
+  Duration cloneTime,
+  Duration renderTime,
+  Duration publishTime,
+  Duration cleanupTime,
+  long bytesCloned,
+  long filesRendered,
+  long bytesRendered,
+  long bytesTransferred)
+{
+  /**
+   * No measurements.
+   */
+
+  public static final SPPublicationMetrics EMPTY =
+    new SPPublicationMetrics(
+      Duration.ZERO,
+      Duration.ZERO,
+      Duration.ZERO,
+      Duration.ZERO,
+      Duration.ZERO,
+      0L,
+      0L,
+      0L,
+      0L
+    );
+
+  /**
+   * Timing and throughput measurements for the publication of a single
+   * project.
+   */
+
+  public SPPublicationMetrics
+  {
+    Objects.requireNonNull(queueWaitTime, "queueWaitTime");
+    Objects.requireNonNull(cloneTime, "cloneTime");
+    Objects.requireNonNull(renderTime, "renderTime");
+    Objects.requireNonNull(publishTime, "publishTime");
+    Objects.requireNonNull(cleanupTime, "cleanupTime");
+  }
+
+  /**
+   * @return The total time spent, including the time spent queueing
+   */
+
+  public Duration total()
+  {
+    return this.queueWaitTime
+      .plus(this.cloneTime)
+      .plus(this.renderTime)
+      .plus(this.publishTime)
+      .plus(this.cleanupTime);
+  }
+}
@@ -21,19 +21,31 @@ import java.util.Objects;
 
 public sealed interface SPPublicationResultType
 {
-  record Succeeded()
+  /**
+   * @return The measurements taken during publication
+   */
+
+  SPPublicationMetrics metrics();
+
+  record Succeeded(
+    SPPublicationMetrics metrics)
     implements SPPublicationResultType
   {
-
+    public Succeeded
+    {
+      Objects.requireNonNull(metrics, "metrics");
+    }
   }
 
   record Failed(
-    SPException exception)
+    SPException exception,
+    SPPublicationMetrics metrics)
     implements SPPublicationResultType
   {
     public Failed
     {
       Objects.requireNonNull(exception, "exception");
+      Objects.requireNonNull(metrics, "metrics");
     }
   }
 }
@@ -41,7 +41,11 @@ public record SPPublicationSet(
   @JsonProperty(value = "TargetHost", required = true)
   String targetHost,
   @JsonProperty(value = "Projects", required = true)
-  List<Project> projects)
+  List<Project> projects,
+  @JsonProperty(value = "Checkout", required = false, defaultValue = "FULL")
+  SPCheckoutMode checkout,
+  @JsonProperty(value = "Mirrors", required = false, defaultValue = "false")
+  boolean mirrors)
 {
   public SPPublicationSet
   {
@@ -49,6 +53,7 @@ public record SPPublicationSet(
     Objects.requireNonNull(workDirectory, "workDirectory");
     projects = List.copyOf(projects);
     concurrency = Math.max(concurrency, 1);
+    checkout = Objects.requireNonNullElse(checkout, SPCheckoutMode.FULL);
   }
 
   public static SPPublicationSet ofFile(
@@ -17,7 +17,125 @@
 
 package com.io7m.softpage.core;
 
+import java.nio.file.Path;
+import java.util.List;
+
 public interface SPSiteBuilderType
 {
+  /**
+   * Set the output to which exports write. Incremental exports and hard
+   * linked resources require a directory output.
+   *
+   * @param output The output
+   *
+   * @return this
+   *
+   * @see SPOutputs
+   */
+
+  SPSiteBuilderType setOutput(SPOutputType output);
+
+  /**
+   * Enable or disable incremental exports. An incremental export records a
+   * manifest of the fingerprints of every input it reads in the output
+   * directory, and skips any part of a subsequent export whose inputs are
+   * unchanged.
+   *
+   * @param incremental {@code true} if exports should be incremental
+   *
+   * @return this
+   */
+
+  SPSiteBuilderType setIncremental(boolean incremental);
+
+  /**
+   * Set the local Maven repository directories that will be searched for
+   * parent POMs that are not present in the input directory. The default is
+   * {@code ~/.m2/repository}, if it exists.
+   *
+   * @param repositories The repository directories
+   *
+   * @return this
+   */
+
+  SPSiteBuilderType setMavenRepositories(List<Path> repositories);
+
+  /**
+   * Set the source of the "last updated" timestamp. The default is
+   * {@link SPTimestampSource#CURRENT_TIME}; any other source makes the
+   * output reproducible.
+   *
+   * @param source The timestamp source
+   *
+   * @return this
+   */
+
+  SPSiteBuilderType setTimestampSource(SPTimestampSource source);
+
+  /**
+   * Enable or disable hard linking of site resources into the output
+   * directory. Where the filesystem does not support hard links, or where
+   * output timestamps are not preserved from the inputs, resources are
+   * copied instead. Note that the output files then share storage with the
+   * input files.
+   *
+   * @param link {@code true} if resources should be linked
+   *
+   * @return this
+   */
+
+  SPSiteBuilderType setLinkResources(boolean link);
+
+  /**
+   * Set the maximum number of releases, newest first, that will be read from
+   * the changelog and shown on the site. Older releases are skipped without
+   * being retained. The default is to show every release.
+   *
+   * @param limit The maximum number of releases
+   *
+   * @return this
+   */
+
+  SPSiteBuilderType setReleaseLimit(int limit);
+
+  /**
+   * Set the number of releases shown on each page. The newest releases are
+   * shown on the index page, and older releases are split into numbered
+   * archive pages ({@code releases-1.html}, {@code releases-2.html}, ...)
+   * of the same size. The default is 20 releases per page.
+   *
+   * @param count The number of releases per page
+   *
+   * @return this
+   */
+
+  SPSiteBuilderType setReleasesPerPage(int count);
+
+  /**
+   * Set the directory of a persistent content cache. Derived artifacts such
+   * as rendered README HTML and rendered pages are stored in the cache, keyed
+   * by a hash of everything they were derived from, and are reused by later
+   * exports, including exports of other checkouts of the same project. The
+   * default is to use no cache.
+   *
+   * @param directory The cache directory
+   *
+   * @return this
+   */
+
+  SPSiteBuilderType setCacheDirectory(Path directory);
+
+  /**
+   * Set the size limit of the content cache. The least recently used
+   * entries are evicted when the cache grows beyond this size. The default
+   * is 256MiB.
+   *
+   * @param limit The size limit in bytes
+   *
+   * @return this
+   */
+
+  SPSiteBuilderType setCacheSizeLimit(long limit);
+
   SPSiteType build();
 }
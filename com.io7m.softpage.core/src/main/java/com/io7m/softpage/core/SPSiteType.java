@@ -17,8 +17,29 @@
 
 package com.io7m.softpage.core;
 
+import java.time.Duration;
+
 public interface SPSiteType
 {
   void export()
     throws SPException;
+
+  /**
+   * Export the site, and then watch the input directory and the directories
+   * of every input that was read (module directories, site resources, and
+   * so on), exporting the site again after each burst of changes has
+   * settled. Inputs that have not changed are not loaded again, and output
+   * files whose content has not changed are not rewritten. Errors in
+   * individual exports are logged and do not stop the watch.
+   *
+   * @param debounce The length of time that must pass without any changes
+   *                 before the site is exported again
+   *
+   * @throws SPException          If the inputs cannot be watched
+   * @throws InterruptedException If the thread is interrupted; this is the
+   *                              only way that a watch ends
+   */
+
+  void watch(Duration debounce)
+    throws SPException, InterruptedException;
 }
@@ -18,11 +18,20 @@
 package com.io7m.softpage.core;
 
 import com.io7m.softpage.core.internal.SPSite;
+import com.io7m.softpage.core.internal.SPSiteServices;
 
 import java.nio.file.Path;
 
 public final class SPSites
 {
+  /**
+   * The template engine, Markdown renderer, and other services shared by
+   * every site in the process.
+   */
+
+  private static final SPSiteServices SERVICES =
+    SPSiteServices.create();
+
   private SPSites()
   {
 
@@ -32,6 +41,13 @@ public final class SPSites
     final Path inputDirectory,
     final Path outputDirectory)
   {
-    return SPSite.builder(inputDirectory, outputDirectory);
+    return builder(inputDirectory, SPOutputs.directory(outputDirectory));
+  }
+
+  public static SPSiteBuilderType builder(
+    final Path inputDirectory,
+    final SPOutputType output)
+  {
+    return SPSite.builder(SERVICES, inputDirectory, output);
   }
 }
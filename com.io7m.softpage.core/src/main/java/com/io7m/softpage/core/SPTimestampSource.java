@@ -0,0 +1,47 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core;
+
+/**
+ * The source of the "last updated" timestamp of a generated site. Any
+ * source other than {@link #CURRENT_TIME} yields byte-identical output for
+ * unchanged inputs, and also stamps every output file with the same
+ * modification time.
+ */
+
+public enum SPTimestampSource
+{
+  /**
+   * The time at which the site is generated. The output changes on every
+   * run.
+   */
+
+  CURRENT_TIME,
+
+  /**
+   * The date of the newest release or change in the changelog.
+   */
+
+  CHANGELOG,
+
+  /**
+   * The committer date of the current commit of the input directory, falling
+   * back to {@link #CHANGELOG} if the input is not a git checkout.
+   */
+
+  GIT_COMMIT
+}
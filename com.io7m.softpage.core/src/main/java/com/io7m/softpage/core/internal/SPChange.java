@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.softpage.core.internal;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A change within a release.
+ *
+ * @param date       The date of the change
+ * @param summary    The change summary
+ * @param tickets    The tickets associated with the change, in sorted order
+ * @param compatible {@code true} if the change is backwards compatible
+ */
+
+public record SPChange(
+  OffsetDateTime date,
+  String summary,
+  List<String> tickets,
+  boolean compatible)
+{
+  /**
+   * A change within a release.
+   *
+   * @param date       The date of the change
+   * @param summary    The change summary
+   * @param tickets    The tickets associated with the change, in sorted order
+   * @param compatible {@code true} if the change is backwards compatible
+   */
+
+  public SPChange
+  {
+    Objects.requireNonNull(date, "date");
+    Objects.requireNonNull(summary, "summary");
+    tickets = tickets.stream().sorted().toList();
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.softpage.core.internal;
+
+import com.io7m.verona.core.Version;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The parts of a changelog used to generate a site. Only the newest
+ * releases up to a limit are retained, but the newest version and the
+ * newest entry date are taken from the whole changelog.
+ *
+ * @param releases      The retained releases, newest first
+ * @param releaseCount  The total number of releases in the changelog
+ * @param newestVersion The highest release version, if any
+ * @param newestEntry   The date of the newest release or change, if any
+ */
+
+public record SPChangelog(
+  List<SPRelease> releases,
+  int releaseCount,
+  Optional<Version> newestVersion,
+  Optional<OffsetDateTime> newestEntry)
+{
+  /**
+   * The parts of a changelog used to generate a site.
+   *
+   * @param releases      The retained releases, newest first
+   * @param releaseCount  The total number of releases in the changelog
+   * @param newestVersion The highest release version, if any
+   * @param newestEntry   The date of the newest release or change, if any
+   */
+
+  public SPChangelog
+  {
+    releases = List.copyOf(releases);
+    Objects.requireNonNull(newestVersion, "newestVersion");
+    Objects.requireNonNull(newestEntry, "newestEntry");
+  }
+}
@@ -0,0 +1,688 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.changelog.core.CChange;
+import com.io7m.changelog.core.CChangelog;
+import com.io7m.changelog.core.CRelease;
+import com.io7m.changelog.core.CTicketID;
+import com.io7m.changelog.core.CVersion;
+import com.io7m.changelog.schema.CSchema;
+import com.io7m.changelog.xml.CXMLChangelogParsers;
+import com.io7m.softpage.core.SPException;
+import com.io7m.verona.core.Version;
+import com.io7m.verona.core.VersionException;
+import com.io7m.verona.core.VersionParser;
+import com.io7m.verona.core.VersionQualifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+import static java.time.ZoneOffset.UTC;
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+/**
+ * A streaming changelog reader. Changelogs are read with SAX, and only the
+ * newest releases up to a given limit are materialized; the changes of any
+ * other release are passed over without being retained. The newest version
+ * and newest entry date are nevertheless determined from the whole
+ * changelog. The parser events pass through a validator for the schema used
+ * by the full changelog parser, so a changelog is validated in the same
+ * pass in which it is read. If a valid changelog cannot be read in this
+ * way, the reader falls back to the full changelog parser.
+ */
+
+public final class SPChangelogReader
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPChangelogReader.class);
+
+  private SPChangelogReader()
+  {
+
+  }
+
+  /**
+   * Read the given changelog.
+   *
+   * @param file  The changelog file
+   * @param limit The maximum number of releases to retain
+   *
+   * @return The changelog
+   *
+   * @throws SPException On errors
+   */
+
+  public static SPChangelog read(
+    final Path file,
+    final int limit)
+    throws SPException
+  {
+    final var errors = new Errors(file);
+    final var streaming = new Streaming(limit);
+
+    try {
+      readStreaming(file, errors, streaming);
+    } catch (final SAXException e) {
+      if (!errors.failed) {
+        LOG.debug(
+          "{}: Falling back to the full changelog parser: {}",
+          file,
+          e.getMessage()
+        );
+        return ofChangelog(parseFull(file), limit);
+      }
+    } catch (final IOException | ParserConfigurationException e) {
+      throw SPException.wrap(e);
+    }
+
+    if (errors.failed) {
+      throw new SPException(
+        "Changelog failed validation.",
+        "error-changelog-invalid",
+        Map.of("File", file.toString()),
+        Optional.empty()
+      );
+    }
+    return streaming.toChangelog();
+  }
+
+  /**
+   * Convert a fully parsed changelog.
+   *
+   * @param changelog The changelog
+   * @param limit     The maximum number of releases to retain
+   *
+   * @return The changelog
+   */
+
+  public static SPChangelog ofChangelog(
+    final CChangelog changelog,
+    final int limit)
+  {
+    final var all =
+      changelog.releases()
+        .values()
+        .stream()
+        .map(SPChangelogReader::ofRelease)
+        .toList();
+
+    OffsetDateTime newest = null;
+    for (final var release : all) {
+      newest = newer(newest, release.date());
+      for (final var change : release.changes()) {
+        newest = newer(newest, change.date());
+      }
+    }
+
+    final var newestVersion =
+      changelog.releases().isEmpty()
+        ? Optional.<Version>empty()
+        : Optional.of(ofVersion(changelog.releases().lastKey()));
+
+    return new SPChangelog(
+      all.stream()
+        .sorted(SPRelease.ORDER.reversed())
+        .limit(Math.max(0, limit))
+        .toList(),
+      all.size(),
+      newestVersion,
+      Optional.ofNullable(newest)
+    );
+  }
+
+  private static SPRelease ofRelease(
+    final CRelease release)
+  {
+    return new SPRelease(
+      ofVersion(release.version()),
+      release.date().toOffsetDateTime().withOffsetSameInstant(UTC),
+      release.isOpen(),
+      release.changes()
+        .stream()
+        .map(SPChangelogReader::ofChange)
+        .toList()
+    );
+  }
+
+  private static SPChange ofChange(
+    final CChange change)
+  {
+    return new SPChange(
+      change.date().toOffsetDateTime().withOffsetSameInstant(UTC),
+      change.summary(),
+      change.tickets()
+        .stream()
+        .map(CTicketID::value)
+        .toList(),
+      change.backwardsCompatible()
+    );
+  }
+
+  private static Version ofVersion(
+    final CVersion version)
+  {
+    return new Version(
+      version.major().intValueExact(),
+      version.minor().intValueExact(),
+      version.patch().intValueExact(),
+      version.qualifier()
+        .map(x -> new VersionQualifier(x.text()))
+    );
+  }
+
+  private static OffsetDateTime newer(
+    final OffsetDateTime current,
+    final OffsetDateTime candidate)
+  {
+    if (current == null || candidate.isAfter(current)) {
+      return candidate;
+    }
+    return current;
+  }
+
+  private static CChangelog parseFull(
+    final Path file)
+    throws SPException
+  {
+    try {
+      final var parsers =
+        new CXMLChangelogParsers();
+
+      return
+        parsers.parse(
+          file, error -> {
+            switch (error.severity()) {
+              case WARNING -> {
+                LOG.warn(
+                  "{}: {}:{}: {}",
+                  file,
+                  error.lexical().line(),
+                  error.lexical().column(),
+                  error.message()
+                );
+              }
+              case ERROR, CRITICAL -> {
+                LOG.error(
+                  "{}: {}:{}: {}",
+                  file,
+                  error.lexical().line(),
+                  error.lexical().column(),
+                  error.message()
+                );
+              }
+            }
+          });
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  private static void readStreaming(
+    final Path file,
+    final Errors errors,
+    final Streaming streaming)
+    throws IOException, ParserConfigurationException, SAXException
+  {
+    final var factory = SAXParserFactory.newDefaultInstance();
+    factory.setNamespaceAware(true);
+    factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+
+    final var validator = SchemaHolder.SCHEMA.newValidatorHandler();
+    validator.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+    validator.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+    validator.setErrorHandler(errors);
+    validator.setContentHandler(streaming);
+
+    final var reader = factory.newSAXParser().getXMLReader();
+    reader.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+    reader.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+    reader.setErrorHandler(errors);
+    reader.setContentHandler(validator);
+
+    try (final var stream = Files.newInputStream(file)) {
+      final var source = new InputSource(stream);
+      source.setSystemId(file.toUri().toString());
+      reader.parse(source);
+    }
+  }
+
+  private static String attribute(
+    final Attributes attributes,
+    final String element,
+    final String name)
+    throws SAXException
+  {
+    final var value = attributes.getValue("", name);
+    if (value == null) {
+      throw new SAXException(
+        "Missing attribute '%s' on element '%s'".formatted(name, element)
+      );
+    }
+    return value;
+  }
+
+  private static OffsetDateTime date(
+    final Attributes attributes,
+    final String element)
+    throws SAXException
+  {
+    final var text = attribute(attributes, element, "date").trim();
+    final var fast = parseDateFast(text);
+    if (fast != null) {
+      return fast;
+    }
+
+    try {
+      if (text.length() == 10) {
+        return LocalDate.parse(text)
+          .atStartOfDay()
+          .atOffset(UTC);
+      }
+      return OffsetDateTime.parse(text, ISO_OFFSET_DATE_TIME)
+        .withOffsetSameInstant(UTC);
+    } catch (final DateTimeParseException e) {
+      throw new SAXException(e);
+    }
+  }
+
+  /**
+   * Parse the date forms that appear in practice, {@code yyyy-MM-dd} and
+   * {@code yyyy-MM-ddTHH:mm[:ss[.fraction]]} followed by {@code Z} or an
+   * offset, without a {@link java.time.format.DateTimeFormatter}. Every
+   * release and change date is parsed, retained or not, and the formatter
+   * costs several microseconds per date.
+   *
+   * @return The date, or {@code null} if the text must be left to the
+   * formatter
+   */
+
+  private static OffsetDateTime parseDateFast(
+    final String text)
+  {
+    final var length = text.length();
+    if (length < 10
+        || text.charAt(4) != '-'
+        || text.charAt(7) != '-') {
+      return null;
+    }
+
+    final var year = digits(text, 0, 4);
+    final var month = digits(text, 5, 2);
+    final var day = digits(text, 8, 2);
+    if ((year | month | day) < 0) {
+      return null;
+    }
+
+    try {
+      if (length == 10) {
+        return OffsetDateTime.of(year, month, day, 0, 0, 0, 0, UTC);
+      }
+      if (length < 17
+          || text.charAt(10) != 'T'
+          || text.charAt(13) != ':') {
+        return null;
+      }
+
+      final var hour = digits(text, 11, 2);
+      final var minute = digits(text, 14, 2);
+      var second = 0;
+      var nano = 0;
+      var index = 16;
+
+      if (text.charAt(index) == ':') {
+        second = digits(text, index + 1, 2);
+        index += 3;
+        if (index < length && text.charAt(index) == '.') {
+          final var start = ++index;
+          while (index < length
+                 && text.charAt(index) >= '0'
+                 && text.charAt(index) <= '9') {
+            ++index;
+          }
+          final var count = index - start;
+          if (count < 1 || count > 9) {
+            return null;
+          }
+          nano = digits(text, start, count);
+          for (int scale = count; scale < 9; ++scale) {
+            nano *= 10;
+          }
+        }
+      }
+      if ((hour | minute | second) < 0 || index >= length) {
+        return null;
+      }
+
+      final ZoneOffset offset;
+      final var sign = text.charAt(index);
+      if (sign == 'Z' && index + 1 == length) {
+        offset = UTC;
+      } else if ((sign == '+' || sign == '-')
+                 && index + 6 == length
+                 && text.charAt(index + 3) == ':') {
+        final var hours = digits(text, index + 1, 2);
+        final var minutes = digits(text, index + 4, 2);
+        if ((hours | minutes) < 0) {
+          return null;
+        }
+        offset = sign == '+'
+          ? ZoneOffset.ofHoursMinutes(hours, minutes)
+          : ZoneOffset.ofHoursMinutes(-hours, -minutes);
+      } else {
+        return null;
+      }
+
+      return OffsetDateTime.of(
+        year, month, day, hour, minute, second, nano, offset)
+        .withOffsetSameInstant(UTC);
+    } catch (final DateTimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return The value of the given run of decimal digits, or -1
+   */
+
+  private static int digits(
+    final String text,
+    final int start,
+    final int count)
+  {
+    if (start + count > text.length()) {
+      return -1;
+    }
+    var value = 0;
+    for (int index = start; index < start + count; ++index) {
+      final var c = text.charAt(index);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * The changelog schema, loaded on first use.
+   */
+
+  private static final class SchemaHolder
+  {
+    private static final Schema SCHEMA = load();
+
+    private SchemaHolder()
+    {
+
+    }
+
+    private static Schema load()
+    {
+      try {
+        final var factory =
+          SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        return factory.newSchema(CSchema.getURISchemaXSD().toURL());
+      } catch (final IOException | SAXException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private static final class Errors implements ErrorHandler
+  {
+    private final Path file;
+    private boolean failed;
+
+    Errors(
+      final Path inFile)
+    {
+      this.file = inFile;
+    }
+
+    @Override
+    public void warning(
+      final SAXParseException e)
+    {
+      LOG.warn(
+        "{}: {}:{}: {}",
+        this.file,
+        e.getLineNumber(),
+        e.getColumnNumber(),
+        e.getMessage()
+      );
+    }
+
+    @Override
+    public void error(
+      final SAXParseException e)
+    {
+      LOG.error(
+        "{}: {}:{}: {}",
+        this.file,
+        e.getLineNumber(),
+        e.getColumnNumber(),
+        e.getMessage()
+      );
+      this.failed = true;
+    }
+
+    @Override
+    public void fatalError(
+      final SAXParseException e)
+      throws SAXParseException
+    {
+      this.error(e);
+      throw e;
+    }
+  }
+
+  private static final class Streaming extends DefaultHandler
+  {
+    private final int limit;
+    private final PriorityQueue<SPRelease> retained;
+    private int count;
+    private Version newestVersion;
+    private OffsetDateTime newestEntry;
+    private Version releaseVersion;
+    private OffsetDateTime releaseDate;
+    private boolean releaseOpen;
+    private boolean retain;
+    private List<SPChange> changes;
+    private OffsetDateTime changeDate;
+    private String changeSummary;
+    private boolean changeCompatible;
+    private List<String> changeTickets;
+
+    Streaming(
+      final int inLimit)
+    {
+      this.limit = Math.max(0, inLimit);
+      this.retained = new PriorityQueue<>(SPRelease.ORDER);
+    }
+
+    @Override
+    public void startElement(
+      final String uri,
+      final String localName,
+      final String qName,
+      final Attributes attributes)
+      throws SAXException
+    {
+      switch (localName) {
+        case "release" -> {
+          this.startRelease(attributes);
+        }
+        case "change" -> {
+          this.startChange(attributes);
+        }
+        case "ticket" -> {
+          if (this.changeTickets != null) {
+            this.changeTickets.add(attribute(attributes, localName, "id"));
+          }
+        }
+        default -> {
+
+        }
+      }
+    }
+
+    @Override
+    public void endElement(
+      final String uri,
+      final String localName,
+      final String qName)
+    {
+      switch (localName) {
+        case "release" -> {
+          this.endRelease();
+        }
+        case "change" -> {
+          if (this.changeTickets != null) {
+            this.changes.add(new SPChange(
+              this.changeDate,
+              this.changeSummary,
+              this.changeTickets,
+              this.changeCompatible
+            ));
+            this.changeTickets = null;
+          }
+        }
+        default -> {
+
+        }
+      }
+    }
+
+    private void startRelease(
+      final Attributes attributes)
+      throws SAXException
+    {
+      final Version version;
+      try {
+        version = VersionParser.parse(
+          attribute(attributes, "release", "version").trim());
+      } catch (final VersionException e) {
+        throw new SAXException(e);
+      }
+
+      final var date = date(attributes, "release");
+
+      ++this.count;
+      if (this.newestVersion == null
+          || version.compareTo(this.newestVersion) > 0) {
+        this.newestVersion = version;
+      }
+      this.newestEntry = newer(this.newestEntry, date);
+
+      this.releaseVersion = version;
+      this.releaseDate = date;
+      this.releaseOpen = "true".equals(attributes.getValue("", "is-open"));
+      this.retain = this.isRetained(date, version);
+      this.changes = this.retain ? new ArrayList<>() : null;
+    }
+
+    private void startChange(
+      final Attributes attributes)
+      throws SAXException
+    {
+      this.changeDate = date(attributes, "change");
+      this.newestEntry = newer(this.newestEntry, this.changeDate);
+      if (this.retain) {
+        this.changeSummary =
+          attribute(attributes, "change", "summary");
+        this.changeCompatible =
+          !"false".equals(attributes.getValue("", "compatible"));
+        this.changeTickets =
+          new ArrayList<>();
+      }
+    }
+
+    private void endRelease()
+    {
+      if (this.retain) {
+        this.retained.add(new SPRelease(
+          this.releaseVersion,
+          this.releaseDate,
+          this.releaseOpen,
+          this.changes
+        ));
+        if (this.retained.size() > this.limit) {
+          this.retained.poll();
+        }
+      }
+      this.retain = false;
+      this.changes = null;
+    }
+
+    private boolean isRetained(
+      final OffsetDateTime date,
+      final Version version)
+    {
+      if (this.limit == 0) {
+        return false;
+      }
+      if (this.retained.size() < this.limit) {
+        return true;
+      }
+
+      final var oldest = this.retained.peek();
+      final var byDate = date.compareTo(oldest.date());
+      if (byDate != 0) {
+        return byDate > 0;
+      }
+      return version.compareTo(oldest.version()) > 0;
+    }
+
+    SPChangelog toChangelog()
+    {
+      final var releases = new ArrayList<>(this.retained);
+      releases.sort(SPRelease.ORDER.reversed());
+      return new SPChangelog(
+        releases,
+        this.count,
+        Optional.ofNullable(this.newestVersion),
+        Optional.ofNullable(this.newestEntry)
+      );
+    }
+  }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A persistent, content-addressed cache of derived artifacts. Each entry is
+ * keyed by a hash of everything that went into deriving it, together with
+ * the softpage version, and so entries never need to be invalidated; they
+ * are simply evicted, least recently used first, when the cache exceeds its
+ * size limit. Entries are written to temporary files and atomically moved
+ * into place, so concurrent readers and writers, whether in this process or
+ * in others, never observe partially written entries. Within a process,
+ * exactly one cache instance exists for each directory.
+ */
+
+public final class SPContentCache
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPContentCache.class);
+
+  private static final ConcurrentHashMap<Path, SPContentCache> CACHES =
+    new ConcurrentHashMap<>();
+
+  private static final Pattern ENTRY_NAME =
+    Pattern.compile("[0-9a-f]{64}");
+
+  private final Path directory;
+  private final AtomicLong size;
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+  private volatile long sizeLimit;
+
+  private SPContentCache(
+    final Path inDirectory,
+    final long inSize,
+    final long inSizeLimit)
+  {
+    this.directory =
+      Objects.requireNonNull(inDirectory, "directory");
+    this.size =
+      new AtomicLong(inSize);
+    this.hits =
+      new AtomicLong();
+    this.misses =
+      new AtomicLong();
+    this.sizeLimit =
+      inSizeLimit;
+  }
+
+  /**
+   * Open the cache in the given directory, creating it if necessary.
+   *
+   * @param directory The cache directory
+   * @param sizeLimit The size limit in bytes
+   *
+   * @return The cache
+   *
+   * @throws SPException On errors
+   */
+
+  public static SPContentCache open(
+    final Path directory,
+    final long sizeLimit)
+    throws SPException
+  {
+    final var key =
+      directory.toAbsolutePath().normalize();
+
+    try {
+      final var cache =
+        CACHES.computeIfAbsent(key, path -> {
+          try {
+            Files.createDirectories(path);
+            return new SPContentCache(path, measure(path), sizeLimit);
+          } catch (final IOException e) {
+            throw new SPContentCacheException(e);
+          }
+        });
+      cache.sizeLimit = sizeLimit;
+      return cache;
+    } catch (final SPContentCacheException e) {
+      throw SPException.wrap(e.getCause());
+    }
+  }
+
+  /**
+   * Start building a key for an entry of the given kind.
+   *
+   * @param kind The kind of entry, such as {@code "readme"}
+   *
+   * @return A key builder
+   */
+
+  public static KeyBuilder key(
+    final String kind)
+  {
+    return new KeyBuilder()
+      .add(SPVersion.MAIN_VERSION)
+      .add(SPVersion.MAIN_BUILD)
+      .add(kind);
+  }
+
+  /**
+   * @return The cache directory
+   */
+
+  public Path directory()
+  {
+    return this.directory;
+  }
+
+  /**
+   * @return The number of lookups that found an entry
+   */
+
+  public long hits()
+  {
+    return this.hits.get();
+  }
+
+  /**
+   * @return The number of lookups that did not find an entry
+   */
+
+  public long misses()
+  {
+    return this.misses.get();
+  }
+
+  /**
+   * Look up an entry. A successful lookup marks the entry as recently used.
+   *
+   * @param key The key
+   *
+   * @return The entry content, if present
+   */
+
+  public Optional<byte[]> get(
+    final String key)
+  {
+    final var file = this.fileOf(key);
+    try {
+      final var data = Files.readAllBytes(file);
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+      this.hits.incrementAndGet();
+      return Optional.of(data);
+    } catch (final NoSuchFileException e) {
+      this.misses.incrementAndGet();
+      return Optional.empty();
+    } catch (final IOException e) {
+      LOG.debug("Unable to read cache entry {}: {}", file, e.toString());
+      this.misses.incrementAndGet();
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Store an entry. Failures to write to the cache are logged and otherwise
+   * ignored, as the cache is purely an optimization.
+   *
+   * @param key  The key
+   * @param data The entry content
+   */
+
+  public void put(
+    final String key,
+    final byte[] data)
+  {
+    final var file = this.fileOf(key);
+    if (Files.isRegularFile(file)) {
+      return;
+    }
+
+    try {
+      final var parent = file.getParent();
+      Files.createDirectories(parent);
+      final var temporary =
+        Files.createTempFile(parent, ".entry-", ".tmp");
+      try {
+        Files.write(temporary, data);
+        Files.move(temporary, file, REPLACE_EXISTING, ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (final IOException e) {
+      LOG.debug("Unable to write cache entry {}: {}", file, e.toString());
+      return;
+    }
+
+    if (this.size.addAndGet(data.length) > this.sizeLimit) {
+      this.evict();
+    }
+  }
+
+  /**
+   * Evict the least recently used entries until the cache is comfortably
+   * below its size limit. Eviction is serialized within a process; entries
+   * concurrently deleted by other processes are ignored.
+   */
+
+  private synchronized void evict()
+  {
+    if (this.size.get() <= this.sizeLimit) {
+      return;
+    }
+
+    record Entry(Path file, long size, long time)
+    {
+
+    }
+
+    final var entries = new ArrayList<Entry>();
+    try (Stream<Path> files = Files.walk(this.directory, 2)) {
+      for (final var file : files.toList()) {
+        if (!isEntry(file)) {
+          continue;
+        }
+        try {
+          final var attributes =
+            Files.readAttributes(file, BasicFileAttributes.class);
+          entries.add(new Entry(
+            file,
+            attributes.size(),
+            attributes.lastModifiedTime().toMillis()
+          ));
+        } catch (final NoSuchFileException e) {
+          // Deleted concurrently
+        }
+      }
+    } catch (final IOException e) {
+      LOG.debug("Unable to scan cache {}: {}", this.directory, e.toString());
+      return;
+    }
+
+    entries.sort(Comparator.comparingLong(Entry::time));
+
+    var total = entries.stream().mapToLong(Entry::size).sum();
+    final var target = this.sizeLimit - (this.sizeLimit / 4);
+    var evicted = 0;
+    for (final var entry : entries) {
+      if (total <= target) {
+        break;
+      }
+      try {
+        Files.deleteIfExists(entry.file);
+        total -= entry.size;
+        ++evicted;
+      } catch (final IOException e) {
+        LOG.debug("Unable to evict {}: {}", entry.file, e.toString());
+      }
+    }
+
+    this.size.set(total);
+    LOG.debug(
+      "Evicted {} cache entries from {} ({} bytes remaining)",
+      Integer.valueOf(evicted),
+      this.directory,
+      Long.valueOf(total)
+    );
+  }
+
+  private Path fileOf(
+    final String key)
+  {
+    if (!ENTRY_NAME.matcher(key).matches()) {
+      throw new IllegalArgumentException("Malformed cache key: " + key);
+    }
+    return this.directory.resolve(key.substring(0, 2)).resolve(key);
+  }
+
+  private static boolean isEntry(
+    final Path file)
+  {
+    return ENTRY_NAME.matcher(file.getFileName().toString()).matches()
+           && Files.isRegularFile(file);
+  }
+
+  private static long measure(
+    final Path directory)
+    throws IOException
+  {
+    try (Stream<Path> files = Files.walk(directory, 2)) {
+      var total = 0L;
+      for (final var file : files.toList()) {
+        if (isEntry(file)) {
+          try {
+            total += Files.size(file);
+          } catch (final NoSuchFileException e) {
+            // Deleted concurrently
+          }
+        }
+      }
+      return total;
+    }
+  }
+
+  /**
+   * A builder of cache keys. Every component is length-prefixed, so
+   * distinct sequences of components always produce distinct keys.
+   */
+
+  public static final class KeyBuilder
+  {
+    private final MessageDigest digest;
+
+    private KeyBuilder()
+    {
+      this.digest = SPFingerprints.sha256();
+    }
+
+    /**
+     * Add a component to the key.
+     *
+     * @param data The component
+     *
+     * @return this
+     */
+
+    public KeyBuilder add(
+      final byte[] data)
+    {
+      this.digest.update(
+        ByteBuffer.allocate(Integer.BYTES).putInt(data.length).array());
+      this.digest.update(data);
+      return this;
+    }
+
+    /**
+     * Add a component to the key.
+     *
+     * @param text The component
+     *
+     * @return this
+     */
+
+    public KeyBuilder add(
+      final String text)
+    {
+      return this.add(text.getBytes(UTF_8));
+    }
+
+    /**
+     * @return The finished key
+     */
+
+    public String build()
+    {
+      return HexFormat.of().formatHex(this.digest.digest());
+    }
+  }
+
+  private static final class SPContentCacheException
+    extends RuntimeException
+  {
+    SPContentCacheException(
+      final IOException cause)
+    {
+      super(cause);
+    }
+  }
+}
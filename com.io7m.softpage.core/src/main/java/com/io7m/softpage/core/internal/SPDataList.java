@@ -21,6 +21,7 @@ import freemarker.template.TemplateSequenceModel;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -42,6 +43,22 @@ public final class SPDataList implements TemplateSequenceModel
 
   }
 
+  /**
+   * Create a list from the given values.
+   *
+   * @param values The values
+   *
+   * @return A list in template form
+   */
+
+  public static SPDataList of(
+    final List<? extends TemplateModel> values)
+  {
+    final var list = new SPDataList();
+    list.items.addAll(values);
+    return list;
+  }
+
   /**
    * Add a value to the list.
    *
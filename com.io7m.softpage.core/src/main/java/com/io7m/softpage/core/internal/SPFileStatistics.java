@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+
+/**
+ * The number and total size of a set of files.
+ *
+ * @param files The number of files
+ * @param bytes The total size of the files
+ */
+
+public record SPFileStatistics(
+  long files,
+  long bytes)
+{
+  /**
+   * No files.
+   */
+
+  public static final SPFileStatistics EMPTY =
+    new SPFileStatistics(0L, 0L);
+
+  /**
+   * Measure the given files. Files that cannot be read are ignored.
+   *
+   * @param files The files
+   *
+   * @return The statistics
+   */
+
+  public static SPFileStatistics ofFiles(
+    final Collection<Path> files)
+  {
+    var count = 0L;
+    var size = 0L;
+    for (final var file : files) {
+      try {
+        size += Files.size(file);
+        ++count;
+      } catch (final IOException e) {
+        // Ignored: the statistics are advisory.
+      }
+    }
+    return new SPFileStatistics(count, size);
+  }
+
+  /**
+   * Measure the regular files in the given directory, recursively. Files
+   * that cannot be read are ignored.
+   *
+   * @param directory The directory
+   *
+   * @return The statistics
+   */
+
+  public static SPFileStatistics ofDirectory(
+    final Path directory)
+  {
+    if (!Files.isDirectory(directory)) {
+      return EMPTY;
+    }
+
+    final var visitor = new CountingVisitor(false);
+    try {
+      Files.walkFileTree(directory, visitor);
+    } catch (final IOException e) {
+      return EMPTY;
+    }
+    return new SPFileStatistics(visitor.files, visitor.bytes);
+  }
+
+  /**
+   * Measure the regular files in the given git working tree, recursively,
+   * skipping the repository metadata in {@code .git} directories. Files
+   * that cannot be read are ignored.
+   *
+   * @param directory The working tree
+   *
+   * @return The statistics
+   */
+
+  public static SPFileStatistics ofWorkTree(
+    final Path directory)
+  {
+    if (!Files.isDirectory(directory)) {
+      return EMPTY;
+    }
+
+    final var visitor = new CountingVisitor(true);
+    try {
+      Files.walkFileTree(directory, visitor);
+    } catch (final IOException e) {
+      return EMPTY;
+    }
+    return new SPFileStatistics(visitor.files, visitor.bytes);
+  }
+
+  private static final class CountingVisitor
+    extends SimpleFileVisitor<Path>
+  {
+    private final boolean skipGit;
+    private long files;
+    private long bytes;
+
+    CountingVisitor(
+      final boolean inSkipGit)
+    {
+      this.skipGit = inSkipGit;
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(
+      final Path directory,
+      final BasicFileAttributes attributes)
+    {
+      final var name = directory.getFileName();
+      if (this.skipGit && name != null && ".git".equals(name.toString())) {
+        return FileVisitResult.SKIP_SUBTREE;
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(
+      final Path file,
+      final BasicFileAttributes attributes)
+    {
+      if (attributes.isRegularFile()) {
+        ++this.files;
+        this.bytes += attributes.size();
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(
+      final Path file,
+      final IOException exception)
+    {
+      return FileVisitResult.CONTINUE;
+    }
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.io7m.softpage.core.SPOutputType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A manifest of the fingerprints of every input read by each phase of an
+ * export, stored in the output directory.
+ *
+ * @param parameters The parameters that affected the export
+ * @param phases     The recorded phases
+ */
+
+@JsonDeserialize
+@JsonSerialize
+public record SPFingerprintManifest(
+  @JsonProperty(value = "Parameters", required = true)
+  SortedMap<String, String> parameters,
+  @JsonProperty(value = "Phases", required = true)
+  SortedMap<String, Phase> phases)
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPFingerprintManifest.class);
+
+  private static final JsonMapper MAPPER =
+    JsonMapper.builder()
+      .enable(SerializationFeature.INDENT_OUTPUT)
+      .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+      .build();
+
+  /**
+   * The name of the manifest file within the output directory.
+   */
+
+  public static final String FILE_NAME = ".softpage-manifest.json";
+
+  /**
+   * A manifest of the fingerprints of every input read by each phase of an
+   * export, stored in the output directory.
+   *
+   * @param parameters The parameters that affected the export
+   * @param phases     The recorded phases
+   */
+
+  public SPFingerprintManifest
+  {
+    parameters = new TreeMap<>(parameters);
+    phases = new TreeMap<>(phases);
+  }
+
+  /**
+   * An empty manifest.
+   *
+   * @param parameters The parameters that affected the export
+   *
+   * @return The manifest
+   */
+
+  public static SPFingerprintManifest empty(
+    final SortedMap<String, String> parameters)
+  {
+    return new SPFingerprintManifest(parameters, new TreeMap<>());
+  }
+
+  /**
+   * Load the manifest from the given output directory. If the manifest does
+   * not exist, cannot be read, or was produced with different parameters, an
+   * empty manifest is returned.
+   *
+   * @param outputDirectory The output directory
+   * @param parameters      The parameters that affect the export
+   *
+   * @return The manifest
+   */
+
+  public static SPFingerprintManifest load(
+    final Path outputDirectory,
+    final SortedMap<String, String> parameters)
+  {
+    Objects.requireNonNull(outputDirectory, "outputDirectory");
+    Objects.requireNonNull(parameters, "parameters");
+
+    final var file = outputDirectory.resolve(FILE_NAME);
+    if (!Files.isRegularFile(file)) {
+      return empty(parameters);
+    }
+
+    try (final var stream = Files.newInputStream(file)) {
+      final var manifest =
+        MAPPER.readValue(stream, SPFingerprintManifest.class);
+
+      if (!Objects.equals(manifest.parameters, parameters)) {
+        LOG.debug("{}: Export parameters changed", file);
+        return empty(parameters);
+      }
+      return manifest;
+    } catch (final IOException e) {
+      LOG.warn("{}: Unreadable manifest: {}", file, e.getMessage());
+      return empty(parameters);
+    }
+  }
+
+  /**
+   * Delete any manifest in the given output directory.
+   *
+   * @param outputDirectory The output directory
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static void delete(
+    final Path outputDirectory)
+    throws IOException
+  {
+    Files.deleteIfExists(outputDirectory.resolve(FILE_NAME));
+  }
+
+  /**
+   * Atomically write the manifest to the given output directory.
+   *
+   * @param outputDirectory The output directory
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public void save(
+    final Path outputDirectory)
+    throws IOException
+  {
+    Objects.requireNonNull(outputDirectory, "outputDirectory");
+
+    final var file =
+      outputDirectory.resolve(FILE_NAME);
+    final var fileTmp =
+      outputDirectory.resolve(FILE_NAME + ".tmp");
+
+    try (final var stream = Files.newOutputStream(fileTmp)) {
+      MAPPER.writeValue(stream, this);
+    }
+    Files.move(fileTmp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+  }
+
+  /**
+   * @param name  The phase name
+   * @param phase The phase
+   *
+   * @return This manifest with the given phase replaced
+   */
+
+  public SPFingerprintManifest withPhase(
+    final String name,
+    final Phase phase)
+  {
+    final var newPhases = new TreeMap<>(this.phases);
+    newPhases.put(name, phase);
+    return new SPFingerprintManifest(this.parameters, newPhases);
+  }
+
+  /**
+   * Determine if the named phase is unchanged; that is, the phase was
+   * recorded, every input it read is unchanged, and every output it produced
+   * still exists.
+   *
+   * @param name           The phase name
+   * @param inputDirectory The input directory
+   * @param output         The output
+   *
+   * @return {@code true} if the phase can be skipped
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public boolean isPhaseUnchanged(
+    final String name,
+    final Path inputDirectory,
+    final SPOutputType output)
+    throws IOException
+  {
+    final var phase = this.phases.get(name);
+    if (phase == null) {
+      return false;
+    }
+
+    for (final var file : phase.outputs()) {
+      if (!output.exists(file)) {
+        LOG.debug("{}: Output {} is missing", name, file);
+        return false;
+      }
+    }
+
+    for (final var input : phase.inputs()) {
+      if (!SPFingerprints.isUnchanged(inputDirectory, input)) {
+        LOG.debug("{}: Input {} changed", name, input.path());
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A recorded phase.
+   *
+   * @param inputs  The inputs read by the phase
+   * @param outputs The outputs written by the phase, relative to the output
+   *                directory
+   */
+
+  @JsonDeserialize
+  @JsonSerialize
+  public record Phase(
+    @JsonProperty(value = "Inputs", required = true)
+    List<SPInputFingerprint> inputs,
+    @JsonProperty(value = "Outputs", required = true)
+    List<String> outputs)
+  {
+    /**
+     * A recorded phase.
+     *
+     * @param inputs  The inputs read by the phase
+     * @param outputs The outputs written by the phase, relative to the output
+     *                directory
+     */
+
+    public Phase
+    {
+      inputs = List.copyOf(inputs);
+      outputs = List.copyOf(outputs);
+    }
+  }
+}
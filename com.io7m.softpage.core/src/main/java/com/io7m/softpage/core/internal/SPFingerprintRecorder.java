@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * A recorder of the inputs read, and outputs written, by a single export
+ * phase. A disabled recorder ignores everything it is given, so that
+ * non-incremental exports do not pay for hashing inputs.
+ */
+
+public final class SPFingerprintRecorder
+{
+  private final boolean enabled;
+  private final Path inputDirectory;
+  private final ConcurrentHashMap<String, SPInputFingerprint> inputs;
+  private final ConcurrentSkipListSet<String> outputs;
+
+  /**
+   * A recorder of the inputs read, and outputs written, by a single export
+   * phase.
+   *
+   * @param inEnabled        {@code true} if recording is enabled
+   * @param inInputDirectory The input directory
+   */
+
+  public SPFingerprintRecorder(
+    final boolean inEnabled,
+    final Path inInputDirectory)
+  {
+    this.enabled =
+      inEnabled;
+    this.inputDirectory =
+      Objects.requireNonNull(inInputDirectory, "inputDirectory");
+    this.inputs =
+      new ConcurrentHashMap<>();
+    this.outputs =
+      new ConcurrentSkipListSet<>();
+  }
+
+  /**
+   * Record that the given file is about to be read. The file is fingerprinted
+   * before it is read so that a concurrent modification can only ever cause an
+   * unnecessary re-export, never a missed one.
+   *
+   * @param file The file
+   *
+   * @return The fingerprint, if recording is enabled
+   *
+   * @throws SPException On errors
+   */
+
+  public Optional<SPInputFingerprint> recordFile(
+    final Path file)
+    throws SPException
+  {
+    if (!this.enabled) {
+      return Optional.empty();
+    }
+
+    try {
+      final var fingerprint =
+        SPFingerprints.ofFile(this.inputDirectory, file);
+      this.inputs.put(fingerprint.path(), fingerprint);
+      return Optional.of(fingerprint);
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  /**
+   * Record that the given directory is about to be listed.
+   *
+   * @param directory The directory
+   *
+   * @throws SPException On errors
+   */
+
+  public void recordDirectory(
+    final Path directory)
+    throws SPException
+  {
+    if (!this.enabled) {
+      return;
+    }
+
+    try {
+      final var fingerprint =
+        SPFingerprints.ofDirectory(this.inputDirectory, directory);
+      this.inputs.put(fingerprint.path(), fingerprint);
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  /**
+   * Record inputs that were fingerprinted by an earlier phase and found to
+   * be unchanged, without fingerprinting them again.
+   *
+   * @param fingerprints The fingerprints
+   */
+
+  public void recordInputs(
+    final Collection<SPInputFingerprint> fingerprints)
+  {
+    if (!this.enabled) {
+      return;
+    }
+
+    for (final var fingerprint : fingerprints) {
+      this.inputs.put(fingerprint.path(), fingerprint);
+    }
+  }
+
+  /**
+   * Record that the given output file was written.
+   *
+   * @param name The name of the file within the output
+   */
+
+  public void recordOutput(
+    final String name)
+  {
+    if (!this.enabled) {
+      return;
+    }
+
+    this.outputs.add(name);
+  }
+
+  /**
+   * @return The recorded phase
+   */
+
+  public SPFingerprintManifest.Phase toPhase()
+  {
+    return new SPFingerprintManifest.Phase(
+      this.inputs.values()
+        .stream()
+        .sorted(Comparator.comparing(SPInputFingerprint::path))
+        .toList(),
+      this.outputs.stream().toList()
+    );
+  }
+}
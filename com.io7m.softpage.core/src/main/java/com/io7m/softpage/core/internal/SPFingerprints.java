@@ -0,0 +1,277 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Functions to fingerprint export inputs.
+ */
+
+public final class SPFingerprints
+{
+  private static final int BUFFER_SIZE = 65536;
+
+  private SPFingerprints()
+  {
+
+  }
+
+  /**
+   * Fingerprint the given file. The file is not required to exist; a missing
+   * file produces a fingerprint that records its absence.
+   *
+   * @param base The base directory
+   * @param file The file
+   *
+   * @return The fingerprint
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static SPInputFingerprint ofFile(
+    final Path base,
+    final Path file)
+    throws IOException
+  {
+    Objects.requireNonNull(base, "base");
+    Objects.requireNonNull(file, "file");
+
+    final var name = relativeName(base, file);
+    if (!Files.isRegularFile(file)) {
+      return new SPInputFingerprint(
+        SPInputFingerprint.Kind.FILE, name, false, 0L, 0L, ""
+      );
+    }
+
+    final var attributes =
+      Files.readAttributes(file, BasicFileAttributes.class);
+
+    return new SPInputFingerprint(
+      SPInputFingerprint.Kind.FILE,
+      name,
+      true,
+      attributes.size(),
+      attributes.lastModifiedTime().toMillis(),
+      hashFile(file)
+    );
+  }
+
+  /**
+   * Fingerprint the recursive listing of the given directory. The fingerprint
+   * covers the names of all files and subdirectories, but not their contents.
+   * The directory is not required to exist; a missing directory produces a
+   * fingerprint that records its absence.
+   *
+   * @param base      The base directory
+   * @param directory The directory
+   *
+   * @return The fingerprint
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static SPInputFingerprint ofDirectory(
+    final Path base,
+    final Path directory)
+    throws IOException
+  {
+    Objects.requireNonNull(base, "base");
+    Objects.requireNonNull(directory, "directory");
+
+    final var name = relativeName(base, directory);
+    if (!Files.isDirectory(directory)) {
+      return new SPInputFingerprint(
+        SPInputFingerprint.Kind.DIRECTORY, name, false, 0L, 0L, ""
+      );
+    }
+
+    final List<String> names;
+    try (final var files = Files.walk(directory)) {
+      names = files.filter(file -> !file.equals(directory))
+        .map(file -> {
+          final var entry = relativeName(directory, file);
+          return Files.isDirectory(file) ? entry + "/" : entry;
+        })
+        .sorted()
+        .toList();
+    }
+
+    final var digest = sha256();
+    for (final var entry : names) {
+      digest.update(entry.getBytes(UTF_8));
+      digest.update((byte) 0);
+    }
+    final var count = (long) names.size();
+
+    return new SPInputFingerprint(
+      SPInputFingerprint.Kind.DIRECTORY,
+      name,
+      true,
+      count,
+      0L,
+      HexFormat.of().formatHex(digest.digest())
+    );
+  }
+
+  /**
+   * Determine if the given input is unchanged with respect to its recorded
+   * fingerprint. Files whose size and modification time match the recorded
+   * values are assumed to be unchanged without being read; files whose
+   * modification time differs are hashed.
+   *
+   * @param base        The base directory
+   * @param fingerprint The fingerprint
+   *
+   * @return {@code true} if the input is unchanged
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static boolean isUnchanged(
+    final Path base,
+    final SPInputFingerprint fingerprint)
+    throws IOException
+  {
+    Objects.requireNonNull(base, "base");
+    Objects.requireNonNull(fingerprint, "fingerprint");
+
+    final var path = base.resolve(fingerprint.path());
+    return switch (fingerprint.kind()) {
+      case FILE -> isFileUnchanged(path, fingerprint);
+      case DIRECTORY -> ofDirectory(base, path).equals(fingerprint);
+    };
+  }
+
+  private static boolean isFileUnchanged(
+    final Path file,
+    final SPInputFingerprint fingerprint)
+    throws IOException
+  {
+    if (!Files.isRegularFile(file)) {
+      return !fingerprint.exists();
+    }
+    if (!fingerprint.exists()) {
+      return false;
+    }
+
+    final var attributes =
+      Files.readAttributes(file, BasicFileAttributes.class);
+
+    if (attributes.size() != fingerprint.size()) {
+      return false;
+    }
+    if (attributes.lastModifiedTime().toMillis() == fingerprint.modified()) {
+      return true;
+    }
+    return hashFile(file).equals(fingerprint.hash());
+  }
+
+  /**
+   * Calculate the SHA-256 hash of the given file.
+   *
+   * @param file The file
+   *
+   * @return The hash as a lowercase hex string
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static String hashFile(
+    final Path file)
+    throws IOException
+  {
+    try (final var stream = Files.newInputStream(file)) {
+      return hashStream(stream);
+    }
+  }
+
+  /**
+   * Calculate the SHA-256 hash of the given stream.
+   *
+   * @param stream The stream
+   *
+   * @return The hash as a lowercase hex string
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public static String hashStream(
+    final InputStream stream)
+    throws IOException
+  {
+    final var digest = sha256();
+    final var buffer = new byte[BUFFER_SIZE];
+    while (true) {
+      final var r = stream.read(buffer);
+      if (r == -1) {
+        break;
+      }
+      digest.update(buffer, 0, r);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Produce a name for {@code file} relative to {@code base}, using
+   * {@code /} as a separator regardless of the platform.
+   *
+   * @param base The base directory
+   * @param file The file
+   *
+   * @return The relative name
+   */
+
+  public static String relativeName(
+    final Path base,
+    final Path file)
+  {
+    final var relative =
+      base.toAbsolutePath()
+        .relativize(file.toAbsolutePath());
+
+    final var text = new StringBuilder(64);
+    for (final var element : relative) {
+      if (!text.isEmpty()) {
+        text.append('/');
+      }
+      text.append(element);
+    }
+    return text.toString();
+  }
+
+  static MessageDigest sha256()
+  {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.core.internal;
+
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Persistent bare mirrors of remote repositories, kept in the
+ * {@code mirrors} directory of a work directory. A mirror is named after
+ * its repository URI, so projects that share a repository share a mirror.
+ *
+ * Access to a mirror is exclusive. Within a process, a lock per mirror
+ * serializes tasks. Between processes, a file lock next to the mirror does
+ * the same. File locks are held by the process rather than the thread, so
+ * the process-wide lock is needed as well. Clones taken from a mirror
+ * hard link, or copy, its objects rather than refer to them. A clone is
+ * therefore unaffected by later fetches, and the lock is only held while
+ * the mirror is being fetched into or cloned.
+ */
+
+public final class SPGitMirrors
+{
+  private static final ConcurrentHashMap<Path, ReentrantLock> LOCKS =
+    new ConcurrentHashMap<>();
+
+  private SPGitMirrors()
+  {
+
+  }
+
+  /**
+   * An action performed with exclusive access to a mirror.
+   */
+
+  public interface MirrorActionType
+  {
+    /**
+     * Perform the action.
+     *
+     * @param mirror The mirror directory, which may not yet exist
+     *
+     * @throws Exception On errors
+     */
+
+    void execute(Path mirror)
+      throws Exception;
+  }
+
+  /**
+   * Determine the mirror directory of a repository. The name of the
+   * directory combines the last element of the repository path, for
+   * readability, with a hash of the whole URI.
+   *
+   * @param workDirectory The work directory
+   * @param repository    The repository URI
+   *
+   * @return The mirror directory
+   */
+
+  public static Path mirrorOf(
+    final Path workDirectory,
+    final URI repository)
+  {
+    Objects.requireNonNull(workDirectory, "workDirectory");
+    Objects.requireNonNull(repository, "repository");
+
+    try {
+      final var digest =
+        MessageDigest.getInstance("SHA-256")
+          .digest(repository.toString().getBytes(UTF_8));
+      final var hash =
+        HexFormat.of().formatHex(digest, 0, 8);
+
+      return workDirectory.resolve("mirrors")
+        .resolve("%s_%s.git".formatted(nameOf(repository), hash))
+        .toAbsolutePath()
+        .normalize();
+    } catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String nameOf(
+    final URI repository)
+  {
+    final var text =
+      Objects.requireNonNullElse(
+        repository.getPath(),
+        repository.getSchemeSpecificPart()
+      );
+
+    var end = text.length();
+    while (end > 0 && text.charAt(end - 1) == '/') {
+      --end;
+    }
+    var name = text.substring(text.lastIndexOf('/', end - 1) + 1, end);
+    if (name.endsWith(".git")) {
+      name = name.substring(0, name.length() - 4);
+    }
+
+    final var safe = name.replaceAll("[^A-Za-z0-9._-]", "_");
+    return safe.isEmpty() ? "repository" : safe;
+  }
+
+  /**
+   * Perform an action with exclusive access to a mirror.
+   *
+   * @param mirror The mirror directory
+   * @param action The action
+   *
+   * @throws Exception On errors
+   */
+
+  public static void withMirror(
+    final Path mirror,
+    final MirrorActionType action)
+    throws Exception
+  {
+    Objects.requireNonNull(mirror, "mirror");
+    Objects.requireNonNull(action, "action");
+
+    final var lock =
+      LOCKS.computeIfAbsent(mirror, ignored -> new ReentrantLock());
+    final var lockFile =
+      mirror.resolveSibling(mirror.getFileName() + ".lock");
+
+    Files.createDirectories(mirror.getParent());
+
+    lock.lockInterruptibly();
+    try (var channel = FileChannel.open(lockFile, CREATE, WRITE);
+         var ignored = channel.lock()) {
+      action.execute(mirror);
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A single-pass scanner for the {@code include(...)} declarations in a
+ * {@code settings.gradle.kts} file. The scanner understands line and
+ * (nested) block comments, string literals, and calls spanning multiple
+ * lines with any number of arguments. String literals that contain
+ * templates cannot be evaluated and are ignored.
+ */
+
+public final class SPGradleSettings
+{
+  private static final String INCLUDE = "include";
+
+  private final String text;
+  private final int length;
+  private final LinkedHashSet<String> projects;
+  private int position;
+
+  private SPGradleSettings(
+    final String inText)
+  {
+    this.text =
+      Objects.requireNonNull(inText, "text");
+    this.length =
+      inText.length();
+    this.projects =
+      new LinkedHashSet<>();
+    this.position =
+      0;
+  }
+
+  /**
+   * Find the project paths included by the given settings script. Leading
+   * colons are removed, so {@code include(":a:b")} yields {@code a:b}.
+   *
+   * @param text The script text
+   *
+   * @return The included project paths, in declaration order, without
+   * duplicates
+   */
+
+  public static List<String> includedProjects(
+    final String text)
+  {
+    final var scanner = new SPGradleSettings(text);
+    scanner.scan();
+    return List.copyOf(scanner.projects);
+  }
+
+  /**
+   * Determine the directory of an included project, following Gradle's
+   * default layout where {@code a:b} lives in {@code a/b}.
+   *
+   * @param root    The root project directory
+   * @param project The project path
+   *
+   * @return The project directory
+   */
+
+  public static Path projectDirectory(
+    final Path root,
+    final String project)
+  {
+    Objects.requireNonNull(root, "root");
+    Objects.requireNonNull(project, "project");
+
+    var directory = root;
+    for (final var segment : project.split(":")) {
+      if (!segment.isEmpty()) {
+        directory = directory.resolve(segment);
+      }
+    }
+    return directory;
+  }
+
+  private void scan()
+  {
+    while (this.position < this.length) {
+      final var c = this.text.charAt(this.position);
+      if (this.skipTrivia()) {
+        continue;
+      }
+      if (c == '"' || c == '\'') {
+        this.readString();
+        continue;
+      }
+      if (Character.isJavaIdentifierStart(c)) {
+        final var start = this.position;
+        final var identifier = this.readIdentifier();
+        if (INCLUDE.equals(identifier) && !this.isMemberAccess(start)) {
+          this.scanInclude();
+        }
+        continue;
+      }
+      ++this.position;
+    }
+  }
+
+  private boolean isMemberAccess(
+    final int start)
+  {
+    for (int index = start - 1; index >= 0; --index) {
+      final var c = this.text.charAt(index);
+      if (!Character.isWhitespace(c)) {
+        return c == '.';
+      }
+    }
+    return false;
+  }
+
+  private void scanInclude()
+  {
+    this.skipAllTrivia();
+    if (this.position >= this.length
+        || this.text.charAt(this.position) != '(') {
+      return;
+    }
+
+    ++this.position;
+    var depth = 1;
+    while (this.position < this.length && depth > 0) {
+      final var c = this.text.charAt(this.position);
+      if (this.skipTrivia()) {
+        continue;
+      }
+      switch (c) {
+        case '"' -> {
+          final var value = this.readString();
+          if (value != null) {
+            this.addProject(value);
+          }
+        }
+        case '\'' -> this.readString();
+        case '(' -> {
+          ++depth;
+          ++this.position;
+        }
+        case ')' -> {
+          --depth;
+          ++this.position;
+        }
+        default -> ++this.position;
+      }
+    }
+  }
+
+  private void addProject(
+    final String value)
+  {
+    var start = 0;
+    while (start < value.length() && value.charAt(start) == ':') {
+      ++start;
+    }
+    final var project = value.substring(start).trim();
+    if (!project.isEmpty()) {
+      this.projects.add(project);
+    }
+  }
+
+  private String readIdentifier()
+  {
+    final var start = this.position;
+    ++this.position;
+    while (this.position < this.length
+           && Character.isJavaIdentifierPart(this.text.charAt(this.position))) {
+      ++this.position;
+    }
+    return this.text.substring(start, this.position);
+  }
+
+  private void skipAllTrivia()
+  {
+    while (this.position < this.length) {
+      if (this.skipTrivia()) {
+        continue;
+      }
+      if (Character.isWhitespace(this.text.charAt(this.position))) {
+        ++this.position;
+        continue;
+      }
+      return;
+    }
+  }
+
+  /**
+   * Skip a comment at the current position, if there is one.
+   *
+   * @return {@code true} if a comment was skipped
+   */
+
+  private boolean skipTrivia()
+  {
+    if (this.text.startsWith("//", this.position)) {
+      final var end = this.text.indexOf('\n', this.position);
+      this.position = end < 0 ? this.length : end + 1;
+      return true;
+    }
+
+    if (this.text.startsWith("/*", this.position)) {
+      this.position += 2;
+      var depth = 1;
+      while (this.position < this.length && depth > 0) {
+        if (this.text.startsWith("/*", this.position)) {
+          ++depth;
+          this.position += 2;
+        } else if (this.text.startsWith("*/", this.position)) {
+          --depth;
+          this.position += 2;
+        } else {
+          ++this.position;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Read a string or character literal at the current position.
+   *
+   * @return The literal value, or {@code null} if the literal contains
+   * templates and therefore cannot be evaluated
+   */
+
+  private String readString()
+  {
+    if (this.text.startsWith("\"\"\"", this.position)) {
+      final var start = this.position + 3;
+      final var found = this.text.indexOf("\"\"\"", start);
+      final var end = found < 0 ? this.length : found;
+      this.position = Math.min(this.length, end + 3);
+      final var value = this.text.substring(start, end);
+      return value.indexOf('$') >= 0 ? null : value;
+    }
+
+    final var quote = this.text.charAt(this.position);
+    ++this.position;
+
+    final var value = new StringBuilder();
+    var evaluable = true;
+    while (this.position < this.length) {
+      final var c = this.text.charAt(this.position);
+      ++this.position;
+      if (c == quote || c == '\n') {
+        break;
+      }
+      if (c == '\\' && this.position < this.length) {
+        value.append(this.text.charAt(this.position));
+        ++this.position;
+        continue;
+      }
+      if (c == '$') {
+        evaluable = false;
+      }
+      value.append(c);
+    }
+    return evaluable ? value.toString() : null;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Objects;
+
+/**
+ * The recorded fingerprint of a single input read during an export phase.
+ *
+ * @param kind     The kind of input
+ * @param path     The path of the input, relative to the input directory
+ * @param exists   {@code true} if the input existed when it was fingerprinted
+ * @param size     The size of the input in bytes
+ * @param modified The modification time of the input in milliseconds
+ * @param hash     The SHA-256 hash of the input content
+ */
+
+@JsonDeserialize
+@JsonSerialize
+public record SPInputFingerprint(
+  @JsonProperty(value = "Kind", required = true)
+  Kind kind,
+  @JsonProperty(value = "Path", required = true)
+  String path,
+  @JsonProperty(value = "Exists", required = true)
+  boolean exists,
+  @JsonProperty(value = "Size", required = true)
+  long size,
+  @JsonProperty(value = "Modified", required = true)
+  long modified,
+  @JsonProperty(value = "SHA256", required = true)
+  String hash)
+{
+  /**
+   * The recorded fingerprint of a single input read during an export phase.
+   *
+   * @param kind     The kind of input
+   * @param path     The path of the input, relative to the input directory
+   * @param exists   {@code true} if the input existed when it was
+   *                 fingerprinted
+   * @param size     The size of the input in bytes
+   * @param modified The modification time of the input in milliseconds
+   * @param hash     The SHA-256 hash of the input content
+   */
+
+  public SPInputFingerprint
+  {
+    Objects.requireNonNull(kind, "kind");
+    Objects.requireNonNull(path, "path");
+    Objects.requireNonNull(hash, "hash");
+  }
+
+  /**
+   * The kind of input.
+   */
+
+  public enum Kind
+  {
+    /**
+     * The input is a regular file, and the hash is the hash of the file
+     * content.
+     */
+
+    FILE,
+
+    /**
+     * The input is a directory, and the hash is the hash of the sorted
+     * listing of the directory.
+     */
+
+    DIRECTORY
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A deletion of a temporary directory.
+ */
+
+@Name("com.io7m.softpage.Cleanup")
+@Label("Cleanup")
+@Category({"Softpage", "Publication"})
+@Description("A deletion of a temporary directory.")
+@StackTrace(false)
+public final class SPJFRCleanup extends Event
+{
+  /**
+   * The project name.
+   */
+
+  @Label("Project")
+  public String project;
+
+  /**
+   * The directory.
+   */
+
+  @Label("Directory")
+  public String directory;
+
+  /**
+   * The number of files.
+   */
+
+  @Label("Files")
+  public long files;
+
+  /**
+   * The number of bytes.
+   */
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes;
+
+  /**
+   * A deletion of a temporary directory.
+   */
+
+  public SPJFRCleanup()
+  {
+
+  }
+}
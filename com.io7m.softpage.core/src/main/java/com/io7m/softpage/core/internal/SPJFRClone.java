@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A clone of a project repository.
+ */
+
+@Name("com.io7m.softpage.Clone")
+@Label("Clone")
+@Category({"Softpage", "Publication"})
+@Description("A clone of a project repository.")
+@StackTrace(false)
+public final class SPJFRClone extends Event
+{
+  /**
+   * The project name.
+   */
+
+  @Label("Project")
+  public String project;
+
+  /**
+   * The repository.
+   */
+
+  @Label("Repository")
+  public String repository;
+
+  /**
+   * The number of files checked out.
+   */
+
+  @Label("Files")
+  public long files;
+
+  /**
+   * The size of the objects received.
+   */
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes;
+
+  /**
+   * A clone of a project repository.
+   */
+
+  public SPJFRClone()
+  {
+
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateSequenceModel;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * A list in template form whose elements are computed from an underlying
+ * list on first access and then memoized. The list may be read by any
+ * number of threads concurrently. Each element is computed at most once;
+ * a reader that asks for an element that another thread is computing
+ * waits for that computation.
+ *
+ * @param <T> The type of underlying values
+ */
+
+public final class SPLazyList<T> implements TemplateSequenceModel
+{
+  private final List<T> values;
+  private final Function<? super T, ? extends TemplateModel> transform;
+
+  /**
+   * Each slot holds nothing, a task computing the element, or the element.
+   */
+
+  private final AtomicReferenceArray<Object> items;
+
+  private SPLazyList(
+    final List<T> inValues,
+    final Function<? super T, ? extends TemplateModel> inTransform)
+  {
+    this.values =
+      List.copyOf(inValues);
+    this.transform =
+      Objects.requireNonNull(inTransform, "transform");
+    this.items =
+      new AtomicReferenceArray<>(this.values.size());
+  }
+
+  /**
+   * Create a lazy list.
+   *
+   * @param values    The underlying values
+   * @param transform A function from values to template models
+   * @param <T>       The type of underlying values
+   *
+   * @return A list in template form
+   */
+
+  public static <T> SPLazyList<T> of(
+    final List<T> values,
+    final Function<? super T, ? extends TemplateModel> transform)
+  {
+    return new SPLazyList<>(values, transform);
+  }
+
+  @Override
+  public TemplateModel get(
+    final int index)
+    throws TemplateModelException
+  {
+    if (index < 0 || index >= this.items.length()) {
+      return null;
+    }
+
+    var existing = this.items.get(index);
+    if (existing instanceof final TemplateModel model) {
+      return model;
+    }
+
+    if (existing == null) {
+      final var task = new FutureTask<TemplateModel>(() -> {
+        return Objects.requireNonNull(
+          this.transform.apply(this.values.get(index)), "transform result");
+      });
+
+      existing = this.items.compareAndExchange(index, null, task);
+      if (existing == null) {
+        task.run();
+        final var model = resultOf(task);
+        this.items.set(index, model);
+        return model;
+      }
+      if (existing instanceof final TemplateModel model) {
+        return model;
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    final var task = (FutureTask<TemplateModel>) existing;
+    return resultOf(task);
+  }
+
+  private static TemplateModel resultOf(
+    final FutureTask<TemplateModel> task)
+    throws TemplateModelException
+  {
+    try {
+      return task.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TemplateModelException(e);
+    } catch (final ExecutionException e) {
+      final var cause = e.getCause();
+      if (cause instanceof final RuntimeException x) {
+        throw x;
+      }
+      if (cause instanceof final Error x) {
+        throw x;
+      }
+      throw new TemplateModelException(cause);
+    }
+  }
+
+  @Override
+  public int size()
+  {
+    return this.items.length();
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.misc.Extension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A Markdown rendering service. The parser and renderer are built once and
+ * are safe to use from any number of threads concurrently.
+ */
+
+public final class SPMarkdown
+{
+  private final Parser parser;
+  private final HtmlRenderer renderer;
+
+  private SPMarkdown(
+    final List<Extension> extensions)
+  {
+    final var options =
+      new MutableDataSet();
+
+    this.parser =
+      Parser.builder(options)
+        .extensions(extensions)
+        .build();
+    this.renderer =
+      HtmlRenderer.builder(options)
+        .extensions(extensions)
+        .build();
+  }
+
+  /**
+   * Create a Markdown rendering service with the default set of extensions.
+   *
+   * @return The service
+   */
+
+  public static SPMarkdown create()
+  {
+    return create(List.of(TablesExtension.create()));
+  }
+
+  /**
+   * Create a Markdown rendering service with the given extensions.
+   *
+   * @param extensions The extensions
+   *
+   * @return The service
+   */
+
+  public static SPMarkdown create(
+    final List<? extends Extension> extensions)
+  {
+    return new SPMarkdown(List.copyOf(extensions));
+  }
+
+  /**
+   * Render the given Markdown text to HTML.
+   *
+   * @param text The text
+   *
+   * @return The rendered HTML
+   */
+
+  public Result render(
+    final String text)
+  {
+    Objects.requireNonNull(text, "text");
+
+    final var timeStart = System.nanoTime();
+    final var document = this.parser.parse(text);
+    final var timeParsed = System.nanoTime();
+    final var html = this.renderer.render(document);
+    final var timeRendered = System.nanoTime();
+
+    return new Result(
+      html,
+      Duration.ofNanos(timeParsed - timeStart),
+      Duration.ofNanos(timeRendered - timeParsed)
+    );
+  }
+
+  /**
+   * The result of rendering Markdown.
+   *
+   * @param html       The rendered HTML
+   * @param parseTime  The time taken to parse the text
+   * @param renderTime The time taken to render the parsed document
+   */
+
+  public record Result(
+    String html,
+    Duration parseTime,
+    Duration renderTime)
+  {
+    /**
+     * The result of rendering Markdown.
+     *
+     * @param html       The rendered HTML
+     * @param parseTime  The time taken to parse the text
+     * @param renderTime The time taken to render the parsed document
+     */
+
+    public Result
+    {
+      Objects.requireNonNull(html, "html");
+      Objects.requireNonNull(parseTime, "parseTime");
+      Objects.requireNonNull(renderTime, "renderTime");
+    }
+
+    /**
+     * @return The total time taken
+     */
+
+    public Duration totalTime()
+    {
+      return this.parseTime.plus(this.renderTime);
+    }
+  }
+}
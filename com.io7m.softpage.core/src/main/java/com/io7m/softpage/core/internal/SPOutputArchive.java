@@ -0,0 +1,293 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPOutputType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The base of outputs that write an archive to a stream. Files are written
+ * concurrently, and in no particular order, during an export, but an
+ * archive stream can only be written sequentially. Files are therefore
+ * collected as they are written, and the archive is written in name order
+ * when the export finishes. Copied files are not read until then. The
+ * stream is not closed.
+ *
+ * Files written without a modification time are given the fixed time
+ * {@link #UNSTAMPED}, the earliest time a zip archive can represent,
+ * rather than the current time or the time of the source file; the
+ * modification times of checked out sources vary between checkouts, and
+ * the current time varies between runs, and either would otherwise make
+ * archives of identical sites differ.
+ */
+
+abstract class SPOutputArchive implements SPOutputType
+{
+  /**
+   * The modification time of files written without one.
+   */
+
+  static final Instant UNSTAMPED =
+    Instant.parse("1980-01-01T00:00:00Z");
+
+  private final OutputStream stream;
+  private final ConcurrentSkipListMap<String, Entry> entries;
+  private volatile boolean finished;
+
+  /**
+   * A file to be written to the archive.
+   */
+
+  sealed interface Entry
+  {
+    /**
+     * @return The modification time of the file
+     */
+
+    Instant modified();
+
+    /**
+     * @return The size of the file
+     *
+     * @throws IOException On I/O errors
+     */
+
+    long size()
+      throws IOException;
+
+    /**
+     * Write the content of the file.
+     *
+     * @param output The stream
+     *
+     * @throws IOException On I/O errors
+     */
+
+    void writeTo(OutputStream output)
+      throws IOException;
+  }
+
+  record Data(
+    byte[] data,
+    Instant modified)
+    implements Entry
+  {
+    @Override
+    public long size()
+    {
+      return this.data.length;
+    }
+
+    @Override
+    public void writeTo(
+      final OutputStream output)
+      throws IOException
+    {
+      output.write(this.data);
+    }
+  }
+
+  record Copy(
+    Path file,
+    Instant modified)
+    implements Entry
+  {
+    @Override
+    public long size()
+      throws IOException
+    {
+      return Files.size(this.file);
+    }
+
+    @Override
+    public void writeTo(
+      final OutputStream output)
+      throws IOException
+    {
+      Files.copy(this.file, output);
+    }
+  }
+
+  SPOutputArchive(
+    final OutputStream inStream)
+  {
+    this.stream =
+      Objects.requireNonNull(inStream, "stream");
+    this.entries =
+      new ConcurrentSkipListMap<>();
+  }
+
+  @Override
+  public final void write(
+    final String name,
+    final byte[] data,
+    final Optional<Instant> modified)
+  {
+    Objects.requireNonNull(data, "data");
+    Objects.requireNonNull(modified, "modified");
+
+    this.checkNotFinished();
+    this.entries.put(
+      SPOutputNames.check(name),
+      new Data(data, modified.orElse(UNSTAMPED))
+    );
+  }
+
+  @Override
+  public final void copy(
+    final String name,
+    final Path file,
+    final Optional<Instant> modified)
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(modified, "modified");
+
+    this.checkNotFinished();
+    this.entries.put(
+      SPOutputNames.check(name),
+      new Copy(file, modified.orElse(UNSTAMPED))
+    );
+  }
+
+  @Override
+  public final boolean exists(
+    final String name)
+  {
+    return this.entries.containsKey(SPOutputNames.check(name));
+  }
+
+  @Override
+  public final void delete(
+    final String name)
+  {
+    this.checkNotFinished();
+    this.entries.remove(SPOutputNames.check(name));
+  }
+
+  /**
+   * Write the archive. An archive can only be written once, so later calls
+   * have no effect.
+   *
+   * @throws IOException On I/O errors
+   */
+
+  @Override
+  public final void finish()
+    throws IOException
+  {
+    if (this.finished) {
+      return;
+    }
+    this.finished = true;
+
+    this.writeArchive(this.stream);
+    this.stream.flush();
+    this.entries.clear();
+  }
+
+  private void checkNotFinished()
+  {
+    if (this.finished) {
+      throw new IllegalStateException("The archive has already been written.");
+    }
+  }
+
+  /**
+   * Write the archive to the given stream. The stream must not be closed.
+   *
+   * @param output The stream
+   *
+   * @throws IOException On I/O errors
+   */
+
+  protected abstract void writeArchive(OutputStream output)
+    throws IOException;
+
+  /**
+   * Visit every directory and file in the archive, in name order. Each
+   * directory is visited immediately before the first file within it.
+   *
+   * @param visitor The visitor
+   *
+   * @throws IOException On I/O errors
+   */
+
+  protected final void forEachEntry(
+    final EntryVisitorType visitor)
+    throws IOException
+  {
+    final var directories = new HashSet<String>();
+    for (final var item : this.entries.entrySet()) {
+      final var name = item.getKey();
+      for (int slash = name.indexOf('/');
+           slash >= 0;
+           slash = name.indexOf('/', slash + 1)) {
+        final var directory = name.substring(0, slash + 1);
+        if (directories.add(directory)) {
+          visitor.directory(directory, item.getValue().modified());
+        }
+      }
+      visitor.file(name, item.getValue());
+    }
+  }
+
+  /**
+   * A visitor of archive entries.
+   */
+
+  protected interface EntryVisitorType
+  {
+    /**
+     * Visit a directory.
+     *
+     * @param name     The directory name, ending with {@code /}
+     * @param modified The modification time of the directory
+     *
+     * @throws IOException On I/O errors
+     */
+
+    void directory(
+      String name,
+      Instant modified)
+      throws IOException;
+
+    /**
+     * Visit a file.
+     *
+     * @param name  The file name
+     * @param entry The file
+     *
+     * @throws IOException On I/O errors
+     */
+
+    void file(
+      String name,
+      Entry entry)
+      throws IOException;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPOutputType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * An output that writes files into a directory.
+ */
+
+public final class SPOutputDirectory implements SPOutputType
+{
+  private final Path directory;
+
+  /**
+   * An output that writes files into a directory.
+   *
+   * @param inDirectory The directory
+   */
+
+  public SPOutputDirectory(
+    final Path inDirectory)
+  {
+    this.directory =
+      Objects.requireNonNull(inDirectory, "directory");
+  }
+
+  /**
+   * @return The output directory
+   */
+
+  public Path directory()
+  {
+    return this.directory;
+  }
+
+  /**
+   * Write a file, unless it already has exactly the given content. Leaving
+   * unchanged files untouched means that repeated exports only disturb the
+   * files that actually changed.
+   */
+
+  @Override
+  public void write(
+    final String name,
+    final byte[] data,
+    final Optional<Instant> modified)
+    throws IOException
+  {
+    Objects.requireNonNull(data, "data");
+    Objects.requireNonNull(modified, "modified");
+
+    final var file = SPOutputNames.resolve(this.directory, name);
+    Files.createDirectories(file.getParent());
+
+    final var unchanged =
+      Files.isRegularFile(file)
+      && Files.size(file) == (long) data.length
+      && Arrays.equals(Files.readAllBytes(file), data);
+
+    if (!unchanged) {
+      Files.write(file, data);
+    }
+    if (modified.isPresent()) {
+      Files.setLastModifiedTime(file, FileTime.from(modified.get()));
+    }
+  }
+
+  @Override
+  public void copy(
+    final String name,
+    final Path file,
+    final Optional<Instant> modified)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(modified, "modified");
+
+    final var output = SPOutputNames.resolve(this.directory, name);
+    Files.createDirectories(output.getParent());
+    Files.copy(file, output, REPLACE_EXISTING);
+    Files.setLastModifiedTime(
+      output,
+      modified.map(FileTime::from)
+        .orElse(Files.getLastModifiedTime(file))
+    );
+  }
+
+  @Override
+  public boolean exists(
+    final String name)
+  {
+    return Files.isRegularFile(SPOutputNames.resolve(this.directory, name));
+  }
+
+  @Override
+  public void delete(
+    final String name)
+    throws IOException
+  {
+    final var file = SPOutputNames.resolve(this.directory, name);
+    Files.deleteIfExists(file);
+
+    /*
+     * Remove any directories that the deletion left empty, up to but not
+     * including the output directory.
+     */
+
+    var parent = file.getParent();
+    while (parent != null
+           && !parent.equals(this.directory)
+           && parent.startsWith(this.directory)
+           && isEmptyDirectory(parent)) {
+      Files.delete(parent);
+      parent = parent.getParent();
+    }
+  }
+
+  private static boolean isEmptyDirectory(
+    final Path directory)
+    throws IOException
+  {
+    if (!Files.isDirectory(directory)) {
+      return false;
+    }
+    try (var entries = Files.list(directory)) {
+      return entries.findAny().isEmpty();
+    }
+  }
+
+  @Override
+  public void finish()
+  {
+
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[SPOutputDirectory %s]".formatted(this.directory);
+  }
+}
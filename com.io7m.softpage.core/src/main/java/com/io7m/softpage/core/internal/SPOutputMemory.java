@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPMemoryOutputType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An output that holds files in memory. Writing content identical to the
+ * existing content of a file keeps the existing file, so consumers that
+ * cache values derived from files see no change.
+ */
+
+public final class SPOutputMemory implements SPMemoryOutputType
+{
+  private final ConcurrentSkipListMap<String, File> files;
+
+  /**
+   * An output that holds files in memory.
+   */
+
+  public SPOutputMemory()
+  {
+    this.files = new ConcurrentSkipListMap<>();
+  }
+
+  @Override
+  public void write(
+    final String name,
+    final byte[] data,
+    final Optional<Instant> modified)
+    throws IOException
+  {
+    Objects.requireNonNull(data, "data");
+    Objects.requireNonNull(modified, "modified");
+
+    this.files.compute(SPOutputNames.check(name), (key, existing) -> {
+      if (existing != null
+          && Arrays.equals(existing.data(), data)
+          && modified.map(existing.modified()::equals).orElse(true)) {
+        return existing;
+      }
+      return new File(data, modified.orElseGet(Instant::now));
+    });
+  }
+
+  @Override
+  public void copy(
+    final String name,
+    final Path file,
+    final Optional<Instant> modified)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(modified, "modified");
+
+    this.write(
+      name,
+      Files.readAllBytes(file),
+      Optional.of(
+        modified.orElse(Files.getLastModifiedTime(file).toInstant())
+      )
+    );
+  }
+
+  @Override
+  public boolean exists(
+    final String name)
+  {
+    return this.files.containsKey(SPOutputNames.check(name));
+  }
+
+  @Override
+  public void delete(
+    final String name)
+  {
+    this.files.remove(SPOutputNames.check(name));
+  }
+
+  @Override
+  public void finish()
+  {
+
+  }
+
+  @Override
+  public Optional<File> get(
+    final String name)
+  {
+    return Optional.ofNullable(this.files.get(name));
+  }
+
+  @Override
+  public SortedSet<String> names()
+  {
+    return Collections.unmodifiableSortedSet(
+      new TreeSet<>(this.files.keySet())
+    );
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[SPOutputMemory %d files]".formatted(
+      Integer.valueOf(this.files.size())
+    );
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Functions over the names of output files.
+ */
+
+public final class SPOutputNames
+{
+  private SPOutputNames()
+  {
+
+  }
+
+  /**
+   * Check that the given name is a valid output file name: a non-empty
+   * sequence of non-empty elements separated by {@code /}, none of which are
+   * {@code .} or {@code ..}.
+   *
+   * @param name The name
+   *
+   * @return The name
+   *
+   * @throws IllegalArgumentException If the name is not valid
+   */
+
+  public static String check(
+    final String name)
+  {
+    Objects.requireNonNull(name, "name");
+
+    if (name.isEmpty() || name.indexOf('\\') >= 0) {
+      throw errorName(name);
+    }
+    for (final var element : name.split("/", -1)) {
+      if (element.isEmpty() || ".".equals(element) || "..".equals(element)) {
+        throw errorName(name);
+      }
+    }
+    return name;
+  }
+
+  /**
+   * Resolve the given name against a directory.
+   *
+   * @param directory The directory
+   * @param name      The name
+   *
+   * @return The file
+   */
+
+  public static Path resolve(
+    final Path directory,
+    final String name)
+  {
+    var file = directory;
+    for (final var element : check(name).split("/")) {
+      file = file.resolve(element);
+    }
+    return file;
+  }
+
+  private static IllegalArgumentException errorName(
+    final String name)
+  {
+    return new IllegalArgumentException(
+      "Invalid output file name: '%s'".formatted(name));
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.core.internal;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An output that writes a tar archive, optionally compressed with gzip, to
+ * a stream. The gzip header records neither a file name nor a time.
+ */
+
+public final class SPOutputTar extends SPOutputArchive
+{
+  private static final int MODE_FILE = 0100644;
+  private static final int MODE_DIRECTORY = 040755;
+
+  private final boolean compress;
+
+  /**
+   * An output that writes a tar archive to a stream.
+   *
+   * @param inStream   The stream
+   * @param inCompress {@code true} if the archive should be compressed
+   */
+
+  public SPOutputTar(
+    final OutputStream inStream,
+    final boolean inCompress)
+  {
+    super(inStream);
+    this.compress = inCompress;
+  }
+
+  @Override
+  protected void writeArchive(
+    final OutputStream output)
+    throws IOException
+  {
+    final OutputStream target =
+      this.compress
+        ? new GzipCompressorOutputStream(CloseShieldOutputStream.wrap(output))
+        : CloseShieldOutputStream.wrap(output);
+
+    try (var archive = new TarArchiveOutputStream(target, UTF_8.name())) {
+      archive.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+      archive.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+
+      this.forEachEntry(new EntryVisitorType()
+      {
+        @Override
+        public void directory(
+          final String name,
+          final Instant modified)
+          throws IOException
+        {
+          final var entry = newEntry(name, modified);
+          entry.setMode(MODE_DIRECTORY);
+          archive.putArchiveEntry(entry);
+          archive.closeArchiveEntry();
+        }
+
+        @Override
+        public void file(
+          final String name,
+          final Entry file)
+          throws IOException
+        {
+          final var entry = newEntry(name, file.modified());
+          entry.setMode(MODE_FILE);
+          entry.setSize(file.size());
+          archive.putArchiveEntry(entry);
+          file.writeTo(archive);
+          archive.closeArchiveEntry();
+        }
+      });
+      archive.finish();
+    }
+  }
+
+  /**
+   * Create an entry that does not depend on the user running the export.
+   */
+
+  private static TarArchiveEntry newEntry(
+    final String name,
+    final Instant modified)
+  {
+    final var entry = new TarArchiveEntry(name, true);
+    entry.setModTime(FileTime.from(modified));
+    entry.setUserId(0L);
+    entry.setGroupId(0L);
+    entry.setUserName("");
+    entry.setGroupName("");
+    return entry;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[SPOutputTar %s]".formatted(
+      this.compress ? "gzip" : "uncompressed"
+    );
+  }
+}
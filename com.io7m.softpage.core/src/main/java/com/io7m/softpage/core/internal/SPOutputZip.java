@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.core.internal;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * An output that writes a zip archive to a stream.
+ */
+
+public final class SPOutputZip extends SPOutputArchive
+{
+  private static final int MODE_FILE = 0100644;
+  private static final int MODE_DIRECTORY = 040755;
+
+  /**
+   * An output that writes a zip archive to a stream.
+   *
+   * @param inStream The stream
+   */
+
+  public SPOutputZip(
+    final OutputStream inStream)
+  {
+    super(inStream);
+  }
+
+  @Override
+  protected void writeArchive(
+    final OutputStream output)
+    throws IOException
+  {
+    try (var archive =
+           new ZipArchiveOutputStream(CloseShieldOutputStream.wrap(output))) {
+      this.forEachEntry(new EntryVisitorType()
+      {
+        @Override
+        public void directory(
+          final String name,
+          final Instant modified)
+          throws IOException
+        {
+          final var entry = newEntry(name, modified);
+          entry.setUnixMode(MODE_DIRECTORY);
+          archive.putArchiveEntry(entry);
+          archive.closeArchiveEntry();
+        }
+
+        @Override
+        public void file(
+          final String name,
+          final Entry file)
+          throws IOException
+        {
+          final var entry = newEntry(name, file.modified());
+          entry.setUnixMode(MODE_FILE);
+          entry.setSize(file.size());
+          archive.putArchiveEntry(entry);
+          file.writeTo(archive);
+          archive.closeArchiveEntry();
+        }
+      });
+      archive.finish();
+    }
+  }
+
+  private static ZipArchiveEntry newEntry(
+    final String name,
+    final Instant modified)
+  {
+    final var entry = new ZipArchiveEntry(name);
+    entry.setTime(dosTimeOf(modified));
+    return entry;
+  }
+
+  /**
+   * Zip entry times are recorded as local date-times, in whatever time zone
+   * the archiver happens to be running. Record the UTC date-time instead,
+   * so that the archive does not depend on the time zone of the machine.
+   */
+
+  private static long dosTimeOf(
+    final Instant modified)
+  {
+    return modified.atOffset(ZoneOffset.UTC)
+      .toLocalDateTime()
+      .atZone(ZoneId.systemDefault())
+      .toInstant()
+      .toEpochMilli();
+  }
+
+  @Override
+  public String toString()
+  {
+    return "[SPOutputZip]";
+  }
+}
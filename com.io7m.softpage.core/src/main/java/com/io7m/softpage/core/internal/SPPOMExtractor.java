@@ -0,0 +1,579 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+import io.fabric8.maven.Maven;
+import org.apache.maven.model.IssueManagement;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Scm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * A streaming extractor for the few POM fields used to generate a site.
+ * POMs are read with StAX, and reading stops as soon as every required field
+ * has been seen, so large POMs are neither fully parsed nor held in memory as
+ * a full {@link Model}. The parent is only required while one of the fields
+ * that it could supply is missing, so a POM without a parent is not read to
+ * the end when its own fields are complete. If a POM cannot be read as plain
+ * XML, the extractor falls back to the full Maven model reader.
+ */
+
+public final class SPPOMExtractor
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPPOMExtractor.class);
+
+  private SPPOMExtractor()
+  {
+
+  }
+
+  /**
+   * Extract the fields used to generate a site from the given POM.
+   *
+   * @param file The POM file
+   *
+   * @return The extracted fields
+   *
+   * @throws SPException On errors
+   */
+
+  public static SPPOMSummary extractProject(
+    final Path file)
+    throws SPException
+  {
+    try {
+      return extractProjectStreaming(file);
+    } catch (final XMLStreamException e) {
+      LOG.debug(
+        "{}: Falling back to the Maven model reader: {}",
+        file,
+        e.getMessage()
+      );
+      return ofModel(Maven.readModel(file));
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  /**
+   * Extract the fields used to generate a site from the given POM data.
+   *
+   * @param file The POM file from which the data was read
+   * @param data The POM data
+   *
+   * @return The extracted fields
+   *
+   * @throws SPException On errors
+   */
+
+  public static SPPOMSummary extractProject(
+    final Path file,
+    final byte[] data)
+    throws SPException
+  {
+    try {
+      return extractProjectStreaming(new ByteArrayInputStream(data));
+    } catch (final XMLStreamException e) {
+      LOG.debug(
+        "{}: Falling back to the Maven model reader: {}",
+        file,
+        e.getMessage()
+      );
+      return ofModel(Maven.readModel(new ByteArrayInputStream(data)));
+    }
+  }
+
+  /**
+   * Extract the fields that a child POM may inherit, and the fields needed
+   * to resolve them in turn, from the given parent POM data. The name and
+   * modules are not needed for this, and reading does not wait for them, so
+   * they may be absent from the result.
+   *
+   * @param file The POM file from which the data was read
+   * @param data The POM data
+   *
+   * @return The extracted fields
+   *
+   * @throws SPException On errors
+   */
+
+  public static SPPOMSummary extractInherited(
+    final Path file,
+    final byte[] data)
+    throws SPException
+  {
+    try {
+      final var reader = createReader(new ByteArrayInputStream(data));
+      try {
+        return new ProjectExtraction(reader, ProjectExtraction.INHERITED)
+          .run();
+      } finally {
+        reader.close();
+      }
+    } catch (final XMLStreamException e) {
+      LOG.debug(
+        "{}: Falling back to the Maven model reader: {}",
+        file,
+        e.getMessage()
+      );
+      return ofModel(Maven.readModel(new ByteArrayInputStream(data)));
+    }
+  }
+
+  /**
+   * Extract the artifact ID from the given (module) POM.
+   *
+   * @param file The POM file
+   *
+   * @return The artifact ID, if any
+   *
+   * @throws SPException On errors
+   */
+
+  public static Optional<String> extractArtifactId(
+    final Path file)
+    throws SPException
+  {
+    try {
+      return extractArtifactIdStreaming(file);
+    } catch (final XMLStreamException e) {
+      LOG.debug(
+        "{}: Falling back to the Maven model reader: {}",
+        file,
+        e.getMessage()
+      );
+      return Optional.ofNullable(Maven.readModel(file).getArtifactId());
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  /**
+   * Convert a full Maven model to a summary.
+   *
+   * @param model The model
+   *
+   * @return The summary
+   */
+
+  public static SPPOMSummary ofModel(
+    final Model model)
+  {
+    return new SPPOMSummary(
+      Optional.ofNullable(model.getGroupId()),
+      Optional.ofNullable(model.getArtifactId()),
+      Optional.ofNullable(model.getVersion()),
+      Optional.ofNullable(model.getName()),
+      Optional.ofNullable(model.getDescription()),
+      Optional.ofNullable(model.getScm())
+        .map(Scm::getUrl),
+      Optional.ofNullable(model.getIssueManagement())
+        .map(IssueManagement::getUrl),
+      model.getModules(),
+      Optional.ofNullable(model.getParent())
+        .map(p -> {
+          return new SPPOMParent(
+            p.getGroupId(),
+            p.getArtifactId(),
+            p.getVersion(),
+            Optional.ofNullable(p.getRelativePath())
+          );
+        }),
+      Optional.ofNullable(model.getScm())
+        .map(Scm::isChildScmUrlInheritAppendPath)
+        .orElse(Boolean.TRUE)
+    );
+  }
+
+  private static XMLStreamReader createReader(
+    final InputStream stream)
+    throws XMLStreamException
+  {
+    final var factory = XMLInputFactory.newDefaultFactory();
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+    factory.setProperty(
+      XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    return factory.createXMLStreamReader(stream);
+  }
+
+  private static Optional<String> extractArtifactIdStreaming(
+    final Path file)
+    throws IOException, XMLStreamException
+  {
+    try (final var stream = Files.newInputStream(file)) {
+      final var reader = createReader(stream);
+      try {
+        var depth = 0;
+        while (reader.hasNext()) {
+          switch (reader.next()) {
+            case START_ELEMENT -> {
+              ++depth;
+              if (depth == 2 && "artifactId".equals(reader.getLocalName())) {
+                return Optional.of(elementText(reader));
+              }
+              if (depth == 2) {
+                skipElement(reader);
+                --depth;
+              }
+            }
+            case END_ELEMENT -> {
+              --depth;
+            }
+            default -> {
+              // Not interesting.
+            }
+          }
+        }
+        return Optional.empty();
+      } finally {
+        reader.close();
+      }
+    }
+  }
+
+  private static SPPOMSummary extractProjectStreaming(
+    final Path file)
+    throws IOException, XMLStreamException
+  {
+    try (final var stream = Files.newInputStream(file)) {
+      return extractProjectStreaming(stream);
+    }
+  }
+
+  private static SPPOMSummary extractProjectStreaming(
+    final InputStream stream)
+    throws XMLStreamException
+  {
+    final var reader = createReader(stream);
+    try {
+      return new ProjectExtraction(reader, ProjectExtraction.ALL).run();
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * Read the text of the element at which the reader is currently positioned,
+   * trimmed in the same way as the Maven model reader.
+   */
+
+  private static String elementText(
+    final XMLStreamReader reader)
+    throws XMLStreamException
+  {
+    return reader.getElementText().trim();
+  }
+
+  /**
+   * Skip the element at which the reader is currently positioned, including
+   * all of its descendants. On return, the reader is positioned at the
+   * corresponding end element.
+   */
+
+  private static void skipElement(
+    final XMLStreamReader reader)
+    throws XMLStreamException
+  {
+    var depth = 1;
+    while (depth > 0) {
+      switch (reader.next()) {
+        case START_ELEMENT -> ++depth;
+        case END_ELEMENT -> --depth;
+        default -> {
+          // Not interesting.
+        }
+      }
+    }
+  }
+
+  private static final class ProjectExtraction
+  {
+    private static final int GROUP_ID = 1;
+    private static final int ARTIFACT_ID = 1 << 1;
+    private static final int VERSION = 1 << 2;
+    private static final int NAME = 1 << 3;
+    private static final int DESCRIPTION = 1 << 4;
+    private static final int SCM = 1 << 5;
+    private static final int ISSUE_MANAGEMENT = 1 << 6;
+    private static final int MODULES = 1 << 7;
+    private static final int PARENT = 1 << 8;
+    private static final int ALL = (1 << 9) - 1;
+    private static final int INHERITED = ALL & ~(NAME | MODULES);
+
+    private final XMLStreamReader reader;
+    private final int required;
+    private final ArrayList<String> modules;
+    private Optional<String> groupId;
+    private Optional<String> artifactId;
+    private Optional<String> version;
+    private Optional<String> name;
+    private Optional<String> description;
+    private Optional<String> scmURL;
+    private Optional<String> issuesURL;
+    private Optional<SPPOMParent> parent;
+    private boolean scmAppend;
+    private int seen;
+
+    ProjectExtraction(
+      final XMLStreamReader inReader,
+      final int inRequired)
+    {
+      this.reader = inReader;
+      this.required = inRequired;
+      this.modules = new ArrayList<>();
+      this.groupId = Optional.empty();
+      this.artifactId = Optional.empty();
+      this.version = Optional.empty();
+      this.name = Optional.empty();
+      this.description = Optional.empty();
+      this.scmURL = Optional.empty();
+      this.issuesURL = Optional.empty();
+      this.parent = Optional.empty();
+      this.scmAppend = true;
+    }
+
+    SPPOMSummary run()
+      throws XMLStreamException
+    {
+      var depth = 0;
+      while (this.reader.hasNext() && !this.isComplete()) {
+        switch (this.reader.next()) {
+          case START_ELEMENT -> {
+            ++depth;
+            if (depth == 2) {
+              this.topLevelElement();
+              --depth;
+            }
+          }
+          case END_ELEMENT -> {
+            --depth;
+          }
+          default -> {
+            // Not interesting.
+          }
+        }
+      }
+
+      return new SPPOMSummary(
+        this.groupId,
+        this.artifactId,
+        this.version,
+        this.name,
+        this.description,
+        this.scmURL,
+        this.issuesURL,
+        this.modules,
+        this.parent,
+        this.scmAppend
+      );
+    }
+
+    /**
+     * Every required field has been seen, or every required field but the
+     * parent has been seen and the parent could supply nothing that is
+     * missing.
+     */
+
+    private boolean isComplete()
+    {
+      final var seenRequired = this.seen & this.required;
+      if (seenRequired == this.required) {
+        return true;
+      }
+      return (seenRequired | PARENT) == this.required
+             && this.groupId.isPresent()
+             && this.version.isPresent()
+             && this.description.isPresent()
+             && this.scmURL.isPresent()
+             && this.issuesURL.isPresent();
+    }
+
+    /**
+     * Handle an element that is a direct child of the project element. On
+     * return, the reader is positioned at the corresponding end element.
+     */
+
+    private void topLevelElement()
+      throws XMLStreamException
+    {
+      switch (this.reader.getLocalName()) {
+        case "groupId" -> {
+          this.groupId = this.text(GROUP_ID);
+        }
+        case "artifactId" -> {
+          this.artifactId = this.text(ARTIFACT_ID);
+        }
+        case "version" -> {
+          this.version = this.text(VERSION);
+        }
+        case "name" -> {
+          this.name = this.text(NAME);
+        }
+        case "description" -> {
+          this.description = this.text(DESCRIPTION);
+        }
+        case "scm" -> {
+          this.scmAppend =
+            !"false".equals(
+              this.reader.getAttributeValue(
+                null, "child.scm.url.inherit.append.path")
+            );
+          this.scmURL = this.childText(SCM, "url");
+        }
+        case "parent" -> {
+          this.parent = this.parentElement();
+        }
+        case "issueManagement" -> {
+          this.issuesURL = this.childText(ISSUE_MANAGEMENT, "url");
+        }
+        case "modules" -> {
+          this.modules.addAll(this.childTexts("module"));
+          this.seen |= MODULES;
+        }
+        default -> {
+          skipElement(this.reader);
+        }
+      }
+    }
+
+    private Optional<SPPOMParent> parentElement()
+      throws XMLStreamException
+    {
+      this.seen |= PARENT;
+
+      String parentGroup = null;
+      String parentArtifact = null;
+      String parentVersion = null;
+      // The Maven model gives an absent relative path this default.
+      Optional<String> parentPath = Optional.of("../pom.xml");
+
+      while (true) {
+        switch (this.reader.next()) {
+          case START_ELEMENT -> {
+            switch (this.reader.getLocalName()) {
+              case "groupId" -> parentGroup = elementText(this.reader);
+              case "artifactId" ->
+                parentArtifact = elementText(this.reader);
+              case "version" -> parentVersion = elementText(this.reader);
+              case "relativePath" -> {
+                parentPath = Optional.of(elementText(this.reader));
+              }
+              default -> skipElement(this.reader);
+            }
+          }
+          case END_ELEMENT -> {
+            if (parentGroup == null
+                || parentArtifact == null
+                || parentVersion == null) {
+              return Optional.empty();
+            }
+            return Optional.of(
+              new SPPOMParent(
+                parentGroup,
+                parentArtifact,
+                parentVersion,
+                parentPath
+              )
+            );
+          }
+          default -> {
+            // Not interesting.
+          }
+        }
+      }
+    }
+
+    private Optional<String> text(
+      final int field)
+      throws XMLStreamException
+    {
+      this.seen |= field;
+      return Optional.of(elementText(this.reader));
+    }
+
+    private Optional<String> childText(
+      final int field,
+      final String childName)
+      throws XMLStreamException
+    {
+      this.seen |= field;
+
+      Optional<String> result = Optional.empty();
+      while (true) {
+        switch (this.reader.next()) {
+          case START_ELEMENT -> {
+            if (childName.equals(this.reader.getLocalName())) {
+              result = Optional.of(elementText(this.reader));
+            } else {
+              skipElement(this.reader);
+            }
+          }
+          case END_ELEMENT -> {
+            return result;
+          }
+          default -> {
+            // Not interesting.
+          }
+        }
+      }
+    }
+
+    private ArrayList<String> childTexts(
+      final String childName)
+      throws XMLStreamException
+    {
+      final var results = new ArrayList<String>();
+      while (true) {
+        switch (this.reader.next()) {
+          case START_ELEMENT -> {
+            if (childName.equals(this.reader.getLocalName())) {
+              results.add(elementText(this.reader));
+            } else {
+              skipElement(this.reader);
+            }
+          }
+          case END_ELEMENT -> {
+            return results;
+          }
+          default -> {
+            // Not interesting.
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A reference to a parent POM.
+ *
+ * @param groupId      The parent group ID
+ * @param artifactId   The parent artifact ID
+ * @param version      The parent version
+ * @param relativePath The relative path of the parent POM, if specified
+ */
+
+public record SPPOMParent(
+  String groupId,
+  String artifactId,
+  String version,
+  Optional<String> relativePath)
+{
+  /**
+   * A reference to a parent POM.
+   *
+   * @param groupId      The parent group ID
+   * @param artifactId   The parent artifact ID
+   * @param version      The parent version
+   * @param relativePath The relative path of the parent POM, if specified
+   */
+
+  public SPPOMParent
+  {
+    groupId = groupId.trim();
+    artifactId = artifactId.trim();
+    version = version.trim();
+    Objects.requireNonNull(relativePath, "relativePath");
+  }
+
+  /**
+   * @return The parent coordinates in {@code groupId:artifactId:version}
+   * form
+   */
+
+  public String coordinates()
+  {
+    return "%s:%s:%s".formatted(this.groupId, this.artifactId, this.version);
+  }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A resolver for fields that a POM inherits from its parent POMs. Parent POMs
+ * are located either within the project checkout (using the parent's
+ * relative path) or within a local Maven repository directory. Parsed parent
+ * POMs are held in a cache keyed by coordinates and content hash, so that a
+ * parent shared by many projects is parsed only once per process.
+ */
+
+public final class SPPOMParents
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPPOMParents.class);
+
+  private static final int MAXIMUM_DEPTH = 32;
+
+  private final ConcurrentHashMap<Key, SPPOMSummary> cache;
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+
+  private SPPOMParents()
+  {
+    this.cache = new ConcurrentHashMap<>();
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+  }
+
+  /**
+   * Create a new resolver with an empty cache.
+   *
+   * @return The resolver
+   */
+
+  public static SPPOMParents create()
+  {
+    return new SPPOMParents();
+  }
+
+  /**
+   * @return The number of parent POMs served from the cache
+   */
+
+  public long cacheHits()
+  {
+    return this.hits.get();
+  }
+
+  /**
+   * @return The number of parent POMs parsed
+   */
+
+  public long cacheMisses()
+  {
+    return this.misses.get();
+  }
+
+  /**
+   * Resolve the fields of the given POM that are inherited from its parents.
+   * Parents that cannot be located are logged and ignored, leaving the
+   * corresponding fields unresolved.
+   *
+   * @param checkout     The project checkout; parents located by relative
+   *                     path must be inside this directory
+   * @param file         The POM file
+   * @param pom          The POM
+   * @param repositories The local repository directories to search
+   * @param recorder     The recorder of files read
+   *
+   * @return The POM with inherited fields filled in
+   *
+   * @throws SPException On errors
+   */
+
+  public SPPOMSummary resolve(
+    final Path checkout,
+    final Path file,
+    final SPPOMSummary pom,
+    final List<Path> repositories,
+    final SPFingerprintRecorder recorder)
+    throws SPException
+  {
+    Objects.requireNonNull(checkout, "checkout");
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(pom, "pom");
+    Objects.requireNonNull(repositories, "repositories");
+    Objects.requireNonNull(recorder, "recorder");
+
+    var result = pom;
+    var current = pom;
+    var currentFile = file;
+
+    /*
+     * The artifact IDs of every POM between the one being resolved and the
+     * current ancestor. These are appended to an inherited SCM URL in the
+     * same manner as Maven.
+     */
+
+    final var scmPath = new ArrayList<String>();
+
+    for (int depth = 0; depth < MAXIMUM_DEPTH; ++depth) {
+      if (isComplete(result) || current.parent().isEmpty()) {
+        return result;
+      }
+
+      final var parentRef =
+        current.parent().get();
+      final var located =
+        this.locate(checkout, currentFile, parentRef, repositories, recorder);
+
+      if (located.isEmpty()) {
+        LOG.debug(
+          "{}: Parent POM {} could not be located",
+          file,
+          parentRef.coordinates()
+        );
+        return result;
+      }
+
+      current.artifactId()
+        .ifPresent(id -> scmPath.add(0, id.trim()));
+
+      final var parent = located.get();
+      result = inherit(result, parent.pom, scmPath);
+      current = parent.pom;
+      currentFile = parent.file;
+    }
+
+    LOG.warn("{}: Parent POM chain is too deep", file);
+    return result;
+  }
+
+  private static boolean isComplete(
+    final SPPOMSummary pom)
+  {
+    return pom.groupId().isPresent()
+           && pom.version().isPresent()
+           && pom.description().isPresent()
+           && pom.scmURL().isPresent()
+           && pom.issuesURL().isPresent();
+  }
+
+  private static SPPOMSummary inherit(
+    final SPPOMSummary child,
+    final SPPOMSummary parent,
+    final List<String> scmPath)
+  {
+    final var scmURL =
+      child.scmURL()
+        .or(() -> {
+          return parent.scmURL()
+            .map(url -> parent.scmAppend() ? appendPath(url, scmPath) : url);
+        });
+
+    return new SPPOMSummary(
+      child.effectiveGroupId().or(parent::effectiveGroupId),
+      child.artifactId(),
+      child.effectiveVersion().or(parent::effectiveVersion),
+      child.name(),
+      child.description().or(parent::description),
+      scmURL,
+      child.issuesURL().or(parent::issuesURL),
+      child.modules(),
+      child.parent(),
+      child.scmAppend()
+    );
+  }
+
+  private static String appendPath(
+    final String url,
+    final List<String> path)
+  {
+    final var text = new StringBuilder(url.trim());
+    for (final var element : path) {
+      if (text.charAt(text.length() - 1) != '/') {
+        text.append('/');
+      }
+      text.append(element);
+    }
+    return text.toString();
+  }
+
+  private SPPOMSummary load(
+    final Path file,
+    final SPPOMParent parent)
+    throws SPException
+  {
+    try {
+      final var data =
+        Files.readAllBytes(file);
+      final var digest =
+        SPFingerprints.sha256().digest(data);
+      final var key =
+        new Key(parent.coordinates(), HexFormat.of().formatHex(digest));
+
+      final var existing = this.cache.get(key);
+      if (existing != null) {
+        this.hits.incrementAndGet();
+        return existing;
+      }
+
+      LOG.debug("{}: Parsing parent POM {}", file, key.coordinates);
+      this.misses.incrementAndGet();
+      final var summary = SPPOMExtractor.extractInherited(file, data);
+      final var previous = this.cache.putIfAbsent(key, summary);
+      return Objects.requireNonNullElse(previous, summary);
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  private Optional<Located> locate(
+    final Path checkout,
+    final Path childFile,
+    final SPPOMParent parent,
+    final List<Path> repositories,
+    final SPFingerprintRecorder recorder)
+    throws SPException
+  {
+    final var relative = parent.relativePath().orElse("../pom.xml");
+    if (!relative.isEmpty()) {
+      final var local =
+        this.locateInCheckout(checkout, childFile, parent, relative, recorder);
+      if (local.isPresent()) {
+        return local;
+      }
+    }
+
+    for (final var repository : repositories) {
+      final var fileName =
+        "%s-%s.pom".formatted(parent.artifactId(), parent.version());
+      final var file =
+        repository.resolve(parent.groupId().replace('.', '/'))
+          .resolve(parent.artifactId())
+          .resolve(parent.version())
+          .resolve(fileName);
+
+      if (Files.isRegularFile(file)) {
+        recorder.recordFile(file);
+        return Optional.of(new Located(file, this.load(file, parent)));
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Optional<Located> locateInCheckout(
+    final Path checkout,
+    final Path childFile,
+    final SPPOMParent parent,
+    final String relative,
+    final SPFingerprintRecorder recorder)
+    throws SPException
+  {
+    final var base =
+      checkout.toAbsolutePath().normalize();
+
+    var file =
+      childFile.toAbsolutePath()
+        .getParent()
+        .resolve(relative)
+        .normalize();
+
+    if (Files.isDirectory(file)) {
+      file = file.resolve("pom.xml");
+    }
+    if (!file.startsWith(base) || !Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+
+    /*
+     * As with Maven, a POM found at the relative path is only used if it is
+     * actually the expected parent.
+     */
+
+    recorder.recordFile(file);
+    final var candidate = this.load(file, parent);
+    final var matches =
+      candidate.effectiveGroupId()
+        .map(String::trim)
+        .equals(Optional.of(parent.groupId()))
+      && candidate.artifactId()
+        .map(String::trim)
+        .equals(Optional.of(parent.artifactId()));
+
+    if (matches) {
+      return Optional.of(new Located(file, candidate));
+    }
+    return Optional.empty();
+  }
+
+  private record Located(
+    Path file,
+    SPPOMSummary pom)
+  {
+
+  }
+
+  private record Key(
+    String coordinates,
+    String hash)
+  {
+
+  }
+}
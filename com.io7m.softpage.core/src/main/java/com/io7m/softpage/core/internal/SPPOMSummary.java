@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The subset of a Maven POM that is used to generate a site.
+ *
+ * @param groupId     The group ID
+ * @param artifactId  The artifact ID
+ * @param version     The version
+ * @param name        The project name
+ * @param description The project description
+ * @param scmURL      The SCM URL
+ * @param issuesURL   The issue management URL
+ * @param modules     The module names
+ * @param parent      The parent POM, if any
+ * @param scmAppend   {@code true} if children inheriting the SCM URL should
+ *                    append their artifact ID to it
+ */
+
+public record SPPOMSummary(
+  Optional<String> groupId,
+  Optional<String> artifactId,
+  Optional<String> version,
+  Optional<String> name,
+  Optional<String> description,
+  Optional<String> scmURL,
+  Optional<String> issuesURL,
+  List<String> modules,
+  Optional<SPPOMParent> parent,
+  boolean scmAppend)
+{
+  /**
+   * The subset of a Maven POM that is used to generate a site.
+   *
+   * @param groupId     The group ID
+   * @param artifactId  The artifact ID
+   * @param version     The version
+   * @param name        The project name
+   * @param description The project description
+   * @param scmURL      The SCM URL
+   * @param issuesURL   The issue management URL
+   * @param modules     The module names
+   * @param parent      The parent POM, if any
+   * @param scmAppend   {@code true} if children inheriting the SCM URL should
+   *                    append their artifact ID to it
+   */
+
+  public SPPOMSummary
+  {
+    Objects.requireNonNull(groupId, "groupId");
+    Objects.requireNonNull(artifactId, "artifactId");
+    Objects.requireNonNull(version, "version");
+    Objects.requireNonNull(name, "name");
+    Objects.requireNonNull(description, "description");
+    Objects.requireNonNull(scmURL, "scmURL");
+    Objects.requireNonNull(issuesURL, "issuesURL");
+    modules = List.copyOf(modules);
+    Objects.requireNonNull(parent, "parent");
+  }
+
+  /**
+   * @return The group ID, falling back to the group ID of the parent
+   */
+
+  public Optional<String> effectiveGroupId()
+  {
+    return this.groupId.or(() -> this.parent.map(SPPOMParent::groupId));
+  }
+
+  /**
+   * @return The version, falling back to the version of the parent
+   */
+
+  public Optional<String> effectiveVersion()
+  {
+    return this.version.or(() -> this.parent.map(SPPOMParent::version));
+  }
+}
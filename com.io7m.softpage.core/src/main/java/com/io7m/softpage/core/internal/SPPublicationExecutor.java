@@ -21,12 +21,15 @@ import com.io7m.jmulticlose.core.CloseableCollection;
 import com.io7m.jmulticlose.core.CloseableCollectionType;
 import com.io7m.softpage.core.SPException;
 import com.io7m.softpage.core.SPPublicationExecutorType;
+import com.io7m.softpage.core.SPPublicationMetrics;
 import com.io7m.softpage.core.SPPublicationResultType;
 import com.io7m.softpage.core.SPPublicationResultType.Failed;
+import com.io7m.softpage.core.SPPublicationResultType.Succeeded;
 import com.io7m.softpage.core.SPPublicationSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -126,34 +129,62 @@ public final class SPPublicationExecutor
     final var future = new CompletableFuture<Void>();
     this.executor.execute(() -> {
       try {
-        future.complete(this.executeProjectOnce(project));
+        this.results.put(project.name(), this.executeProjectOnce(project));
+        future.complete(null);
       } catch (final Throwable e) {
         LOG.debug("[{}] Task failed: ", project.name(), e);
-        this.results.put(project.name(), new Failed(SPException.wrap(e)));
+        this.results.put(
+          project.name(),
+          new Failed(SPException.wrap(e), SPPublicationMetrics.EMPTY)
+        );
         future.completeExceptionally(e);
       }
     });
     return future;
   }
 
-  private Void executeProjectOnce(
+  private SPPublicationResultType executeProjectOnce(
     final SPPublicationSet.Project project)
-    throws Exception
+    throws InterruptedException
   {
     LOG.debug("[{}] Waiting for semaphore", project.name());
+
+    final var waitStart = System.nanoTime();
+    final var waitEvent = new SPJFRSemaphoreWait();
+    waitEvent.begin();
     this.semaphore.acquire();
+    waitEvent.end();
+    if (waitEvent.shouldCommit()) {
+      waitEvent.project = project.name();
+      waitEvent.commit();
+    }
+
+    final var queueWait =
+      Duration.ofNanos(System.nanoTime() - waitStart);
+
     LOG.debug("[{}] Aqcuired semaphore", project.name());
 
+    /*
+     * The task is closed as soon as it completes so that its temporary
+     * directories do not accumulate over the course of a large run, and
+     * so that the cleanup time can be included in the measurements.
+     */
+
+    final var task =
+      new SPPublicationTask(this.publicationSet, project, queueWait);
+
     try {
-      this.resources.add(
-        new SPPublicationTask(this.publicationSet, project)
-      ).execute();
+      try (task) {
+        task.execute();
+      }
+      return new Succeeded(task.metrics());
+    } catch (final Exception e) {
+      LOG.debug("[{}] Task failed: ", project.name(), e);
+      return new Failed(SPException.wrap(e), task.metrics());
     } finally {
       this.semaphore.release();
       LOG.debug("[{}] Released semaphore", project.name());
     }
-
-    return null;
   }
 
   private void checkNotClosed()
@@ -0,0 +1,426 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.io7m.softpage.core.SPPublicationResultType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * A machine-readable report of the results of a publication run, written
+ * either as JSON or as an OpenMetrics text file suitable for the
+ * node_exporter textfile collector.
+ *
+ * @param time     The time the report was produced
+ * @param projects The projects, sorted by name
+ */
+
+@JsonDeserialize
+@JsonSerialize
+public record SPPublicationReport(
+  @JsonProperty(value = "Time", required = true)
+  String time,
+  @JsonProperty(value = "Projects", required = true)
+  List<Project> projects)
+{
+  private static final JsonMapper MAPPER =
+    JsonMapper.builder()
+      .enable(SerializationFeature.INDENT_OUTPUT)
+      .build();
+
+  /**
+   * A machine-readable report of the results of a publication run.
+   *
+   * @param time     The time the report was produced
+   * @param projects The projects, sorted by name
+   */
+
+  public SPPublicationReport
+  {
+    Objects.requireNonNull(time, "time");
+    projects = projects.stream()
+      .sorted(Comparator.comparing(Project::name))
+      .toList();
+  }
+
+  /**
+   * Produce a report from the given results.
+   *
+   * @param time    The time the report was produced
+   * @param results The results, by project name
+   *
+   * @return The report
+   */
+
+  public static SPPublicationReport of(
+    final OffsetDateTime time,
+    final Map<String, SPPublicationResultType> results)
+  {
+    Objects.requireNonNull(time, "time");
+    Objects.requireNonNull(results, "results");
+
+    return new SPPublicationReport(
+      time.toString(),
+      results.entrySet()
+        .stream()
+        .map(e -> Project.of(e.getKey(), e.getValue()))
+        .toList()
+    );
+  }
+
+  /**
+   * Atomically write the report as JSON.
+   *
+   * @param file The output file
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public void writeJSON(
+    final Path file)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+
+    writeAtomically(file, writer -> MAPPER.writeValue(writer, this));
+  }
+
+  /**
+   * Atomically write the report as an OpenMetrics text file. The file is
+   * replaced rather than rewritten in place so that a concurrent scrape
+   * never observes a partial file.
+   *
+   * @param file The output file
+   *
+   * @throws IOException On I/O errors
+   */
+
+  public void writeOpenMetrics(
+    final Path file)
+    throws IOException
+  {
+    Objects.requireNonNull(file, "file");
+
+    writeAtomically(file, this::writeOpenMetricsText);
+  }
+
+  private void writeOpenMetricsText(
+    final Writer writer)
+    throws IOException
+  {
+    writeFamily(
+      writer,
+      "softpage_publication_succeeded",
+      "",
+      "Whether the publication of the project succeeded."
+    );
+    for (final var project : this.projects) {
+      writeSample(
+        writer,
+        "softpage_publication_succeeded",
+        project.name,
+        Optional.empty(),
+        project.succeeded ? "1" : "0"
+      );
+    }
+
+    writeFamily(
+      writer,
+      "softpage_publication_phase_seconds",
+      "seconds",
+      "The time spent in each phase of the publication."
+    );
+    this.writePhase(writer, "queue", Project::queueWaitSeconds);
+    this.writePhase(writer, "clone", Project::cloneSeconds);
+    this.writePhase(writer, "render", Project::renderSeconds);
+    this.writePhase(writer, "publish", Project::publishSeconds);
+    this.writePhase(writer, "cleanup", Project::cleanupSeconds);
+
+    writeFamily(
+      writer,
+      "softpage_publication_bytes",
+      "bytes",
+      "The number of bytes processed by each phase of the publication."
+    );
+    for (final var project : this.projects) {
+      writeBytes(writer, project, "cloned", project.bytesCloned);
+      writeBytes(writer, project, "rendered", project.bytesRendered);
+      writeBytes(writer, project, "transferred", project.bytesTransferred);
+    }
+
+    writeFamily(
+      writer,
+      "softpage_publication_rendered_files",
+      "",
+      "The number of files rendered."
+    );
+    for (final var project : this.projects) {
+      writeSample(
+        writer,
+        "softpage_publication_rendered_files",
+        project.name,
+        Optional.empty(),
+        Long.toString(project.filesRendered)
+      );
+    }
+
+    writer.write("# EOF\n");
+  }
+
+  private void writePhase(
+    final Writer writer,
+    final String phase,
+    final ToDoubleFunction<Project> value)
+    throws IOException
+  {
+    for (final var project : this.projects) {
+      writeSample(
+        writer,
+        "softpage_publication_phase_seconds",
+        project.name,
+        Optional.of("phase=\"%s\"".formatted(phase)),
+        Double.toString(value.applyAsDouble(project))
+      );
+    }
+  }
+
+  private static void writeBytes(
+    final Writer writer,
+    final Project project,
+    final String stage,
+    final long bytes)
+    throws IOException
+  {
+    writeSample(
+      writer,
+      "softpage_publication_bytes",
+      project.name,
+      Optional.of("stage=\"%s\"".formatted(stage)),
+      Long.toString(bytes)
+    );
+  }
+
+  private static void writeFamily(
+    final Writer writer,
+    final String name,
+    final String unit,
+    final String help)
+    throws IOException
+  {
+    writer.write("# TYPE %s gauge\n".formatted(name));
+    if (!unit.isEmpty()) {
+      writer.write("# UNIT %s %s\n".formatted(name, unit));
+    }
+    writer.write("# HELP %s %s\n".formatted(name, help));
+  }
+
+  private static void writeSample(
+    final Writer writer,
+    final String name,
+    final String project,
+    final Optional<String> label,
+    final String value)
+    throws IOException
+  {
+    writer.write(name);
+    writer.write("{project=\"");
+    writer.write(escapeLabel(project));
+    writer.write('"');
+    if (label.isPresent()) {
+      writer.write(',');
+      writer.write(label.get());
+    }
+    writer.write("} ");
+    writer.write(value);
+    writer.write('\n');
+  }
+
+  private static String escapeLabel(
+    final String text)
+  {
+    final var result = new StringBuilder(text.length());
+    for (final var c : text.toCharArray()) {
+      switch (c) {
+        case '\\' -> result.append("\\\\");
+        case '"' -> result.append("\\\"");
+        case '\n' -> result.append("\\n");
+        default -> result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+  private static void writeAtomically(
+    final Path file,
+    final WriterProcedureType procedure)
+    throws IOException
+  {
+    final var absolute =
+      file.toAbsolutePath();
+    final var fileTmp =
+      absolute.resolveSibling(absolute.getFileName() + ".tmp");
+
+    try (final var writer =
+           Files.newBufferedWriter(fileTmp, StandardCharsets.UTF_8)) {
+      procedure.write(writer);
+    }
+    Files.move(fileTmp, absolute, ATOMIC_MOVE, REPLACE_EXISTING);
+  }
+
+  private interface WriterProcedureType
+  {
+    void write(Writer writer)
+      throws IOException;
+  }
+
+  /**
+   * The result of publishing a single project.
+   *
+   * @param name             The project name
+   * @param succeeded        {@code true} if publication succeeded
+   * @param errorCode        The error code, if publication failed
+   * @param errorMessage     The error message, if publication failed
+   * @param queueWaitSeconds The time spent waiting for a publication slot
+   * @param cloneSeconds     The time spent cloning the repository
+   * @param renderSeconds    The time spent rendering the site
+   * @param publishSeconds   The time spent transferring the site
+   * @param cleanupSeconds   The time spent deleting temporary directories
+   * @param bytesCloned      The size of the objects received when cloning
+   * @param filesRendered    The number of files rendered
+   * @param bytesRendered    The size of the rendered site
+   * @param bytesTransferred The number of bytes sent to the target host
+   */
+
+  @JsonDeserialize
+  @JsonSerialize
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public record Project(
+    @JsonProperty(value = "Name", required = true)
+    String name,
+    @JsonProperty(value = "Succeeded", required = true)
+    boolean succeeded,
+    @JsonProperty(value = "ErrorCode")
+    String errorCode,
+    @JsonProperty(value = "ErrorMessage")
+    String errorMessage,
+    @JsonProperty(value = "QueueWaitSeconds", required = true)
+    double queueWaitSeconds,
+    @JsonProperty(value = "CloneSeconds", required = true)
+    double cloneSeconds,
+    @JsonProperty(value = "RenderSeconds", required = true)
+    double renderSeconds,
+    @JsonProperty(value = "PublishSeconds", required = true)
+    double publishSeconds,
+    @JsonProperty(value = "CleanupSeconds", required = true)
+    double cleanupSeconds,
+    @JsonProperty(value = "BytesCloned", required = true)
+    long bytesCloned,
+    @JsonProperty(value = "FilesRendered", required = true)
+    long filesRendered,
+    @JsonProperty(value = "BytesRendered", required = true)
+    long bytesRendered,
+    @JsonProperty(value = "BytesTransferred", required = true)
+    long bytesTransferred)
+  {
+    /**
+     * The result of publishing a single project.
+     *
+     * @param name             The project name
+     * @param succeeded        {@code true} if publication succeeded
+     * @param errorCode        The error code, if publication failed
+     * @param errorMessage     The error message, if publication failed
+     * @param queueWaitSeconds The time spent waiting for a publication slot
+     * @param cloneSeconds     The time spent cloning the repository
+     * @param renderSeconds    The time spent rendering the site
+     * @param publishSeconds   The time spent transferring the site
+     * @param cleanupSeconds   The time spent deleting temporary directories
+     * @param bytesCloned      The size of the objects received when cloning
+     * @param filesRendered    The number of files rendered
+     * @param bytesRendered    The size of the rendered site
+     * @param bytesTransferred The number of bytes sent to the target host
+     */
+
+    public Project
+    {
+      Objects.requireNonNull(name, "name");
+    }
+
+    /**
+     * Produce a report entry from the given result.
+     *
+     * @param name   The project name
+     * @param result The result
+     *
+     * @return The report entry
+     */
+
+    public static Project of(
+      final String name,
+      final SPPublicationResultType result)
+    {
+      final var metrics = result.metrics();
+      final var failure =
+        result instanceof final SPPublicationResultType.Failed failed
+          ? failed.exception()
+          : null;
+
+      return new Project(
+        name,
+        failure == null,
+        failure == null ? null : failure.errorCode(),
+        failure == null ? null : failure.getMessage(),
+        seconds(metrics.queueWaitTime()),
+        seconds(metrics.cloneTime()),
+        seconds(metrics.renderTime()),
+        seconds(metrics.publishTime()),
+        seconds(metrics.cleanupTime()),
+        metrics.bytesCloned(),
+        metrics.filesRendered(),
+        metrics.bytesRendered(),
+        metrics.bytesTransferred()
+      );
+    }
+
+    private static double seconds(
+      final Duration duration)
+    {
+      return (double) duration.toNanos() / 1_000_000_000.0;
+    }
+  }
+}
@@ -20,8 +20,10 @@ package com.io7m.softpage.core.internal;
 import com.io7m.jmulticlose.core.CloseableCollection;
 import com.io7m.jmulticlose.core.CloseableCollectionType;
 import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPPublicationMetrics;
 import com.io7m.softpage.core.SPPublicationSet;
 import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,13 +36,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
 public final class SPPublicationTask
   implements AutoCloseable
 {
@@ -51,17 +58,37 @@ public final class SPPublicationTask
   private final CloseableCollectionType<SPException> resources;
   private final SPPublicationSet publicationSet;
   private final SPPublicationSet.Project project;
+  private final Duration queueWait;
   private Path cloneDirectory;
   private Path renderDirectory;
+  private Duration cloneTime;
+  private Duration renderTime;
+  private Duration publishTime;
+  private Duration cleanupTime;
+  private long bytesCloned;
+  private volatile long filesRendered;
+  private volatile long bytesRendered;
+  private volatile long bytesTransferred;
 
   public SPPublicationTask(
     final SPPublicationSet inPublicationSet,
-    final SPPublicationSet.Project inProject)
+    final SPPublicationSet.Project inProject,
+    final Duration inQueueWait)
   {
     this.publicationSet =
       Objects.requireNonNull(inPublicationSet, "publicationSet");
     this.project =
       Objects.requireNonNull(inProject, "project");
+    this.queueWait =
+      Objects.requireNonNull(inQueueWait, "queueWait");
+    this.cloneTime =
+      Duration.ZERO;
+    this.renderTime =
+      Duration.ZERO;
+    this.publishTime =
+      Duration.ZERO;
+    this.cleanupTime =
+      Duration.ZERO;
     this.closed =
       new AtomicBoolean(false);
     this.resources =
@@ -80,9 +107,119 @@ public final class SPPublicationTask
   {
     LOG.info("[{}] Publishing", this.project.name());
 
-    this.executeClone();
-    this.executeRender();
-    this.executePublish();
+    this.checkout();
+
+    final var renderEvent = new SPJFRRender();
+    final var renderStart = System.nanoTime();
+    renderEvent.begin();
+    try {
+      this.executeRender();
+    } finally {
+      renderEvent.end();
+      this.renderTime = elapsedSince(renderStart);
+      if (renderEvent.shouldCommit()) {
+        final var statistics =
+          statisticsOf(this.renderDirectory);
+        renderEvent.project = this.project.name();
+        renderEvent.files = statistics.files();
+        renderEvent.bytes = statistics.bytes();
+        renderEvent.commit();
+      }
+    }
+
+    final var publishEvent = new SPJFRPublish();
+    final var publishStart = System.nanoTime();
+    publishEvent.begin();
+    try {
+      this.executePublish();
+    } finally {
+      publishEvent.end();
+      this.publishTime = elapsedSince(publishStart);
+      if (publishEvent.shouldCommit()) {
+        publishEvent.project = this.project.name();
+        publishEvent.target = this.publicationSet.targetHost();
+        publishEvent.files = this.filesRendered;
+        publishEvent.bytes = this.bytesTransferred;
+        publishEvent.commit();
+      }
+    }
+  }
+
+  /**
+   * Check out the project into a new directory in the work directory,
+   * according to the checkout mode and mirror settings of the publication
+   * set. This is the first step of {@link #execute()}, and is exposed so
+   * that checkouts can be examined without rendering or publishing. The
+   * checkout is deleted when the task is closed.
+   *
+   * @return The checkout directory
+   *
+   * @throws Exception On errors
+   */
+
+  public Path checkout()
+    throws Exception
+  {
+    final var cloneEvent = new SPJFRClone();
+    final var cloneStart = System.nanoTime();
+    cloneEvent.begin();
+    try {
+      this.executeClone();
+    } finally {
+      cloneEvent.end();
+      this.cloneTime = elapsedSince(cloneStart);
+      if (cloneEvent.shouldCommit()) {
+        cloneEvent.project = this.project.name();
+        cloneEvent.repository = this.project.gitRepos().toString();
+        cloneEvent.files = this.checkoutFiles();
+        cloneEvent.bytes = this.bytesCloned;
+        cloneEvent.commit();
+      }
+    }
+    return this.cloneDirectory;
+  }
+
+  /**
+   * @return The measurements taken so far; the cleanup time is only known
+   * once the task has been closed
+   */
+
+  public SPPublicationMetrics metrics()
+  {
+    return new SPPublicationMetrics(
+      this.queueWait,
+      this.cloneTime,
+      this.renderTime,
+      this.publishTime,
+      this.cleanupTime,
+      this.bytesCloned,
+      this.filesRendered,
+      this.bytesRendered,
+      this.bytesTransferred
+    );
+  }
+
+  private static Duration elapsedSince(
+    final long start)
+  {
+    return Duration.ofNanos(System.nanoTime() - start);
+  }
+
+  private static SPFileStatistics statisticsOf(
+    final Path directory)
+  {
+    if (directory == null) {
+      return SPFileStatistics.EMPTY;
+    }
+    return SPFileStatistics.ofDirectory(directory);
+  }
+
+  private long checkoutFiles()
+  {
+    if (this.cloneDirectory == null) {
+      return 0L;
+    }
+    return SPFileStatistics.ofWorkTree(this.cloneDirectory).files();
   }
 
   private void executeClone()
@@ -100,17 +237,324 @@ public final class SPPublicationTask
     Files.createDirectories(this.cloneDirectory);
     this.resources.add(() -> this.deleteDirectory(this.cloneDirectory));
 
+    final var directory = this.cloneDirectory.toString();
+    final var mirrors = this.publicationSet.mirrors();
+
+    switch (this.publicationSet.checkout()) {
+      case FULL -> {
+        if (mirrors) {
+          this.executeCloneMirror();
+          this.git(List.of("-C", directory, "checkout", "--quiet"));
+          this.git(List.of(
+            "-C",
+            directory,
+            "submodule",
+            "update",
+            "--init",
+            "--recursive",
+            "--depth",
+            "1"
+          ));
+        } else {
+          this.git(List.of(
+            "clone",
+            "--recurse-submodules",
+            "--depth",
+            "1",
+            this.project.gitRepos().toString(),
+            directory
+          ));
+        }
+      }
+      case SPARSE -> {
+        if (mirrors) {
+          this.executeCloneMirror();
+        } else {
+          this.git(List.of(
+            "clone",
+            "--depth",
+            "1",
+            "--filter=blob:none",
+            "--no-checkout",
+            this.project.gitRepos().toString(),
+            directory
+          ));
+        }
+        this.executeCheckoutSparse();
+      }
+    }
+
+    /*
+     * A clone made directly from the repository holds exactly the objects
+     * that were received, including any blobs fetched on demand during a
+     * sparse checkout. Clones of mirrors measure the growth of the mirror
+     * instead.
+     */
+
+    if (!mirrors) {
+      this.bytesCloned = this.packedBytes(this.cloneDirectory);
+    }
+  }
+
+  /**
+   * Bring the mirror of the repository up to date, creating it if
+   * necessary, and then clone it without checking anything out. The clone
+   * is local, and so links or copies the mirror's objects rather than
+   * transferring them. The origin of the clone is then pointed back at
+   * the repository so that relative submodule URLs resolve correctly.
+   */
+
+  private void executeCloneMirror()
+    throws Exception
+  {
+    final var repository =
+      this.project.gitRepos().toString();
+    final var mirror =
+      SPGitMirrors.mirrorOf(
+        this.publicationSet.workDirectory(),
+        this.project.gitRepos()
+      );
+
+    SPGitMirrors.withMirror(mirror, directory -> {
+      final long sizeBefore;
+      if (Files.isDirectory(directory)) {
+        sizeBefore = this.packedBytes(directory);
+        LOG.debug("[{}] Fetching into {}", this.project.name(), directory);
+        this.git(List.of(
+          "-C",
+          directory.toString(),
+          "fetch",
+          "--prune",
+          "--quiet",
+          "origin"
+        ));
+      } else {
+        sizeBefore = 0L;
+        this.executeCreateMirror(directory);
+      }
+      this.bytesCloned =
+        Math.max(0L, this.packedBytes(directory) - sizeBefore);
+
+      this.git(List.of(
+        "clone",
+        "--no-checkout",
+        "--quiet",
+        directory.toString(),
+        this.cloneDirectory.toString()
+      ));
+    });
+
+    this.git(List.of(
+      "-C",
+      this.cloneDirectory.toString(),
+      "remote",
+      "set-url",
+      "origin",
+      repository
+    ));
+  }
+
+  /**
+   * Create a mirror. The mirror is cloned into a temporary directory and
+   * moved into place once complete, so that an interrupted clone cannot
+   * leave behind a mirror that is missing objects.
+   */
+
+  private void executeCreateMirror(
+    final Path mirror)
+    throws Exception
+  {
+    LOG.debug("[{}] Creating mirror {}", this.project.name(), mirror);
+
+    final var temporary =
+      mirror.resolveSibling(
+        "%s_%s.tmp".formatted(mirror.getFileName(), this.token()));
+
+    try {
+      this.git(List.of(
+        "clone",
+        "--mirror",
+        "--quiet",
+        this.project.gitRepos().toString(),
+        temporary.toString()
+      ));
+      Files.move(temporary, mirror, ATOMIC_MOVE);
+    } finally {
+      if (Files.isDirectory(temporary)) {
+        this.deleteDirectory(temporary);
+      }
+    }
+  }
+
+  /**
+   * Restrict a clone that has not been checked out to the site inputs, and
+   * then check out. For blob-filtered clones, this fetches only the
+   * contents of the files that are checked out. Submodules are examined
+   * only once the build files that declare the modules have been checked
+   * out.
+   */
+
+  private void executeCheckoutSparse()
+    throws Exception
+  {
+    final var directory = this.cloneDirectory.toString();
+
+    final var patterns = new ArrayList<String>();
+    patterns.add("-C");
+    patterns.add(directory);
+    patterns.add("sparse-checkout");
+    patterns.add("set");
+    patterns.add("--no-cone");
+    patterns.addAll(SPSparseCheckout.patterns());
+    this.git(patterns);
+    this.git(List.of("-C", directory, "checkout", "--quiet"));
+
+    final var submodules =
+      SPSparseCheckout.requiredSubmodules(
+        this.cloneDirectory,
+        this.submodulePaths()
+      );
+
+    if (submodules.isEmpty()) {
+      return;
+    }
+
+    LOG.debug(
+      "[{}] Submodules containing site inputs: {}",
+      this.project.name(),
+      submodules
+    );
+
+    final var add = new ArrayList<String>();
+    add.add("-C");
+    add.add(directory);
+    add.add("sparse-checkout");
+    add.add("add");
+    for (final var submodule : submodules) {
+      add.add("/" + submodule);
+    }
+    this.git(add);
+
+    final var update = new ArrayList<String>();
+    update.add("-C");
+    update.add(directory);
+    update.add("submodule");
+    update.add("update");
+    update.add("--init");
+    update.add("--recursive");
+    update.add("--depth");
+    update.add("1");
+    update.add("--");
+    update.addAll(submodules);
+    this.git(update);
+  }
+
+  /**
+   * Determine the size of the objects held by a repository, using the
+   * sizes that git reports for its loose objects and packs. Objects of
+   * submodules are not included.
+   */
+
+  private long packedBytes(
+    final Path repository)
+    throws IOException
+  {
     final var processBuilder =
       new ProcessBuilder(List.of(
         "git",
-        "clone",
-        "--recurse-submodules",
-        "--depth",
-        "1",
-        this.project.gitRepos().toString(),
-        this.cloneDirectory.toString()
+        "-C",
+        repository.toString(),
+        "count-objects",
+        "-v"
+      ));
+
+    processBuilder.redirectError(
+      ProcessBuilder.Redirect.DISCARD);
+
+    final var process = processBuilder.start();
+    var kibibytes = 0L;
+    try (final var stream =
+           new BufferedReader(
+             new InputStreamReader(process.getInputStream()))) {
+      while (true) {
+        final var line = stream.readLine();
+        if (line == null) {
+          break;
+        }
+        if (line.startsWith("size:") || line.startsWith("size-pack:")) {
+          kibibytes += firstNumber(line.substring(line.indexOf(':') + 1))
+            .orElse(0L);
+        }
+      }
+    }
+
+    try {
+      process.waitFor();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+    return kibibytes * 1024L;
+  }
+
+  private List<String> submodulePaths()
+    throws IOException
+  {
+    final var gitModules = this.cloneDirectory.resolve(".gitmodules");
+    if (!Files.isRegularFile(gitModules)) {
+      return List.of();
+    }
+
+    final var processBuilder =
+      new ProcessBuilder(List.of(
+        "git",
+        "config",
+        "--file",
+        gitModules.toString(),
+        "--get-regexp",
+        "^submodule\\..*\\.path$"
       ));
 
+    processBuilder.redirectError(
+      ProcessBuilder.Redirect.DISCARD);
+
+    final var process = processBuilder.start();
+    final var paths = new ArrayList<String>();
+    try (final var stream =
+           new BufferedReader(
+             new InputStreamReader(process.getInputStream()))) {
+      while (true) {
+        final var line = stream.readLine();
+        if (line == null) {
+          break;
+        }
+        final var space = line.indexOf(' ');
+        if (space > 0) {
+          paths.add(line.substring(space + 1).trim());
+        }
+      }
+    }
+
+    try {
+      process.waitFor();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+    return List.copyOf(paths);
+  }
+
+  private void git(
+    final List<String> arguments)
+    throws Exception
+  {
+    final var command = new ArrayList<String>(arguments.size() + 1);
+    command.add("git");
+    command.addAll(arguments);
+
+    final var processBuilder =
+      new ProcessBuilder(command);
+
     processBuilder.redirectError(
       ProcessBuilder.Redirect.PIPE);
     processBuilder.redirectOutput(
@@ -134,7 +578,25 @@ public final class SPPublicationTask
     throws Exception
   {
     LOG.debug("Deleting directory {}", directory);
-    Files.walkFileTree(directory, new DirectoryDeletionVisitor());
+
+    final var event = new SPJFRCleanup();
+    if (event.isEnabled()) {
+      final var statistics = SPFileStatistics.ofDirectory(directory);
+      event.files = statistics.files();
+      event.bytes = statistics.bytes();
+    }
+
+    event.begin();
+    try {
+      Files.walkFileTree(directory, new DirectoryDeletionVisitor());
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.project = this.project.name();
+        event.directory = directory.toString();
+        event.commit();
+      }
+    }
   }
 
   private String token()
@@ -161,7 +623,16 @@ public final class SPPublicationTask
     Files.createDirectories(this.renderDirectory);
     this.resources.add(() -> this.deleteDirectory(this.renderDirectory));
 
+    /*
+     * Published sites use the commit time as the site timestamp so that
+     * unchanged projects render to identical files, which rsync then skips,
+     * and which can be reused from the shared content cache on later runs.
+     */
+
     SPSites.builder(this.cloneDirectory, this.renderDirectory)
+      .setTimestampSource(SPTimestampSource.GIT_COMMIT)
+      .setCacheDirectory(
+        this.publicationSet.workDirectory().resolve("cache"))
       .build()
       .export();
   }
@@ -188,6 +659,7 @@ public final class SPPublicationTask
         "--compress",
         "--delete",
         "--chmod=D0755,F644",
+        "--stats",
         this.renderDirectory.toString() + "/",
         target.toString()
       ));
@@ -199,9 +671,17 @@ public final class SPPublicationTask
 
     final var process = processBuilder.start();
     Thread.ofVirtual().start(() -> this.readStderr("rsync", process));
-    Thread.ofVirtual().start(() -> this.readStdout("rsync", process));
+    final var stdout =
+      Thread.ofVirtual().start(() -> this.readStdout("rsync", process));
 
     final var r = process.waitFor();
+
+    /*
+     * The transfer statistics are printed last, so the reader must finish
+     * before they can be inspected.
+     */
+
+    stdout.join();
     if (r != 0) {
       final var message =
         String.format("rsync returned a non-zero exit code: %d", r);
@@ -216,19 +696,70 @@ public final class SPPublicationTask
   {
     try (final var stream =
            new BufferedReader(
-             new InputStreamReader(process.getErrorStream()))) {
+             new InputStreamReader(process.getInputStream()))) {
       while (true) {
         final var line = stream.readLine();
         if (line == null) {
           break;
         }
         LOG.info("[{}]: {}: stdout: {}", this.project.name(), name, line);
+        this.parseStatistic(line);
       }
     } catch (final Exception e) {
       // Ignore
     }
   }
 
+  /**
+   * Parse the transfer statistics that rsync prints. The statistics
+   * describe the whole rendered site as well as the transfer, so the
+   * rendered site need not be measured separately. Depending on the
+   * version, rsync may or may not break the number of files down by type.
+   */
+
+  private void parseStatistic(
+    final String line)
+  {
+    if (line.startsWith("Number of files:")) {
+      final var regular = line.indexOf("reg:");
+      final var text =
+        regular >= 0
+          ? line.substring(regular + 4)
+          : line.substring("Number of files:".length());
+      firstNumber(text).ifPresent(files -> this.filesRendered = files);
+    } else if (line.startsWith("Total file size:")) {
+      firstNumber(line.substring("Total file size:".length()))
+        .ifPresent(bytes -> this.bytesRendered = bytes);
+    } else if (line.startsWith("Total bytes sent:")) {
+      firstNumber(line.substring("Total bytes sent:".length()))
+        .ifPresent(bytes -> this.bytesTransferred = bytes);
+    }
+  }
+
+  /**
+   * Parse the number at the start of the given text. Depending on the
+   * version and locale, rsync may group digits with commas or periods.
+   */
+
+  private static OptionalLong firstNumber(
+    final String text)
+  {
+    final var digits = new StringBuilder();
+    for (final var c : text.trim().toCharArray()) {
+      if (Character.isDigit(c)) {
+        digits.append(c);
+      } else if (c != ',' && c != '.') {
+        break;
+      }
+    }
+
+    try {
+      return OptionalLong.of(Long.parseLong(digits.toString()));
+    } catch (final NumberFormatException e) {
+      return OptionalLong.empty();
+    }
+  }
+
   private void readStderr(
     final String name,
     final Process process)
@@ -253,7 +784,12 @@ public final class SPPublicationTask
     throws Exception
   {
     if (this.closed.compareAndSet(false, true)) {
-      this.resources.close();
+      final var start = System.nanoTime();
+      try {
+        this.resources.close();
+      } finally {
+        this.cleanupTime = elapsedSince(start);
+      }
     }
   }
 
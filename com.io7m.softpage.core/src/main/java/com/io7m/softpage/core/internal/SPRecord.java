@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import freemarker.template.TemplateHashModel;
+import freemarker.template.TemplateModel;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * An immutable map in template form, holding its values in an array
+ * indexed by a shared {@link SPRecordLayout}. A value may be supplied
+ * directly or deferred; a deferred value is computed on first access and
+ * then memoized, so templates that do not use a value never pay for
+ * computing it. Records may be read by any number of threads concurrently;
+ * a deferred value may occasionally be computed more than once under
+ * contention, but every reader observes the same value.
+ */
+
+public final class SPRecord implements TemplateHashModel
+{
+  private static final VarHandle VALUES =
+    MethodHandles.arrayElementVarHandle(Object[].class);
+
+  private static final Object ABSENT = new Object();
+
+  private final SPRecordLayout layout;
+  private final Object[] values;
+  private final boolean empty;
+
+  private SPRecord(
+    final SPRecordLayout inLayout,
+    final Object[] inValues)
+  {
+    this.layout = inLayout;
+    this.values = inValues;
+
+    var anyPresent = false;
+    for (final var value : inValues) {
+      anyPresent |= value != null;
+    }
+    this.empty = !anyPresent;
+  }
+
+  /**
+   * @return The record layout
+   */
+
+  public SPRecordLayout layout()
+  {
+    return this.layout;
+  }
+
+  @Override
+  public TemplateModel get(
+    final String key)
+  {
+    final var index =
+      this.layout.indexOf(Objects.requireNonNull(key, "key"));
+    if (index < 0) {
+      return null;
+    }
+
+    final var value = VALUES.getAcquire(this.values, index);
+    if (value instanceof final Deferred deferred) {
+      final Object computed =
+        Objects.requireNonNullElse(deferred.supplier.get(), ABSENT);
+      final var witness =
+        VALUES.compareAndExchangeRelease(this.values, index, value, computed);
+      return unwrap(witness == value ? computed : witness);
+    }
+    return unwrap(value);
+  }
+
+  private static TemplateModel unwrap(
+    final Object value)
+  {
+    if (value instanceof final TemplateModel model) {
+      return model;
+    }
+    return null;
+  }
+
+  @Override
+  public boolean isEmpty()
+  {
+    return this.empty;
+  }
+
+  private record Deferred(
+    Supplier<? extends TemplateModel> supplier)
+  {
+
+  }
+
+  /**
+   * A builder for records. A builder produces a single record.
+   */
+
+  public static final class Builder
+  {
+    private final SPRecordLayout layout;
+    private Object[] values;
+
+    Builder(
+      final SPRecordLayout inLayout)
+    {
+      this.layout =
+        Objects.requireNonNull(inLayout, "layout");
+      this.values =
+        new Object[inLayout.size()];
+    }
+
+    /**
+     * Set a value. A {@code null} value leaves the key absent.
+     *
+     * @param key   The key
+     * @param value The value
+     *
+     * @return this
+     *
+     * @throws IllegalArgumentException If the layout does not contain the key
+     */
+
+    public Builder set(
+      final String key,
+      final TemplateModel value)
+    {
+      this.checkNotBuilt();
+      this.values[this.indexOf(key)] = value;
+      return this;
+    }
+
+    /**
+     * Set a value that will be computed on first access. If the supplier
+     * returns {@code null}, the key behaves as absent.
+     *
+     * @param key   The key
+     * @param value The supplier of the value
+     *
+     * @return this
+     *
+     * @throws IllegalArgumentException If the layout does not contain the key
+     */
+
+    public Builder setDeferred(
+      final String key,
+      final Supplier<? extends TemplateModel> value)
+    {
+      this.checkNotBuilt();
+      this.values[this.indexOf(key)] =
+        new Deferred(Objects.requireNonNull(value, "value"));
+      return this;
+    }
+
+    /**
+     * @return The record
+     */
+
+    public SPRecord build()
+    {
+      this.checkNotBuilt();
+      final var result = new SPRecord(this.layout, this.values);
+      this.values = null;
+      return result;
+    }
+
+    private int indexOf(
+      final String key)
+    {
+      final var index =
+        this.layout.indexOf(Objects.requireNonNull(key, "key"));
+      if (index < 0) {
+        throw new IllegalArgumentException(
+          "Key not present in layout: %s".formatted(key)
+        );
+      }
+      return index;
+    }
+
+    private void checkNotBuilt()
+    {
+      if (this.values == null) {
+        throw new IllegalStateException("Record has already been built.");
+      }
+    }
+  }
+}
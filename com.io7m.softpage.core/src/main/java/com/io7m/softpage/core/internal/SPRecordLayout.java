@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import java.util.Objects;
+
+/**
+ * The layout of a family of template records: a fixed set of keys, each
+ * assigned an index into the array of values held by every record sharing
+ * the layout. A layout is built once per record type and key lookups do
+ * not allocate.
+ *
+ * @see SPRecord
+ */
+
+public final class SPRecordLayout
+{
+  private final String[] keys;
+  private final int[] table;
+  private final int mask;
+
+  private SPRecordLayout(
+    final String[] inKeys)
+  {
+    this.keys = inKeys;
+
+    /*
+     * An open-addressing table that is at least twice the size of the key
+     * set, holding key indices offset by one so that zero marks an empty
+     * slot.
+     */
+
+    final var capacity =
+      Integer.highestOneBit(Math.max(2, inKeys.length) * 2 - 1) << 1;
+
+    this.table = new int[capacity];
+    this.mask = capacity - 1;
+
+    for (int index = 0; index < inKeys.length; ++index) {
+      final var key = inKeys[index];
+      if (this.indexOf(key) >= 0) {
+        throw new IllegalArgumentException(
+          "Duplicate key: %s".formatted(key)
+        );
+      }
+      var slot = key.hashCode() & this.mask;
+      while (this.table[slot] != 0) {
+        slot = (slot + 1) & this.mask;
+      }
+      this.table[slot] = index + 1;
+    }
+  }
+
+  /**
+   * Create a layout.
+   *
+   * @param keys The keys, in index order
+   *
+   * @return A layout
+   *
+   * @throws IllegalArgumentException If a key is repeated
+   */
+
+  public static SPRecordLayout of(
+    final String... keys)
+  {
+    final var copy = keys.clone();
+    for (final var key : copy) {
+      Objects.requireNonNull(key, "key");
+    }
+    return new SPRecordLayout(copy);
+  }
+
+  /**
+   * @return The number of keys in the layout
+   */
+
+  public int size()
+  {
+    return this.keys.length;
+  }
+
+  /**
+   * @param index The key index
+   *
+   * @return The key at the given index
+   */
+
+  public String key(
+    final int index)
+  {
+    return this.keys[index];
+  }
+
+  /**
+   * Find the index of a key.
+   *
+   * @param key The key
+   *
+   * @return The index of the key, or {@code -1} if the layout does not
+   * contain the key
+   */
+
+  public int indexOf(
+    final String key)
+  {
+    var slot = key.hashCode() & this.mask;
+    while (true) {
+      final var entry = this.table[slot];
+      if (entry == 0) {
+        return -1;
+      }
+      final var candidate = this.keys[entry - 1];
+      if (candidate == key || candidate.equals(key)) {
+        return entry - 1;
+      }
+      slot = (slot + 1) & this.mask;
+    }
+  }
+
+  /**
+   * @return A builder for a record with this layout
+   */
+
+  public SPRecord.Builder builder()
+  {
+    return new SPRecord.Builder(this);
+  }
+}
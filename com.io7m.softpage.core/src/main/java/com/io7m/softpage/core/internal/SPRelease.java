@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+package com.io7m.softpage.core.internal;
+
+import com.io7m.verona.core.Version;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A release in a changelog.
+ *
+ * @param version The release version
+ * @param date    The release date
+ * @param open    {@code true} if the release is still open
+ * @param changes The changes in the release, newest first
+ */
+
+public record SPRelease(
+  Version version,
+  OffsetDateTime date,
+  boolean open,
+  List<SPChange> changes)
+{
+  /**
+   * The order in which releases are presented: oldest first, with releases
+   * on the same date ordered by version.
+   */
+
+  public static final Comparator<SPRelease> ORDER =
+    Comparator.comparing(SPRelease::date)
+      .thenComparing(SPRelease::version);
+
+  /**
+   * A release in a changelog.
+   *
+   * @param version The release version
+   * @param date    The release date
+   * @param open    {@code true} if the release is still open
+   * @param changes The changes in the release, newest first
+   */
+
+  public SPRelease
+  {
+    Objects.requireNonNull(version, "version");
+    Objects.requireNonNull(date, "date");
+    changes = changes.stream()
+      .sorted(Comparator.comparing(SPChange::date).reversed())
+      .toList();
+  }
+}
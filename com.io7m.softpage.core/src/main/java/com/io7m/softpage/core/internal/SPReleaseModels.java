@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import freemarker.template.SimpleScalar;
+import freemarker.template.TemplateModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static java.time.format.DateTimeFormatter.ISO_DATE;
+
+/**
+ * Functions to build the template models of changelog releases.
+ */
+
+public final class SPReleaseModels
+{
+  private static final SPRecordLayout RELEASE_LAYOUT =
+    SPRecordLayout.of("Version", "Date", "Changes");
+  private static final SPRecordLayout CHANGE_LAYOUT =
+    SPRecordLayout.of("Summary", "Date");
+
+  private SPReleaseModels()
+  {
+
+  }
+
+  /**
+   * Build the template models of every release in the changelog, newest
+   * first.
+   *
+   * @param changelog The changelog
+   *
+   * @return The release models
+   */
+
+  public static List<TemplateModel> releases(
+    final SPChangelog changelog)
+  {
+    Objects.requireNonNull(changelog, "changelog");
+
+    final var releases =
+      new ArrayList<TemplateModel>(changelog.releases().size());
+
+    for (final var releaseData : changelog.releases()) {
+      releases.add(release(releaseData));
+    }
+    return releases;
+  }
+
+  /**
+   * Build the template model of a release.
+   *
+   * @param releaseData The release
+   *
+   * @return The release model
+   */
+
+  public static TemplateModel release(
+    final SPRelease releaseData)
+  {
+    Objects.requireNonNull(releaseData, "releaseData");
+
+    return RELEASE_LAYOUT.builder()
+      .set("Version", new SimpleScalar(releaseData.version().toString()))
+      .setDeferred("Date", () -> {
+        return new SimpleScalar(ISO_DATE.format(releaseData.date()));
+      })
+      .setDeferred("Changes", () -> {
+        return SPLazyList.of(releaseData.changes(), SPReleaseModels::change);
+      })
+      .build();
+  }
+
+  /**
+   * Build the template model of a change.
+   *
+   * @param changeData The change
+   *
+   * @return The change model
+   */
+
+  public static TemplateModel change(
+    final SPChange changeData)
+  {
+    Objects.requireNonNull(changeData, "changeData");
+
+    return CHANGE_LAYOUT.builder()
+      .setDeferred("Summary", () -> {
+        return new SimpleScalar(changeSummary(changeData));
+      })
+      .setDeferred("Date", () -> {
+        return new SimpleScalar(ISO_DATE.format(changeData.date()));
+      })
+      .build();
+  }
+
+  private static String changeSummary(
+    final SPChange changeData)
+  {
+    final var text = new StringBuilder();
+    text.append(changeData.summary());
+
+    final var tickets = changeData.tickets();
+    if (!tickets.isEmpty()) {
+      text.append("(Tickets ");
+      text.append(String.join(", ", tickets));
+      text.append(")");
+    }
+
+    if (!changeData.compatible()) {
+      text.append(" (Backwards incompatible)");
+    }
+    return text.toString();
+  }
+}
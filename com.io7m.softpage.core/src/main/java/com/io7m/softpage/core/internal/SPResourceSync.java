@@ -0,0 +1,382 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A resource synchronization stage. The source tree is walked recursively,
+ * and each regular file is copied into the same relative location in the
+ * target directory unless the target already holds identical content.
+ * Files are compared by size and modification time where the modification
+ * time is meaningful, and by hash otherwise. Copies run concurrently with
+ * a bounded degree of parallelism, and each copy is written to a temporary
+ * file and atomically moved into place.
+ */
+
+public final class SPResourceSync
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPResourceSync.class);
+
+  private final Path source;
+  private final Path target;
+  private final int parallelism;
+  private final boolean links;
+  private final Optional<FileTime> stamp;
+  private final SPFingerprintRecorder recorder;
+  private final AtomicLong copied;
+  private final AtomicLong linked;
+  private final AtomicLong unchanged;
+  private final AtomicLong bytes;
+
+  /**
+   * A resource synchronization stage.
+   *
+   * @param inSource      The source directory
+   * @param inTarget      The target directory
+   * @param inParallelism The maximum number of concurrent copies
+   * @param inLinks       {@code true} if files should be hard linked rather
+   *                      than copied where the filesystem allows it
+   * @param inStamp       The modification time given to every target file;
+   *                      if absent, source modification times are preserved
+   * @param inRecorder    The fingerprint recorder
+   */
+
+  public SPResourceSync(
+    final Path inSource,
+    final Path inTarget,
+    final int inParallelism,
+    final boolean inLinks,
+    final Optional<FileTime> inStamp,
+    final SPFingerprintRecorder inRecorder)
+  {
+    this.source =
+      Objects.requireNonNull(inSource, "source");
+    this.target =
+      Objects.requireNonNull(inTarget, "target");
+    this.parallelism =
+      inParallelism;
+    this.stamp =
+      Objects.requireNonNull(inStamp, "stamp");
+    this.recorder =
+      Objects.requireNonNull(inRecorder, "recorder");
+
+    /*
+     * A hard link shares its modification time with the source file, so
+     * stamping a linked file would modify the source. Links are therefore
+     * only used when source modification times are preserved.
+     */
+
+    this.links =
+      inLinks && inStamp.isEmpty();
+
+    this.copied = new AtomicLong();
+    this.linked = new AtomicLong();
+    this.unchanged = new AtomicLong();
+    this.bytes = new AtomicLong();
+  }
+
+  /**
+   * The result of synchronization.
+   *
+   * @param copied    The number of files copied
+   * @param linked    The number of files hard linked
+   * @param unchanged The number of files that were already up-to-date
+   * @param bytes     The number of bytes copied
+   */
+
+  public record Result(
+    long copied,
+    long linked,
+    long unchanged,
+    long bytes)
+  {
+
+  }
+
+  /**
+   * Execute the synchronization.
+   *
+   * @return The result
+   *
+   * @throws SPException On errors
+   */
+
+  public Result execute()
+    throws SPException
+  {
+    this.recorder.recordDirectory(this.source);
+    if (!Files.isDirectory(this.source)) {
+      return new Result(0L, 0L, 0L, 0L);
+    }
+
+    final var files = this.collectFiles();
+    try (var scope = new SPTaskScope(this.parallelism)) {
+      for (final var file : files) {
+        scope.fork(() -> {
+          this.syncFile(file);
+          return null;
+        });
+      }
+      scope.join();
+    }
+
+    return new Result(
+      this.copied.get(),
+      this.linked.get(),
+      this.unchanged.get(),
+      this.bytes.get()
+    );
+  }
+
+  /**
+   * Walk the source tree, creating every directory in the target, and
+   * return the regular files in a stable order.
+   */
+
+  private List<Path> collectFiles()
+    throws SPException
+  {
+    final var files = new ArrayList<Path>();
+    try {
+      Files.walkFileTree(this.source, new SimpleFileVisitor<>()
+      {
+        @Override
+        public FileVisitResult preVisitDirectory(
+          final Path directory,
+          final BasicFileAttributes attributes)
+          throws IOException
+        {
+          Files.createDirectories(SPResourceSync.this.targetOf(directory));
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(
+          final Path file,
+          final BasicFileAttributes attributes)
+        {
+          if (Files.isRegularFile(file)) {
+            files.add(file);
+          }
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+
+    files.sort(null);
+    return files;
+  }
+
+  private Path targetOf(
+    final Path file)
+  {
+    var output = this.target;
+    for (final var element : this.source.relativize(file)) {
+      output = output.resolve(element.toString());
+    }
+    return output;
+  }
+
+  private void syncFile(
+    final Path file)
+    throws SPException
+  {
+    final var fingerprint =
+      this.recorder.recordFile(file);
+
+    final var output = this.targetOf(file);
+    try {
+      if (this.isUpToDate(file, fingerprint, output)) {
+        if (this.stamp.isPresent()) {
+          Files.setLastModifiedTime(output, this.stamp.get());
+        }
+        this.unchanged.incrementAndGet();
+      } else {
+        this.replace(file, output);
+      }
+    } catch (final IOException e) {
+      throw errorFileCopy(file, e, output);
+    }
+
+    this.recorder.recordOutput(
+      SPFingerprints.relativeName(this.target, output));
+  }
+
+  /**
+   * Determine if the output already holds the content of the given file. If
+   * the file was fingerprinted when it was recorded, the recorded size and
+   * hash are used rather than examining the file again.
+   */
+
+  private boolean isUpToDate(
+    final Path file,
+    final Optional<SPInputFingerprint> fingerprint,
+    final Path output)
+    throws IOException
+  {
+    if (!Files.isRegularFile(output)) {
+      return false;
+    }
+
+    final var sourceAttributes =
+      Files.readAttributes(file, BasicFileAttributes.class);
+    final var targetAttributes =
+      Files.readAttributes(output, BasicFileAttributes.class);
+
+    if (sourceAttributes.size() != targetAttributes.size()) {
+      return false;
+    }
+
+    /*
+     * Copies preserve the source modification time unless outputs are being
+     * stamped, in which case the target modification time says nothing
+     * about the content and the files have to be compared.
+     */
+
+    if (this.stamp.isEmpty()) {
+      final var sourceTime = sourceAttributes.lastModifiedTime();
+      final var targetTime = targetAttributes.lastModifiedTime();
+      if (sourceTime.equals(targetTime)) {
+        return true;
+      }
+    }
+
+    /*
+     * An output linked to the source by an earlier unstamped export must be
+     * replaced with a copy before it is stamped, or the stamp would modify
+     * the source.
+     */
+
+    if (Files.isSameFile(file, output)) {
+      return this.stamp.isEmpty();
+    }
+
+    final var sourceHash =
+      fingerprint.isPresent()
+        ? fingerprint.get().hash()
+        : SPFingerprints.hashFile(file);
+
+    return sourceHash.equals(SPFingerprints.hashFile(output));
+  }
+
+  private void replace(
+    final Path file,
+    final Path output)
+    throws IOException
+  {
+    final var temporary =
+      Files.createTempFile(output.getParent(), ".softpage-", ".tmp");
+
+    try {
+      if (this.links && this.tryLink(file, temporary)) {
+        this.linked.incrementAndGet();
+      } else {
+        this.copy(file, temporary);
+        this.copied.incrementAndGet();
+      }
+      Files.move(temporary, output, REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private boolean tryLink(
+    final Path file,
+    final Path temporary)
+    throws IOException
+  {
+    Files.delete(temporary);
+    try {
+      Files.createLink(temporary, file);
+      return true;
+    } catch (final UnsupportedOperationException | IOException e) {
+      LOG.debug("Unable to link {}, copying instead: {}", file, e.toString());
+      Files.createFile(temporary);
+      return false;
+    }
+  }
+
+  private void copy(
+    final Path file,
+    final Path temporary)
+    throws IOException
+  {
+    try (var input = FileChannel.open(file, READ);
+         var output = FileChannel.open(temporary, WRITE, TRUNCATE_EXISTING)) {
+      final var size = input.size();
+      var position = 0L;
+      while (position < size) {
+        final var count =
+          input.transferTo(position, size - position, output);
+        if (count <= 0) {
+          break;
+        }
+        position += count;
+      }
+      this.bytes.addAndGet(position);
+    }
+
+    Files.setLastModifiedTime(
+      temporary,
+      this.stamp.orElse(Files.getLastModifiedTime(file))
+    );
+  }
+
+  private static SPException errorFileCopy(
+    final Path inputFile,
+    final IOException exception,
+    final Path outputFile)
+  {
+    return new SPException(
+      "Failed to copy file.",
+      exception,
+      "error-file",
+      Map.ofEntries(
+        Map.entry("InputFile", inputFile.toString()),
+        Map.entry("OutputFile", outputFile.toString())
+      ),
+      Optional.empty()
+    );
+  }
+}
@@ -17,84 +17,154 @@
 
 package com.io7m.softpage.core.internal;
 
-import com.io7m.changelog.core.CChange;
-import com.io7m.changelog.core.CChangelog;
-import com.io7m.changelog.core.CRelease;
-import com.io7m.changelog.core.CTicketID;
-import com.io7m.changelog.xml.CXMLChangelogParsers;
 import com.io7m.jproperties.JProperties;
 import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPOutputType;
 import com.io7m.softpage.core.SPReleaseSource;
 import com.io7m.softpage.core.SPShield;
 import com.io7m.softpage.core.SPSiteBuilderType;
 import com.io7m.softpage.core.SPSiteType;
+import com.io7m.softpage.core.SPTimestampSource;
+import com.io7m.softpage.core.SPVersion;
 import com.io7m.verona.core.Version;
 import com.io7m.verona.core.VersionException;
 import com.io7m.verona.core.VersionParser;
-import com.io7m.verona.core.VersionQualifier;
-import com.vladsch.flexmark.ext.tables.TablesExtension;
-import com.vladsch.flexmark.html.HtmlRenderer;
-import com.vladsch.flexmark.parser.Parser;
-import com.vladsch.flexmark.util.data.MutableDataSet;
-import com.vladsch.flexmark.util.misc.Extension;
-import freemarker.cache.TemplateLoader;
-import freemarker.template.Configuration;
 import freemarker.template.SimpleScalar;
+import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import freemarker.template.TemplateModel;
-import io.fabric8.maven.Maven;
-import org.apache.maven.model.Model;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.StringWriter;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.OffsetDateTime;
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-
-import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static com.io7m.softpage.core.SPTimestampSource.CURRENT_TIME;
+import static com.io7m.softpage.core.SPTimestampSource.GIT_COMMIT;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.ZoneOffset.UTC;
-import static java.time.format.DateTimeFormatter.ISO_DATE;
 
-public final class SPSite implements SPSiteType, TemplateLoader
+public final class SPSite implements SPSiteType
 {
   private static final Logger LOG =
     LoggerFactory.getLogger(SPSite.class);
 
-  private static final Pattern GRADLE_INCLUDE_PATTERN =
-    Pattern.compile("include\\(\":(.*)\"\\)");
+  private static final int MODULE_PARALLELISM =
+    Math.max(2, Runtime.getRuntime().availableProcessors());
+
+  private static final int RESOURCE_PARALLELISM =
+    Math.max(4, Runtime.getRuntime().availableProcessors());
+
+  private static final int PAGE_SIZE_HINT =
+    64 * 1024;
+
+  private static final long DEFAULT_CACHE_SIZE_LIMIT =
+    256L * 1024L * 1024L;
+
+  private static final int DEFAULT_RELEASES_PER_PAGE =
+    20;
+
+  private static final SPRecordLayout MODULE_LAYOUT =
+    SPRecordLayout.of("ArtifactID");
+  private static final SPRecordLayout PROJECT_LAYOUT =
+    SPRecordLayout.of(
+      "Name",
+      "Description",
+      "ArtifactID",
+      "Version",
+      "GroupID",
+      "GitHubRepos",
+      "ShortName",
+      "GitHubPath",
+      "IssueURL",
+      "LicenseText",
+      "ReadmeMarkdownHTML",
+      "BOM",
+      "Documentation",
+      "Specification",
+      "Modules"
+    );
+
+  private static final String INDEX_PAGE = "index.html";
+
+  private static final String PHASE_SITE = "site";
+  private static final String PHASE_RESOURCES = "resources";
 
+  private final SPSiteServices services;
   private final Path inputDirectory;
-  private final Path outputDirectory;
+  private final SPOutputType output;
+  private final Optional<Path> outputDirectory;
   private final Path pomFile;
   private final Path gradleProperties;
-  private final Path outputFile;
   private final Path changelogFile;
   private final Path licenseFile;
   private final Path readmeInputFile;
   private final Path gradleSettingsFile;
   private final Path inputConfiguration;
+  private final Path inputResources;
+  private final boolean incremental;
+  private final List<Path> mavenRepositories;
+  private final SPTimestampSource timestampSource;
+  private final boolean linkResources;
+  private final int releaseLimit;
+  private final int releasesPerPage;
+  private final Optional<Path> cacheDirectory;
+  private final long cacheSizeLimit;
+  private Optional<SPContentCache> cache;
+  private SPFingerprintRecorder recorder;
+  private OffsetDateTime timestamp;
+  private Optional<OffsetDateTime> gitTimestamp;
   private SPReleaseSource releaseSource;
   private List<SPShield> shields;
   private ProjectInfo info;
-  private CChangelog changelog;
+  private SPChangelog changelog;
+  private boolean watching;
+  private SPFingerprintManifest retainedManifest;
+  private LoadedInputs retainedInputs;
+
+  /**
+   * The inputs loaded by the most recent export, retained so that inputs
+   * that have not changed need not be loaded again.
+   *
+   * @param configuration The site configuration
+   * @param changelog     The changelog
+   * @param model         The project model
+   * @param licenseText   The license text
+   * @param readmeHTML    The rendered README
+   * @param inputs        The fingerprints of every input that was read
+   */
+
+  private record LoadedInputs(
+    SPSiteConfiguration configuration,
+    SPChangelog changelog,
+    ProjectModel model,
+    String licenseText,
+    String readmeHTML,
+    List<SPInputFingerprint> inputs)
+  {
+
+  }
 
   record ModuleInfo(
     String artifactId)
@@ -106,9 +176,9 @@ public final class SPSite implements SPSiteType, TemplateLoader
 
     public TemplateModel toTemplateModel()
     {
-      final var m = new SPDataMap();
-      m.put("ArtifactID", new SimpleScalar(this.artifactId));
-      return m;
+      return MODULE_LAYOUT.builder()
+        .set("ArtifactID", new SimpleScalar(this.artifactId))
+        .build();
     }
   }
 
@@ -144,65 +214,163 @@ public final class SPSite implements SPSiteType, TemplateLoader
       Objects.requireNonNull(specification, "specification");
     }
 
+    /**
+     * Build the template model of the project. Values that must be derived
+     * are computed when a template first asks for them, so templates that do
+     * not use a value do not pay for it.
+     *
+     * @return The template model
+     */
+
     public TemplateModel toTemplateModel()
     {
-      final var m = new SPDataMap();
-      m.put("Name", new SimpleScalar(this.name));
-      m.put("Description", new SimpleScalar(this.description));
-      m.put("ArtifactID", new SimpleScalar(this.artifactId));
-      m.put("Version", new SimpleScalar(this.version.toString()));
-      m.put("GroupID", new SimpleScalar(this.groupId));
-      m.put("GitHubRepos", new SimpleScalar(this.scmURL.toString()));
+      return PROJECT_LAYOUT.builder()
+        .set("Name", new SimpleScalar(this.name))
+        .set("Description", new SimpleScalar(this.description))
+        .set("ArtifactID", new SimpleScalar(this.artifactId))
+        .set("Version", new SimpleScalar(this.version.toString()))
+        .set("GroupID", new SimpleScalar(this.groupId))
+        .set("GitHubRepos", new SimpleScalar(this.scmURL.toString()))
+        .setDeferred("ShortName", () -> {
+          return new SimpleScalar(this.shortName());
+        })
+        .setDeferred("GitHubPath", () -> {
+          return new SimpleScalar(this.gitHubPath());
+        })
+        .set("IssueURL", new SimpleScalar(this.issuesURL.toString()))
+        .set("LicenseText", new SimpleScalar(this.licenseText))
+        .set("ReadmeMarkdownHTML", new SimpleScalar(this.readmeHTML))
+        .set("BOM", artifactOf(this.bom))
+        .set("Documentation", artifactOf(this.documentation))
+        .set("Specification", artifactOf(this.specification))
+        .setDeferred("Modules", () -> {
+          return SPLazyList.of(
+            List.copyOf(this.modules.values()),
+            ModuleInfo::toTemplateModel
+          );
+        })
+        .build();
+    }
+
+    private static TemplateModel artifactOf(
+      final Optional<ModuleInfo> module)
+    {
+      return module.map(x -> new SimpleScalar(x.artifactId))
+        .orElse(null);
+    }
 
+    private String shortName()
+    {
       final var artifactParts =
         List.of(this.artifactId.split("\\."));
+      return artifactParts.getLast().trim();
+    }
 
-      m.put("ShortName", new SimpleScalar(artifactParts.getLast().trim()));
-
-      final var scmPath =
-        this.scmURL.getPath()
-          .replaceFirst("^/+", "");
+    private String gitHubPath()
+    {
+      return this.scmURL.getPath()
+        .replaceFirst("^/+", "");
+    }
+  }
 
-      m.put("GitHubPath", new SimpleScalar(scmPath));
-      m.put("IssueURL", new SimpleScalar(this.issuesURL.toString()));
-      m.put("LicenseText", new SimpleScalar(this.licenseText));
-      m.put("ReadmeMarkdownHTML", new SimpleScalar(this.readmeHTML));
-      m.put(
-        "BOM",
-        this.bom.map(x -> new SimpleScalar(x.artifactId))
-          .orElse(null)
-      );
-      m.put(
-        "Documentation",
-        this.documentation.map(x -> new SimpleScalar(x.artifactId))
-          .orElse(null)
-      );
-      m.put(
-        "Specification",
-        this.specification.map(x -> new SimpleScalar(x.artifactId))
-          .orElse(null)
-      );
+  /**
+   * The project information read from the build files, before being combined
+   * with the license, README, and changelog.
+   */
 
-      final var moduleList = new SPDataList();
-      var index = 0;
-      for (final var entry : this.modules.entrySet()) {
-        moduleList.put(index, entry.getValue().toTemplateModel());
-        ++index;
-      }
+  record ProjectModel(
+    String name,
+    String description,
+    String groupId,
+    String artifactId,
+    String declaredVersion,
+    boolean preferChangelogVersion,
+    URI scmURL,
+    URI issuesURL,
+    SortedMap<String, ModuleInfo> modules,
+    Optional<ModuleInfo> bom,
+    Optional<ModuleInfo> documentation,
+    Optional<ModuleInfo> specification)
+  {
+    ProjectModel
+    {
+      Objects.requireNonNull(name, "name");
+      Objects.requireNonNull(description, "description");
+      Objects.requireNonNull(groupId, "groupId");
+      Objects.requireNonNull(artifactId, "artifactId");
+      Objects.requireNonNull(declaredVersion, "declaredVersion");
+      Objects.requireNonNull(scmURL, "scmURL");
+      Objects.requireNonNull(issuesURL, "issuesURL");
+      Objects.requireNonNull(modules, "modules");
+      Objects.requireNonNull(bom, "bom");
+      Objects.requireNonNull(documentation, "documentation");
+      Objects.requireNonNull(specification, "specification");
+    }
 
-      m.put("Modules", moduleList);
-      return m;
+    ProjectInfo toProjectInfo(
+      final String licenseText,
+      final String readmeHTML,
+      final Version version)
+    {
+      return new ProjectInfo(
+        this.name,
+        this.description,
+        this.groupId,
+        this.artifactId,
+        licenseText,
+        readmeHTML,
+        version,
+        this.scmURL,
+        this.issuesURL,
+        this.modules,
+        this.bom,
+        this.documentation,
+        this.specification
+      );
     }
   }
 
   private SPSite(
+    final SPSiteServices inServices,
     final Path inInputDirectory,
-    final Path inOutputDirectory)
+    final SPOutputType inOutput,
+    final boolean inIncremental,
+    final List<Path> inMavenRepositories,
+    final SPTimestampSource inTimestampSource,
+    final boolean inLinkResources,
+    final int inReleaseLimit,
+    final int inReleasesPerPage,
+    final Optional<Path> inCacheDirectory,
+    final long inCacheSizeLimit)
   {
+    this.services =
+      Objects.requireNonNull(inServices, "services");
     this.inputDirectory =
       Objects.requireNonNull(inInputDirectory, "inputDirectory");
+    this.output =
+      Objects.requireNonNull(inOutput, "output");
     this.outputDirectory =
-      Objects.requireNonNull(inOutputDirectory, "outputDirectory");
+      inOutput instanceof final SPOutputDirectory directory
+        ? Optional.of(directory.directory())
+        : Optional.empty();
+    this.incremental =
+      inIncremental;
+    this.mavenRepositories =
+      List.copyOf(inMavenRepositories);
+    this.timestampSource =
+      Objects.requireNonNull(inTimestampSource, "timestampSource");
+    this.linkResources =
+      inLinkResources;
+    this.releaseLimit =
+      inReleaseLimit;
+    this.releasesPerPage =
+      inReleasesPerPage;
+    this.cacheDirectory =
+      Objects.requireNonNull(inCacheDirectory, "cacheDirectory");
+    this.cacheSizeLimit =
+      inCacheSizeLimit;
+    this.cache =
+      Optional.empty();
 
     this.pomFile =
       this.inputDirectory.resolve("pom.xml");
@@ -210,203 +378,748 @@ public final class SPSite implements SPSiteType, TemplateLoader
       this.inputDirectory.resolve("gradle.properties");
     this.gradleSettingsFile =
       this.inputDirectory.resolve("settings.gradle.kts");
-    this.outputFile =
-      this.outputDirectory.resolve("index.html");
     this.changelogFile =
       this.inputDirectory.resolve("README-CHANGES.xml");
     this.licenseFile =
       this.inputDirectory.resolve("README-LICENSE.txt");
     this.readmeInputFile =
       this.inputDirectory.resolve("README.in");
-    this.inputConfiguration =
+    this.inputResources =
       this.inputDirectory.resolve("src")
         .resolve("site")
-        .resolve("resources")
-        .resolve("softpage.properties");
+        .resolve("resources");
+    this.inputConfiguration =
+      this.inputResources.resolve("softpage.properties");
 
-    this.shields =
-      List.of(
-        SPShield.SHIELD_BUILD_STATUS,
-        SPShield.SHIELD_MAVEN_CENTRAL,
-        SPShield.SHIELD_CODECOV
-      );
+    final var defaults =
+      SPSiteConfiguration.defaults();
 
+    this.shields =
+      defaults.shields();
     this.releaseSource =
-      SPReleaseSource.MAVEN_CENTRAL;
+      defaults.releaseSource();
   }
 
   public static SPSiteBuilderType builder(
+    final SPSiteServices services,
     final Path inputDirectory,
-    final Path outputDirectory)
+    final SPOutputType output)
   {
-    return new Builder(inputDirectory, outputDirectory);
+    return new Builder(services, inputDirectory, output);
   }
 
   @Override
   public void export()
     throws SPException
   {
-    this.findConfiguration();
-    this.findChangelog();
-    this.findProjectInfo();
-    this.renderSite();
-    this.writeFiles();
+    this.timestamp = null;
+    this.gitTimestamp = null;
+    this.changelog = null;
+
+    if (this.cacheDirectory.isPresent()) {
+      this.cache = Optional.of(
+        SPContentCache.open(this.cacheDirectory.get(), this.cacheSizeLimit)
+      );
+    }
+
+    try {
+      if (this.incremental || this.retaining()) {
+        this.exportIncrementally();
+      } else {
+        this.exportSite();
+        this.exportResources();
+      }
+      this.output.finish();
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
   }
 
-  private void findConfiguration()
-    throws SPException
+  /**
+   * Exports are incremental if requested, or if the previous export can be
+   * held in memory: that is, during a watch, and for outputs other than
+   * directories, which cannot hold a manifest.
+   */
+
+  private boolean retaining()
   {
+    return this.watching || this.outputDirectory.isEmpty();
+  }
+
+  private void exportIncrementally()
+    throws SPException, IOException
+  {
+    final var parameters =
+      this.manifestParameters();
+
+    final var manifest =
+      this.previousManifest(parameters);
+    final var siteUnchanged =
+      manifest.isPhaseUnchanged(
+        PHASE_SITE, this.inputDirectory, this.output);
+    final var resourcesUnchanged =
+      manifest.isPhaseUnchanged(
+        PHASE_RESOURCES, this.inputDirectory, this.output);
+
+    if (siteUnchanged && resourcesUnchanged) {
+      LOG.info("{}: Inputs unchanged, skipping export", this.inputDirectory);
+      return;
+    }
+
+    /*
+     * Remove the manifest before touching the output so that a failed
+     * export cannot leave behind a manifest claiming that partially written
+     * outputs are up-to-date.
+     */
+
+    this.retainedManifest = null;
+    if (this.incremental) {
+      final var directory = this.outputDirectory.orElseThrow();
+      Files.createDirectories(directory);
+      SPFingerprintManifest.delete(directory);
+    }
+
+    var newManifest = manifest;
+    if (siteUnchanged) {
+      LOG.debug("{}: Site inputs unchanged", this.inputDirectory);
+    } else {
+      newManifest =
+        newManifest.withPhase(PHASE_SITE, this.exportSite());
+    }
+
+    if (resourcesUnchanged) {
+      LOG.debug("{}: Resource inputs unchanged", this.inputDirectory);
+    } else {
+      final var resources = this.exportResources();
+      this.deleteStaleResources(manifest, resources);
+      newManifest = newManifest.withPhase(PHASE_RESOURCES, resources);
+    }
+
+    if (this.incremental) {
+      newManifest.save(this.outputDirectory.orElseThrow());
+    }
+    if (this.retaining()) {
+      this.retainedManifest = newManifest;
+    }
+  }
+
+  /**
+   * Remove outputs that the previous export wrote from resources that no
+   * longer exist. Only files that the previous export recorded writing are
+   * removed, because the output directory may also hold files that were
+   * placed there by other means.
+   */
+
+  private void deleteStaleResources(
+    final SPFingerprintManifest previous,
+    final SPFingerprintManifest.Phase current)
+    throws IOException
+  {
+    final var previousPhase = previous.phases().get(PHASE_RESOURCES);
+    if (previousPhase == null) {
+      return;
+    }
+
+    final var written = new HashSet<>(current.outputs());
+    for (final var name : previousPhase.outputs()) {
+      if (!written.contains(name)) {
+        LOG.debug("{}: Deleting stale resource {}", this.output, name);
+        this.output.delete(name);
+      }
+    }
+  }
+
+  /**
+   * The manifest of the previous export is held in memory if possible;
+   * otherwise, it is loaded from the output directory.
+   */
+
+  private SPFingerprintManifest previousManifest(
+    final SortedMap<String, String> parameters)
+  {
+    if (this.retainedManifest != null) {
+      if (this.retainedManifest.parameters().equals(parameters)) {
+        return this.retainedManifest;
+      }
+      LOG.debug("{}: Export parameters changed", this.inputDirectory);
+      this.retainedManifest = null;
+    }
+    if (this.incremental) {
+      return SPFingerprintManifest.load(
+        this.outputDirectory.orElseThrow(),
+        parameters
+      );
+    }
+    return SPFingerprintManifest.empty(parameters);
+  }
+
+  @Override
+  public void watch(
+    final Duration debounce)
+    throws SPException, InterruptedException
+  {
+    Objects.requireNonNull(debounce, "debounce");
+
+    this.watching = true;
     try {
-      if (Files.isRegularFile(this.inputConfiguration)) {
-        final var properties =
-          JProperties.fromFile(this.inputConfiguration.toFile());
-
-        if (properties.containsKey("softpage.shields")) {
-          this.shields =
-            Arrays.stream(JProperties.getString(properties, "softpage.shields")
-              .split("\\s+"))
-              .map(SPShield::valueOf)
-              .toList();
-        }
-        if (properties.containsKey("softpage.release_source")) {
-          this.releaseSource =
-            SPReleaseSource.valueOf(
-              JProperties.getString(properties, "softpage.release_source")
-            );
+      new SPSiteWatcher(
+        this,
+        this.inputDirectory,
+        this.outputDirectory,
+        debounce
+      ).run();
+    } finally {
+      this.watching = false;
+      this.retainedManifest = null;
+      this.retainedInputs = null;
+    }
+  }
+
+  /**
+   * Determine the directories that must be watched in order to observe
+   * changes to every input of the most recent export. The input directory
+   * and the site resources are always watched, so that inputs that are
+   * created after a failed export are noticed.
+   *
+   * @return The directories
+   *
+   * @throws IOException On I/O errors
+   */
+
+  Set<Path> watchedDirectories()
+    throws IOException
+  {
+    final var base =
+      this.inputDirectory.toAbsolutePath().normalize();
+    final var directories = new HashSet<Path>();
+    directories.add(base);
+    addTree(directories, base.resolve(this.inputName(this.inputResources)));
+
+    final var inputs = new ArrayList<SPInputFingerprint>();
+    if (this.retainedManifest != null) {
+      for (final var phase : this.retainedManifest.phases().values()) {
+        inputs.addAll(phase.inputs());
+      }
+    }
+    if (this.retainedInputs != null) {
+      inputs.addAll(this.retainedInputs.inputs());
+    }
+
+    for (final var input : inputs) {
+      final var path =
+        base.resolve(input.path()).normalize();
+      switch (input.kind()) {
+        case FILE -> {
+          final var parent = path.getParent();
+          if (parent != null && Files.isDirectory(parent)) {
+            directories.add(parent);
+          }
         }
+        case DIRECTORY -> addTree(directories, path);
       }
-    } catch (final Exception e) {
-      throw SPException.wrap(e);
     }
+    return directories;
   }
 
-  private void findChangelog()
+  private static void addTree(
+    final Set<Path> directories,
+    final Path root)
+    throws IOException
+  {
+    if (!Files.isDirectory(root)) {
+      return;
+    }
+    try (var stream = Files.walk(root)) {
+      stream.filter(Files::isDirectory)
+        .forEach(directories::add);
+    }
+  }
+
+  /**
+   * The parameters that affect every output of an export. The commit time
+   * is included for {@link SPTimestampSource#GIT_COMMIT} because a new
+   * commit changes the site timestamp without necessarily changing any
+   * input file. The changelog fallback needs no parameter, as the changelog
+   * is itself a recorded input.
+   */
+
+  private SortedMap<String, String> manifestParameters()
     throws SPException
   {
+    final var parameters = new TreeMap<String, String>();
+    parameters.put("SoftpageVersion", SPVersion.MAIN_VERSION);
+    parameters.put("SoftpageBuild", SPVersion.MAIN_BUILD);
+    parameters.put("TimestampSource", this.timestampSource.name());
+    parameters.put("ReleaseLimit", Integer.toString(this.releaseLimit));
+    parameters.put(
+      "ReleasesPerPage", Integer.toString(this.releasesPerPage));
+    if (this.timestampSource == GIT_COMMIT) {
+      parameters.put(
+        "GitCommitTime",
+        this.timestampGit().map(OffsetDateTime::toString).orElse("")
+      );
+    }
+    return parameters;
+  }
+
+  private SPFingerprintManifest.Phase exportSite()
+    throws SPException
+  {
+    this.recorder = this.newRecorder();
+    this.loadInputs();
+    this.phase("render", event -> {
+      final var pages = this.renderSite();
+      setStatistics(event, pages);
+      return pages;
+    });
+    return this.recorder.toPhase();
+  }
+
+  /**
+   * A phase of an export, instrumented with a flight recorder event.
+   *
+   * @param <T> The type of returned values
+   */
+
+  private interface PhaseType<T>
+  {
+    T execute(SPJFRSitePhase event)
+      throws SPException;
+  }
+
+  private <T> T phase(
+    final String name,
+    final PhaseType<T> body)
+    throws SPException
+  {
+    final var event = new SPJFRSitePhase();
+    event.begin();
     try {
-      final var parsers =
-        new CXMLChangelogParsers();
-
-      this.changelog =
-        parsers.parse(
-          this.changelogFile, error -> {
-            switch (error.severity()) {
-              case WARNING -> {
-                LOG.warn(
-                  "{}: {}:{}: {}",
-                  this.changelogFile,
-                  error.lexical().line(),
-                  error.lexical().column(),
-                  error.message()
-                );
-              }
-              case ERROR -> {
-                LOG.error(
-                  "{}: {}:{}: {}",
-                  this.changelogFile,
-                  error.lexical().line(),
-                  error.lexical().column(),
-                  error.message()
-                );
-              }
-              case CRITICAL -> {
-                LOG.error(
-                  "{}: {}:{}: {}",
-                  this.changelogFile,
-                  error.lexical().line(),
-                  error.lexical().column(),
-                  error.message()
-                );
-              }
-            }
-          });
-    } catch (final IOException e) {
-      throw SPException.wrap(e);
+      return body.execute(event);
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.site = this.inputDirectory.toString();
+        event.phase = name;
+        event.commit();
+      }
     }
   }
 
-  private void writeFiles()
+  private static void setStatistics(
+    final SPJFRSitePhase event,
+    final SPFileStatistics statistics)
+  {
+    event.files = statistics.files();
+    event.bytes = statistics.bytes();
+  }
+
+  private static void setInputStatistics(
+    final SPJFRSitePhase event,
+    final Path file)
+  {
+    if (event.isEnabled()) {
+      setStatistics(event, SPFileStatistics.ofFiles(List.of(file)));
+    }
+  }
+
+  /**
+   * Load all inputs concurrently. The only dependency between the inputs is
+   * that the project version is taken from the changelog, and so the version
+   * is determined once everything else has loaded. In watch mode, inputs
+   * whose files are unchanged since the previous export are reused.
+   */
+
+  private void loadInputs()
     throws SPException
   {
-    this.copySiteResources();
-    this.writeFile("reset.css");
-    this.writeFile("style.css");
+    final var previous =
+      Optional.ofNullable(this.retainedInputs);
+
+    final var configurationName =
+      this.inputName(this.inputConfiguration);
+    final var changelogName =
+      this.inputName(this.changelogFile);
+    final var licenseName =
+      this.inputName(this.licenseFile);
+    final var readmeName =
+      this.inputName(this.readmeInputFile);
+
+    /*
+     * Every input other than the four single-file inputs is read by the
+     * project phase: the build files, module build files, and parent POMs.
+     */
+
+    final var singleFiles =
+      Set.of(configurationName, changelogName, licenseName, readmeName);
+
+    try (final var scope = new SPTaskScope()) {
+      final var configurationTask =
+        this.forkInput(
+          scope,
+          previous,
+          configurationName::equals,
+          LoadedInputs::configuration,
+          () -> this.phase("configuration", event -> {
+            setInputStatistics(event, this.inputConfiguration);
+            return this.findConfiguration();
+          }));
+      final var changelogTask =
+        this.forkInput(
+          scope,
+          previous,
+          changelogName::equals,
+          LoadedInputs::changelog,
+          () -> this.phase("changelog", event -> {
+            setInputStatistics(event, this.changelogFile);
+            return this.findChangelog();
+          }));
+      final var modelTask =
+        this.forkInput(
+          scope,
+          previous,
+          name -> !singleFiles.contains(name),
+          LoadedInputs::model,
+          () -> this.phase("project", event -> {
+            return this.findProjectModel();
+          }));
+      final var licenseTask =
+        this.forkInput(
+          scope,
+          previous,
+          licenseName::equals,
+          LoadedInputs::licenseText,
+          () -> this.phase("license", event -> {
+            setInputStatistics(event, this.licenseFile);
+            return this.readLicenseText();
+          }));
+      final var readmeTask =
+        this.forkInput(
+          scope,
+          previous,
+          readmeName::equals,
+          LoadedInputs::readmeHTML,
+          () -> this.phase("readme", event -> {
+            setInputStatistics(event, this.readmeInputFile);
+            return this.readReadmeHTML();
+          }));
+
+      scope.join();
+
+      final var configuration = configurationTask.resultNow();
+      this.shields = configuration.shields();
+      this.releaseSource = configuration.releaseSource();
+      this.changelog = changelogTask.resultNow();
+
+      final var model = modelTask.resultNow();
+      this.info =
+        model.toProjectInfo(
+          licenseTask.resultNow(),
+          readmeTask.resultNow(),
+          this.findVersion(model)
+        );
+
+      if (this.retaining()) {
+        this.retainedInputs =
+          new LoadedInputs(
+            configuration,
+            this.changelog,
+            model,
+            licenseTask.resultNow(),
+            readmeTask.resultNow(),
+            this.recorder.toPhase().inputs()
+          );
+      }
+    }
+  }
+
+  private String inputName(
+    final Path file)
+  {
+    return SPFingerprints.relativeName(this.inputDirectory, file);
   }
 
-  private void copySiteResources()
+  /**
+   * Load a single input, unless the previous export loaded it from files
+   * that are all unchanged, in which case the previous value is reused and
+   * the fingerprints of those files are carried over to the new export.
+   */
+
+  private <T> Future<T> forkInput(
+    final SPTaskScope scope,
+    final Optional<LoadedInputs> previous,
+    final Predicate<String> owns,
+    final Function<LoadedInputs, T> value,
+    final Callable<T> load)
     throws SPException
   {
-    try (final var files = Files.list(
-      this.inputDirectory.resolve("src")
-        .resolve("site")
-        .resolve("resources")
-    )) {
-      for (final var file : files.sorted().toList()) {
-        this.copyFile(file, file.getFileName().toString());
+    if (previous.isPresent()) {
+      final var inputs =
+        previous.get()
+          .inputs()
+          .stream()
+          .filter(input -> owns.test(input.path()))
+          .toList();
+
+      if (!inputs.isEmpty() && this.areUnchanged(inputs)) {
+        this.recorder.recordInputs(inputs);
+        return CompletableFuture.completedFuture(value.apply(previous.get()));
+      }
+    }
+    return scope.fork(load);
+  }
+
+  private boolean areUnchanged(
+    final List<SPInputFingerprint> inputs)
+    throws SPException
+  {
+    try {
+      for (final var input : inputs) {
+        if (!SPFingerprints.isUnchanged(this.inputDirectory, input)) {
+          return false;
+        }
       }
+      return true;
     } catch (final IOException e) {
       throw SPException.wrap(e);
     }
   }
 
-  private void copyFile(
-    final Path inputFile,
-    final String outputName)
+  private SPFingerprintManifest.Phase exportResources()
     throws SPException
   {
-    final var copyOutputFile =
-      this.outputDirectory.resolve(outputName);
+    this.recorder = this.newRecorder();
+    this.writeFiles();
+    return this.recorder.toPhase();
+  }
 
-    try {
-      Files.copy(inputFile, copyOutputFile, REPLACE_EXISTING);
-    } catch (final IOException e) {
-      throw errorFileCopy(inputFile, e, copyOutputFile);
+  /**
+   * Determine the "last updated" timestamp of the site. The timestamp is
+   * resolved once per export; stable sources fall back to one another, and
+   * finally to the current time, if they cannot provide a timestamp.
+   */
+
+  private OffsetDateTime timestamp()
+    throws SPException
+  {
+    if (this.timestamp != null) {
+      return this.timestamp;
+    }
+
+    Optional<OffsetDateTime> time = Optional.empty();
+    switch (this.timestampSource) {
+      case CURRENT_TIME -> {
+
+      }
+      case GIT_COMMIT -> {
+        time = this.timestampGit();
+        if (time.isEmpty()) {
+          time = this.timestampChangelog();
+        }
+      }
+      case CHANGELOG -> {
+        time = this.timestampChangelog();
+      }
+    }
+
+    if (time.isEmpty() && this.timestampSource != CURRENT_TIME) {
+      LOG.warn(
+        "{}: No timestamp available from {}, using the current time",
+        this.inputDirectory,
+        this.timestampSource
+      );
     }
+
+    this.timestamp =
+      time.orElseGet(() -> OffsetDateTime.now(UTC))
+        .withNano(0);
+    return this.timestamp;
   }
 
-  private static SPException errorFileCopy(
-    final Path inputFile,
-    final IOException exception,
-    final Path outputFile)
+  private Optional<OffsetDateTime> timestampGit()
+    throws SPException
   {
-    return new SPException(
-      "Failed to copy file.",
-      exception,
-      "error-file",
-      Map.ofEntries(
-        Map.entry("InputFile", inputFile.toString()),
-        Map.entry("OutputFile", outputFile.toString())
-      ),
-      Optional.empty()
+    if (this.gitTimestamp == null) {
+      try {
+        this.gitTimestamp = SPTimestamps.gitCommitTime(this.inputDirectory);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw SPException.wrap(e);
+      }
+    }
+    return this.gitTimestamp;
+  }
+
+  private Optional<OffsetDateTime> timestampChangelog()
+    throws SPException
+  {
+    if (this.changelog == null) {
+      this.changelog = this.findChangelog();
+    }
+    return this.changelog.newestEntry();
+  }
+
+  /**
+   * The modification time given to output files: the site timestamp, so
+   * that reproducible exports of unchanged inputs produce files that are
+   * identical in both content and metadata.
+   */
+
+  private Optional<Instant> stamp()
+    throws SPException
+  {
+    if (this.timestampSource == CURRENT_TIME) {
+      return Optional.empty();
+    }
+    return Optional.of(this.timestamp().toInstant());
+  }
+
+  private SPFingerprintRecorder newRecorder()
+  {
+    /*
+     * The content cache keys rendered pages by the fingerprints of the
+     * inputs, so recording is required whenever a cache is in use. Retained
+     * exports use the fingerprints to decide what must be loaded again.
+     */
+
+    return new SPFingerprintRecorder(
+      this.incremental || this.retaining() || this.cacheDirectory.isPresent(),
+      this.inputDirectory
     );
   }
 
-  private void writeFile(
-    final String name)
+  private SPSiteConfiguration findConfiguration()
     throws SPException
   {
+    this.recorder.recordFile(this.inputConfiguration);
+    return SPSiteConfiguration.load(
+      this.inputConfiguration,
+      SPSiteConfiguration.defaults()
+    );
+  }
+
+  private SPChangelog findChangelog()
+    throws SPException
+  {
+    this.recorder.recordFile(this.changelogFile);
+    return SPChangelogReader.read(this.changelogFile, this.releaseLimit);
+  }
+
+
+  private void writeFiles()
+    throws SPException
+  {
+    this.phase("resources", event -> {
+      final var result = this.copySiteResources();
+      event.files = result.copied() + result.linked();
+      event.bytes = result.bytes();
+      return result;
+    });
+    this.phase("stylesheets", event -> {
+      final var files = new SPFileStatistics(
+        2L,
+        this.writeFile("reset.css") + this.writeFile("style.css")
+      );
+      setStatistics(event, files);
+      return files;
+    });
+  }
+
+  private SPResourceSync.Result copySiteResources()
+    throws SPException
+  {
+    final var result =
+      this.outputDirectory.isPresent()
+        ? new SPResourceSync(
+            this.inputResources,
+            this.outputDirectory.get(),
+            RESOURCE_PARALLELISM,
+            this.linkResources,
+            this.stamp().map(FileTime::from),
+            this.recorder
+          ).execute()
+        : this.copySiteResourcesToOutput();
+
+    LOG.debug(
+      "{}: Resources: {} copied ({} bytes), {} linked, {} unchanged",
+      this.inputDirectory,
+      Long.valueOf(result.copied()),
+      Long.valueOf(result.bytes()),
+      Long.valueOf(result.linked()),
+      Long.valueOf(result.unchanged())
+    );
+    return result;
+  }
+
+  /**
+   * Copy the site resources into an output that is not a directory. Such
+   * outputs cannot be compared against the sources cheaply, and so every
+   * resource is copied.
+   */
+
+  private SPResourceSync.Result copySiteResourcesToOutput()
+    throws SPException
+  {
+    this.recorder.recordDirectory(this.inputResources);
+    if (!Files.isDirectory(this.inputResources)) {
+      return new SPResourceSync.Result(0L, 0L, 0L, 0L);
+    }
+
     try {
-      final var output =
-        this.outputDirectory.resolve(name);
+      final List<Path> files;
+      try (var stream = Files.walk(this.inputResources)) {
+        files = stream.filter(Files::isRegularFile)
+          .sorted()
+          .toList();
+      }
 
+      final var stamp = this.stamp();
+      var bytes = 0L;
+      for (final var file : files) {
+        this.recorder.recordFile(file);
+        final var name =
+          SPFingerprints.relativeName(this.inputResources, file);
+        this.output.copy(name, file, stamp);
+        this.recorder.recordOutput(name);
+        bytes += Files.size(file);
+      }
+      return new SPResourceSync.Result(files.size(), 0L, 0L, bytes);
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  private long writeFile(
+    final String name)
+    throws SPException
+  {
+    try {
       final var fullName =
         "/com/io7m/softpage/core/%s".formatted(name);
 
+      final byte[] data;
       try (final var inputStream = SPSite.class.getResourceAsStream(fullName)) {
-        Files.copy(inputStream, output, REPLACE_EXISTING);
+        data = inputStream.readAllBytes();
       }
+      this.output.write(name, data, this.stamp());
+      this.recorder.recordOutput(name);
+      return data.length;
     } catch (final IOException e) {
       throw SPException.wrap(e);
     }
   }
 
-  private void findProjectInfo()
+  private ProjectModel findProjectModel()
     throws SPException
   {
+    this.recorder.recordFile(this.pomFile);
     if (Files.isRegularFile(this.pomFile)) {
-      this.findProjectInfoPOM();
-    } else if (Files.isRegularFile(this.gradleProperties)) {
-      this.findProjectInfoGradle();
+      return this.findProjectModelPOM();
+    }
+
+    this.recorder.recordFile(this.gradleProperties);
+    if (Files.isRegularFile(this.gradleProperties)) {
+      return this.findProjectModelGradle();
     } else {
       throw errorNoProjectFiles();
     }
@@ -422,7 +1135,7 @@ public final class SPSite implements SPSiteType, TemplateLoader
     );
   }
 
-  private void findProjectInfoGradle()
+  private ProjectModel findProjectModelGradle()
     throws SPException
   {
     try {
@@ -438,10 +1151,6 @@ public final class SPSite implements SPSiteType, TemplateLoader
         JProperties.getString(properties, "POM_DESCRIPTION");
       final var version =
         VersionParser.parse(JProperties.getString(properties, "VERSION_NAME"));
-      final var licenseText =
-        this.readLicenseText();
-      final var readmeHTML =
-        this.readReadmeHTML();
       final var scmURL =
         JProperties.getURI(properties, "POM_SCM_URL");
       final var issuesURL =
@@ -470,22 +1179,20 @@ public final class SPSite implements SPSiteType, TemplateLoader
         }
       }
 
-      this.info =
-        new ProjectInfo(
-          name,
-          description,
-          group,
-          artifactId,
-          licenseText,
-          readmeHTML,
-          version,
-          scmURL,
-          issuesURL,
-          modules,
-          bom,
-          documentation,
-          specification
-        );
+      return new ProjectModel(
+        name,
+        description,
+        group,
+        artifactId,
+        version.toString(),
+        false,
+        scmURL,
+        issuesURL,
+        modules,
+        bom,
+        documentation,
+        specification
+      );
 
     } catch (final Exception e) {
       throw SPException.wrap(e);
@@ -495,61 +1202,83 @@ public final class SPSite implements SPSiteType, TemplateLoader
   private SortedMap<String, ModuleInfo> parseGradleModules()
     throws SPException
   {
+    final List<String> projects;
     try {
-      final var modules =
-        new TreeMap<String, ModuleInfo>();
-      final var lines =
-        Files.readAllLines(this.gradleSettingsFile);
-
-      final var files = new HashMap<String, Path>();
-      for (final var line : lines) {
-        final var lineTrimmed =
-          line.trim();
-        final var matcher =
-          GRADLE_INCLUDE_PATTERN.matcher(lineTrimmed);
-
-        if (matcher.matches()) {
-          final var name = matcher.group(1);
-          files.put(
-            name,
-            this.inputDirectory.resolve(name)
-              .resolve("gradle.properties")
-          );
-        }
-      }
+      this.recorder.recordFile(this.gradleSettingsFile);
+      projects = SPGradleSettings.includedProjects(
+        Files.readString(this.gradleSettingsFile)
+      );
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
 
-      for (final var entry : files.entrySet()) {
-        final var name =
-          entry.getKey();
-        final var file =
-          entry.getValue();
-        final var properties =
-          JProperties.fromFile(file.toFile());
+    final var results =
+      new ArrayList<Future<Optional<ModuleInfo>>>(projects.size());
 
-        final var moduleArtifactId =
-          properties.getProperty("POM_ARTIFACT_ID");
-        final var moduleInfo =
-          new ModuleInfo(moduleArtifactId);
+    try (var scope = new SPTaskScope(MODULE_PARALLELISM)) {
+      for (final var project : projects) {
+        results.add(scope.fork(() -> this.findModuleGradle(project)));
+      }
+      scope.join();
+    }
 
-        modules.put(name, moduleInfo);
+    final var modules =
+      new TreeMap<String, ModuleInfo>();
+
+    for (int index = 0; index < projects.size(); ++index) {
+      final var moduleInfo = results.get(index).resultNow();
+      if (moduleInfo.isPresent()) {
+        modules.put(projects.get(index), moduleInfo.get());
       }
+    }
+    return modules;
+  }
 
-      return modules;
-    } catch (final IOException e) {
-      throw SPException.wrap(e);
+  private Optional<ModuleInfo> findModuleGradle(
+    final String project)
+    throws SPException, IOException
+  {
+    final var file =
+      SPGradleSettings.projectDirectory(this.inputDirectory, project)
+        .resolve("gradle.properties");
+
+    this.recorder.recordFile(file);
+    if (!Files.isRegularFile(file)) {
+      LOG.debug("Module {} has no gradle.properties file", project);
+      return Optional.empty();
     }
+
+    final var properties =
+      JProperties.fromFile(file.toFile());
+    final var moduleArtifactId =
+      properties.getProperty("POM_ARTIFACT_ID");
+
+    if (moduleArtifactId == null) {
+      LOG.debug("Module {} declares no POM_ARTIFACT_ID", project);
+      return Optional.empty();
+    }
+    return Optional.of(new ModuleInfo(moduleArtifactId.trim()));
   }
 
-  private void findProjectInfoPOM()
+  private ProjectModel findProjectModelPOM()
     throws SPException
   {
     final var model =
-      Maven.readModel(this.pomFile);
+      this.services.pomParents()
+        .resolve(
+          this.inputDirectory,
+          this.pomFile,
+          SPPOMExtractor.extractProject(this.pomFile),
+          this.mavenRepositories,
+          this.recorder
+        );
 
     final var scmURL =
-      URI.create(model.getScm().getUrl());
+      URI.create(requirePOMField(this.pomFile, "scm/url", model.scmURL()));
     final var issuesURL =
-      URI.create(model.getIssueManagement().getUrl());
+      URI.create(
+        requirePOMField(this.pomFile, "issueManagement/url", model.issuesURL())
+      );
     final var modules =
       new TreeMap<String, ModuleInfo>();
 
@@ -560,17 +1289,24 @@ public final class SPSite implements SPSiteType, TemplateLoader
     Optional<ModuleInfo> specification =
       Optional.empty();
 
-    for (final var moduleName : model.getModules()) {
-      final var moduleDirectory =
-        this.inputDirectory.resolve(moduleName);
-      final var modulePom =
-        moduleDirectory.resolve("pom.xml");
-      final var moduleModel =
-        Maven.readModel(modulePom);
-      final var moduleArtifactId =
-        moduleModel.getArtifactId();
+    /*
+     * The module POMs are parsed in parallel, but the results are examined
+     * in declaration order so that the choice of BOM, documentation, and
+     * specification modules is unaffected.
+     */
+
+    final var moduleNames =
+      model.modules();
+    final var moduleInfos =
+      this.findModulesPOM(moduleNames);
+
+    for (int index = 0; index < moduleNames.size(); ++index) {
+      final var moduleName =
+        moduleNames.get(index);
       final var moduleInfo =
-        new ModuleInfo(moduleArtifactId);
+        moduleInfos.get(index);
+      final var moduleArtifactId =
+        moduleInfo.artifactId();
 
       if (moduleArtifactId.endsWith(".bom")) {
         bom = Optional.of(moduleInfo);
@@ -585,31 +1321,91 @@ public final class SPSite implements SPSiteType, TemplateLoader
       modules.put(moduleName, moduleInfo);
     }
 
-    final var licenseText =
-      this.readLicenseText();
-    final var readmeHTML =
-      this.readReadmeHTML();
-
-    this.info =
-      new ProjectInfo(
-        model.getName()
-          .trim(),
-        model.getDescription()
-          .trim(),
-        model.getGroupId()
-          .trim(),
-        model.getArtifactId()
-          .trim(),
-        licenseText,
-        readmeHTML,
-        this.findVersion(model),
-        scmURL,
-        issuesURL,
-        modules,
-        bom,
-        documentation,
-        specification
-      );
+    return new ProjectModel(
+      requirePOMField(this.pomFile, "name", model.name())
+        .trim(),
+      requirePOMField(this.pomFile, "description", model.description())
+        .trim(),
+      requirePOMField(this.pomFile, "groupId", model.effectiveGroupId())
+        .trim(),
+      requirePOMField(this.pomFile, "artifactId", model.artifactId())
+        .trim(),
+      model.effectiveVersion()
+        .orElse("")
+        .trim(),
+      true,
+      scmURL,
+      issuesURL,
+      modules,
+      bom,
+      documentation,
+      specification
+    );
+  }
+
+  private List<ModuleInfo> findModulesPOM(
+    final List<String> moduleNames)
+    throws SPException
+  {
+    try (final var scope = new SPTaskScope(MODULE_PARALLELISM)) {
+      final var tasks =
+        new ArrayList<Future<ModuleInfo>>(moduleNames.size());
+
+      for (final var moduleName : moduleNames) {
+        tasks.add(scope.fork(() -> this.findModulePOM(moduleName)));
+      }
+
+      scope.join();
+      return tasks.stream()
+        .map(Future::resultNow)
+        .toList();
+    }
+  }
+
+  private ModuleInfo findModulePOM(
+    final String moduleName)
+    throws SPException
+  {
+    final var moduleDirectory =
+      this.inputDirectory.resolve(moduleName);
+    final var modulePom =
+      moduleDirectory.resolve("pom.xml");
+
+    this.recorder.recordFile(modulePom);
+    final var moduleArtifactId =
+      SPPOMExtractor.extractArtifactId(modulePom);
+
+    return new ModuleInfo(
+      requirePOMField(modulePom, "artifactId", moduleArtifactId)
+        .trim()
+    );
+  }
+
+  private static String requirePOMField(
+    final Path file,
+    final String field,
+    final Optional<String> value)
+    throws SPException
+  {
+    if (value.isPresent()) {
+      return value.get();
+    }
+    throw errorPOMFieldMissing(file, field);
+  }
+
+  private static SPException errorPOMFieldMissing(
+    final Path file,
+    final String field)
+  {
+    return new SPException(
+      "A required field is missing from the POM file.",
+      "error-pom-field-missing",
+      Map.ofEntries(
+        Map.entry("File", file.toString()),
+        Map.entry("Field", field)
+      ),
+      Optional.empty()
+    );
   }
 
   private String readReadmeHTML()
@@ -621,6 +1417,8 @@ public final class SPSite implements SPSiteType, TemplateLoader
   private String readLicenseText()
     throws SPException
   {
+    this.recorder.recordFile(this.licenseFile);
+
     final String licenseText;
     try {
       licenseText =
@@ -636,246 +1434,505 @@ public final class SPSite implements SPSiteType, TemplateLoader
     throws SPException
   {
     try {
-      final var options =
-        new MutableDataSet();
-      final var extensions =
-        new HashSet<Extension>();
-
-      extensions.add(new TablesExtension());
-
-      final var parser =
-        Parser.builder(options)
-          .extensions(extensions)
-          .build();
-      final var renderer =
-        HtmlRenderer.builder(options)
-          .extensions(extensions)
-          .build();
-
+      this.recorder.recordFile(this.readmeInputFile);
       final var text =
         Files.readString(this.readmeInputFile);
       final var textReplaced =
         text.replace("src/site/resources/", "");
 
-      return renderer.render(parser.parse(textReplaced));
+      final var key =
+        SPContentCache.key("readme-html")
+          .add(textReplaced)
+          .build();
+
+      final var cached =
+        this.cache.flatMap(c -> c.get(key));
+      if (cached.isPresent()) {
+        LOG.debug("{}: Markdown found in cache", this.readmeInputFile);
+        return new String(cached.get(), UTF_8);
+      }
+
+      final var result =
+        this.services.markdown().render(textReplaced);
+
+      LOG.debug(
+        "{}: Markdown parsed in {}, rendered in {}",
+        this.readmeInputFile,
+        result.parseTime(),
+        result.renderTime()
+      );
+
+      this.cache.ifPresent(c -> c.put(key, result.html().getBytes(UTF_8)));
+      return result.html();
     } catch (final Exception e) {
       throw SPException.wrap(e);
     }
   }
 
   private Version findVersion(
-    final Model model)
+    final ProjectModel model)
     throws SPException
   {
-    try {
-      final var changelogVersion =
-        this.changelog.releases().lastKey();
-
-      return new Version(
-        changelogVersion.major().intValueExact(),
-        changelogVersion.minor().intValueExact(),
-        changelogVersion.patch().intValueExact(),
-        changelogVersion.qualifier()
-          .map(x -> new VersionQualifier(x.text()))
-      );
-    } catch (final NoSuchElementException e) {
-      try {
-        return VersionParser.parse(model.getVersion().trim());
-      } catch (final VersionException ex) {
-        throw SPException.wrap(ex);
-      }
+    if (!model.preferChangelogVersion()) {
+      return parseDeclaredVersion(model);
     }
-  }
-
-  @Override
-  public Object findTemplateSource(
-    final String name)
-  {
-    return name;
-  }
-
-  @Override
-  public long getLastModified(
-    final Object templateSource)
-  {
-    return 0;
-  }
 
-  @Override
-  public Reader getReader(
-    final Object templateSource,
-    final String encoding)
-  {
-    final var fullName =
-      "/com/io7m/softpage/core/%s".formatted(templateSource);
-
-    return new InputStreamReader(
-      SPSite.class.getResourceAsStream(fullName)
-    );
+    final var changelogVersion =
+      this.changelog.newestVersion();
+    if (changelogVersion.isPresent()) {
+      return changelogVersion.get();
+    }
+    return parseDeclaredVersion(model);
   }
 
-  @Override
-  public void closeTemplateSource(
-    final Object templateSource)
+  private static Version parseDeclaredVersion(
+    final ProjectModel model)
+    throws SPException
   {
-    // Nothing required.
+    try {
+      return VersionParser.parse(model.declaredVersion());
+    } catch (final VersionException e) {
+      throw SPException.wrap(e);
+    }
   }
 
   private static final class Builder
     implements SPSiteBuilderType
   {
+    private final SPSiteServices services;
     private final Path inputDirectory;
-    private final Path outputDirectory;
+    private SPOutputType output;
+    private boolean incremental;
+    private List<Path> mavenRepositories;
+    private SPTimestampSource timestampSource;
+    private boolean linkResources;
+    private int releaseLimit;
+    private int releasesPerPage;
+    private Optional<Path> cacheDirectory;
+    private long cacheSizeLimit;
 
     public Builder(
+      final SPSiteServices inServices,
       final Path inInputDirectory,
-      final Path inOutputDirectory)
+      final SPOutputType inOutput)
     {
+      this.services =
+        Objects.requireNonNull(inServices, "services");
       this.inputDirectory =
         Objects.requireNonNull(inInputDirectory, "inputDirectory");
-      this.outputDirectory =
-        Objects.requireNonNull(inOutputDirectory, "outputDirectory");
+      this.output =
+        Objects.requireNonNull(inOutput, "output");
+      this.mavenRepositories =
+        defaultMavenRepositories();
+      this.timestampSource =
+        CURRENT_TIME;
+      this.releaseLimit =
+        Integer.MAX_VALUE;
+      this.releasesPerPage =
+        DEFAULT_RELEASES_PER_PAGE;
+      this.cacheDirectory =
+        Optional.empty();
+      this.cacheSizeLimit =
+        DEFAULT_CACHE_SIZE_LIMIT;
+    }
+
+    private static List<Path> defaultMavenRepositories()
+    {
+      final var home = System.getProperty("user.home");
+      if (home == null) {
+        return List.of();
+      }
+
+      final var repository =
+        Path.of(home)
+          .resolve(".m2")
+          .resolve("repository");
+
+      if (Files.isDirectory(repository)) {
+        return List.of(repository);
+      }
+      return List.of();
+    }
+
+    @Override
+    public SPSiteBuilderType setReleaseLimit(
+      final int limit)
+    {
+      if (limit < 0) {
+        throw new IllegalArgumentException(
+          "Release limit must be non-negative: %d".formatted(limit));
+      }
+      this.releaseLimit = limit;
+      return this;
+    }
+
+    @Override
+    public SPSiteBuilderType setCacheDirectory(
+      final Path directory)
+    {
+      this.cacheDirectory =
+        Optional.of(Objects.requireNonNull(directory, "directory"));
+      return this;
+    }
+
+    @Override
+    public SPSiteBuilderType setCacheSizeLimit(
+      final long limit)
+    {
+      if (limit < 0L) {
+        throw new IllegalArgumentException(
+          "Cache size limit must be non-negative: %d".formatted(limit));
+      }
+      this.cacheSizeLimit = limit;
+      return this;
+    }
+
+    @Override
+    public SPSiteBuilderType setReleasesPerPage(
+      final int count)
+    {
+      if (count < 1) {
+        throw new IllegalArgumentException(
+          "Releases per page must be positive: %d".formatted(count));
+      }
+      this.releasesPerPage = count;
+      return this;
+    }
+
+    @Override
+    public SPSiteBuilderType setLinkResources(
+      final boolean link)
+    {
+      this.linkResources = link;
+      return this;
+    }
+
+    @Override
+    public SPSiteBuilderType setTimestampSource(
+      final SPTimestampSource source)
+    {
+      this.timestampSource =
+        Objects.requireNonNull(source, "source");
+      return this;
+    }
+
+    @Override
+    public SPSiteBuilderType setMavenRepositories(
+      final List<Path> repositories)
+    {
+      this.mavenRepositories = List.copyOf(repositories);
+      return this;
+    }
+
+    @Override
+    public SPSiteBuilderType setOutput(
+      final SPOutputType inOutput)
+    {
+      this.output = Objects.requireNonNull(inOutput, "output");
+      return this;
+    }
+
+    @Override
+    public SPSiteBuilderType setIncremental(
+      final boolean inIncremental)
+    {
+      this.incremental = inIncremental;
+      return this;
     }
 
     @Override
     public SPSiteType build()
     {
+      if (this.incremental && !(this.output instanceof SPOutputDirectory)) {
+        throw new IllegalStateException(
+          "Incremental exports require a directory output."
+        );
+      }
+
       return new SPSite(
+        this.services,
         this.inputDirectory,
-        this.outputDirectory
+        this.output,
+        this.incremental,
+        this.mavenRepositories,
+        this.timestampSource,
+        this.linkResources,
+        this.releaseLimit,
+        this.releasesPerPage,
+        this.cacheDirectory,
+        this.cacheSizeLimit
       );
     }
   }
 
-  private void renderSite()
+  /**
+   * Render the index page and any release archive pages. The project,
+   * shield, and release models are built once and shared, unmodified,
+   * between all pages, which are rendered concurrently.
+   */
+
+  private SPFileStatistics renderSite()
     throws SPException
   {
     try {
-      Files.createDirectories(this.outputDirectory);
+      final var mainTemplate =
+        this.services.templates().template("main.ftlx");
+      final var archiveTemplate =
+        this.services.templates().template("archive.ftlx");
+
+      final var pagesKey =
+        this.pagesCacheKey();
+      if (pagesKey.isPresent()) {
+        final var restored = this.restorePages(pagesKey.get());
+        if (restored.isPresent()) {
+          return restored.get();
+        }
+      }
 
-      final var cfg =
-        new Configuration(Configuration.VERSION_2_3_34);
+      final var lastUpdated =
+        new SimpleScalar(this.timestamp().toString());
+      final var project =
+        this.info.toTemplateModel();
+      final var shields =
+        this.makeShields();
+      final var releaseSource =
+        new SimpleScalar(this.releaseSource.name());
+      final var releases =
+        SPReleaseModels.releases(this.changelog);
+
+      final var indexCount =
+        Math.min(this.releasesPerPage, releases.size());
+      final var archived =
+        releases.subList(indexCount, releases.size());
+      final var pageCount =
+        Math.ceilDiv(archived.size(), this.releasesPerPage);
+
+      final var archivePages = new SPDataList();
+      for (int page = 1; page <= pageCount; ++page) {
+        final var pageModel = new SPDataMap();
+        pageModel.put("Number", new SimpleScalar(Integer.toString(page)));
+        pageModel.put("File", new SimpleScalar(archiveFileName(page)));
+        archivePages.add(pageModel);
+      }
 
-      cfg.setTemplateLoader(this);
+      final var indexData = new SPDataMap();
+      indexData.put("ArchivePages", archivePages);
+      indexData.put("LastUpdated", lastUpdated);
+      indexData.put("Project", project);
+      indexData.put("ReleaseSource", releaseSource);
+      indexData.put("Releases", SPDataList.of(releases.subList(0, indexCount)));
+      indexData.put("Shields", shields);
+
+      final var names = new ArrayList<String>(pageCount + 1);
+      final var pages = new ArrayList<Future<byte[]>>(pageCount + 1);
+
+      try (var scope = new SPTaskScope(MODULE_PARALLELISM)) {
+        names.add(INDEX_PAGE);
+        pages.add(scope.fork(
+          () -> this.renderPage(mainTemplate, indexData, INDEX_PAGE)));
+
+        for (int page = 1; page <= pageCount; ++page) {
+          final var start =
+            (page - 1) * this.releasesPerPage;
+          final var end =
+            Math.min(archived.size(), start + this.releasesPerPage);
+
+          final var pageData = new SPDataMap();
+          pageData.put("ArchivePages", archivePages);
+          pageData.put("LastUpdated", lastUpdated);
+          pageData.put("Page", new SimpleScalar(Integer.toString(page)));
+          pageData.put("Project", project);
+          pageData.put("ReleaseSource", releaseSource);
+          pageData.put("Releases", SPDataList.of(archived.subList(start, end)));
+
+          final var name = archiveFileName(page);
+          names.add(name);
+          pages.add(scope.fork(
+            () -> this.renderPage(archiveTemplate, pageData, name)));
+        }
+        scope.join();
+      }
 
-      final var template = cfg.getTemplate("main.ftlx");
-      template.setLocale(Locale.UK);
+      this.deleteStaleArchivePages(pageCount);
 
-      final var templateData = new SPDataMap();
-      templateData.put(
-        "LastUpdated",
-        new SimpleScalar(
-          OffsetDateTime.now(UTC)
-            .withNano(0)
-            .toString()
-        )
-      );
-      templateData.put(
-        "Project",
-        this.info.toTemplateModel()
-      );
-      templateData.put(
-        "Releases",
-        this.makeReleases()
-      );
-      templateData.put(
-        "Shields",
-        this.makeShields()
-      );
-      templateData.put(
-        "ReleaseSource",
-        new SimpleScalar(this.releaseSource.name())
-      );
+      final var contents =
+        pages.stream()
+          .map(Future::resultNow)
+          .toList();
 
-      try (final var writer = Files.newBufferedWriter(this.outputFile)) {
-        template.process(templateData, writer);
+      if (pagesKey.isPresent()) {
+        this.storePages(pagesKey.get(), names, contents);
       }
-    } catch (final IOException | TemplateException e) {
+      return statisticsOf(contents);
+    } catch (final IOException e) {
       throw SPException.wrap(e);
     }
   }
 
-  private TemplateModel makeShields()
+  /**
+   * Produce a cache key for the rendered pages. Everything that the pages
+   * are derived from is either an input recorded while loading, one of the
+   * export parameters, or the site timestamp. Pages stamped with the
+   * current time can never be reused, and so are not cached.
+   */
+
+  private Optional<String> pagesCacheKey()
+    throws SPException
   {
-    final var values = new SPDataList();
-    for (final var shield : this.shields) {
-      values.add(new SimpleScalar(shield.name()));
+    if (this.cache.isEmpty() || this.timestampSource == CURRENT_TIME) {
+      return Optional.empty();
     }
-    return values;
+
+    final var key = SPContentCache.key("pages");
+    for (final var entry : this.manifestParameters().entrySet()) {
+      key.add(entry.getKey());
+      key.add(entry.getValue());
+    }
+    key.add(this.timestamp().toString());
+
+    for (final var input : this.recorder.toPhase().inputs()) {
+      key.add(input.kind().name());
+      key.add(input.path());
+      key.add(Boolean.toString(input.exists()));
+      key.add(Long.toString(input.size()));
+      key.add(input.hash());
+    }
+    return Optional.of(key.build());
   }
 
-  private TemplateModel makeReleases()
-  {
-    final var releases = new SPDataList();
-
-    final var releasesOrdered =
-      this.changelog.releases()
-        .values()
-        .stream()
-        .sorted(
-          Comparator.comparing(CRelease::date)
-            .thenComparing(CRelease::version)
-            .reversed()
-        ).toList();
-
-    for (final var releaseData : releasesOrdered) {
-      final var changesModel = new SPDataList();
-      final var releaseModel = new SPDataMap();
-      final var rVersion = releaseData.version();
-      releaseModel.put(
-        "Version",
-        new SimpleScalar(
-          new Version(
-            rVersion.major().intValueExact(),
-            rVersion.minor().intValueExact(),
-            rVersion.patch().intValueExact(),
-            rVersion.qualifier()
-              .map(x -> new VersionQualifier(x.text()))
-          ).toString()
-        )
-      );
-      releaseModel.put(
-        "Date",
-        new SimpleScalar(ISO_DATE.format(releaseData.date()))
-      );
+  private static String pageCacheKey(
+    final String pagesKey,
+    final String name)
+  {
+    return SPContentCache.key("page")
+      .add(pagesKey)
+      .add(name)
+      .build();
+  }
 
-      final var changesOrdered =
-        releaseData.changes()
-          .stream()
-          .sorted(Comparator.comparing(CChange::date).reversed())
-          .toList();
+  /**
+   * Restore rendered pages from the cache. The list of pages is stored
+   * after the pages themselves, so its presence implies that every page was
+   * stored, although individual pages may since have been evicted.
+   */
 
-      for (final var changeData : changesOrdered) {
-        final var text = new StringBuilder();
-        text.append(changeData.summary());
-
-        final var tickets = changeData.tickets();
-        if (!tickets.isEmpty()) {
-          text.append("(Tickets ");
-          text.append(
-            tickets.stream()
-              .sorted()
-              .map(CTicketID::value)
-              .collect(Collectors.joining(", "))
-          );
-          text.append(")");
-        }
+  private Optional<SPFileStatistics> restorePages(
+    final String pagesKey)
+    throws SPException, IOException
+  {
+    final var cache = this.cache.orElseThrow();
+    final var listing = cache.get(pagesKey);
+    if (listing.isEmpty()) {
+      return Optional.empty();
+    }
 
-        if (!changeData.backwardsCompatible()) {
-          text.append(" (Backwards incompatible)");
-        }
+    final var names =
+      new String(listing.get(), UTF_8).lines().toList();
+    final var contents =
+      new ArrayList<byte[]>(names.size());
 
-        final var changeModel = new SPDataMap();
-        changeModel.put("Summary", new SimpleScalar(text.toString()));
-        changeModel.put(
-          "Date",
-          new SimpleScalar(ISO_DATE.format(changeData.date()))
-        );
-        changesModel.add(changeModel);
+    for (final var name : names) {
+      final var data = cache.get(pageCacheKey(pagesKey, name));
+      if (data.isEmpty()) {
+        return Optional.empty();
       }
-      releaseModel.put("Changes", changesModel);
-      releases.add(releaseModel);
+      contents.add(data.get());
+    }
+
+    final var stamp = this.stamp();
+    for (int index = 0; index < names.size(); ++index) {
+      final var name = names.get(index);
+      this.output.write(name, contents.get(index), stamp);
+      this.recorder.recordOutput(name);
     }
-    return releases;
+
+    LOG.debug(
+      "{}: Restored {} rendered pages from cache",
+      this.inputDirectory,
+      Integer.valueOf(names.size())
+    );
+    this.deleteStaleArchivePages(names.size() - 1);
+    return Optional.of(statisticsOf(contents));
+  }
+
+  private void storePages(
+    final String pagesKey,
+    final List<String> names,
+    final List<byte[]> contents)
+    throws IOException
+  {
+    final var cache = this.cache.orElseThrow();
+    final var listing = new StringBuilder();
+    for (int index = 0; index < names.size(); ++index) {
+      final var name = names.get(index);
+      cache.put(pageCacheKey(pagesKey, name), contents.get(index));
+      listing.append(name);
+      listing.append('\n');
+    }
+    cache.put(pagesKey, listing.toString().getBytes(UTF_8));
+  }
+
+  private static SPFileStatistics statisticsOf(
+    final List<byte[]> contents)
+  {
+    var bytes = 0L;
+    for (final var data : contents) {
+      bytes += data.length;
+    }
+    return new SPFileStatistics(contents.size(), bytes);
+  }
+
+  private static String archiveFileName(
+    final int page)
+  {
+    return "releases-%d.html".formatted(Integer.valueOf(page));
+  }
+
+  private byte[] renderPage(
+    final Template template,
+    final SPDataMap data,
+    final String name)
+    throws SPException
+  {
+    try {
+      final var writer = new StringWriter(PAGE_SIZE_HINT);
+      template.process(data, writer);
+      final var bytes = writer.toString().getBytes(UTF_8);
+      this.output.write(name, bytes, this.stamp());
+      this.recorder.recordOutput(name);
+      return bytes;
+    } catch (final IOException | TemplateException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  /**
+   * Remove archive pages left behind by an earlier export of a longer
+   * history or with a smaller page size. Archive pages are numbered
+   * consecutively, so the first missing page ends the search.
+   */
+
+  private void deleteStaleArchivePages(
+    final int pageCount)
+    throws IOException
+  {
+    for (int page = pageCount + 1;; ++page) {
+      final var name = archiveFileName(page);
+      if (!this.output.exists(name)) {
+        return;
+      }
+      LOG.debug("{}: Deleting stale archive page {}", this.output, name);
+      this.output.delete(name);
+    }
+  }
+
+
+  private TemplateModel makeShields()
+  {
+    final var values = new SPDataList();
+    for (final var shield : this.shields) {
+      values.add(new SimpleScalar(shield.name()));
+    }
+    return values;
   }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.jproperties.JProperties;
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPReleaseSource;
+import com.io7m.softpage.core.SPShield;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The site configuration, read from {@code softpage.properties} in the site
+ * resources.
+ *
+ * @param shields       The shields shown in the page header
+ * @param releaseSource The place from which releases are published
+ */
+
+public record SPSiteConfiguration(
+  List<SPShield> shields,
+  SPReleaseSource releaseSource)
+{
+  /**
+   * The site configuration, read from {@code softpage.properties} in the site
+   * resources.
+   *
+   * @param shields       The shields shown in the page header
+   * @param releaseSource The place from which releases are published
+   */
+
+  public SPSiteConfiguration
+  {
+    shields = List.copyOf(shields);
+    Objects.requireNonNull(releaseSource, "releaseSource");
+  }
+
+  /**
+   * @return The configuration used when a site does not provide one
+   */
+
+  public static SPSiteConfiguration defaults()
+  {
+    return new SPSiteConfiguration(
+      List.of(
+        SPShield.SHIELD_BUILD_STATUS,
+        SPShield.SHIELD_MAVEN_CENTRAL,
+        SPShield.SHIELD_CODECOV
+      ),
+      SPReleaseSource.MAVEN_CENTRAL
+    );
+  }
+
+  /**
+   * Load a configuration file. Settings that are not present in the file,
+   * or the entire file if it does not exist, are taken from the given
+   * defaults.
+   *
+   * @param file     The configuration file
+   * @param defaults The default configuration
+   *
+   * @return The configuration
+   *
+   * @throws SPException On errors
+   */
+
+  public static SPSiteConfiguration load(
+    final Path file,
+    final SPSiteConfiguration defaults)
+    throws SPException
+  {
+    Objects.requireNonNull(file, "file");
+    Objects.requireNonNull(defaults, "defaults");
+
+    var newShields = defaults.shields;
+    var newReleaseSource = defaults.releaseSource;
+
+    try {
+      if (Files.isRegularFile(file)) {
+        final var properties =
+          JProperties.fromFile(file.toFile());
+
+        if (properties.containsKey("softpage.shields")) {
+          newShields =
+            Arrays.stream(JProperties.getString(properties, "softpage.shields")
+              .split("\\s+"))
+              .map(SPShield::valueOf)
+              .toList();
+        }
+        if (properties.containsKey("softpage.release_source")) {
+          newReleaseSource =
+            SPReleaseSource.valueOf(
+              JProperties.getString(properties, "softpage.release_source")
+            );
+        }
+      }
+      return new SPSiteConfiguration(newShields, newReleaseSource);
+    } catch (final Exception e) {
+      throw SPException.wrap(e);
+    }
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import java.util.Objects;
+
+/**
+ * The expensive, thread-safe services shared between sites.
+ *
+ * @param templates  The template engine
+ * @param markdown   The Markdown renderer
+ * @param pomParents The parent POM resolver and cache
+ */
+
+public record SPSiteServices(
+  SPTemplates templates,
+  SPMarkdown markdown,
+  SPPOMParents pomParents)
+{
+  /**
+   * The expensive, thread-safe services shared between sites.
+   *
+   * @param templates  The template engine
+   * @param markdown   The Markdown renderer
+   * @param pomParents The parent POM resolver and cache
+   */
+
+  public SPSiteServices
+  {
+    Objects.requireNonNull(templates, "templates");
+    Objects.requireNonNull(markdown, "markdown");
+    Objects.requireNonNull(pomParents, "pomParents");
+  }
+
+  /**
+   * Create a new set of services with default settings.
+   *
+   * @return The services
+   */
+
+  public static SPSiteServices create()
+  {
+    return new SPSiteServices(
+      SPTemplates.create(),
+      SPMarkdown.create(),
+      SPPOMParents.create()
+    );
+  }
+}
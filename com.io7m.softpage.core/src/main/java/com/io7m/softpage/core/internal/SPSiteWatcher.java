@@ -0,0 +1,218 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * The watch loop of a site. The site is exported once, and then the
+ * directories of its inputs are watched; each burst of changes is allowed
+ * to settle for the debounce period before the site is exported again. The
+ * set of watched directories is recomputed after every export, so that
+ * modules that are added or removed are picked up.
+ */
+
+final class SPSiteWatcher
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPSiteWatcher.class);
+
+  private final SPSite site;
+  private final Path inputDirectory;
+  private final Optional<Path> outputDirectory;
+  private final Duration debounce;
+  private final Map<Path, WatchKey> keys;
+
+  SPSiteWatcher(
+    final SPSite inSite,
+    final Path inInputDirectory,
+    final Optional<Path> inOutputDirectory,
+    final Duration inDebounce)
+  {
+    this.site =
+      Objects.requireNonNull(inSite, "site");
+    this.inputDirectory =
+      inInputDirectory.toAbsolutePath().normalize();
+    this.outputDirectory =
+      inOutputDirectory.map(path -> path.toAbsolutePath().normalize());
+    this.debounce =
+      Objects.requireNonNull(inDebounce, "debounce");
+    this.keys =
+      new HashMap<>();
+  }
+
+  void run()
+    throws SPException, InterruptedException
+  {
+    try (var service = FileSystems.getDefault().newWatchService()) {
+      this.register(service, this.site.watchedDirectories());
+      this.exportLogged();
+
+      while (true) {
+
+        /*
+         * An export may reveal new directories to watch. Anything that
+         * changed in those directories before they were registered would
+         * be missed, so export again (which is cheap if nothing changed)
+         * until the set of directories is stable.
+         */
+
+        while (this.register(service, this.site.watchedDirectories())) {
+          this.exportLogged();
+        }
+
+        LOG.info("{}: Watching for changes", this.inputDirectory);
+        var relevant = this.drain(service.take());
+
+        /*
+         * Editors commonly save a file as several operations (write a
+         * temporary file, rename, update attributes). Wait until the
+         * directory has been quiet for the debounce period.
+         */
+
+        while (true) {
+          final var next =
+            service.poll(this.debounce.toNanos(), TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          relevant |= this.drain(next);
+        }
+
+        if (relevant) {
+          this.exportLogged();
+        }
+      }
+    } catch (final IOException e) {
+      throw SPException.wrap(e);
+    }
+  }
+
+  private void exportLogged()
+  {
+    final var timeThen = System.nanoTime();
+    try {
+      this.site.export();
+      LOG.info(
+        "{}: Exported in {}",
+        this.inputDirectory,
+        Duration.ofNanos(System.nanoTime() - timeThen)
+      );
+    } catch (final SPException e) {
+      LOG.error("{}: Export failed: ", this.inputDirectory, e);
+    }
+  }
+
+  /**
+   * Consume the events of the given key.
+   *
+   * @return {@code true} if any event concerns a file outside the output
+   * directory
+   */
+
+  private boolean drain(
+    final WatchKey key)
+  {
+    final var directory = (Path) key.watchable();
+
+    var relevant = false;
+    for (final var event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW) {
+        relevant = true;
+        continue;
+      }
+
+      final var file = directory.resolve((Path) event.context());
+      if (!this.isOutput(file)) {
+        LOG.debug("{}: {}", event.kind(), file);
+        relevant = true;
+      }
+    }
+
+    if (!key.reset()) {
+      this.keys.remove(directory);
+    }
+    return relevant;
+  }
+
+  private boolean isOutput(
+    final Path file)
+  {
+    return this.outputDirectory
+      .map(file.toAbsolutePath()::startsWith)
+      .orElse(Boolean.FALSE)
+      .booleanValue();
+  }
+
+  /**
+   * Watch exactly the given directories.
+   *
+   * @return {@code true} if any directories were newly registered
+   */
+
+  private boolean register(
+    final WatchService service,
+    final Set<Path> directories)
+  {
+    final var iterator = this.keys.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final var entry = iterator.next();
+      if (!directories.contains(entry.getKey())) {
+        entry.getValue().cancel();
+        iterator.remove();
+      }
+    }
+
+    var added = false;
+    for (final var directory : directories) {
+      if (this.keys.containsKey(directory)) {
+        continue;
+      }
+      try {
+        this.keys.put(
+          directory,
+          directory.register(service, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY)
+        );
+        added = true;
+      } catch (final IOException e) {
+        LOG.debug("{}: Cannot watch: {}", directory, e.getMessage());
+      }
+    }
+    return added;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The parts of a repository that are read when generating a site.
+ */
+
+public final class SPSparseCheckout
+{
+  /**
+   * Sparse checkout patterns, in the non-cone gitignore-like syntax, that
+   * match every file that {@link SPSite} may read. Patterns without a
+   * leading slash match at any depth, which covers module POMs, parent
+   * POMs referenced by relative paths, and Gradle module properties.
+   */
+
+  private static final List<String> PATTERNS = List.of(
+    "pom.xml",
+    "gradle.properties",
+    "/settings.gradle.kts",
+    "/README-CHANGES.xml",
+    "/README-LICENSE.txt",
+    "/README.in",
+    "/.gitmodules",
+    "/src/site/resources/"
+  );
+
+  private static final Path RESOURCES =
+    Path.of("src", "site", "resources");
+
+  private SPSparseCheckout()
+  {
+
+  }
+
+  /**
+   * @return The sparse checkout patterns that match every site input
+   */
+
+  public static List<String> patterns()
+  {
+    return PATTERNS;
+  }
+
+  /**
+   * Determine which of the given submodules may contain site inputs. A
+   * submodule may contain site inputs if it contains, or lies within, the
+   * site resources or any module declared by the root POM or Gradle
+   * settings of the checkout.
+   *
+   * @param checkout   The sparse checkout
+   * @param submodules The paths of the submodules, relative to the checkout
+   *
+   * @return The submodules that must be checked out
+   *
+   * @throws SPException On errors
+   */
+
+  public static List<String> requiredSubmodules(
+    final Path checkout,
+    final Collection<String> submodules)
+    throws SPException
+  {
+    final var inputs = inputDirectories(checkout);
+    final var required = new ArrayList<String>();
+    for (final var submodule : submodules) {
+      final var path = Path.of(submodule).normalize();
+      for (final var input : inputs) {
+        if (input.startsWith(path) || path.startsWith(input)) {
+          required.add(submodule);
+          break;
+        }
+      }
+    }
+    return List.copyOf(required);
+  }
+
+  private static List<Path> inputDirectories(
+    final Path checkout)
+    throws SPException
+  {
+    final var directories = new ArrayList<Path>();
+    directories.add(RESOURCES);
+
+    final var pom = checkout.resolve("pom.xml");
+    if (Files.isRegularFile(pom)) {
+      for (final var module : SPPOMExtractor.extractProject(pom).modules()) {
+        directories.add(Path.of(module).normalize());
+      }
+    }
+
+    final var settings = checkout.resolve("settings.gradle.kts");
+    if (Files.isRegularFile(settings)) {
+      final String text;
+      try {
+        text = Files.readString(settings);
+      } catch (final IOException e) {
+        throw SPException.wrap(e);
+      }
+      for (final var project : SPGradleSettings.includedProjects(text)) {
+        directories.add(
+          SPGradleSettings.projectDirectory(Path.of(""), project));
+      }
+    }
+    return directories;
+  }
+}
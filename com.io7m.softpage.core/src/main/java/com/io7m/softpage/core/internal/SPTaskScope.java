@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A simple fork/join scope for running tasks concurrently on virtual threads.
+ * Tasks are forked with {@link #fork(Callable)}, and {@link #join()} waits for
+ * all of them. If any task fails, the remaining tasks are cancelled and
+ * {@link #join()} raises the first failure, with any subsequent failures
+ * attached as suppressed exceptions. Closing the scope waits for every
+ * thread it started. A scope may optionally bound the number of tasks that
+ * run at any one time.
+ */
+
+public final class SPTaskScope implements AutoCloseable
+{
+  private final ExecutorService executor;
+  private final ExecutorCompletionService<Object> completion;
+  private final List<Future<Object>> futures;
+  private final Semaphore permits;
+
+  /**
+   * A simple fork/join scope for running tasks concurrently on virtual
+   * threads, with no bound on the number of concurrently running tasks.
+   */
+
+  public SPTaskScope()
+  {
+    this(Integer.MAX_VALUE);
+  }
+
+  /**
+   * A simple fork/join scope for running tasks concurrently on virtual
+   * threads.
+   *
+   * @param parallelism The maximum number of tasks that may run at once
+   */
+
+  public SPTaskScope(
+    final int parallelism)
+  {
+    this.permits =
+      new Semaphore(Math.max(1, parallelism));
+    this.executor =
+      Executors.newVirtualThreadPerTaskExecutor();
+    this.completion =
+      new ExecutorCompletionService<>(this.executor);
+    this.futures =
+      new ArrayList<>();
+  }
+
+  /**
+   * Start a task.
+   *
+   * @param task The task
+   * @param <T>  The type of returned values
+   *
+   * @return The future representing the running task
+   */
+
+  @SuppressWarnings("unchecked")
+  public <T> Future<T> fork(
+    final Callable<T> task)
+  {
+    Objects.requireNonNull(task, "task");
+
+    final var future =
+      this.completion.submit(() -> {
+        this.permits.acquire();
+        try {
+          return task.call();
+        } finally {
+          this.permits.release();
+        }
+      });
+    this.futures.add(future);
+    return (Future<T>) future;
+  }
+
+  /**
+   * Wait for all forked tasks to complete. After this method returns
+   * normally, {@link Future#resultNow()} may be called on every future
+   * returned by {@link #fork(Callable)}.
+   *
+   * @throws SPException If any task fails
+   */
+
+  public void join()
+    throws SPException
+  {
+    SPException failure = null;
+
+    for (int index = 0; index < this.futures.size(); ++index) {
+      final Future<Object> future;
+      try {
+        future = this.completion.take();
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        this.cancelAll();
+        throw SPException.wrap(e);
+      }
+
+      try {
+        future.get();
+      } catch (final CancellationException e) {
+        // Cancelled due to an earlier failure.
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        this.cancelAll();
+        throw SPException.wrap(e);
+      } catch (final ExecutionException e) {
+        final var exception = SPException.wrap(e);
+        if (failure == null) {
+          failure = exception;
+          this.cancelAll();
+        } else if (failure != exception) {
+          failure.addSuppressed(exception);
+        }
+      }
+    }
+
+    this.futures.clear();
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  private void cancelAll()
+  {
+    for (final var future : this.futures) {
+      future.cancel(true);
+    }
+  }
+
+  @Override
+  public void close()
+  {
+    this.cancelAll();
+    this.executor.close();
+  }
+}
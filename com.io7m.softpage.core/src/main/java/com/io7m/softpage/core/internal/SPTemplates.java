@@ -0,0 +1,148 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.core.internal;
+
+import com.io7m.softpage.core.SPException;
+import freemarker.cache.NullCacheStorage;
+import freemarker.cache.TemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A thread-safe template engine. Each template is loaded and parsed once, and
+ * the resulting {@link Template} is shared between every caller. Templates are
+ * bundled with the application and therefore cannot change for the lifetime
+ * of the process. FreeMarker's own template cache is disabled; this class
+ * holds the only cache.
+ */
+
+public final class SPTemplates implements TemplateLoader
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPTemplates.class);
+
+  private final Configuration configuration;
+  private final ConcurrentHashMap<String, Template> templates;
+
+  private SPTemplates()
+  {
+    this.templates =
+      new ConcurrentHashMap<>();
+
+    this.configuration =
+      new Configuration(Configuration.VERSION_2_3_34);
+    this.configuration.setTemplateLoader(this);
+    this.configuration.setCacheStorage(new NullCacheStorage());
+    this.configuration.setDefaultEncoding(UTF_8.name());
+    this.configuration.setLocale(Locale.UK);
+  }
+
+  /**
+   * Create a new template engine.
+   *
+   * @return The engine
+   */
+
+  public static SPTemplates create()
+  {
+    return new SPTemplates();
+  }
+
+  /**
+   * Retrieve the template with the given name, parsing it if it has not
+   * already been parsed.
+   *
+   * @param name The template name
+   *
+   * @return The template
+   *
+   * @throws SPException On errors
+   */
+
+  public Template template(
+    final String name)
+    throws SPException
+  {
+    Objects.requireNonNull(name, "name");
+
+    try {
+      return this.templates.computeIfAbsent(name, this::parse);
+    } catch (final UncheckedIOException e) {
+      throw SPException.wrap(e.getCause());
+    }
+  }
+
+  private Template parse(
+    final String name)
+  {
+    try {
+      LOG.debug("Parsing template {}", name);
+      return this.configuration.getTemplate(name);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public Object findTemplateSource(
+    final String name)
+  {
+    return SPTemplates.class.getResource(
+      "/com/io7m/softpage/core/%s".formatted(name)
+    );
+  }
+
+  @Override
+  public long getLastModified(
+    final Object templateSource)
+  {
+    return -1L;
+  }
+
+  @Override
+  public Reader getReader(
+    final Object templateSource,
+    final String encoding)
+    throws IOException
+  {
+    return new InputStreamReader(
+      ((URL) templateSource).openStream(),
+      encoding
+    );
+  }
+
+  @Override
+  public void closeTemplateSource(
+    final Object templateSource)
+  {
+    // Nothing required.
+  }
+}
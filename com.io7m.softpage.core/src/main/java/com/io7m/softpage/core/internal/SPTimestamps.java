@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.core.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Functions to determine stable timestamps for reproducible output.
+ */
+
+public final class SPTimestamps
+{
+  private static final Logger LOG =
+    LoggerFactory.getLogger(SPTimestamps.class);
+
+  private SPTimestamps()
+  {
+
+  }
+
+  /**
+   * Find the committer date of the current commit of the git checkout
+   * containing the given directory.
+   *
+   * @param directory The directory
+   *
+   * @return The commit time, or nothing if it could not be determined
+   *
+   * @throws InterruptedException On interruption
+   */
+
+  public static Optional<OffsetDateTime> gitCommitTime(
+    final Path directory)
+    throws InterruptedException
+  {
+    Objects.requireNonNull(directory, "directory");
+
+    final var processBuilder =
+      new ProcessBuilder(List.of(
+        "git",
+        "-C",
+        directory.toString(),
+        "log",
+        "-1",
+        "--format=%cI"
+      ));
+
+    processBuilder.redirectError(
+      ProcessBuilder.Redirect.DISCARD);
+    processBuilder.redirectOutput(
+      ProcessBuilder.Redirect.PIPE);
+
+    try {
+      final var process = processBuilder.start();
+      final String output;
+      try (var stream = process.getInputStream()) {
+        output = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+      }
+
+      final var r = process.waitFor();
+      if (r != 0) {
+        LOG.debug("{}: git returned a non-zero exit code: {}", directory, r);
+        return Optional.empty();
+      }
+      return Optional.of(
+        OffsetDateTime.parse(output.trim())
+          .withOffsetSameInstant(UTC)
+      );
+    } catch (final IOException | DateTimeParseException e) {
+      LOG.debug(
+        "{}: Unable to determine commit time: {}", directory, e.getMessage());
+      return Optional.empty();
+    }
+  }
+}
@@ -27,6 +27,7 @@ module com.io7m.softpage.core
   requires com.fasterxml.jackson.databind;
   requires com.io7m.changelog.core;
   requires com.io7m.changelog.parser.api;
+  requires com.io7m.changelog.schema;
   requires com.io7m.changelog.xml.api;
   requires com.io7m.changelog.xml.vanilla;
   requires com.io7m.jlexing.core;
@@ -34,6 +35,8 @@ module com.io7m.softpage.core
   requires com.io7m.jproperties.core;
   requires com.io7m.seltzer.api;
   requires com.io7m.verona.core;
+  requires java.xml;
+  requires jdk.jfr;
   requires flexmark.ext.tables;
   requires flexmark.util.data;
   requires flexmark.util.misc;
@@ -41,6 +44,8 @@ module com.io7m.softpage.core
   requires freemarker;
   requires maven.model.helper;
   requires maven.model;
+  requires org.apache.commons.compress;
+  requires org.apache.commons.io;
   requires org.slf4j;
   requires org.jetbrains.annotations;
 
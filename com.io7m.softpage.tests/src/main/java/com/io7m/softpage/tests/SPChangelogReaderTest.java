@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.internal.SPChangelogReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class SPChangelogReaderTest
+{
+  @Test
+  public void testLimit(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      resource("changelog-0.xml", directory);
+    final var changelog =
+      SPChangelogReader.read(file, 2);
+
+    assertEquals(4, changelog.releaseCount());
+    assertEquals(
+      List.of("2.1.0", "2.0.0"),
+      changelog.releases()
+        .stream()
+        .map(release -> release.version().toString())
+        .toList()
+    );
+    assertEquals(
+      "2.1.0",
+      changelog.newestVersion().orElseThrow().toString()
+    );
+    assertEquals(
+      OffsetDateTime.parse("2013-02-01T00:00:00Z"),
+      changelog.newestEntry().orElseThrow()
+    );
+
+    final var change =
+      changelog.releases().get(1).changes().get(0);
+    assertEquals(List.of("2", "3"), change.tickets());
+    assertFalse(change.compatible());
+  }
+
+  @Test
+  public void testNone(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      resource("changelog-0.xml", directory);
+    final var changelog =
+      SPChangelogReader.read(file, 0);
+
+    assertEquals(4, changelog.releaseCount());
+    assertEquals(List.of(), changelog.releases());
+    assertEquals(
+      "2.1.0",
+      changelog.newestVersion().orElseThrow().toString()
+    );
+  }
+
+  @Test
+  public void testDates(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      resource("changelog-2.xml", directory);
+    final var changelog =
+      SPChangelogReader.read(file, 1);
+
+    final var release = changelog.releases().get(0);
+    assertEquals(utc("2014-03-04T05:06:07+01:30"), release.date());
+    assertEquals(
+      List.of(
+        utc("2014-03-04T23:59:59.123456789-11:45"),
+        utc("2014-03-04T05:06:07-05:00"),
+        utc("2014-03-04T05:06:07Z"),
+        utc("2014-03-04T05:06:07.5+01:30")
+      ),
+      release.changes()
+        .stream()
+        .map(change -> change.date())
+        .toList()
+    );
+    assertEquals(
+      utc("2014-03-04T23:59:59.123456789-11:45"),
+      changelog.newestEntry().orElseThrow()
+    );
+  }
+
+  private static OffsetDateTime utc(
+    final String text)
+  {
+    return OffsetDateTime.parse(text).withOffsetSameInstant(ZoneOffset.UTC);
+  }
+
+  @Test
+  public void testInvalid(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      resource("changelog-1.xml", directory);
+    final var ex =
+      assertThrows(SPException.class, () -> {
+        SPChangelogReader.read(file, 2);
+      });
+
+    assertEquals("error-changelog-invalid", ex.errorCode());
+  }
+
+  @Test
+  public void testMalformed(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      directory.resolve("changelog.xml");
+
+    Files.writeString(file, "<c:changelog");
+
+    final var ex =
+      assertThrows(SPException.class, () -> {
+        SPChangelogReader.read(file, 2);
+      });
+
+    assertEquals("error-changelog-invalid", ex.errorCode());
+  }
+
+  private static Path resource(
+    final String name,
+    final Path directory)
+    throws IOException
+  {
+    final var fullName =
+      "/com/io7m/softpage/tests/" + name;
+    final var file =
+      directory.resolve(name);
+
+    try (var stream =
+           SPChangelogReaderTest.class.getResourceAsStream(fullName)) {
+      Files.write(file, stream.readAllBytes());
+      return file;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.internal.SPContentCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SPContentCacheTest
+{
+  @Test
+  public void testKeys()
+  {
+    assertEquals(
+      SPContentCache.key("x").add("a").add("b").build(),
+      SPContentCache.key("x").add("a").add("b").build()
+    );
+    assertNotEquals(
+      SPContentCache.key("x").add("ab").build(),
+      SPContentCache.key("x").add("a").add("b").build()
+    );
+    assertNotEquals(
+      SPContentCache.key("x").add("a").build(),
+      SPContentCache.key("y").add("a").build()
+    );
+  }
+
+  @Test
+  public void testGetPut(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var cache =
+      SPContentCache.open(directory, 1000L);
+    final var key =
+      SPContentCache.key("test").add("data").build();
+
+    assertTrue(cache.get(key).isEmpty());
+    cache.put(key, "hello".getBytes(UTF_8));
+    assertArrayEquals("hello".getBytes(UTF_8), cache.get(key).orElseThrow());
+    assertSame(cache, SPContentCache.open(directory, 1000L));
+  }
+
+  @Test
+  public void testEviction(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var cache =
+      SPContentCache.open(directory, 1000L);
+    final var data =
+      new byte[300];
+
+    final var key0 = SPContentCache.key("test").add("0").build();
+    final var key1 = SPContentCache.key("test").add("1").build();
+    final var key2 = SPContentCache.key("test").add("2").build();
+    final var key3 = SPContentCache.key("test").add("3").build();
+
+    cache.put(key0, data);
+    cache.put(key1, data);
+    cache.put(key2, data);
+    age(directory, key0, 3L);
+    age(directory, key1, 1L);
+    age(directory, key2, 2L);
+
+    cache.put(key3, data);
+
+    assertTrue(cache.get(key0).isEmpty());
+    assertTrue(cache.get(key1).isPresent());
+    assertTrue(cache.get(key2).isEmpty());
+    assertTrue(cache.get(key3).isPresent());
+  }
+
+  private static void age(
+    final Path directory,
+    final String key,
+    final long hours)
+    throws Exception
+  {
+    Files.setLastModifiedTime(
+      directory.resolve(key.substring(0, 2)).resolve(key),
+      FileTime.from(Instant.now().minusSeconds(hours * 3600L))
+    );
+  }
+}
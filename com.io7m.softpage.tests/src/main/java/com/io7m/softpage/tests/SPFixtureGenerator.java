@@ -0,0 +1,569 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.tests;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+
+/**
+ * A generator of synthetic project trees, for testing and benchmarking at
+ * scale without network access. Generated projects contain everything a
+ * site export reads, in either a Maven or Gradle layout, and a README.md
+ * that a site export does not read. Generation is deterministic: the same
+ * settings always produce identical files, and identical git commits.
+ */
+
+public final class SPFixtureGenerator
+{
+  private static final OffsetDateTime EPOCH =
+    OffsetDateTime.of(2010, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+  private Layout layout;
+  private String name;
+  private int modules;
+  private int releases;
+  private int changesPerRelease;
+  private int readmeSize;
+  private int resources;
+  private int resourceSize;
+
+  private SPFixtureGenerator()
+  {
+    this.layout = Layout.MAVEN;
+    this.name = "com.io7m.example";
+    this.modules = 4;
+    this.releases = 10;
+    this.changesPerRelease = 3;
+    this.readmeSize = 4096;
+    this.resources = 4;
+    this.resourceSize = 1024;
+  }
+
+  /**
+   * The project layout.
+   */
+
+  public enum Layout
+  {
+    /**
+     * A Maven project with a root POM and a POM per module.
+     */
+
+    MAVEN,
+
+    /**
+     * A Gradle project with a settings script and a properties file per
+     * module.
+     */
+
+    GRADLE
+  }
+
+  /**
+   * @return A generator with small default settings
+   */
+
+  public static SPFixtureGenerator create()
+  {
+    return new SPFixtureGenerator();
+  }
+
+  /**
+   * @param inLayout The project layout
+   *
+   * @return this
+   */
+
+  public SPFixtureGenerator setLayout(
+    final Layout inLayout)
+  {
+    this.layout = Objects.requireNonNull(inLayout, "layout");
+    return this;
+  }
+
+  /**
+   * @param inName The project name, which is also its group and artifact ID
+   *
+   * @return this
+   */
+
+  public SPFixtureGenerator setName(
+    final String inName)
+  {
+    this.name = Objects.requireNonNull(inName, "name");
+    return this;
+  }
+
+  /**
+   * @param count The number of modules
+   *
+   * @return this
+   */
+
+  public SPFixtureGenerator setModules(
+    final int count)
+  {
+    this.modules = requireNonNegative(count, "modules");
+    return this;
+  }
+
+  /**
+   * @param count The number of changelog releases
+   *
+   * @return this
+   */
+
+  public SPFixtureGenerator setReleases(
+    final int count)
+  {
+    this.releases = requireNonNegative(count, "releases");
+    return this;
+  }
+
+  /**
+   * @param count The number of changes in each release
+   *
+   * @return this
+   */
+
+  public SPFixtureGenerator setChangesPerRelease(
+    final int count)
+  {
+    this.changesPerRelease = requireNonNegative(count, "changesPerRelease");
+    return this;
+  }
+
+  /**
+   * @param size The approximate size of the README in bytes
+   *
+   * @return this
+   */
+
+  public SPFixtureGenerator setReadmeSize(
+    final int size)
+  {
+    this.readmeSize = requireNonNegative(size, "readmeSize");
+    return this;
+  }
+
+  /**
+   * @param count The number of site resource files
+   * @param size  The size of each site resource file in bytes
+   *
+   * @return this
+   */
+
+  public SPFixtureGenerator setResources(
+    final int count,
+    final int size)
+  {
+    this.resources = requireNonNegative(count, "resources");
+    this.resourceSize = requireNonNegative(size, "resourceSize");
+    return this;
+  }
+
+  private static int requireNonNegative(
+    final int value,
+    final String name)
+  {
+    if (value < 0) {
+      throw new IllegalArgumentException(
+        "%s must be non-negative".formatted(name)
+      );
+    }
+    return value;
+  }
+
+  /**
+   * @return The version of the newest release, or {@code 0.0.0} if there
+   * are no releases
+   */
+
+  public String newestVersion()
+  {
+    return versionOf(Math.max(0, this.releases - 1));
+  }
+
+  /**
+   * @return The Gradle settings script that includes every module, as
+   * written for the Gradle layout
+   */
+
+  public String gradleSettings()
+  {
+    final var settings = new StringBuilder(this.modules * 48);
+    settings.append("rootProject.name = \"")
+      .append(this.name)
+      .append("\"\n\n");
+
+    for (int index = 0; index < this.modules; ++index) {
+      settings.append("include(\":")
+        .append(this.moduleName(index))
+        .append("\")\n");
+    }
+    return settings.toString();
+  }
+
+  /**
+   * Generate a project tree.
+   *
+   * @param directory The project directory
+   *
+   * @return The project directory
+   *
+   * @throws IOException On errors
+   */
+
+  public Path generate(
+    final Path directory)
+    throws IOException
+  {
+    Objects.requireNonNull(directory, "directory");
+
+    Files.createDirectories(directory);
+    switch (this.layout) {
+      case MAVEN -> this.writeMaven(directory);
+      case GRADLE -> this.writeGradle(directory);
+    }
+    this.writeChangelog(directory.resolve("README-CHANGES.xml"));
+    this.writeReadme(directory.resolve("README.in"));
+    Files.writeString(
+      directory.resolve("README-LICENSE.txt"), "ISC License\n", UTF_8);
+    Files.writeString(
+      directory.resolve("README.md"), "Not a site input.\n", UTF_8);
+    this.writeResources(directory);
+    return directory;
+  }
+
+  /**
+   * Generate a project tree, commit it to a git repository, and produce a
+   * bare clone of that repository suitable for use as a remote.
+   *
+   * @param directory The directory that will contain the working tree and
+   *                  the bare repository
+   *
+   * @return The bare repository
+   *
+   * @throws IOException On errors
+   */
+
+  public Path generateGitRepository(
+    final Path directory)
+    throws IOException
+  {
+    final var work =
+      this.generate(directory.resolve(this.name + ".work"));
+    final var bare =
+      directory.resolve(this.name + ".git");
+
+    /*
+     * Commit dates are fixed so that the repository, and therefore any site
+     * rendered with commit timestamps, is reproducible.
+     */
+
+    final var date = EPOCH.plusDays(this.releases).toString();
+    final var environment = Map.of(
+      "GIT_AUTHOR_DATE", date,
+      "GIT_COMMITTER_DATE", date
+    );
+
+    git(work, environment, "init", "--quiet");
+    git(work, environment, "add", "--all");
+    git(
+      work,
+      environment,
+      "-c", "user.name=Fixture",
+      "-c", "user.email=fixture@example.com",
+      "-c", "commit.gpgsign=false",
+      "commit", "--quiet", "--message", "Initial commit."
+    );
+    git(
+      directory,
+      environment,
+      "clone",
+      "--quiet",
+      "--bare",
+      work.toString(),
+      bare.toString()
+    );
+
+    /*
+     * Allow partial clones of the repository, as hosting services do.
+     */
+
+    git(bare, environment, "config", "uploadpack.allowFilter", "true");
+    return bare;
+  }
+
+  private static void git(
+    final Path directory,
+    final Map<String, String> environment,
+    final String... arguments)
+    throws IOException
+  {
+    final var command = new ArrayList<String>();
+    command.add("git");
+    command.addAll(List.of(arguments));
+
+    final var builder = new ProcessBuilder(command);
+    builder.directory(directory.toFile());
+    builder.environment().putAll(environment);
+    builder.redirectErrorStream(true);
+
+    final var process = builder.start();
+    final var output = new String(process.getInputStream().readAllBytes());
+    try {
+      final var r = process.waitFor();
+      if (r != 0) {
+        throw new IOException(
+          "git %s returned exit code %d: %s"
+            .formatted(command, Integer.valueOf(r), output)
+        );
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(e);
+    }
+  }
+
+  private String moduleName(
+    final int index)
+  {
+    return "%s.m%04d".formatted(this.name, Integer.valueOf(index));
+  }
+
+  private static String versionOf(
+    final int release)
+  {
+    return "%d.%d.0".formatted(
+      Integer.valueOf(release / 100),
+      Integer.valueOf(release % 100)
+    );
+  }
+
+  private void writeMaven(
+    final Path directory)
+    throws IOException
+  {
+    final var moduleText = new StringBuilder();
+    for (int index = 0; index < this.modules; ++index) {
+      final var module = this.moduleName(index);
+      moduleText.append("    <module>")
+        .append(module)
+        .append("</module>\n");
+
+      final var moduleDirectory = directory.resolve(module);
+      Files.createDirectories(moduleDirectory);
+      Files.writeString(
+        moduleDirectory.resolve("pom.xml"),
+        """
+          <?xml version="1.0" encoding="UTF-8"?>
+          <project xmlns="http://maven.apache.org/POM/4.0.0">
+            <modelVersion>4.0.0</modelVersion>
+            <parent>
+              <groupId>%1$s</groupId>
+              <artifactId>%1$s</artifactId>
+              <version>%2$s</version>
+            </parent>
+            <artifactId>%3$s</artifactId>
+          </project>
+          """.formatted(this.name, this.newestVersion(), module),
+        UTF_8
+      );
+    }
+
+    Files.writeString(
+      directory.resolve("pom.xml"),
+      """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <project xmlns="http://maven.apache.org/POM/4.0.0">
+          <modelVersion>4.0.0</modelVersion>
+          <groupId>%1$s</groupId>
+          <artifactId>%1$s</artifactId>
+          <version>%2$s</version>
+          <packaging>pom</packaging>
+          <name>%1$s</name>
+          <description>A generated project.</description>
+          <modules>
+        %3$s  </modules>
+          <scm>
+            <url>https://www.github.com/io7m-com/%1$s</url>
+          </scm>
+          <issueManagement>
+            <url>https://www.github.com/io7m-com/%1$s/issues</url>
+          </issueManagement>
+        </project>
+        """.formatted(this.name, this.newestVersion(), moduleText),
+      UTF_8
+    );
+  }
+
+  private void writeGradle(
+    final Path directory)
+    throws IOException
+  {
+    for (int index = 0; index < this.modules; ++index) {
+      final var module = this.moduleName(index);
+      final var moduleDirectory = directory.resolve(module);
+      Files.createDirectories(moduleDirectory);
+      Files.writeString(
+        moduleDirectory.resolve("gradle.properties"),
+        "POM_ARTIFACT_ID=%s\n".formatted(module),
+        UTF_8
+      );
+    }
+
+    Files.writeString(
+      directory.resolve("settings.gradle.kts"),
+      this.gradleSettings(),
+      UTF_8
+    );
+    Files.writeString(
+      directory.resolve("gradle.properties"),
+      """
+        GROUP=%1$s
+        POM_ARTIFACT_ID=%1$s
+        POM_NAME=%1$s
+        POM_DESCRIPTION=A generated project.
+        POM_SCM_URL=https://www.github.com/io7m-com/%1$s/
+        VERSION_NAME=%2$s
+        """.formatted(this.name, this.newestVersion()),
+      UTF_8
+    );
+  }
+
+  private void writeChangelog(
+    final Path file)
+    throws IOException
+  {
+    try (var writer = Files.newBufferedWriter(file, UTF_8)) {
+      writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      writer.write("<c:changelog project=\"%s\" ".formatted(this.name));
+      writer.write("xmlns:c=\"urn:com.io7m.changelog:4.0\">\n");
+      writer.write("  <c:releases>\n");
+      for (int release = 0; release < this.releases; ++release) {
+        this.writeRelease(writer, release);
+      }
+      writer.write("  </c:releases>\n");
+      writer.write("  <c:ticket-systems>\n");
+      writer.write("    <c:ticket-system default=\"true\" id=\"t\" ");
+      writer.write("url=\"https://www.github.com/io7m-com/%s/issues/\"/>\n"
+                     .formatted(this.name));
+      writer.write("  </c:ticket-systems>\n");
+      writer.write("</c:changelog>\n");
+    }
+  }
+
+  private void writeRelease(
+    final BufferedWriter writer,
+    final int release)
+    throws IOException
+  {
+    final var date = EPOCH.plusDays(release).format(ISO_OFFSET_DATE_TIME);
+    writer.write(
+      "    <c:release date=\"%s\" is-open=\"false\" ticket-system=\"t\" "
+        .formatted(date));
+    writer.write("version=\"%s\">\n".formatted(versionOf(release)));
+    writer.write("      <c:changes>\n");
+
+    for (int change = 0; change < this.changesPerRelease; ++change) {
+      writer.write(
+        "        <c:change date=\"%s\" summary=\"Change %d.%d.\""
+          .formatted(date, Integer.valueOf(release), Integer.valueOf(change)));
+
+      if (change % 2 == 0) {
+        final var ticket = release * this.changesPerRelease + change;
+        writer.write(">\n");
+        writer.write(
+          "          <c:tickets><c:ticket id=\"%d\"/></c:tickets>\n"
+            .formatted(Integer.valueOf(ticket)));
+        writer.write("        </c:change>\n");
+      } else {
+        writer.write("/>\n");
+      }
+    }
+
+    writer.write("      </c:changes>\n");
+    writer.write("    </c:release>\n");
+  }
+
+  private void writeReadme(
+    final Path file)
+    throws IOException
+  {
+    final var text = new StringBuilder(this.readmeSize + 512);
+    text.append(this.name).append("\n===\n\n");
+
+    var paragraph = 0;
+    while (text.length() < this.readmeSize) {
+      if (paragraph % 10 == 0) {
+        text.append("## Section ").append(paragraph / 10).append("\n\n");
+      }
+      text.append("The *generated* package provides **features** that ");
+      text.append("are described in `detail` in the ");
+      text.append("[documentation](src/site/resources/manual.html).\n\n");
+      if (paragraph % 20 == 5) {
+        text.append("| Name | Value |\n|------|-------|\n| a | 1 |\n\n");
+      }
+      ++paragraph;
+    }
+    Files.writeString(file, text, UTF_8);
+  }
+
+  private void writeResources(
+    final Path directory)
+    throws IOException
+  {
+    final var resourceDirectory =
+      directory.resolve("src")
+        .resolve("site")
+        .resolve("resources");
+
+    Files.createDirectories(resourceDirectory);
+    Files.writeString(
+      resourceDirectory.resolve("softpage.properties"),
+      "softpage.shields = SHIELD_BUILD_STATUS\n",
+      UTF_8
+    );
+
+    final var random = new SplittableRandom(this.resources);
+    final var data = new byte[this.resourceSize];
+    for (int index = 0; index < this.resources; ++index) {
+      final var subdirectory =
+        resourceDirectory.resolve(
+          "r%02d".formatted(Integer.valueOf(index % 16)));
+      Files.createDirectories(subdirectory);
+      random.nextBytes(data);
+      Files.write(
+        subdirectory.resolve("file%04d.bin".formatted(Integer.valueOf(index))),
+        data
+      );
+    }
+  }
+}
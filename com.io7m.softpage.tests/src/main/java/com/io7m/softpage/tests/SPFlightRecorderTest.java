@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.SPPublicationExecutors;
+import com.io7m.softpage.core.SPPublicationResultType;
+import com.io7m.softpage.core.SPPublicationSet;
+import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static com.io7m.softpage.core.SPCheckoutMode.FULL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests that the flight recorder events are committed with their fields
+ * filled in.
+ */
+
+public final class SPFlightRecorderTest
+{
+  private static final String SITE_PHASE =
+    "com.io7m.softpage.SitePhase";
+  private static final String CLONE =
+    "com.io7m.softpage.Clone";
+  private static final String RENDER =
+    "com.io7m.softpage.Render";
+  private static final String PUBLISH =
+    "com.io7m.softpage.Publish";
+
+  private static Recording record(
+    final String... names)
+  {
+    final var recording = new Recording();
+    for (final var name : names) {
+      recording.enable(name).withThreshold(Duration.ZERO);
+    }
+    return recording;
+  }
+
+  private static List<RecordedEvent> events(
+    final Recording recording,
+    final Path directory,
+    final String name)
+    throws Exception
+  {
+    final var file = directory.resolve("recording.jfr");
+    recording.dump(file);
+    return RecordingFile.readAllEvents(file)
+      .stream()
+      .filter(event -> name.equals(event.getEventType().getName()))
+      .toList();
+  }
+
+  private static void assertTimed(
+    final RecordedEvent event)
+  {
+    assertNotNull(event.getStartTime());
+    assertFalse(event.getDuration().isNegative());
+  }
+
+  @Test
+  public void testSitePhases(
+    final @TempDir Path input,
+    final @TempDir Path output,
+    final @TempDir Path recordings)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    final List<RecordedEvent> events;
+    try (var recording = record(SITE_PHASE)) {
+      recording.start();
+      SPSites.builder(input, output)
+        .setTimestampSource(SPTimestampSource.CHANGELOG)
+        .build()
+        .export();
+      recording.stop();
+      events = events(recording, recordings, SITE_PHASE);
+    }
+
+    final var phases = new HashMap<String, RecordedEvent>();
+    for (final var event : events) {
+      if (input.toString().equals(event.getString("site"))) {
+        assertTimed(event);
+        assertEquals(
+          null,
+          phases.put(event.getString("phase"), event),
+          event.getString("phase")
+        );
+      }
+    }
+
+    assertEquals(
+      Set.of(
+        "changelog",
+        "configuration",
+        "license",
+        "project",
+        "readme",
+        "render",
+        "resources",
+        "stylesheets"
+      ),
+      phases.keySet()
+    );
+
+    for (final var phase : List.of(
+      "changelog", "license", "readme", "render", "resources", "stylesheets")) {
+      final var event = phases.get(phase);
+      assertTrue(event.getLong("files") > 0L, phase);
+      assertTrue(event.getLong("bytes") > 0L, phase);
+    }
+    assertEquals(2L, phases.get("stylesheets").getLong("files"));
+  }
+
+  @Test
+  public void testPublication(
+    final @TempDir Path repositories,
+    final @TempDir Path work,
+    final @TempDir Path target,
+    final @TempDir Path recordings)
+    throws Exception
+  {
+    assumeTrue(SPSitesOfflineTest.commandExists("rsync"), "rsync is required");
+
+    final var bare =
+      SPFixtureGenerator.create()
+        .setName("com.io7m.recorded")
+        .generateGitRepository(repositories);
+    final var project =
+      new SPPublicationSet.Project("recorded", bare.toUri());
+    final var publicationSet =
+      new SPPublicationSet(
+        work, 1, target.toString(), List.of(project), FULL, false);
+
+    try (var recording = record(CLONE, RENDER, PUBLISH)) {
+      recording.start();
+      try (var executor = SPPublicationExecutors.create(publicationSet)) {
+        for (final var result : executor.execute().values()) {
+          if (result instanceof final SPPublicationResultType.Failed failed) {
+            throw failed.exception();
+          }
+        }
+      }
+      recording.stop();
+
+      final var clones = events(recording, recordings, CLONE);
+      assertEquals(1, clones.size());
+      final var clone = clones.get(0);
+      assertTimed(clone);
+      assertEquals("recorded", clone.getString("project"));
+      assertEquals(bare.toUri().toString(), clone.getString("repository"));
+      assertTrue(clone.getLong("files") > 0L);
+      assertTrue(clone.getLong("bytes") > 0L);
+
+      final var renders = events(recording, recordings, RENDER);
+      assertEquals(1, renders.size());
+      final var render = renders.get(0);
+      assertTimed(render);
+      assertEquals("recorded", render.getString("project"));
+      assertTrue(render.getLong("files") > 0L);
+      assertTrue(render.getLong("bytes") > 0L);
+
+      final var publishes = events(recording, recordings, PUBLISH);
+      assertEquals(1, publishes.size());
+      final var publish = publishes.get(0);
+      assertTimed(publish);
+      assertEquals("recorded", publish.getString("project"));
+      assertEquals(target.toString(), publish.getString("target"));
+      assertEquals(render.getLong("files"), publish.getLong("files"));
+    }
+  }
+}
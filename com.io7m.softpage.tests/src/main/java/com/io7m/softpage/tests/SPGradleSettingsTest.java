@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.internal.SPGradleSettings;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class SPGradleSettingsTest
+{
+  @Test
+  public void testIncludes()
+  {
+    final var text = """
+      rootProject.name = "example"
+
+      // include(":commented")
+      /* include(":blocked") /* nested */ include(":blocked2") */
+      include(":a")
+      include(
+        ":b", // trailing
+        ":c:d",
+        "e"
+      )
+      include(listOf(":f", ":g"))
+      include(":${name}")
+      other.include(":h")
+      include(":a")
+      """;
+
+    assertEquals(
+      List.of("a", "b", "c:d", "e", "f", "g"),
+      SPGradleSettings.includedProjects(text)
+    );
+  }
+
+  @Test
+  public void testProjectDirectory()
+  {
+    final var root = Path.of("root");
+    assertEquals(
+      root.resolve("c").resolve("d"),
+      SPGradleSettings.projectDirectory(root, "c:d")
+    );
+  }
+}
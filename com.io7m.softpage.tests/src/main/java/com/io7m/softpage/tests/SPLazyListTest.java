@@ -0,0 +1,155 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.internal.SPLazyList;
+import freemarker.template.Configuration;
+import freemarker.template.SimpleScalar;
+import freemarker.template.SimpleSequence;
+import freemarker.template.Template;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateScalarModel;
+import freemarker.template.TemplateSequenceModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public final class SPLazyListTest
+{
+  private static final int SIZE = 1_000;
+  private static final int THREADS = 16;
+
+  private static List<Integer> values()
+  {
+    return IntStream.range(0, SIZE)
+      .boxed()
+      .toList();
+  }
+
+  private static SimpleScalar element(
+    final Integer value)
+  {
+    return new SimpleScalar("Element " + value);
+  }
+
+  @Test
+  public void testSameAsEager()
+    throws Exception
+  {
+    final var eager = new SimpleSequence(
+      values().stream().map(SPLazyListTest::element).toList(),
+      null
+    );
+    final var lazy =
+      SPLazyList.of(values(), SPLazyListTest::element);
+
+    assertEquals(eager.size(), lazy.size());
+    for (int index = 0; index < SIZE; ++index) {
+      assertEquals(text(eager, index), text(lazy, index));
+    }
+    assertNull(lazy.get(-1));
+    assertNull(lazy.get(SIZE));
+
+    assertEquals(render(eager), render(lazy));
+  }
+
+  @Test
+  public void testTransformedOnce()
+    throws Exception
+  {
+    final var counts = new AtomicIntegerArray(SIZE);
+    final var lazy =
+      SPLazyList.of(values(), value -> {
+        counts.incrementAndGet(value.intValue());
+        return element(value);
+      });
+
+    final var start = new CountDownLatch(1);
+    final var results = new ArrayList<Future<List<TemplateModel>>>();
+    try (var executor = Executors.newFixedThreadPool(THREADS)) {
+      for (int thread = 0; thread < THREADS; ++thread) {
+        final var order = new ArrayList<>(values());
+        Collections.shuffle(order, new Random(thread));
+        results.add(executor.submit(() -> {
+          start.await();
+          final var seen = new TemplateModel[SIZE];
+          for (final var index : order) {
+            seen[index.intValue()] = lazy.get(index.intValue());
+          }
+          return List.of(seen);
+        }));
+      }
+      start.countDown();
+
+      final var first = results.get(0).get();
+      for (final var result : results) {
+        final var seen = result.get();
+        for (int index = 0; index < SIZE; ++index) {
+          assertSame(first.get(index), seen.get(index));
+        }
+      }
+    }
+
+    for (int index = 0; index < SIZE; ++index) {
+      assertEquals(1, counts.get(index), "Element " + index);
+    }
+    assertEquals(render(lazy), render(lazy));
+    for (int index = 0; index < SIZE; ++index) {
+      assertEquals(1, counts.get(index), "Element " + index);
+    }
+  }
+
+  private static String text(
+    final TemplateSequenceModel sequence,
+    final int index)
+    throws Exception
+  {
+    return ((TemplateScalarModel) sequence.get(index)).getAsString();
+  }
+
+  private static String render(
+    final TemplateSequenceModel sequence)
+    throws Exception
+  {
+    final var configuration =
+      new Configuration(Configuration.VERSION_2_3_34);
+    final var template =
+      new Template(
+        "list",
+        "<#list Items as Item>${Item?index}:${Item};</#list>",
+        configuration
+      );
+    final var writer = new StringWriter();
+    template.process(Map.of("Items", sequence), writer);
+    return writer.toString();
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.internal.SPMarkdown;
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import com.vladsch.flexmark.util.misc.Extension;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SPMarkdownTest
+{
+  private static final int DOCUMENTS = 32;
+  private static final int THREADS = 16;
+  private static final int ROUNDS = 4;
+
+  private static String document(
+    final int index)
+  {
+    final var text = new StringBuilder(1024);
+    text.append("# Document ").append(index).append("\n\n");
+    text.append("Some *emphasised* and **strong** text, `code`, and a ");
+    text.append("[link](https://www.example.com/").append(index);
+    text.append(").\n\n");
+
+    text.append("| Name | Value |\n");
+    text.append("|:-----|------:|\n");
+    for (int row = 0; row < index % 7 + 1; ++row) {
+      text.append("| n").append(row).append(" | ");
+      text.append(row * index).append(" |\n");
+    }
+    text.append('\n');
+
+    for (int item = 0; item < index % 5 + 1; ++item) {
+      text.append("* Item ").append(item).append('\n');
+      text.append("    1. Nested ").append(item).append('\n');
+    }
+    text.append('\n');
+
+    text.append("```java\n");
+    text.append("final var x = ").append(index).append(";\n");
+    text.append("```\n\n");
+    text.append("> Quoted <b>inline</b> & escaped < text.\n");
+    return text.toString();
+  }
+
+  private static String reference(
+    final List<Extension> extensions,
+    final String text)
+  {
+    final var options =
+      new MutableDataSet();
+    final var parser =
+      Parser.builder(options)
+        .extensions(extensions)
+        .build();
+    final var renderer =
+      HtmlRenderer.builder(options)
+        .extensions(extensions)
+        .build();
+
+    return renderer.render(parser.parse(text));
+  }
+
+  @Test
+  public void testSameAsFresh()
+    throws Exception
+  {
+    final var extensions =
+      List.<Extension>of(TablesExtension.create());
+    final var documents =
+      IntStream.range(0, DOCUMENTS)
+        .mapToObj(SPMarkdownTest::document)
+        .toList();
+    final var expected =
+      documents.stream()
+        .map(text -> reference(extensions, text))
+        .toList();
+
+    assertTrue(expected.get(1).contains("<table>"));
+
+    final var markdown = SPMarkdown.create();
+    final var start = new CountDownLatch(1);
+    final var results = new ArrayList<Future<List<String>>>();
+    try (var executor = Executors.newFixedThreadPool(THREADS)) {
+      for (int thread = 0; thread < THREADS; ++thread) {
+        final var offset = thread;
+        results.add(executor.submit(() -> {
+          start.await();
+          final var html = new String[DOCUMENTS];
+          for (int round = 0; round < ROUNDS; ++round) {
+            for (int index = 0; index < DOCUMENTS; ++index) {
+              final var which = (index + offset) % DOCUMENTS;
+              html[which] = markdown.render(documents.get(which)).html();
+            }
+          }
+          return List.of(html);
+        }));
+      }
+      start.countDown();
+
+      for (final var result : results) {
+        assertEquals(expected, result.get());
+      }
+    }
+  }
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.internal.SPPOMExtractor;
+import com.io7m.softpage.core.internal.SPPOMParent;
+import io.fabric8.maven.Maven;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class SPPOMExtractorTest
+{
+  /**
+   * Every required field is seen before the build section, so reading stops
+   * there. The build section is malformed, and neither StAX nor the Maven
+   * model reader would accept it.
+   */
+
+  private static final String COMPLETE_THEN_MALFORMED = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <parent>
+        <groupId>com.io7m.primogenitor</groupId>
+        <artifactId>com.io7m.primogenitor.full</artifactId>
+        <version>8.0.0</version>
+        <relativePath>../parent</relativePath>
+      </parent>
+      <groupId>com.io7m.example</groupId>
+      <artifactId>com.io7m.example</artifactId>
+      <version>1.0.0</version>
+      <name>com.io7m.example</name>
+      <description>An example.</description>
+      <modules>
+        <module>com.io7m.example.core</module>
+        <module>com.io7m.example.tests</module>
+      </modules>
+      <scm child.scm.url.inherit.append.path="false">
+        <url>https://www.github.com/io7m-com/example</url>
+        <connection>scm:git:https://www.github.com/io7m-com/example</connection>
+      </scm>
+      <issueManagement>
+        <system>GitHub</system>
+        <url>https://www.github.com/io7m-com/example/issues</url>
+      </issueManagement>
+      <build>
+        <plugins>
+      </build>
+    """;
+
+  /**
+   * There is no parent, but every field that a parent could supply is
+   * present, so reading stops before the malformed build section.
+   */
+
+  private static final String COMPLETE_WITHOUT_PARENT = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <groupId>com.io7m.example</groupId>
+      <artifactId>com.io7m.example</artifactId>
+      <version>1.0.0</version>
+      <name>com.io7m.example</name>
+      <description>An example.</description>
+      <modules>
+        <module>com.io7m.example.core</module>
+      </modules>
+      <scm>
+        <url>https://www.github.com/io7m-com/example</url>
+      </scm>
+      <issueManagement>
+        <url>https://www.github.com/io7m-com/example/issues</url>
+      </issueManagement>
+      <build>
+        <plugins>
+      </build>
+    """;
+
+  /**
+   * The issue management URL is missing, so the parent is needed, and it
+   * appears at the end.
+   */
+
+  private static final String LATE_PARENT = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <groupId>com.io7m.example</groupId>
+      <artifactId>com.io7m.example</artifactId>
+      <version>1.0.0</version>
+      <name>com.io7m.example</name>
+      <description>An example.</description>
+      <modules>
+        <module>com.io7m.example.core</module>
+      </modules>
+      <scm>
+        <url>https://www.github.com/io7m-com/example</url>
+      </scm>
+      <dependencies>
+        <dependency>
+          <groupId>com.io7m.other</groupId>
+          <artifactId>com.io7m.other</artifactId>
+          <version>2.0.0</version>
+        </dependency>
+      </dependencies>
+      <parent>
+        <groupId>com.io7m.primogenitor</groupId>
+        <artifactId>com.io7m.primogenitor.full</artifactId>
+        <version>8.0.0</version>
+      </parent>
+    </project>
+    """;
+
+  private static final String LATE_FIELD = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <groupId>com.io7m.example</groupId>
+      <artifactId>com.io7m.example</artifactId>
+      <version>1.0.0</version>
+      <organization>
+        <name>Not the project name.</name>
+        <url>https://www.io7m.com</url>
+      </organization>
+      <dependencies>
+        <dependency>
+          <groupId>com.io7m.other</groupId>
+          <artifactId>com.io7m.other</artifactId>
+          <version>2.0.0</version>
+        </dependency>
+      </dependencies>
+      <description>
+        A late description.
+      </description>
+    </project>
+    """;
+
+  /**
+   * The undeclared entity is rejected by StAX, but the Maven model reader
+   * defines the HTML entities.
+   */
+
+  private static final String ENTITY = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <groupId>com.io7m.example</groupId>
+      <artifactId>com.io7m.example</artifactId>
+      <version>1.0.0</version>
+      <name>com.io7m.example</name>
+      <description>An&nbsp;example.</description>
+      <modules>
+        <module>com.io7m.example.core</module>
+      </modules>
+    </project>
+    """;
+
+  @Test
+  public void testEquivalentToModel0(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    checkEquivalentToModel("pom-0.xml", directory);
+  }
+
+  @Test
+  public void testEquivalentToModel1(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    checkEquivalentToModel("pom-1.xml", directory);
+  }
+
+  @Test
+  public void testEquivalentToModel2(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    checkEquivalentToModel("pom-2.xml", directory);
+  }
+
+  @Test
+  public void testEquivalentToModel3(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    checkEquivalentToModel("pom-3.xml", directory);
+  }
+
+  @Test
+  public void testEquivalentToModel4(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    checkEquivalentToModel("pom-4.xml", directory);
+  }
+
+  private static void checkEquivalentToModel(
+    final String name,
+    final Path directory)
+    throws Exception
+  {
+    final var file =
+      resource(name, directory);
+    final var expected =
+      SPPOMExtractor.ofModel(Maven.readModel(file));
+
+    assertEquals(expected, SPPOMExtractor.extractProject(file));
+    assertEquals(
+      expected,
+      SPPOMExtractor.extractProject(file, Files.readAllBytes(file))
+    );
+    assertEquals(
+      expected.artifactId(),
+      SPPOMExtractor.extractArtifactId(file)
+    );
+
+    final var inherited =
+      SPPOMExtractor.extractInherited(file, Files.readAllBytes(file));
+    assertEquals(expected.groupId(), inherited.groupId());
+    assertEquals(expected.artifactId(), inherited.artifactId());
+    assertEquals(expected.version(), inherited.version());
+    assertEquals(expected.description(), inherited.description());
+    assertEquals(expected.scmURL(), inherited.scmURL());
+    assertEquals(expected.issuesURL(), inherited.issuesURL());
+    assertEquals(expected.parent(), inherited.parent());
+    assertEquals(expected.scmAppend(), inherited.scmAppend());
+  }
+
+  @Test
+  public void testStopsAfterAllFields(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      directory.resolve("pom.xml");
+    Files.writeString(file, COMPLETE_THEN_MALFORMED, UTF_8);
+
+    final var summary =
+      SPPOMExtractor.extractProject(file);
+
+    assertEquals(Optional.of("com.io7m.example"), summary.groupId());
+    assertEquals(Optional.of("com.io7m.example"), summary.artifactId());
+    assertEquals(Optional.of("1.0.0"), summary.version());
+    assertEquals(Optional.of("com.io7m.example"), summary.name());
+    assertEquals(Optional.of("An example."), summary.description());
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/example"),
+      summary.scmURL()
+    );
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/example/issues"),
+      summary.issuesURL()
+    );
+    assertEquals(
+      List.of("com.io7m.example.core", "com.io7m.example.tests"),
+      summary.modules()
+    );
+    assertEquals(
+      Optional.of(new SPPOMParent(
+        "com.io7m.primogenitor",
+        "com.io7m.primogenitor.full",
+        "8.0.0",
+        Optional.of("../parent")
+      )),
+      summary.parent()
+    );
+    assertEquals(false, summary.scmAppend());
+    assertEquals(
+      summary,
+      SPPOMExtractor.extractProject(
+        file,
+        COMPLETE_THEN_MALFORMED.getBytes(UTF_8)
+      )
+    );
+  }
+
+  @Test
+  public void testStopsWithoutParent(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      directory.resolve("pom.xml");
+    Files.writeString(file, COMPLETE_WITHOUT_PARENT, UTF_8);
+
+    final var summary =
+      SPPOMExtractor.extractProject(file);
+
+    assertEquals(Optional.of("com.io7m.example"), summary.groupId());
+    assertEquals(Optional.of("1.0.0"), summary.version());
+    assertEquals(Optional.of("An example."), summary.description());
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/example/issues"),
+      summary.issuesURL()
+    );
+    assertEquals(List.of("com.io7m.example.core"), summary.modules());
+    assertEquals(Optional.empty(), summary.parent());
+  }
+
+  /**
+   * A parent POM has no modules, and the fields that a child may inherit
+   * are complete before the malformed build section.
+   */
+
+  @Test
+  public void testInheritedStopsWithoutModules(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var text =
+      COMPLETE_WITHOUT_PARENT.replaceFirst(
+        "(?s)<modules>.*</modules>", "");
+    final var summary =
+      SPPOMExtractor.extractInherited(
+        directory.resolve("pom.xml"),
+        text.getBytes(UTF_8)
+      );
+
+    assertEquals(Optional.of("com.io7m.example"), summary.groupId());
+    assertEquals(Optional.of("1.0.0"), summary.version());
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/example/issues"),
+      summary.issuesURL()
+    );
+    assertEquals(List.of(), summary.modules());
+    assertEquals(Optional.empty(), summary.parent());
+  }
+
+  @Test
+  public void testLateParentRequired(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      directory.resolve("pom.xml");
+    Files.writeString(file, LATE_PARENT, UTF_8);
+
+    final var summary =
+      SPPOMExtractor.extractProject(file);
+
+    assertEquals(Optional.empty(), summary.issuesURL());
+    assertEquals(
+      Optional.of(new SPPOMParent(
+        "com.io7m.primogenitor",
+        "com.io7m.primogenitor.full",
+        "8.0.0",
+        Optional.of("../pom.xml")
+      )),
+      summary.parent()
+    );
+    assertEquals(SPPOMExtractor.ofModel(Maven.readModel(file)), summary);
+  }
+
+  @Test
+  public void testArtifactIdStopsEarly(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      directory.resolve("pom.xml");
+    Files.writeString(file, COMPLETE_THEN_MALFORMED, UTF_8);
+
+    assertEquals(
+      Optional.of("com.io7m.example"),
+      SPPOMExtractor.extractArtifactId(file)
+    );
+  }
+
+  @Test
+  public void testReadsUntilEnd(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      directory.resolve("pom.xml");
+    Files.writeString(file, LATE_FIELD, UTF_8);
+
+    final var summary =
+      SPPOMExtractor.extractProject(file);
+
+    assertEquals(Optional.of("A late description."), summary.description());
+    assertEquals(Optional.empty(), summary.name());
+    assertEquals(Optional.empty(), summary.scmURL());
+    assertEquals(SPPOMExtractor.ofModel(Maven.readModel(file)), summary);
+  }
+
+  @Test
+  public void testFallback(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var file =
+      directory.resolve("pom.xml");
+    Files.writeString(file, ENTITY, UTF_8);
+
+    final var summary =
+      SPPOMExtractor.extractProject(file);
+
+    assertEquals(Optional.of("An example."), summary.description());
+    assertEquals(SPPOMExtractor.ofModel(Maven.readModel(file)), summary);
+    assertEquals(
+      summary,
+      SPPOMExtractor.extractProject(file, ENTITY.getBytes(UTF_8))
+    );
+    assertEquals(
+      Optional.of("com.io7m.example"),
+      SPPOMExtractor.extractArtifactId(file)
+    );
+  }
+
+  private static Path resource(
+    final String name,
+    final Path directory)
+    throws IOException
+  {
+    final var fullName =
+      "/com/io7m/softpage/tests/" + name;
+    final var file =
+      directory.resolve(name);
+
+    try (var stream =
+           SPPOMExtractorTest.class.getResourceAsStream(fullName)) {
+      Files.write(file, stream.readAllBytes());
+      return file;
+    }
+  }
+}
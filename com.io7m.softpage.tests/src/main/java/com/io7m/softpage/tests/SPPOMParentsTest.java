@@ -0,0 +1,486 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.internal.SPFingerprintRecorder;
+import com.io7m.softpage.core.internal.SPInputFingerprint;
+import com.io7m.softpage.core.internal.SPPOMExtractor;
+import com.io7m.softpage.core.internal.SPPOMParents;
+import com.io7m.softpage.core.internal.SPPOMSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SPPOMParentsTest
+{
+  private static final String PARENT = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <groupId>com.io7m.example</groupId>
+      <artifactId>com.io7m.example</artifactId>
+      <version>1.0.0</version>
+      <description>An example.</description>
+      <scm>
+        <url>https://www.github.com/io7m-com/example</url>
+      </scm>
+      <issueManagement>
+        <url>https://www.github.com/io7m-com/example/issues</url>
+      </issueManagement>
+    </project>
+    """;
+
+  private static final String PARENT_NO_APPEND = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <groupId>com.io7m.example</groupId>
+      <artifactId>com.io7m.example</artifactId>
+      <version>1.0.0</version>
+      <description>An example.</description>
+      <scm child.scm.url.inherit.append.path="false">
+        <url>https://www.github.com/io7m-com/example</url>
+      </scm>
+      <issueManagement>
+        <url>https://www.github.com/io7m-com/example/issues</url>
+      </issueManagement>
+    </project>
+    """;
+
+  private static final String MIDDLE = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <parent>
+        <groupId>com.io7m.example</groupId>
+        <artifactId>com.io7m.example</artifactId>
+        <version>1.0.0</version>
+      </parent>
+      <artifactId>com.io7m.example.middle</artifactId>
+    </project>
+    """;
+
+  private static final String OTHER = """
+    <?xml version="1.0" encoding="UTF-8"?>
+    <project xmlns="http://maven.apache.org/POM/4.0.0">
+      <modelVersion>4.0.0</modelVersion>
+      <groupId>com.io7m.other</groupId>
+      <artifactId>com.io7m.other</artifactId>
+      <version>1.0.0</version>
+      <description>Not the parent.</description>
+    </project>
+    """;
+
+  @Test
+  public void testInheritFromCheckout(
+    final @TempDir Path checkout)
+    throws Exception
+  {
+    write(checkout.resolve("pom.xml"), PARENT);
+    final var child =
+      write(
+        checkout.resolve("core").resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.core", "")
+      );
+
+    final var recorder =
+      new SPFingerprintRecorder(true, checkout);
+    final var result =
+      SPPOMParents.create()
+        .resolve(checkout, child, extract(child), List.of(), recorder);
+
+    assertEquals(Optional.of("com.io7m.example"), result.groupId());
+    assertEquals(Optional.of("com.io7m.example.core"), result.artifactId());
+    assertEquals(Optional.of("1.0.0"), result.version());
+    assertEquals(Optional.of("An example."), result.description());
+    assertEquals(
+      Optional.of(
+        "https://www.github.com/io7m-com/example/com.io7m.example.core"),
+      result.scmURL()
+    );
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/example/issues"),
+      result.issuesURL()
+    );
+    assertEquals(
+      List.of("pom.xml"),
+      recorder.toPhase()
+        .inputs()
+        .stream()
+        .map(SPInputFingerprint::path)
+        .toList()
+    );
+  }
+
+  @Test
+  public void testChildFieldsWin(
+    final @TempDir Path checkout)
+    throws Exception
+  {
+    write(checkout.resolve("pom.xml"), PARENT);
+    final var child =
+      write(
+        checkout.resolve("core").resolve("pom.xml"),
+        """
+          <?xml version="1.0" encoding="UTF-8"?>
+          <project xmlns="http://maven.apache.org/POM/4.0.0">
+            <modelVersion>4.0.0</modelVersion>
+            <parent>
+              <groupId>com.io7m.example</groupId>
+              <artifactId>com.io7m.example</artifactId>
+              <version>1.0.0</version>
+            </parent>
+            <artifactId>com.io7m.example.core</artifactId>
+            <description>The core.</description>
+            <scm>
+              <url>https://www.github.com/io7m-com/core</url>
+            </scm>
+          </project>
+          """
+      );
+
+    final var result = resolve(SPPOMParents.create(), checkout, child);
+    assertEquals(Optional.of("The core."), result.description());
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/core"),
+      result.scmURL()
+    );
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/example/issues"),
+      result.issuesURL()
+    );
+  }
+
+  @Test
+  public void testSCMAppendThroughChain(
+    final @TempDir Path checkout)
+    throws Exception
+  {
+    write(checkout.resolve("pom.xml"), PARENT);
+    write(checkout.resolve("middle").resolve("pom.xml"), MIDDLE);
+    final var child =
+      write(
+        checkout.resolve("middle").resolve("core").resolve("pom.xml"),
+        child("com.io7m.example.middle", "com.io7m.example.core", "")
+      );
+
+    final var result = resolve(SPPOMParents.create(), checkout, child);
+    assertEquals(
+      Optional.of(
+        "https://www.github.com/io7m-com/example/"
+        + "com.io7m.example.middle/com.io7m.example.core"),
+      result.scmURL()
+    );
+    assertEquals(Optional.of("com.io7m.example"), result.groupId());
+    assertEquals(Optional.of("1.0.0"), result.version());
+  }
+
+  @Test
+  public void testSCMAppendDisabled(
+    final @TempDir Path checkout)
+    throws Exception
+  {
+    write(checkout.resolve("pom.xml"), PARENT_NO_APPEND);
+    final var child =
+      write(
+        checkout.resolve("core").resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.core", "")
+      );
+
+    final var result = resolve(SPPOMParents.create(), checkout, child);
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/example"),
+      result.scmURL()
+    );
+  }
+
+  @Test
+  public void testRelativePath(
+    final @TempDir Path checkout)
+    throws Exception
+  {
+    write(checkout.resolve("build/parent/pom.xml"), PARENT);
+    final var child =
+      write(
+        checkout.resolve("pom.xml"),
+        child(
+          "com.io7m.example",
+          "com.io7m.example.core",
+          "<relativePath>build/parent</relativePath>"
+        )
+      );
+
+    final var result = resolve(SPPOMParents.create(), checkout, child);
+    assertEquals(Optional.of("An example."), result.description());
+  }
+
+  @Test
+  public void testRelativePathWrongParent(
+    final @TempDir Path checkout)
+    throws Exception
+  {
+    write(checkout.resolve("pom.xml"), OTHER);
+    final var child =
+      write(
+        checkout.resolve("core").resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.core", "")
+      );
+
+    final var result = resolve(SPPOMParents.create(), checkout, child);
+    assertEquals(Optional.empty(), result.description());
+    assertEquals(Optional.empty(), result.groupId());
+    assertEquals(Optional.of("com.io7m.example"), result.effectiveGroupId());
+  }
+
+  @Test
+  public void testRelativePathOutsideCheckout(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var checkout = directory.resolve("checkout");
+    write(directory.resolve("pom.xml"), PARENT);
+    final var child =
+      write(
+        checkout.resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.core", "")
+      );
+
+    final var result = resolve(SPPOMParents.create(), checkout, child);
+    assertEquals(Optional.empty(), result.description());
+  }
+
+  @Test
+  public void testRepository(
+    final @TempDir Path checkout,
+    final @TempDir Path repository)
+    throws Exception
+  {
+    writeRepository(repository, PARENT);
+    final var child =
+      write(
+        checkout.resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.core", "<relativePath/>")
+      );
+
+    final var recorder =
+      new SPFingerprintRecorder(true, checkout);
+    final var result =
+      SPPOMParents.create()
+        .resolve(
+          checkout,
+          child,
+          extract(child),
+          List.of(repository),
+          recorder
+        );
+
+    assertEquals(Optional.of("An example."), result.description());
+    assertEquals(
+      Optional.of("https://www.github.com/io7m-com/example/issues"),
+      result.issuesURL()
+    );
+    final var inputs = recorder.toPhase().inputs();
+    assertEquals(1, inputs.size());
+    assertTrue(inputs.get(0).path().endsWith("com.io7m.example-1.0.0.pom"));
+  }
+
+  @Test
+  public void testRepositoryAfterWrongParent(
+    final @TempDir Path checkout,
+    final @TempDir Path repository)
+    throws Exception
+  {
+    write(checkout.resolve("pom.xml"), OTHER);
+    writeRepository(repository, PARENT);
+    final var child =
+      write(
+        checkout.resolve("core").resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.core", "")
+      );
+
+    final var result =
+      SPPOMParents.create()
+        .resolve(
+          checkout,
+          child,
+          extract(child),
+          List.of(repository),
+          new SPFingerprintRecorder(false, checkout)
+        );
+
+    assertEquals(Optional.of("An example."), result.description());
+  }
+
+  @Test
+  public void testCacheSharedBetweenSites(
+    final @TempDir Path checkout0,
+    final @TempDir Path checkout1,
+    final @TempDir Path repository)
+    throws Exception
+  {
+    writeRepository(repository, PARENT);
+
+    final var child0 =
+      write(
+        checkout0.resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.a", "<relativePath/>")
+      );
+    final var child1 =
+      write(
+        checkout1.resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.b", "<relativePath/>")
+      );
+
+    final var parents = SPPOMParents.create();
+    final var result0 =
+      parents.resolve(
+        checkout0,
+        child0,
+        extract(child0),
+        List.of(repository),
+        new SPFingerprintRecorder(false, checkout0)
+      );
+
+    assertEquals(0L, parents.cacheHits());
+    assertEquals(1L, parents.cacheMisses());
+
+    final var result1 =
+      parents.resolve(
+        checkout1,
+        child1,
+        extract(child1),
+        List.of(repository),
+        new SPFingerprintRecorder(false, checkout1)
+      );
+
+    assertEquals(1L, parents.cacheHits());
+    assertEquals(1L, parents.cacheMisses());
+    assertEquals(result0.description(), result1.description());
+    assertEquals(Optional.of("com.io7m.example.b"), result1.artifactId());
+  }
+
+  @Test
+  public void testCacheKeyedByContent(
+    final @TempDir Path checkout0,
+    final @TempDir Path checkout1)
+    throws Exception
+  {
+    write(checkout0.resolve("pom.xml"), PARENT);
+    write(
+      checkout1.resolve("pom.xml"),
+      PARENT.replace("An example.", "A changed example.")
+    );
+
+    final var child0 =
+      write(
+        checkout0.resolve("core").resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.core", "")
+      );
+    final var child1 =
+      write(
+        checkout1.resolve("core").resolve("pom.xml"),
+        child("com.io7m.example", "com.io7m.example.core", "")
+      );
+
+    final var parents = SPPOMParents.create();
+    final var result0 = resolve(parents, checkout0, child0);
+    final var result1 = resolve(parents, checkout1, child1);
+
+    assertEquals(0L, parents.cacheHits());
+    assertEquals(2L, parents.cacheMisses());
+    assertEquals(Optional.of("An example."), result0.description());
+    assertEquals(Optional.of("A changed example."), result1.description());
+  }
+
+  private static String child(
+    final String parentArtifactId,
+    final String artifactId,
+    final String relativePath)
+  {
+    return """
+      <?xml version="1.0" encoding="UTF-8"?>
+      <project xmlns="http://maven.apache.org/POM/4.0.0">
+        <modelVersion>4.0.0</modelVersion>
+        <parent>
+          <groupId>com.io7m.example</groupId>
+          <artifactId>%s</artifactId>
+          <version>1.0.0</version>
+          %s
+        </parent>
+        <artifactId>%s</artifactId>
+      </project>
+      """.formatted(parentArtifactId, relativePath, artifactId);
+  }
+
+  private static SPPOMSummary extract(
+    final Path file)
+    throws Exception
+  {
+    return SPPOMExtractor.extractProject(file);
+  }
+
+  private static SPPOMSummary resolve(
+    final SPPOMParents parents,
+    final Path checkout,
+    final Path file)
+    throws Exception
+  {
+    return parents.resolve(
+      checkout,
+      file,
+      extract(file),
+      List.of(),
+      new SPFingerprintRecorder(false, checkout)
+    );
+  }
+
+  private static Path writeRepository(
+    final Path repository,
+    final String text)
+    throws IOException
+  {
+    return write(
+      repository.resolve("com")
+        .resolve("io7m")
+        .resolve("example")
+        .resolve("com.io7m.example")
+        .resolve("1.0.0")
+        .resolve("com.io7m.example-1.0.0.pom"),
+      text
+    );
+  }
+
+  private static Path write(
+    final Path file,
+    final String text)
+    throws IOException
+  {
+    Files.createDirectories(file.getParent());
+    Files.writeString(file, text, UTF_8);
+    return file;
+  }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.cmdline.internal.SPPreviewServer;
+import com.io7m.softpage.core.SPOutputs;
+import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the preview server against a generated project.
+ */
+
+public final class SPPreviewServerTest
+{
+  private static final Duration RECHECK = Duration.ofMillis(50L);
+
+  private record Preview(
+    SPPreviewServer server,
+    HttpClient client)
+    implements AutoCloseable
+  {
+    @Override
+    public void close()
+    {
+      this.client.close();
+      this.server.close();
+    }
+  }
+
+  private static Preview start(
+    final Path input)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    final var output =
+      SPOutputs.memory();
+    final var site =
+      SPSites.builder(input, output)
+        .setTimestampSource(SPTimestampSource.CHANGELOG)
+        .build();
+
+    return new Preview(
+      SPPreviewServer.start(
+        site,
+        output,
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+        RECHECK
+      ),
+      HttpClient.newHttpClient()
+    );
+  }
+
+  @Test
+  public void testContentTypes(
+    final @TempDir Path input)
+    throws Exception
+  {
+    try (var preview = start(input)) {
+      final var index = get(preview, "/", "identity");
+      assertEquals(200, index.statusCode());
+      assertEquals(
+        "text/html; charset=utf-8",
+        index.headers().firstValue("Content-Type").orElseThrow()
+      );
+      assertEquals(
+        get(preview, "/index.html", "identity").body().length,
+        index.body().length
+      );
+
+      final var style = get(preview, "/style.css", "identity");
+      assertEquals(200, style.statusCode());
+      assertEquals(
+        "text/css; charset=utf-8",
+        style.headers().firstValue("Content-Type").orElseThrow()
+      );
+
+      assertEquals(404, get(preview, "/nonexistent", "identity").statusCode());
+    }
+  }
+
+  @Test
+  public void testMethodNotAllowed(
+    final @TempDir Path input)
+    throws Exception
+  {
+    try (var preview = start(input)) {
+      final var response =
+        preview.client().send(
+          HttpRequest.newBuilder(uri(preview, "/"))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build(),
+          HttpResponse.BodyHandlers.ofByteArray()
+        );
+
+      assertEquals(405, response.statusCode());
+      assertEquals(
+        "GET, HEAD",
+        response.headers().firstValue("Allow").orElseThrow()
+      );
+    }
+  }
+
+  @Test
+  public void testNotModified(
+    final @TempDir Path input)
+    throws Exception
+  {
+    try (var preview = start(input)) {
+      final var first = get(preview, "/style.css", "identity");
+      final var entityTag =
+        first.headers().firstValue("ETag").orElseThrow();
+
+      assertEquals(
+        304,
+        getIfNoneMatch(preview, "/style.css", "identity", entityTag)
+          .statusCode()
+      );
+      assertEquals(
+        304,
+        getIfNoneMatch(preview, "/style.css", "identity", "W/" + entityTag)
+          .statusCode()
+      );
+      assertEquals(
+        200,
+        getIfNoneMatch(preview, "/style.css", "identity", "\"other\"")
+          .statusCode()
+      );
+    }
+  }
+
+  @Test
+  public void testGzip(
+    final @TempDir Path input)
+    throws Exception
+  {
+    try (var preview = start(input)) {
+      final var plain = get(preview, "/index.html", "identity");
+      final var compressed = get(preview, "/index.html", "gzip");
+
+      assertTrue(plain.headers().firstValue("Content-Encoding").isEmpty());
+      assertEquals(
+        "gzip",
+        compressed.headers().firstValue("Content-Encoding").orElseThrow()
+      );
+      assertEquals(
+        "Accept-Encoding",
+        compressed.headers().firstValue("Vary").orElseThrow()
+      );
+      assertTrue(compressed.body().length < plain.body().length);
+      assertArrayEquals(plain.body(), gunzip(compressed.body()));
+
+      final var plainTag =
+        plain.headers().firstValue("ETag").orElseThrow();
+      final var compressedTag =
+        compressed.headers().firstValue("ETag").orElseThrow();
+      assertNotEquals(plainTag, compressedTag);
+
+      assertEquals(
+        304,
+        getIfNoneMatch(preview, "/index.html", "gzip", compressedTag)
+          .statusCode()
+      );
+      assertEquals(
+        200,
+        getIfNoneMatch(preview, "/index.html", "gzip", plainTag)
+          .statusCode()
+      );
+      assertEquals(
+        304,
+        getIfNoneMatch(preview, "/index.html", "identity", plainTag)
+          .statusCode()
+      );
+      assertEquals(
+        200,
+        getIfNoneMatch(preview, "/index.html", "identity", compressedTag)
+          .statusCode()
+      );
+
+      final var refused = get(preview, "/index.html", "gzip;q=0");
+      assertTrue(refused.headers().firstValue("Content-Encoding").isEmpty());
+      assertArrayEquals(plain.body(), refused.body());
+    }
+  }
+
+  @Test
+  public void testRenderedOnChange(
+    final @TempDir Path input)
+    throws Exception
+  {
+    try (var preview = start(input)) {
+      final var first = get(preview, "/index.html", "identity");
+      final var entityTag =
+        first.headers().firstValue("ETag").orElseThrow();
+      assertFalse(
+        new String(first.body(), UTF_8).contains("The changed README.")
+      );
+
+      Files.writeString(
+        input.resolve("README.in"),
+        "# Changed\n\nThe changed README.\n"
+      );
+      Thread.sleep(RECHECK.multipliedBy(2L).toMillis());
+
+      final var second =
+        getIfNoneMatch(preview, "/index.html", "identity", entityTag);
+      assertEquals(200, second.statusCode());
+      assertTrue(
+        new String(second.body(), UTF_8).contains("The changed README.")
+      );
+      assertNotEquals(
+        entityTag,
+        second.headers().firstValue("ETag").orElseThrow()
+      );
+    }
+  }
+
+  private static URI uri(
+    final Preview preview,
+    final String path)
+  {
+    return URI.create(
+      "http://127.0.0.1:%d%s".formatted(
+        Integer.valueOf(preview.server().address().getPort()),
+        path
+      )
+    );
+  }
+
+  private static HttpResponse<byte[]> get(
+    final Preview preview,
+    final String path,
+    final String acceptEncoding)
+    throws IOException, InterruptedException
+  {
+    return preview.client().send(
+      HttpRequest.newBuilder(uri(preview, path))
+        .header("Accept-Encoding", acceptEncoding)
+        .build(),
+      HttpResponse.BodyHandlers.ofByteArray()
+    );
+  }
+
+  private static HttpResponse<byte[]> getIfNoneMatch(
+    final Preview preview,
+    final String path,
+    final String acceptEncoding,
+    final String entityTag)
+    throws IOException, InterruptedException
+  {
+    return preview.client().send(
+      HttpRequest.newBuilder(uri(preview, path))
+        .header("Accept-Encoding", acceptEncoding)
+        .header("If-None-Match", entityTag)
+        .build(),
+      HttpResponse.BodyHandlers.ofByteArray()
+    );
+  }
+
+  private static byte[] gunzip(
+    final byte[] data)
+    throws IOException
+  {
+    try (var stream = new GZIPInputStream(new ByteArrayInputStream(data))) {
+      return stream.readAllBytes();
+    }
+  }
+}
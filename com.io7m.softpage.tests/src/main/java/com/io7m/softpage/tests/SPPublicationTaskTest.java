@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.SPCheckoutMode;
+import com.io7m.softpage.core.SPPublicationSet;
+import com.io7m.softpage.core.internal.SPGitMirrors;
+import com.io7m.softpage.core.internal.SPPublicationTask;
+import com.io7m.softpage.core.internal.SPSparseCheckout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.io7m.softpage.core.SPCheckoutMode.FULL;
+import static com.io7m.softpage.core.SPCheckoutMode.SPARSE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of publication checkouts. These require git, but not rsync, as
+ * nothing is published.
+ */
+
+public final class SPPublicationTaskTest
+{
+  @Test
+  public void testCheckoutFull(
+    final @TempDir Path repositories,
+    final @TempDir Path work)
+    throws Exception
+  {
+    final var bare =
+      SPFixtureGenerator.create()
+        .generateGitRepository(repositories);
+
+    try (var task = task(work, bare, FULL, false)) {
+      final var checkout = task.checkout();
+      assertTrue(Files.isRegularFile(checkout.resolve("README.md")));
+      assertTrue(Files.isRegularFile(checkout.resolve("README.in")));
+      assertTrue(task.metrics().bytesCloned() > 0L);
+      assertEquals(
+        "",
+        git(checkout, "config", "--default", "", "remote.origin.promisor")
+      );
+    }
+  }
+
+  @Test
+  public void testCheckoutSparse(
+    final @TempDir Path repositories,
+    final @TempDir Path work)
+    throws Exception
+  {
+    final var bare =
+      SPFixtureGenerator.create()
+        .generateGitRepository(repositories);
+
+    try (var task = task(work, bare, SPARSE, false)) {
+      final var checkout = task.checkout();
+      assertInputsOnly(checkout);
+      assertEquals(
+        "blob:none",
+        git(checkout, "config", "remote.origin.partialclonefilter")
+      );
+    }
+  }
+
+  @Test
+  public void testCheckoutDeletedOnClose(
+    final @TempDir Path repositories,
+    final @TempDir Path work)
+    throws Exception
+  {
+    final var bare =
+      SPFixtureGenerator.create()
+        .generateGitRepository(repositories);
+
+    final Path checkout;
+    try (var task = task(work, bare, FULL, true)) {
+      checkout = task.checkout();
+      assertTrue(Files.isDirectory(checkout));
+    }
+
+    assertFalse(Files.exists(checkout));
+    assertTrue(Files.isDirectory(SPGitMirrors.mirrorOf(work, bare.toUri())));
+  }
+
+  /**
+   * Projects that share a repository share a mirror, and checkouts from an
+   * existing mirror see commits made since the mirror was created. Only the
+   * growth of the mirror counts as cloned.
+   */
+
+  @Test
+  public void testCheckoutMirror(
+    final @TempDir Path repositories,
+    final @TempDir Path work)
+    throws Exception
+  {
+    final var bare =
+      SPFixtureGenerator.create()
+        .generateGitRepository(repositories);
+
+    try (var task = task(work, bare, FULL, true)) {
+      final var checkout = task.checkout();
+      assertTrue(Files.isRegularFile(checkout.resolve("README.md")));
+      assertEquals(
+        bare.toUri().toString(),
+        git(checkout, "remote", "get-url", "origin")
+      );
+      assertTrue(task.metrics().bytesCloned() > 0L);
+    }
+
+    try (var task = task(work, bare, FULL, true)) {
+      task.checkout();
+      assertEquals(0L, task.metrics().bytesCloned());
+    }
+
+    final var source = repositories.resolve("com.io7m.example.work");
+    final var added = Path.of("src", "site", "resources", "added.txt");
+    Files.writeString(source.resolve(added), "Added.\n", UTF_8);
+    git(source, "add", "--all");
+    git(
+      source,
+      "-c", "user.name=Test",
+      "-c", "user.email=test@example.com",
+      "-c", "commit.gpgsign=false",
+      "commit", "--quiet", "--message", "Add a resource."
+    );
+    git(
+      bare,
+      "fetch", "--quiet", source.toString(), "+refs/heads/*:refs/heads/*"
+    );
+
+    try (var task = task(work, bare, SPARSE, true)) {
+      final var checkout = task.checkout();
+      assertInputsOnly(checkout);
+      assertTrue(Files.isRegularFile(checkout.resolve(added)));
+      assertTrue(task.metrics().bytesCloned() > 0L);
+    }
+
+    try (var files = Files.list(work.resolve("mirrors"))) {
+      assertEquals(
+        1L,
+        files.filter(Files::isDirectory).count()
+      );
+    }
+  }
+
+  @Test
+  public void testRequiredSubmodules(
+    final @TempDir Path checkout)
+    throws Exception
+  {
+    Files.writeString(
+      checkout.resolve("pom.xml"),
+      """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <project xmlns="http://maven.apache.org/POM/4.0.0">
+          <modelVersion>4.0.0</modelVersion>
+          <groupId>com.io7m.example</groupId>
+          <artifactId>com.io7m.example</artifactId>
+          <version>1.0.0</version>
+          <modules>
+            <module>a</module>
+            <module>b/c</module>
+          </modules>
+        </project>
+        """,
+      UTF_8
+    );
+
+    assertEquals(
+      List.of("a", "b", "src/site"),
+      SPSparseCheckout.requiredSubmodules(
+        checkout,
+        List.of("a", "b", "d", "src/site", "src/main")
+      )
+    );
+  }
+
+  private static void assertInputsOnly(
+    final Path checkout)
+  {
+    assertFalse(Files.exists(checkout.resolve("README.md")));
+    assertTrue(Files.isRegularFile(checkout.resolve("README.in")));
+    assertTrue(Files.isRegularFile(checkout.resolve("README-CHANGES.xml")));
+    assertTrue(Files.isRegularFile(
+      checkout.resolve("com.io7m.example.m0000").resolve("pom.xml")));
+    assertTrue(Files.isRegularFile(
+      checkout.resolve("src/site/resources/r03/file0003.bin")));
+  }
+
+  private static SPPublicationTask task(
+    final Path work,
+    final Path bare,
+    final SPCheckoutMode checkout,
+    final boolean mirrors)
+  {
+    final var project =
+      new SPPublicationSet.Project("example", bare.toUri());
+    final var publicationSet =
+      new SPPublicationSet(
+        work, 1, "example.com:data/", List.of(project), checkout, mirrors);
+
+    return new SPPublicationTask(publicationSet, project, Duration.ZERO);
+  }
+
+  private static String git(
+    final Path directory,
+    final String... arguments)
+    throws Exception
+  {
+    final var command = new ArrayList<String>();
+    command.add("git");
+    command.add("-C");
+    command.add(directory.toString());
+    command.addAll(List.of(arguments));
+
+    final var process =
+      new ProcessBuilder(command)
+        .redirectError(ProcessBuilder.Redirect.DISCARD)
+        .start();
+
+    final var output = new String(process.getInputStream().readAllBytes());
+    final var r = process.waitFor();
+    if (r != 0) {
+      throw new IOException(
+        "%s returned exit code %d".formatted(command, Integer.valueOf(r)));
+    }
+    return output.trim();
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.internal.SPRecordLayout;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SPRecordLayoutTest
+{
+  @Test
+  public void testIndices()
+  {
+    final var keys = new String[40];
+    for (int index = 0; index < keys.length; ++index) {
+      keys[index] = "Key" + index;
+    }
+
+    final var layout = SPRecordLayout.of(keys);
+    assertEquals(keys.length, layout.size());
+    for (int index = 0; index < keys.length; ++index) {
+      assertEquals(index, layout.indexOf(new String(keys[index])));
+      assertEquals(keys[index], layout.key(index));
+    }
+    assertEquals(-1, layout.indexOf("Missing"));
+    assertEquals(-1, layout.indexOf(""));
+  }
+
+  @Test
+  public void testDuplicate()
+  {
+    assertThrows(IllegalArgumentException.class, () -> {
+      SPRecordLayout.of("A", "B", "A");
+    });
+  }
+
+  @Test
+  public void testBuilder()
+  {
+    final var layout =
+      SPRecordLayout.of("A", "B");
+    final var builder =
+      layout.builder();
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      builder.set("C", null);
+    });
+
+    final var record = builder.set("A", null).build();
+    assertTrue(record.isEmpty());
+    assertEquals(null, record.get("A"));
+    assertEquals(null, record.get("C"));
+
+    assertThrows(IllegalStateException.class, builder::build);
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.cmdline.SPMain;
+import com.io7m.softpage.core.internal.SPFingerprintRecorder;
+import com.io7m.softpage.core.internal.SPResourceSync;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SPResourceSyncTest
+{
+  private static final FileTime STAMP =
+    FileTime.from(Instant.parse("2020-01-01T00:00:00Z"));
+
+  private static final String[] FILES = {
+    "a.txt",
+    "x/b.txt",
+    "x/y/c.txt",
+    "x/y/z/d.txt",
+  };
+
+  @Test
+  public void testRecursive(
+    final @TempDir Path source,
+    final @TempDir Path target)
+    throws Exception
+  {
+    writeSources(source);
+
+    final var result = sync(source, target, false, Optional.empty(), true);
+    assertEquals(FILES.length, result.copied());
+    assertEquals(0L, result.unchanged());
+    assertEquals(0L, result.linked());
+    assertSameContent(source, target);
+
+    for (final var name : FILES) {
+      assertEquals(
+        Files.getLastModifiedTime(source.resolve(name)),
+        Files.getLastModifiedTime(target.resolve(name))
+      );
+    }
+  }
+
+  @Test
+  public void testUnchangedSkipped(
+    final @TempDir Path source,
+    final @TempDir Path target)
+    throws Exception
+  {
+    writeSources(source);
+    sync(source, target, false, Optional.empty(), true);
+
+    final var result = sync(source, target, false, Optional.empty(), true);
+    assertEquals(0L, result.copied());
+    assertEquals(FILES.length, result.unchanged());
+    assertEquals(0L, result.bytes());
+  }
+
+  /**
+   * When outputs are stamped, modification times say nothing about content,
+   * and so unchanged files are detected by hash. This is checked both with
+   * recorded fingerprints and without them.
+   */
+
+  @Test
+  public void testUnchangedSkippedStamped(
+    final @TempDir Path source,
+    final @TempDir Path target)
+    throws Exception
+  {
+    writeSources(source);
+    sync(source, target, false, Optional.of(STAMP), true);
+
+    for (final var recording : new boolean[]{true, false}) {
+      final var result =
+        sync(source, target, false, Optional.of(STAMP), recording);
+      assertEquals(0L, result.copied());
+      assertEquals(FILES.length, result.unchanged());
+    }
+
+    for (final var name : FILES) {
+      assertEquals(STAMP, Files.getLastModifiedTime(target.resolve(name)));
+    }
+  }
+
+  @Test
+  public void testChangedCopied(
+    final @TempDir Path source,
+    final @TempDir Path target)
+    throws Exception
+  {
+    writeSources(source);
+    sync(source, target, false, Optional.of(STAMP), true);
+
+    /*
+     * The changed file has the same size, and the target has the same
+     * modification time as every other file, so only the content differs.
+     */
+
+    Files.writeString(source.resolve("x/y/c.txt"), "X/Y/C.TXT", UTF_8);
+
+    final var result = sync(source, target, false, Optional.of(STAMP), true);
+    assertEquals(1L, result.copied());
+    assertEquals(FILES.length - 1, result.unchanged());
+    assertSameContent(source, target);
+  }
+
+  @Test
+  public void testLinks(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var source = directory.resolve("source");
+    final var target = directory.resolve("target");
+    writeSources(source);
+
+    final var result = sync(source, target, true, Optional.empty(), true);
+    assertEquals(FILES.length, result.linked());
+    assertEquals(0L, result.copied());
+    for (final var name : FILES) {
+      assertTrue(Files.isSameFile(source.resolve(name), target.resolve(name)));
+    }
+
+    final var again = sync(source, target, true, Optional.empty(), true);
+    assertEquals(FILES.length, again.unchanged());
+  }
+
+  /**
+   * Stamping a hard link would modify the source file, so links are not
+   * used when outputs are stamped.
+   */
+
+  @Test
+  public void testLinksStamped(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var source = directory.resolve("source");
+    final var target = directory.resolve("target");
+    writeSources(source);
+    final var time = Files.getLastModifiedTime(source.resolve("a.txt"));
+
+    final var result = sync(source, target, true, Optional.of(STAMP), true);
+    assertEquals(0L, result.linked());
+    assertEquals(FILES.length, result.copied());
+    assertFalse(
+      Files.isSameFile(source.resolve("a.txt"), target.resolve("a.txt")));
+    assertEquals(time, Files.getLastModifiedTime(source.resolve("a.txt")));
+  }
+
+  /**
+   * Outputs linked by an earlier unstamped synchronization are replaced with
+   * copies, rather than stamped, by a later stamped synchronization.
+   */
+
+  @Test
+  public void testLinkedThenStamped(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var source = directory.resolve("source");
+    final var target = directory.resolve("target");
+    writeSources(source);
+
+    final var times = new FileTime[FILES.length];
+    for (int index = 0; index < FILES.length; ++index) {
+      times[index] =
+        Files.getLastModifiedTime(source.resolve(FILES[index]));
+    }
+
+    sync(source, target, true, Optional.empty(), true);
+    for (final var name : FILES) {
+      assertTrue(Files.isSameFile(source.resolve(name), target.resolve(name)));
+    }
+
+    for (final var recording : new boolean[]{false, true}) {
+      final var result =
+        sync(source, target, false, Optional.of(STAMP), recording);
+      assertEquals(0L, result.linked());
+
+      for (int index = 0; index < FILES.length; ++index) {
+        final var name = FILES[index];
+        assertFalse(
+          Files.isSameFile(source.resolve(name), target.resolve(name)));
+        assertEquals(
+          times[index],
+          Files.getLastModifiedTime(source.resolve(name)));
+        assertEquals(STAMP, Files.getLastModifiedTime(target.resolve(name)));
+      }
+    }
+  }
+
+  @Test
+  public void testLinkResourcesCommand(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    final var exitCode =
+      SPMain.mainExitless(new String[]{
+        "generate",
+        "--input-directory",
+        input.toString(),
+        "--output-directory",
+        output.toString(),
+        "--link-resources",
+        "true",
+      });
+
+    assertEquals(0, exitCode);
+    assertTrue(
+      Files.isSameFile(
+        input.resolve("src/site/resources/r00/file0000.bin"),
+        output.resolve("r00/file0000.bin")
+      )
+    );
+  }
+
+  private static SPResourceSync.Result sync(
+    final Path source,
+    final Path target,
+    final boolean links,
+    final Optional<FileTime> stamp,
+    final boolean recording)
+    throws Exception
+  {
+    return new SPResourceSync(
+      source,
+      target,
+      2,
+      links,
+      stamp,
+      new SPFingerprintRecorder(recording, source)
+    ).execute();
+  }
+
+  private static void writeSources(
+    final Path source)
+    throws IOException
+  {
+    for (final var name : FILES) {
+      final var file = source.resolve(name);
+      Files.createDirectories(file.getParent());
+      Files.writeString(file, name, UTF_8);
+    }
+  }
+
+  private static void assertSameContent(
+    final Path source,
+    final Path target)
+    throws IOException
+  {
+    for (final var name : FILES) {
+      assertArrayEquals(
+        Files.readAllBytes(source.resolve(name)),
+        Files.readAllBytes(target.resolve(name))
+      );
+    }
+  }
+}
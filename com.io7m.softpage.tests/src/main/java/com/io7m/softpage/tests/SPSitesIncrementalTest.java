@@ -0,0 +1,353 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPOutputs;
+import com.io7m.softpage.core.SPSiteType;
+import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
+import com.io7m.softpage.core.internal.SPFingerprintManifest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of incremental exports. Each export uses a new site, as separate
+ * runs of the command-line tool would, so that the previous export is only
+ * known through the manifest in the output directory. Outputs are
+ * overwritten with a marker to observe whether a phase rewrote them.
+ */
+
+public final class SPSitesIncrementalTest
+{
+  private static final String MARKER = "MARKER";
+
+  private static SPSiteType site(
+    final Path input,
+    final Path output)
+  {
+    return SPSites.builder(input, output)
+      .setIncremental(true)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build();
+  }
+
+  private static void mark(
+    final Path file)
+    throws IOException
+  {
+    Files.writeString(file, MARKER, UTF_8);
+  }
+
+  private static boolean isMarked(
+    final Path file)
+    throws IOException
+  {
+    return MARKER.equals(Files.readString(file, UTF_8));
+  }
+
+  @Test
+  public void testUnchangedSkipped(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    site(input, output).export();
+    assertTrue(Files.isRegularFile(
+      output.resolve(SPFingerprintManifest.FILE_NAME)));
+
+    mark(output.resolve("index.html"));
+    mark(output.resolve("style.css"));
+    site(input, output).export();
+
+    assertTrue(isMarked(output.resolve("index.html")));
+    assertTrue(isMarked(output.resolve("style.css")));
+  }
+
+  @Test
+  public void testReadmeChangedRendersSiteOnly(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    site(input, output).export();
+    mark(output.resolve("index.html"));
+    mark(output.resolve("style.css"));
+
+    Files.writeString(
+      input.resolve("README.in"),
+      "# Changed\n\nThe changed README.\n",
+      UTF_8
+    );
+    site(input, output).export();
+
+    final var index = Files.readString(output.resolve("index.html"), UTF_8);
+    assertTrue(index.contains("The changed README."));
+    assertTrue(isMarked(output.resolve("style.css")));
+  }
+
+  @Test
+  public void testResourceChangedCopiesResourcesOnly(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    site(input, output).export();
+    mark(output.resolve("index.html"));
+
+    final var resource =
+      input.resolve("src/site/resources/r01/file0001.bin");
+    Files.write(resource, new byte[]{1, 2, 3});
+    site(input, output).export();
+
+    assertTrue(isMarked(output.resolve("index.html")));
+    assertEquals(3L, Files.size(output.resolve("r01/file0001.bin")));
+  }
+
+  @Test
+  public void testResourceRemovedDeleted(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    Files.writeString(output.resolve("unrelated.txt"), "Unrelated.", UTF_8);
+    site(input, output).export();
+    assertTrue(Files.isRegularFile(output.resolve("r01/file0001.bin")));
+
+    final var resources = input.resolve("src/site/resources/r01");
+    try (var files = Files.list(resources)) {
+      for (final var file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(resources);
+    site(input, output).export();
+
+    assertFalse(Files.exists(output.resolve("r01")));
+    assertTrue(Files.isRegularFile(output.resolve("r00/file0000.bin")));
+    assertTrue(Files.isRegularFile(output.resolve("style.css")));
+    assertTrue(Files.isRegularFile(output.resolve("unrelated.txt")));
+  }
+
+  @Test
+  public void testMissingOutputRendered(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    site(input, output).export();
+    mark(output.resolve("style.css"));
+    Files.delete(output.resolve("index.html"));
+    site(input, output).export();
+
+    assertTrue(Files.isRegularFile(output.resolve("index.html")));
+    assertTrue(isMarked(output.resolve("style.css")));
+  }
+
+  @Test
+  public void testParametersChangedRendered(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    site(input, output).export();
+    mark(output.resolve("index.html"));
+
+    SPSites.builder(input, output)
+      .setIncremental(true)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .setReleasesPerPage(5)
+      .build()
+      .export();
+
+    assertFalse(isMarked(output.resolve("index.html")));
+    assertTrue(Files.isRegularFile(output.resolve("releases-1.html")));
+  }
+
+  @Test
+  public void testFailedExportRemovesManifest(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    site(input, output).export();
+    final var manifest = output.resolve(SPFingerprintManifest.FILE_NAME);
+    assertTrue(Files.isRegularFile(manifest));
+
+    final var license = input.resolve("README-LICENSE.txt");
+    Files.delete(license);
+    assertThrows(SPException.class, () -> site(input, output).export());
+    assertFalse(Files.exists(manifest));
+
+    /*
+     * Without a manifest, the next export must render everything, even
+     * though the inputs are now identical to those of the first export.
+     */
+
+    Files.writeString(license, "ISC License\n", UTF_8);
+    mark(output.resolve("style.css"));
+    site(input, output).export();
+
+    assertTrue(Files.isRegularFile(manifest));
+    assertFalse(isMarked(output.resolve("style.css")));
+  }
+
+  /**
+   * A new commit changes the site timestamp without changing any input
+   * file, and so must cause a render.
+   */
+
+  @Test
+  public void testGitCommitTimestamp(
+    final @TempDir Path directory,
+    final @TempDir Path output)
+    throws Exception
+  {
+    final var generator = SPFixtureGenerator.create();
+    generator.generateGitRepository(directory);
+    final var input = directory.resolve("com.io7m.example.work");
+
+    gitSite(input, output).export();
+    final var index = output.resolve("index.html");
+    assertEquals(
+      OffsetDateTime.parse("2010-01-11T00:00:00Z").toInstant(),
+      Files.getLastModifiedTime(index).toInstant()
+    );
+
+    mark(index);
+    gitSite(input, output).export();
+    assertTrue(isMarked(index));
+
+    commitEmpty(input, "2011-06-01T00:00:00Z");
+    gitSite(input, output).export();
+    assertFalse(isMarked(index));
+    assertEquals(
+      OffsetDateTime.parse("2011-06-01T00:00:00Z").toInstant(),
+      Files.getLastModifiedTime(index).toInstant()
+    );
+  }
+
+  /**
+   * Exports to memory retain the previous manifest rather than loading it,
+   * and the retained manifest must be discarded when the parameters change.
+   */
+
+  @Test
+  public void testGitCommitTimestampRetained(
+    final @TempDir Path directory)
+    throws Exception
+  {
+    final var generator = SPFixtureGenerator.create();
+    generator.generateGitRepository(directory);
+    final var input = directory.resolve("com.io7m.example.work");
+
+    final var output = SPOutputs.memory();
+    final var site =
+      SPSites.builder(input, output)
+        .setTimestampSource(SPTimestampSource.GIT_COMMIT)
+        .build();
+
+    site.export();
+    assertEquals(
+      OffsetDateTime.parse("2010-01-11T00:00:00Z").toInstant(),
+      output.get("index.html").orElseThrow().modified()
+    );
+
+    commitEmpty(input, "2011-06-01T00:00:00Z");
+    site.export();
+    assertEquals(
+      OffsetDateTime.parse("2011-06-01T00:00:00Z").toInstant(),
+      output.get("index.html").orElseThrow().modified()
+    );
+  }
+
+  private static SPSiteType gitSite(
+    final Path input,
+    final Path output)
+  {
+    return SPSites.builder(input, output)
+      .setIncremental(true)
+      .setTimestampSource(SPTimestampSource.GIT_COMMIT)
+      .build();
+  }
+
+  private static void commitEmpty(
+    final Path directory,
+    final String date)
+    throws Exception
+  {
+    final var builder =
+      new ProcessBuilder(List.of(
+        "git",
+        "-c", "user.name=Test",
+        "-c", "user.email=test@example.com",
+        "-c", "commit.gpgsign=false",
+        "commit", "--quiet", "--allow-empty", "--message", "Empty."
+      ));
+    builder.directory(directory.toFile());
+    builder.environment().put("GIT_AUTHOR_DATE", date);
+    builder.environment().put("GIT_COMMITTER_DATE", date);
+    builder.redirectErrorStream(true);
+    builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+    assertEquals(0, builder.start().waitFor());
+  }
+
+  @Test
+  public void testRequiresDirectory(
+    final @TempDir Path input)
+  {
+    final var builder =
+      SPSites.builder(input, SPOutputs.memory())
+        .setIncremental(true);
+
+    assertThrows(IllegalStateException.class, builder::build);
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of module detection in Maven projects. Module POMs are parsed in
+ * parallel, so these tests declare enough modules that parsing completes
+ * out of order, and check that the results are those of examining the
+ * modules one at a time in declaration order.
+ */
+
+public final class SPSitesModulesTest
+{
+  private static final String GROUP = "com.io7m.example";
+
+  private static final Pattern ARTIFACT =
+    Pattern.compile("%7Ca%3A%22([^%]+)%22");
+
+  /**
+   * Modules are declared in reverse alphabetical order, and two modules of
+   * each kind are declared. The last declared module of each kind wins,
+   * which is not the last module of each kind in sorted order.
+   */
+
+  @RepeatedTest(5)
+  public void testDetectionUsesDeclarationOrder(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    final var declared = new ArrayList<Module>();
+    for (int index = 63; index >= 0; --index) {
+      declared.add(new Module(
+        "m%02d".formatted(index),
+        "%s.m%02d".formatted(GROUP, index)
+      ));
+    }
+
+    declared.add(20, new Module("z-bom", GROUP + ".first.bom"));
+    declared.add(21, new Module("z-doc", GROUP + ".first.documentation"));
+    declared.add(22, new Module("z-spec", GROUP + ".first.specification"));
+    declared.add(new Module("a-bom", GROUP + ".second.bom"));
+    declared.add(new Module("a-doc", GROUP + ".second.documentation"));
+    declared.add(new Module("a-spec", GROUP + ".second.specification"));
+
+    writeProject(input, declared);
+    export(input, output);
+
+    final var index =
+      Files.readString(output.resolve("index.html"), UTF_8);
+
+    assertTrue(index.contains("documentation/index.xhtml"));
+    assertTrue(index.contains("specification/index.xhtml"));
+    assertEquals(List.of(GROUP + ".second.bom"), bomArtifacts(index));
+
+    /*
+     * The module list is ordered by module name, regardless of the order
+     * in which the modules were declared or parsed.
+     */
+
+    final var expected =
+      declared.stream()
+        .sorted((x, y) -> x.name().compareTo(y.name()))
+        .map(Module::artifactId)
+        .toList();
+
+    assertEquals(expected, moduleArtifacts(index));
+  }
+
+  @Test
+  public void testNoSpecialModules(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    writeProject(input, List.of(
+      new Module("core", GROUP + ".core"),
+      new Module("tests", GROUP + ".tests")
+    ));
+    export(input, output);
+
+    final var index =
+      Files.readString(output.resolve("index.html"), UTF_8);
+
+    assertTrue(index.contains("No separate documentation"));
+    assertFalse(index.contains("bill-of-materials"));
+    assertEquals(
+      List.of(GROUP + ".core", GROUP + ".tests"),
+      moduleArtifacts(index)
+    );
+  }
+
+  private record Module(
+    String name,
+    String artifactId)
+  {
+
+  }
+
+  private static void export(
+    final Path input,
+    final Path output)
+    throws Exception
+  {
+    SPSites.builder(input, output)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build()
+      .export();
+  }
+
+  private static List<String> bomArtifacts(
+    final String index)
+  {
+    final var start = index.indexOf("bill-of-materials");
+    assertTrue(start >= 0);
+    return artifacts(
+      index.substring(start, index.indexOf("The project consists of"))
+    );
+  }
+
+  private static List<String> moduleArtifacts(
+    final String index)
+  {
+    return artifacts(
+      index.substring(index.indexOf("The project consists of"))
+    );
+  }
+
+  private static List<String> artifacts(
+    final String section)
+  {
+    final var results = new ArrayList<String>();
+    final var matcher = ARTIFACT.matcher(section);
+    while (matcher.find()) {
+      results.add(matcher.group(1));
+    }
+    return results;
+  }
+
+  private static void writeProject(
+    final Path input,
+    final List<Module> modules)
+    throws IOException
+  {
+    final var generator =
+      SPFixtureGenerator.create()
+        .setName(GROUP)
+        .setModules(0);
+
+    generator.generate(input);
+
+    final var moduleText = new StringBuilder();
+    for (final var module : modules) {
+      moduleText.append("    <module>")
+        .append(module.name())
+        .append("</module>\n");
+
+      final var directory = input.resolve(module.name());
+      Files.createDirectories(directory);
+      Files.writeString(
+        directory.resolve("pom.xml"),
+        """
+          <?xml version="1.0" encoding="UTF-8"?>
+          <project xmlns="http://maven.apache.org/POM/4.0.0">
+            <modelVersion>4.0.0</modelVersion>
+            <parent>
+              <groupId>%1$s</groupId>
+              <artifactId>%1$s</artifactId>
+              <version>%2$s</version>
+            </parent>
+            <artifactId>%3$s</artifactId>
+          </project>
+          """.formatted(GROUP, generator.newestVersion(), module.artifactId()),
+        UTF_8
+      );
+    }
+
+    Files.writeString(
+      input.resolve("pom.xml"),
+      """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <project xmlns="http://maven.apache.org/POM/4.0.0">
+          <modelVersion>4.0.0</modelVersion>
+          <groupId>%1$s</groupId>
+          <artifactId>%1$s</artifactId>
+          <version>%2$s</version>
+          <packaging>pom</packaging>
+          <name>%1$s</name>
+          <description>A generated project.</description>
+          <modules>
+        %3$s  </modules>
+          <scm>
+            <url>https://www.github.com/io7m-com/%1$s</url>
+          </scm>
+          <issueManagement>
+            <url>https://www.github.com/io7m-com/%1$s/issues</url>
+          </issueManagement>
+        </project>
+        """.formatted(GROUP, generator.newestVersion(), moduleText),
+      UTF_8
+    );
+  }
+}
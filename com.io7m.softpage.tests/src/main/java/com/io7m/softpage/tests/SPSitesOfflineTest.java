@@ -0,0 +1,547 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.SPOutputs;
+import com.io7m.softpage.core.SPPublicationExecutors;
+import com.io7m.softpage.core.SPPublicationResultType;
+import com.io7m.softpage.core.SPPublicationSet;
+import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
+import com.io7m.softpage.core.internal.SPPublicationReport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.ZipInputStream;
+
+import static com.io7m.softpage.core.SPArchiveFormat.TAR_GZIP;
+import static com.io7m.softpage.core.SPCheckoutMode.FULL;
+import static com.io7m.softpage.tests.SPFixtureGenerator.Layout.GRADLE;
+import static com.io7m.softpage.tests.SPFixtureGenerator.Layout.MAVEN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests against generated projects. These require no network access. The
+ * tests at scale are only run if the {@code softpage.scaleTests} system
+ * property is {@code true}.
+ */
+
+public final class SPSitesOfflineTest
+{
+  private static final String SCALE_TESTS = "softpage.scaleTests";
+
+  @Test
+  public void testMaven(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    final var generator =
+      SPFixtureGenerator.create()
+        .setLayout(MAVEN)
+        .setModules(8)
+        .setReleases(20);
+
+    generator.generate(input);
+    SPSites.builder(input, output)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build()
+      .export();
+
+    final var text = Files.readString(output.resolve("index.html"), UTF_8);
+    assertTrue(text.contains(generator.newestVersion()));
+    assertTrue(text.contains("com.io7m.example.m0007"));
+    assertTrue(Files.isRegularFile(
+      output.resolve("r03").resolve("file0003.bin")));
+  }
+
+  @Test
+  public void testGradle(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    final var generator =
+      SPFixtureGenerator.create()
+        .setLayout(GRADLE)
+        .setModules(8)
+        .setReleases(20);
+
+    generator.generate(input);
+    SPSites.builder(input, output)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build()
+      .export();
+
+    final var text = Files.readString(output.resolve("index.html"), UTF_8);
+    assertTrue(text.contains(generator.newestVersion()));
+    assertTrue(text.contains("com.io7m.example.m0007"));
+  }
+
+  @Test
+  public void testReproducible(
+    final @TempDir Path input,
+    final @TempDir Path output0,
+    final @TempDir Path output1)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    for (final var output : List.of(output0, output1)) {
+      SPSites.builder(input, output)
+        .setTimestampSource(SPTimestampSource.CHANGELOG)
+        .build()
+        .export();
+    }
+
+    assertEquals(
+      Files.readString(output0.resolve("index.html")),
+      Files.readString(output1.resolve("index.html"))
+    );
+  }
+
+  @Test
+  public void testMemory(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    SPSites.builder(input, output)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build()
+      .export();
+
+    final var memory = SPOutputs.memory();
+    final var site =
+      SPSites.builder(input, memory)
+        .setTimestampSource(SPTimestampSource.CHANGELOG)
+        .build();
+
+    site.export();
+    final var index = memory.get("index.html").orElseThrow();
+    assertArrayEquals(
+      Files.readAllBytes(output.resolve("index.html")),
+      index.data()
+    );
+    assertTrue(memory.names().contains("style.css"));
+    assertTrue(memory.names().contains("r03/file0003.bin"));
+
+    site.export();
+    assertSame(index, memory.get("index.html").orElseThrow());
+  }
+
+  @Test
+  public void testZip(
+    final @TempDir Path input)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    final var memory = SPOutputs.memory();
+    SPSites.builder(input, memory)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build()
+      .export();
+
+    final var bytes = new ByteArrayOutputStream();
+    SPSites.builder(input, memory)
+      .setOutput(SPOutputs.zip(bytes))
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build()
+      .export();
+
+    final var names = new ArrayList<String>();
+    try (var zip =
+           new ZipInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      for (var entry = zip.getNextEntry();
+           entry != null;
+           entry = zip.getNextEntry()) {
+        if (entry.isDirectory()) {
+          continue;
+        }
+        names.add(entry.getName());
+        assertArrayEquals(
+          memory.get(entry.getName()).orElseThrow().data(),
+          zip.readAllBytes()
+        );
+      }
+    }
+
+    assertEquals(List.copyOf(memory.names()), names);
+  }
+
+  /**
+   * Files that are not stamped with the site timestamp are given a fixed
+   * time in archives, rather than the time of the export.
+   */
+
+  @Test
+  public void testArchiveUnstamped(
+    final @TempDir Path input)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    final var bytes = new ByteArrayOutputStream();
+    SPSites.builder(input, SPOutputs.zip(bytes))
+      .setTimestampSource(SPTimestampSource.CURRENT_TIME)
+      .build()
+      .export();
+
+    var count = 0;
+    try (var zip =
+           new ZipInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      for (var entry = zip.getNextEntry();
+           entry != null;
+           entry = zip.getNextEntry()) {
+        assertEquals(
+          LocalDateTime.parse("1980-01-01T00:00:00"),
+          entry.getTimeLocal(),
+          entry.getName()
+        );
+        ++count;
+      }
+    }
+    assertTrue(count > 0);
+  }
+
+  @Test
+  public void testArchiveReproducible(
+    final @TempDir Path input)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    final var archives = new ArrayList<byte[]>();
+    for (int index = 0; index < 2; ++index) {
+      final var bytes = new ByteArrayOutputStream();
+      SPSites.builder(input, SPOutputs.archive(TAR_GZIP, bytes))
+        .setTimestampSource(SPTimestampSource.CHANGELOG)
+        .build()
+        .export();
+      archives.add(bytes.toByteArray());
+
+      Files.setLastModifiedTime(
+        input.resolve("src/site/resources/r00/file0000.bin"),
+        FileTime.from(Instant.now())
+      );
+    }
+
+    assertEquals((byte) 0x1f, archives.get(0)[0]);
+    assertEquals((byte) 0x8b, archives.get(0)[1]);
+    assertArrayEquals(archives.get(0), archives.get(1));
+  }
+
+  @Test
+  public void testArchivePages(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .setReleases(45)
+      .generate(input);
+
+    SPSites.builder(input, output)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .build()
+      .export();
+
+    final var index = Files.readString(output.resolve("index.html"));
+    final var page1 = Files.readString(output.resolve("releases-1.html"));
+    final var page2 = Files.readString(output.resolve("releases-2.html"));
+    assertFalse(Files.exists(output.resolve("releases-3.html")));
+
+    assertEquals(20, releasesIn(index));
+    assertEquals(20, releasesIn(page1));
+    assertEquals(5, releasesIn(page2));
+    assertTrue(index.contains(" 0.44.0</td>"));
+    assertTrue(index.contains("href=\"releases-2.html\""));
+    assertTrue(page1.contains(" 0.24.0</td>"));
+    assertTrue(page2.contains(" 0.0.0</td>"));
+
+    SPSites.builder(input, output)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .setReleasesPerPage(30)
+      .build()
+      .export();
+
+    assertEquals(
+      30,
+      releasesIn(Files.readString(output.resolve("index.html")))
+    );
+    assertEquals(
+      15,
+      releasesIn(Files.readString(output.resolve("releases-1.html")))
+    );
+    assertFalse(Files.exists(output.resolve("releases-2.html")));
+  }
+
+  private static int releasesIn(
+    final String page)
+  {
+    return page.split("<td>Release: ", -1).length - 1;
+  }
+
+  @Test
+  public void testWatch(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    final var site =
+      SPSites.builder(input, output)
+        .setTimestampSource(SPTimestampSource.CHANGELOG)
+        .build();
+
+    final var failure = new AtomicReference<Throwable>();
+    final var thread = Thread.ofVirtual().start(() -> {
+      try {
+        site.watch(Duration.ofMillis(50L));
+      } catch (final InterruptedException e) {
+        // The watch has been stopped.
+      } catch (final Throwable e) {
+        failure.set(e);
+      }
+    });
+
+    try {
+      final var index = output.resolve("index.html");
+      final var style = output.resolve("style.css");
+      waitFor(() -> Files.isRegularFile(style));
+      final var styleTime = Files.getLastModifiedTime(style);
+
+      Files.writeString(
+        input.resolve("README.in"),
+        "# Watched\n\nThe watched README.\n"
+      );
+      waitFor(() -> Files.readString(index).contains("The watched README."));
+
+      assertEquals(styleTime, Files.getLastModifiedTime(style));
+    } finally {
+      thread.interrupt();
+      thread.join();
+    }
+    assertNull(failure.get());
+  }
+
+  @Test
+  public void testWatchConfigurationKeyRemoved(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+
+    final var site =
+      SPSites.builder(input, output)
+        .setTimestampSource(SPTimestampSource.CHANGELOG)
+        .build();
+
+    final var failure = new AtomicReference<Throwable>();
+    final var thread = Thread.ofVirtual().start(() -> {
+      try {
+        site.watch(Duration.ofMillis(50L));
+      } catch (final InterruptedException e) {
+        // The watch has been stopped.
+      } catch (final Throwable e) {
+        failure.set(e);
+      }
+    });
+
+    try {
+      final var index = output.resolve("index.html");
+      waitFor(() -> Files.isRegularFile(index));
+      assertFalse(Files.readString(index).contains("alt=\"Codecov\""));
+
+      Files.writeString(
+        input.resolve("src")
+          .resolve("site")
+          .resolve("resources")
+          .resolve("softpage.properties"),
+        "softpage.release_source = MAVEN_CENTRAL\n"
+      );
+      waitFor(() -> Files.readString(index).contains("alt=\"Codecov\""));
+    } finally {
+      thread.interrupt();
+      thread.join();
+    }
+    assertNull(failure.get());
+  }
+
+  private interface ConditionType
+  {
+    boolean holds()
+      throws IOException;
+  }
+
+  private static void waitFor(
+    final ConditionType condition)
+    throws Exception
+  {
+    final var deadline = System.nanoTime() + 10_000_000_000L;
+    while (!condition.holds()) {
+      assertTrue(System.nanoTime() < deadline, "Timed out");
+      Thread.sleep(10L);
+    }
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = SCALE_TESTS, matches = "true")
+  public void testScaleModulesReleases(
+    final @TempDir Path input,
+    final @TempDir Path output)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .setModules(1_000)
+      .setReleases(10_000)
+      .setChangesPerRelease(1)
+      .setReadmeSize(1_000_000)
+      .setResources(1_000, 16_384)
+      .generate(input);
+
+    SPSites.builder(input, output)
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .setReleasesPerPage(100)
+      .build()
+      .export();
+
+    assertTrue(Files.isRegularFile(output.resolve("releases-99.html")));
+  }
+
+  @Test
+  public void testPublication(
+    final @TempDir Path repositories,
+    final @TempDir Path work,
+    final @TempDir Path target)
+    throws Exception
+  {
+    publish(repositories, work, target, 4);
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = SCALE_TESTS, matches = "true")
+  public void testScalePublication(
+    final @TempDir Path repositories,
+    final @TempDir Path work,
+    final @TempDir Path target)
+    throws Exception
+  {
+    publish(repositories, work, target, 1_000);
+  }
+
+  private static void publish(
+    final Path repositories,
+    final Path work,
+    final Path target,
+    final int count)
+    throws Exception
+  {
+    assumeTrue(commandExists("rsync"), "rsync is required");
+
+    final var projects = new ArrayList<SPPublicationSet.Project>(count);
+    for (int index = 0; index < count; ++index) {
+      final var name = "p%04d".formatted(Integer.valueOf(index));
+      final var bare =
+        SPFixtureGenerator.create()
+          .setName("com.io7m.%s".formatted(name))
+          .generateGitRepository(repositories);
+
+      projects.add(new SPPublicationSet.Project(name, bare.toUri()));
+    }
+
+    final var publicationSet =
+      new SPPublicationSet(
+        work, 8, target.toString(), projects, FULL, false);
+
+    try (var executor = SPPublicationExecutors.create(publicationSet)) {
+      final var results = executor.execute();
+      assertEquals(count, results.size());
+      for (final var result : results.values()) {
+        if (result instanceof final SPPublicationResultType.Failed failed) {
+          throw failed.exception();
+        }
+        assertTrue(result.metrics().bytesCloned() > 0L);
+        assertTrue(result.metrics().bytesRendered() > 0L);
+      }
+
+      final var report =
+        SPPublicationReport.of(OffsetDateTime.now(), results);
+      final var metricsFile =
+        work.resolve("publication.prom");
+
+      report.writeOpenMetrics(metricsFile);
+      assertTrue(Files.readString(metricsFile).endsWith("# EOF\n"));
+    }
+
+    for (final var project : projects) {
+      assertTrue(Files.isRegularFile(
+        target.resolve(project.name()).resolve("index.html")));
+    }
+  }
+
+  static boolean commandExists(
+    final String command)
+  {
+    try {
+      final var process =
+        new ProcessBuilder(command, "--version")
+          .redirectErrorStream(true)
+          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+          .start();
+      return process.waitFor() == 0;
+    } catch (final IOException e) {
+      return false;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPOutputs;
+import com.io7m.softpage.core.SPSites;
+import com.io7m.softpage.core.SPTimestampSource;
+import com.io7m.softpage.core.internal.SPTaskScope;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SPTaskScopeTest
+{
+  private static SPException failure(
+    final String errorCode)
+  {
+    return new SPException(
+      "Failed: " + errorCode,
+      errorCode,
+      Map.of(),
+      Optional.empty()
+    );
+  }
+
+  private static void awaitDone(
+    final List<? extends Future<?>> futures)
+    throws InterruptedException
+  {
+    while (!futures.stream().allMatch(Future::isDone)) {
+      Thread.sleep(1L);
+    }
+  }
+
+  @Test
+  public void testResults()
+    throws Exception
+  {
+    try (var scope = new SPTaskScope()) {
+      final var futures = new ArrayList<Future<Integer>>();
+      for (int index = 0; index < 100; ++index) {
+        final var value = Integer.valueOf(index);
+        futures.add(scope.fork(() -> value));
+      }
+      scope.join();
+
+      for (int index = 0; index < 100; ++index) {
+        assertEquals(index, futures.get(index).resultNow().intValue());
+      }
+    }
+  }
+
+  @Test
+  public void testFailureCancelsOthers()
+    throws Exception
+  {
+    final var started = new CountDownLatch(1);
+    final var interrupted = new AtomicBoolean();
+    final var expected = failure("error-first");
+
+    final Future<Object> waiting;
+    try (var scope = new SPTaskScope()) {
+      waiting = scope.fork(() -> {
+        started.countDown();
+        try {
+          Thread.sleep(60_000L);
+        } catch (final InterruptedException e) {
+          interrupted.set(true);
+          throw e;
+        }
+        return null;
+      });
+      scope.fork(() -> {
+        started.await();
+        throw expected;
+      });
+
+      final var ex = assertThrows(SPException.class, scope::join);
+      assertSame(expected, ex);
+    }
+
+    assertTrue(waiting.isCancelled());
+    assertTrue(interrupted.get());
+  }
+
+  @Test
+  public void testLaterFailuresSuppressed()
+    throws Exception
+  {
+    try (var scope = new SPTaskScope()) {
+      final var futures = List.of(
+        scope.fork(() -> {
+          throw failure("error-0");
+        }),
+        scope.fork(() -> {
+          throw failure("error-1");
+        }),
+        scope.fork(() -> {
+          throw failure("error-2");
+        })
+      );
+
+      /*
+       * Every task has failed before the scope sees the first failure, so
+       * none of them can be cancelled.
+       */
+
+      awaitDone(futures);
+
+      final var ex = assertThrows(SPException.class, scope::join);
+      final var codes = new ArrayList<String>();
+      codes.add(ex.errorCode());
+      for (final var suppressed : ex.getSuppressed()) {
+        codes.add(((SPException) suppressed).errorCode());
+      }
+      codes.sort(null);
+      assertEquals(List.of("error-0", "error-1", "error-2"), codes);
+    }
+  }
+
+  @Test
+  public void testParallelismBound()
+    throws Exception
+  {
+    final var running = new AtomicInteger();
+    final var maximum = new AtomicInteger();
+
+    try (var scope = new SPTaskScope(3)) {
+      for (int index = 0; index < 30; ++index) {
+        scope.fork(() -> {
+          final var now = running.incrementAndGet();
+          maximum.accumulateAndGet(now, Math::max);
+          try {
+            Thread.sleep(5L);
+          } finally {
+            running.decrementAndGet();
+          }
+          return null;
+        });
+      }
+      scope.join();
+    }
+
+    assertTrue(maximum.get() <= 3, "At most 3 tasks ran at once");
+    assertTrue(maximum.get() >= 2, "Tasks ran concurrently");
+  }
+
+  /**
+   * An export that fails in a forked task fails with the error code of the
+   * original exception, rather than a wrapped execution exception.
+   */
+
+  @Test
+  public void testExportFailureCode(
+    final @TempDir Path input)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .generate(input);
+    Files.writeString(input.resolve("README-CHANGES.xml"), "<c:changelog");
+
+    final var site =
+      SPSites.builder(input, SPOutputs.memory())
+        .setTimestampSource(SPTimestampSource.CHANGELOG)
+        .build();
+
+    final var ex = assertThrows(SPException.class, site::export);
+    assertEquals("error-changelog-invalid", ex.errorCode());
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2025 Mark Raynsford <code@io7m.com> https://www.io7m.com
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any
+ * purpose with or without fee is hereby granted, provided that the above
+ * copyright notice and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES
+ * WITH REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF
+ * MERCHANTABILITY AND FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY
+ * SPECIAL, DIRECT, INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES
+ * WHATSOEVER RESULTING FROM LOSS OF USE, DATA OR PROFITS, WHETHER IN AN
+ * ACTION OF CONTRACT, NEGLIGENCE OR OTHER TORTIOUS ACTION, ARISING OUT OF OR
+ * IN CONNECTION WITH THE USE OR PERFORMANCE OF THIS SOFTWARE.
+ */
+
+
+
+package com.io7m.softpage.tests;
+
+import com.io7m.softpage.core.SPException;
+import com.io7m.softpage.core.SPOutputs;
+import com.io7m.softpage.core.SPTimestampSource;
+import com.io7m.softpage.core.internal.SPSite;
+import com.io7m.softpage.core.internal.SPSiteServices;
+import com.io7m.softpage.core.internal.SPTemplates;
+import freemarker.template.Template;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class SPTemplatesTest
+{
+  private static final int THREADS = 16;
+
+  @Test
+  public void testSameInstance()
+    throws Exception
+  {
+    final var templates = SPTemplates.create();
+    final var start = new CountDownLatch(1);
+    final var results = new ArrayList<Future<Template>>();
+    try (var executor = Executors.newFixedThreadPool(THREADS)) {
+      for (int thread = 0; thread < THREADS; ++thread) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return templates.template("main.ftlx");
+        }));
+      }
+      start.countDown();
+
+      final var first = results.get(0).get();
+      for (final var result : results) {
+        assertSame(first, result.get());
+      }
+      assertSame(first, templates.template("main.ftlx"));
+      assertNotSame(first, templates.template("archive.ftlx"));
+    }
+  }
+
+  @Test
+  public void testMissing()
+  {
+    final var templates = SPTemplates.create();
+    assertThrows(SPException.class, () -> {
+      templates.template("nonexistent.ftlx");
+    });
+  }
+
+  @Test
+  public void testSitesConcurrent(
+    final @TempDir Path input0,
+    final @TempDir Path input1,
+    final @TempDir Path expected0,
+    final @TempDir Path expected1,
+    final @TempDir Path output0,
+    final @TempDir Path output1)
+    throws Exception
+  {
+    SPFixtureGenerator.create()
+      .setName("com.io7m.first")
+      .setModules(2)
+      .setReleases(40)
+      .generate(input0);
+    SPFixtureGenerator.create()
+      .setName("com.io7m.second")
+      .setModules(6)
+      .setReleases(60)
+      .generate(input1);
+
+    export(SPSiteServices.create(), input0, expected0);
+    export(SPSiteServices.create(), input1, expected1);
+
+    final var services = SPSiteServices.create();
+    final var template = services.templates().template("main.ftlx");
+    final var start = new CountDownLatch(1);
+    try (var executor = Executors.newFixedThreadPool(2)) {
+      final var first = executor.submit(() -> {
+        start.await();
+        export(services, input0, output0);
+        return services.templates().template("main.ftlx");
+      });
+      final var second = executor.submit(() -> {
+        start.await();
+        export(services, input1, output1);
+        return services.templates().template("main.ftlx");
+      });
+      start.countDown();
+
+      assertSame(template, first.get());
+      assertSame(template, second.get());
+    }
+
+    assertSameFiles(expected0, output0);
+    assertSameFiles(expected1, output1);
+  }
+
+  private static void export(
+    final SPSiteServices services,
+    final Path input,
+    final Path output)
+    throws SPException
+  {
+    SPSite.builder(services, input, SPOutputs.directory(output))
+      .setTimestampSource(SPTimestampSource.CHANGELOG)
+      .setReleasesPerPage(10)
+      .build()
+      .export();
+  }
+
+  private static void assertSameFiles(
+    final Path expected,
+    final Path received)
+    throws Exception
+  {
+    final var pages = pages(expected);
+    assertEquals(pages, pages(received));
+    assertTrue(pages.size() > 1);
+    for (final var page : pages) {
+      assertEquals(
+        Files.readString(expected.resolve(page), UTF_8),
+        Files.readString(received.resolve(page), UTF_8),
+        page
+      );
+    }
+  }
+
+  private static List<String> pages(
+    final Path directory)
+    throws Exception
+  {
+    try (var files = Files.list(directory)) {
+      return files.map(path -> path.getFileName().toString())
+        .filter(name -> name.endsWith(".html"))
+        .sorted()
+        .toList();
+    }
+  }
+}
@@ -28,5 +28,14 @@ open module com.io7m.softpage.tests
 
   requires com.io7m.softpage.core;
   requires com.io7m.softpage.cmdline;
+  requires java.net.http;
+  requires jdk.jfr;
+  requires maven.model.helper;
+  requires maven.model;
+  requires flexmark.ext.tables;
+  requires flexmark.util.data;
+  requires flexmark.util.misc;
+  requires flexmark;
+  requires freemarker;
   requires org.slf4j;
 }